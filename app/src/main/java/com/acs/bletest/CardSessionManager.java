@@ -0,0 +1,227 @@
+/*
+ * Copyright (C) 2026 Advanced Card Systems Ltd. All rights reserved.
+ *
+ * This software is the confidential and proprietary information of Advanced
+ * Card Systems Ltd. ("Confidential Information").  You shall not disclose such
+ * Confidential Information and shall use it only in accordance with the terms
+ * of the license agreement you entered into with ACS.
+ */
+
+package com.acs.bletest;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.smartcardio.Card;
+import javax.smartcardio.CardChannel;
+import javax.smartcardio.CardException;
+import javax.smartcardio.CardTerminal;
+
+/**
+ * The {@code CardSessionManager} class is a singleton that keeps the connected card and its basic
+ * channel for each card terminal so that the script runs can reuse them without connecting and
+ * powering the card again.  The session must be closed when the card is removed.
+ *
+ * @author Godfrey Chung
+ * @version 1.0, 17 Oct 2026
+ * @since 0.6
+ */
+public final class CardSessionManager {
+
+    /**
+     * The {@code Session} class stores the connected card of a card terminal.
+     */
+    public static final class Session {
+
+        private final CardTerminal mTerminal;
+        private final String mProtocol;
+        private final Card mCard;
+        private final CardChannel mChannel;
+        private final byte[] mAtr;
+
+        /**
+         * Creates an instance of {@code Session}.
+         *
+         * @param terminal the card terminal
+         * @param protocol the requested protocol
+         * @param card     the card
+         */
+        Session(CardTerminal terminal, String protocol, Card card) {
+
+            mTerminal = terminal;
+            mProtocol = protocol;
+            mCard = card;
+            mChannel = card.getBasicChannel();
+            mAtr = card.getATR().getBytes();
+        }
+
+        /**
+         * Returns the card terminal.
+         *
+         * @return the card terminal
+         */
+        public CardTerminal getTerminal() {
+            return mTerminal;
+        }
+
+        /**
+         * Returns the protocol requested when the card was connected.
+         *
+         * @return the protocol
+         */
+        public String getProtocol() {
+            return mProtocol;
+        }
+
+        /**
+         * Returns the card.
+         *
+         * @return the card
+         */
+        public Card getCard() {
+            return mCard;
+        }
+
+        /**
+         * Returns the basic channel of the card.
+         *
+         * @return the basic channel
+         */
+        public CardChannel getChannel() {
+            return mChannel;
+        }
+
+        /**
+         * Returns the ATR.  The returned array is shared and must not be modified.
+         *
+         * @return the ATR
+         */
+        public byte[] getAtr() {
+            return mAtr;
+        }
+    }
+
+    private static final CardSessionManager INSTANCE = new CardSessionManager();
+    private final Map<String, Session> mSessions = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Object> mLocks = new ConcurrentHashMap<>();
+
+    /**
+     * Creates an instance of {@code CardSessionManager}.
+     */
+    private CardSessionManager() {
+    }
+
+    /**
+     * Returns the instance of {@code CardSessionManager}.
+     *
+     * @return the instance
+     */
+    public static CardSessionManager getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the session of the card terminal.
+     *
+     * @param terminal the card terminal
+     * @return the session or {@code null} if the card is not connected
+     */
+    public Session getSession(CardTerminal terminal) {
+
+        if (terminal == null) {
+            throw new IllegalArgumentException("Terminal must not be null");
+        }
+
+        return mSessions.get(terminal.getName());
+    }
+
+    /**
+     * Opens the session of the card terminal.  The existing session is returned if it is
+     * connected with the same protocol.  Otherwise, the existing session is closed and the card is
+     * connected again.
+     *
+     * @param terminal the card terminal
+     * @param protocol the protocol
+     * @return the session
+     * @throws CardException if the card cannot be connected
+     */
+    public Session open(CardTerminal terminal, String protocol) throws CardException {
+
+        if (terminal == null) {
+            throw new IllegalArgumentException("Terminal must not be null");
+        }
+
+        if (protocol == null) {
+            throw new IllegalArgumentException("Protocol must not be null");
+        }
+
+        synchronized (getLock(terminal)) {
+
+            Session session = mSessions.get(terminal.getName());
+            if ((session != null) && session.getProtocol().equals(protocol)) {
+                return session;
+            }
+
+            /* Close the session with different protocol. */
+            close(terminal);
+
+            /* Connect to the card. */
+            session = new Session(terminal, protocol, terminal.connect(protocol));
+            mSessions.put(terminal.getName(), session);
+
+            return session;
+        }
+    }
+
+    /**
+     * Closes the session of the card terminal and disconnects the card.  This method can be
+     * called from any thread, e.g. when the card is removed.
+     *
+     * @param terminal the card terminal
+     */
+    public void close(CardTerminal terminal) {
+
+        if (terminal == null) {
+            throw new IllegalArgumentException("Terminal must not be null");
+        }
+
+        Session session = mSessions.remove(terminal.getName());
+        if (session != null) {
+            try {
+                session.getCard().disconnect(false);
+            } catch (CardException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Closes all sessions.
+     */
+    public void closeAll() {
+        for (Session session : mSessions.values()) {
+            close(session.getTerminal());
+        }
+    }
+
+    /**
+     * Returns the lock of the card terminal.
+     *
+     * @param terminal the card terminal
+     * @return the lock
+     */
+    private Object getLock(CardTerminal terminal) {
+
+        Object lock = mLocks.get(terminal.getName());
+        if (lock == null) {
+
+            lock = new Object();
+            Object prevLock = mLocks.putIfAbsent(terminal.getName(), lock);
+            if (prevLock != null) {
+                lock = prevLock;
+            }
+        }
+
+        return lock;
+    }
+}
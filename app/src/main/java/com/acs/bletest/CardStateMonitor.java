@@ -11,8 +11,14 @@ package com.acs.bletest;
 
 import android.util.Log;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.smartcardio.CardException;
 import javax.smartcardio.CardTerminal;
@@ -21,8 +27,13 @@ import javax.smartcardio.CardTerminal;
  * The {@code CardStateMonitor} class is a singleton that monitors the card state of the card
  * terminal.
  *
+ * <p>In {@link #MODE_THREAD_PER_TERMINAL} mode, each terminal is monitored by its own thread
+ * which is terminated on {@link #pause()} and recreated on {@link #resume()}.  In
+ * {@link #MODE_SHARED_SCHEDULER} mode, all terminals are polled by a small shared scheduler
+ * whose threads are kept alive across {@link #pause()} and {@link #resume()}.</p>
+ *
  * @author Godfrey Chung
- * @version 1.0, 6 Feb 2020
+ * @version 1.1, 17 Oct 2026
  * @since 0.5.1
  */
 public final class CardStateMonitor {
@@ -36,6 +47,20 @@ public final class CardStateMonitor {
     /** The card state is present. */
     public static final int CARD_STATE_PRESENT = 2;
 
+    /**
+     * Each terminal is monitored by its own thread.
+     *
+     * @since 0.6
+     */
+    public static final int MODE_THREAD_PER_TERMINAL = 0;
+
+    /**
+     * All terminals are polled by a shared scheduler.
+     *
+     * @since 0.6
+     */
+    public static final int MODE_SHARED_SCHEDULER = 1;
+
     /**
      * Interface definition for a callback to be invoked when the card is inserted or removed.
      */
@@ -102,10 +127,7 @@ public final class CardStateMonitor {
 
                 /* Report the current state if the state is changed. */
                 if (currState != prevState) {
-                    if (mOnStateChangeListener != null) {
-                        mOnStateChangeListener.onStateChange(CardStateMonitor.this, mTerminal,
-                                prevState, currState);
-                    }
+                    reportState(mTerminal, prevState, currState);
                 }
 
                 /* Update the previous state. */
@@ -143,11 +165,80 @@ public final class CardStateMonitor {
         }
     }
 
+    /**
+     * The {@code CardPollingTask} class polls the card state of a terminal on the shared
+     * scheduler and reports the state.
+     */
+    private class CardPollingTask implements Runnable {
+
+        private CardTerminal mTerminal;
+        private int mPrevState = CARD_STATE_UNKNOWN;
+
+        /**
+         * Creates an instance of {@code CardPollingTask}.
+         *
+         * @param terminal the card terminal
+         */
+        public CardPollingTask(CardTerminal terminal) {
+
+            if (terminal == null) {
+                throw new IllegalArgumentException("Terminal must not be null");
+            }
+
+            mTerminal = terminal;
+        }
+
+        @Override
+        public void run() {
+
+            /* Skip the polling if the monitor is paused. */
+            if (mPaused) {
+                return;
+            }
+
+            /* Get the current state. */
+            int currState;
+            try {
+
+                currState = mTerminal.isCardPresent() ? CARD_STATE_PRESENT : CARD_STATE_ABSENT;
+
+            } catch (CardException e) {
+
+                currState = CARD_STATE_UNKNOWN;
+
+            } catch (RuntimeException e) {
+
+                /* Keep the task scheduled on the unexpected exception. */
+                Log.e(TAG, "Polling failed: " + mTerminal.getName(), e);
+                currState = CARD_STATE_UNKNOWN;
+            }
+
+            /* Report the current state if the state is changed. */
+            if (currState != mPrevState) {
+                try {
+                    reportState(mTerminal, mPrevState, currState);
+                } catch (RuntimeException e) {
+                    Log.e(TAG, "Listener failed: " + mTerminal.getName(), e);
+                }
+            }
+
+            /* Update the previous state. */
+            mPrevState = currState;
+        }
+    }
+
     private static final String TAG = "CardStateMonitor";
     private static final CardStateMonitor INSTANCE = new CardStateMonitor();
-    private Map<String, CardTerminal> mTerminals = new HashMap<>();
-    private Map<String, Thread> mThreads = new HashMap<>();
-    private OnStateChangeListener mOnStateChangeListener;
+    private static final int NUM_SCHEDULER_THREADS = 2;
+    private final Map<String, CardTerminal> mTerminals = new ConcurrentHashMap<>();
+    private final Map<String, Thread> mThreads = new ConcurrentHashMap<>();
+    private final Map<String, ScheduledFuture<?>> mTasks = new ConcurrentHashMap<>();
+    private final Map<String, Integer> mStates = new ConcurrentHashMap<>();
+    private volatile OnStateChangeListener mOnStateChangeListener;
+    private volatile int mMode = MODE_THREAD_PER_TERMINAL;
+    private volatile long mPollingInterval = 250;
+    private volatile boolean mPaused;
+    private ScheduledExecutorService mScheduler;
 
     /**
      * Creates an instance of {@code CardStateMonitor}.
@@ -189,67 +280,131 @@ public final class CardStateMonitor {
     }
 
     /**
-     * Adds the terminal to the monitor.
+     * Returns the last reported card state of the terminal.
      *
-     * @param terminal the terminal
+     * @param terminal the card terminal
+     * @return the card state or {@link #CARD_STATE_UNKNOWN} if the terminal is not monitored
+     * @since 0.6
      */
-    public void addTerminal(CardTerminal terminal) {
-        if (!isTerminalEnabled(terminal)) {
+    public int getCardState(CardTerminal terminal) {
+
+        if (terminal == null) {
+            throw new IllegalArgumentException("Terminal must not be null");
+        }
+
+        Integer state = mStates.get(terminal.getName());
+        return (state == null) ? CARD_STATE_UNKNOWN : state;
+    }
+
+    /**
+     * Returns the monitor mode.
+     *
+     * @return the monitor mode
+     * @since 0.6
+     */
+    public int getMode() {
+        return mMode;
+    }
+
+    /**
+     * Sets the monitor mode.  The mode can be changed only if no terminal is added.
+     *
+     * @param mode the monitor mode: {@link #MODE_THREAD_PER_TERMINAL} or
+     *             {@link #MODE_SHARED_SCHEDULER}
+     * @throws IllegalStateException if the mode is changed while terminals are added
+     * @since 0.6
+     */
+    public synchronized void setMode(int mode) {
+
+        if ((mode != MODE_THREAD_PER_TERMINAL) && (mode != MODE_SHARED_SCHEDULER)) {
+            throw new IllegalArgumentException("Invalid mode");
+        }
+
+        if (mode != mMode) {
+
+            if (!mTerminals.isEmpty()) {
+                throw new IllegalStateException("Terminals must be removed before changing mode");
+            }
 
-            /* Create a thread for card detection. */
-            Thread thread = new Thread(new CardDetectionRunnable(terminal));
+            mMode = mode;
+        }
+    }
+
+    /**
+     * Sets the polling interval in milliseconds of {@link #MODE_SHARED_SCHEDULER} mode.  The new
+     * interval applies to the terminals added afterwards.
+     *
+     * @param pollingInterval the polling interval in milliseconds
+     * @since 0.6
+     */
+    public void setPollingInterval(long pollingInterval) {
 
-            /* Store the thread. */
-            mThreads.put(terminal.getName(), thread);
+        if (pollingInterval <= 0) {
+            throw new IllegalArgumentException("Polling interval must be positive");
+        }
+
+        mPollingInterval = pollingInterval;
+    }
+
+    /**
+     * Adds the terminal to the monitor.  This method can be called from any thread.
+     *
+     * @param terminal the terminal
+     */
+    public synchronized void addTerminal(CardTerminal terminal) {
+        if (!isTerminalEnabled(terminal)) {
 
             /* Store the terminal. */
             mTerminals.put(terminal.getName(), terminal);
 
             /* Start the card detection. */
-            thread.start();
+            if (mMode == MODE_SHARED_SCHEDULER) {
+                scheduleTask(terminal);
+            } else if (!mPaused) {
+                startThread(terminal);
+            }
         }
     }
 
     /**
-     * Removes the terminal from the monitor.
+     * Removes the terminal from the monitor.  This method can be called from any thread.
      *
      * @param terminal the terminal
      */
-    public void removeTerminal(CardTerminal terminal) {
+    public synchronized void removeTerminal(CardTerminal terminal) {
         if (isTerminalEnabled(terminal)) {
 
             /* Terminate the thread. */
-            Thread thread = mThreads.get(terminal.getName());
+            Thread thread = mThreads.remove(terminal.getName());
             if (thread != null) {
                 thread.interrupt();
             }
 
-            /* Remove the thread. */
-            mThreads.remove(terminal.getName());
+            /* Cancel the task. */
+            ScheduledFuture<?> task = mTasks.remove(terminal.getName());
+            if (task != null) {
+                task.cancel(false);
+            }
 
             /* Remove the terminal. */
             mTerminals.remove(terminal.getName());
+            mStates.remove(terminal.getName());
         }
     }
 
     /**
      * Resumes the operation.
      */
-    public void resume() {
-        for (Map.Entry<String, Thread> entry : mThreads.entrySet()) {
-
-            CardTerminal terminal = mTerminals.get(entry.getKey());
-            Thread thread = entry.getValue();
-            if (thread == null) {
+    public synchronized void resume() {
 
-                /* Create a thread for card detection. */
-                thread = new Thread(new CardDetectionRunnable(terminal));
+        mPaused = false;
 
-                /* Store the thread. */
-                entry.setValue(thread);
-
-                /* Start the thread. */
-                thread.start();
+        /* Recreate the threads. */
+        if (mMode == MODE_THREAD_PER_TERMINAL) {
+            for (CardTerminal terminal : mTerminals.values()) {
+                if (!mThreads.containsKey(terminal.getName())) {
+                    startThread(terminal);
+                }
             }
         }
     }
@@ -257,18 +412,83 @@ public final class CardStateMonitor {
     /**
      * Pauses the operation.
      */
-    public void pause() {
-        for (Map.Entry<String, Thread> entry : mThreads.entrySet()) {
+    public synchronized void pause() {
 
-            Thread thread = entry.getValue();
-            if (thread != null) {
+        mPaused = true;
 
-                /* Terminate the thread. */
+        /* Terminate the threads.  The shared scheduler skips polling instead. */
+        if (mMode == MODE_THREAD_PER_TERMINAL) {
+            for (Thread thread : mThreads.values()) {
                 thread.interrupt();
-
-                /* Set the thread to null. */
-                entry.setValue(null);
             }
+
+            mThreads.clear();
+        }
+    }
+
+    /**
+     * Creates and starts a thread for card detection.
+     *
+     * @param terminal the terminal
+     */
+    private void startThread(CardTerminal terminal) {
+
+        /* Create a thread for card detection. */
+        Thread thread = new Thread(new CardDetectionRunnable(terminal));
+
+        /* Store the thread. */
+        mThreads.put(terminal.getName(), thread);
+
+        /* Start the thread. */
+        thread.start();
+    }
+
+    /**
+     * Schedules a polling task on the shared scheduler.
+     *
+     * @param terminal the terminal
+     */
+    private void scheduleTask(CardTerminal terminal) {
+
+        /* Create the shared scheduler. */
+        if (mScheduler == null) {
+            mScheduler = Executors.newScheduledThreadPool(NUM_SCHEDULER_THREADS,
+                    new ThreadFactory() {
+
+                        private final AtomicInteger mCount = new AtomicInteger();
+
+                        @Override
+                        public Thread newThread(Runnable r) {
+
+                            Thread thread = new Thread(r, TAG + "-" + mCount.incrementAndGet());
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+        }
+
+        /* Store the task. */
+        mTasks.put(terminal.getName(), mScheduler.scheduleWithFixedDelay(
+                new CardPollingTask(terminal), 0, mPollingInterval, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Reports the state to the listener.
+     *
+     * @param terminal  the terminal
+     * @param prevState the previous state
+     * @param currState the current state
+     */
+    private void reportState(CardTerminal terminal, int prevState, int currState) {
+
+        /* Store the state if the terminal is still monitored. */
+        if (mTerminals.containsKey(terminal.getName())) {
+            mStates.put(terminal.getName(), currState);
+        }
+
+        OnStateChangeListener listener = mOnStateChangeListener;
+        if (listener != null) {
+            listener.onStateChange(this, terminal, prevState, currState);
         }
     }
 }
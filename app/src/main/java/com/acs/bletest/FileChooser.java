@@ -12,6 +12,7 @@ import android.app.Dialog;
 import android.view.View;
 import android.view.ViewGroup;
 import android.view.WindowManager.LayoutParams;
+import android.widget.AbsListView;
 import android.widget.AdapterView;
 import android.widget.ArrayAdapter;
 import android.widget.ListView;
@@ -20,16 +21,64 @@ import android.widget.TextView;
 import androidx.annotation.NonNull;
 
 import java.io.File;
-import java.io.FileFilter;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 
 public class FileChooser {
     private static final String PARENT_DIR = "..";
 
+    // number of names added to the list at a time
+    private static final int PAGE_SIZE = 200;
+
+    // number of directory listings kept in the cache
+    private static final int CACHE_SIZE = 32;
+
+    // directories are listed one at a time off the UI thread
+    private static final ExecutorService LISTER = Executors.newSingleThreadExecutor(
+            new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "FileChooser");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+
+    // listings by path and extension, least recently used first
+    private static final Map<String, Listing> CACHE =
+            new LinkedHashMap<String, Listing>(CACHE_SIZE, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Listing> eldest) {
+                    return size() > CACHE_SIZE;
+                }
+            };
+
+    /**
+     * Sorted names of a directory, directories first, and its modification time.
+     */
+    private static final class Listing {
+        final long lastModified;
+        final String[] names;
+
+        Listing(long lastModified, String[] names) {
+            this.lastModified = lastModified;
+            this.names = names;
+        }
+    }
+
     private final Activity activity;
     private ListView list;
     private Dialog dialog;
     private File currentPath;
+    private int generation;
+    private String[] shownNames;
+    private ArrayAdapter<String> adapter;
 
     // filter on file extension
     private String extension = null;
@@ -55,6 +104,20 @@ public class FileChooser {
         this.activity = activity;
         dialog = new Dialog(activity);
         list = new ListView(activity);
+        list.setOnScrollListener(new AbsListView.OnScrollListener() {
+            @Override
+            public void onScrollStateChanged(AbsListView view, int scrollState) {
+            }
+
+            @Override
+            public void onScroll(AbsListView view, int firstVisibleItem, int visibleItemCount,
+                    int totalItemCount) {
+                // add the next page before the end of list is reached
+                if (firstVisibleItem + visibleItemCount >= totalItemCount - visibleItemCount) {
+                    addPage();
+                }
+            }
+        });
         list.setOnItemClickListener(new AdapterView.OnItemClickListener() {
             @Override
             public void onItemClick(AdapterView<?> parent, View view, int which, long id) {
@@ -83,64 +146,138 @@ public class FileChooser {
 
 
     /**
-     * Sort, filter and display the files for the given path.
+     * Display the files for the given path.  The cached listing is shown at once and the
+     * directory is listed again on the background thread if it is not cached or it is modified.
      */
-    private void refresh(File path) {
+    private void refresh(final File path) {
         if (path == null) {
             return;
         }
-        this.currentPath = path;
-        if (path.exists()) {
-            File[] dirs = path.listFiles(new FileFilter() {
-                @Override
-                public boolean accept(File file) {
-                    return (file.isDirectory() && file.canRead());
+        final int generation = ++this.generation;
+        final String extension = this.extension;
+        final String key = path.getPath() + '\n' + extension;
+
+        final Listing cached;
+        synchronized (CACHE) {
+            cached = CACHE.get(key);
+        }
+        if (cached != null) {
+            show(path, cached.names);
+        }
+
+        LISTER.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (!path.exists()) {
+                    return;
                 }
-            });
-            File[] files = path.listFiles(new FileFilter() {
-                @Override
-                public boolean accept(File file) {
-                    return !file.isDirectory()
-                            && file.canRead()
-                            && (extension == null
-                            || file.getName().toLowerCase().endsWith(extension));
+
+                // the listing is still valid if the directory is not modified
+                long lastModified = path.lastModified();
+                if ((cached != null) && (cached.lastModified == lastModified)) {
+                    return;
                 }
-            });
-            if ((dirs == null) || (files == null)) {
-                return;
-            }
 
-            // convert to an array
-            int i = 0;
-            String[] fileList;
-            if (path.getParentFile() == null) {
-                fileList = new String[dirs.length + files.length];
-            } else {
-                fileList = new String[dirs.length + files.length + 1];
-                fileList[i++] = PARENT_DIR;
+                final Listing listing = list(path, extension, lastModified);
+                if (listing == null) {
+                    return;
+                }
+                synchronized (CACHE) {
+                    CACHE.put(key, listing);
+                }
+
+                activity.runOnUiThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        // skip the result if another directory is chosen
+                        if (generation == FileChooser.this.generation) {
+                            show(path, listing.names);
+                        }
+                    }
+                });
             }
-            Arrays.sort(dirs);
-            Arrays.sort(files);
-            for (File dir : dirs) {
-                fileList[i++] = dir.getName();
+        });
+    }
+
+    /**
+     * Sort and filter the files for the given path in a single pass.  Each entry is checked for
+     * directory once and the readable check is skipped for the files filtered by extension.
+     */
+    private static Listing list(File path, String extension, long lastModified) {
+        File[] entries = path.listFiles();
+        if (entries == null) {
+            return null;
+        }
+
+        List<String> dirs = new ArrayList<>();
+        List<String> files = new ArrayList<>();
+        for (File entry : entries) {
+            String name = entry.getName();
+            if (entry.isDirectory()) {
+                if (entry.canRead()) {
+                    dirs.add(name);
+                }
+            } else if (((extension == null) || name.toLowerCase().endsWith(extension))
+                    && entry.canRead()) {
+                files.add(name);
             }
-            for (File file : files) {
-                fileList[i++] = file.getName();
+        }
+
+        // convert to an array
+        int i = 0;
+        String[] names;
+        if (path.getParentFile() == null) {
+            names = new String[dirs.size() + files.size()];
+        } else {
+            names = new String[dirs.size() + files.size() + 1];
+            names[i++] = PARENT_DIR;
+        }
+        int dirStart = i;
+        for (String dir : dirs) {
+            names[i++] = dir;
+        }
+        int fileStart = i;
+        for (String file : files) {
+            names[i++] = file;
+        }
+        Arrays.sort(names, dirStart, fileStart);
+        Arrays.sort(names, fileStart, names.length);
+
+        return new Listing(lastModified, names);
+    }
+
+    /**
+     * Display the first page of names.  The other pages are added while scrolling.
+     */
+    private void show(File path, String[] names) {
+        // refresh the user interface
+        this.currentPath = path;
+        dialog.setTitle(path.getPath());
+        shownNames = names;
+        adapter = new ArrayAdapter<String>(activity,
+                android.R.layout.simple_list_item_1, new ArrayList<String>()) {
+            @NonNull
+            @Override
+            public View getView(int pos, View view, @NonNull ViewGroup parent) {
+                view = super.getView(pos, view, parent);
+                ((TextView) view).setSingleLine(true);
+                return view;
             }
+        };
+        addPage();
+        list.setAdapter(adapter);
+    }
 
-            // refresh the user interface
-            dialog.setTitle(currentPath.getPath());
-            list.setAdapter(new ArrayAdapter<String>(activity,
-                    android.R.layout.simple_list_item_1, fileList) {
-                @NonNull
-                @Override
-                public View getView(int pos, View view, @NonNull ViewGroup parent) {
-                    view = super.getView(pos, view, parent);
-                    ((TextView) view).setSingleLine(true);
-                    return view;
-                }
-            });
+    /**
+     * Add the next page of names to the list.
+     */
+    private void addPage() {
+        if ((adapter == null) || (adapter.getCount() >= shownNames.length)) {
+            return;
         }
+        int start = adapter.getCount();
+        int end = Math.min(start + PAGE_SIZE, shownNames.length);
+        adapter.addAll(Arrays.asList(shownNames).subList(start, end));
     }
 
 
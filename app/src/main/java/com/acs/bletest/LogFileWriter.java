@@ -0,0 +1,420 @@
+/*
+ * Copyright (C) 2026 Advanced Card Systems Ltd. All rights reserved.
+ *
+ * This software is the confidential and proprietary information of Advanced
+ * Card Systems Ltd. ("Confidential Information").  You shall not disclose such
+ * Confidential Information and shall use it only in accordance with the terms
+ * of the license agreement you entered into with ACS.
+ */
+
+package com.acs.bletest;
+
+import android.util.Log;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The {@code LogFileWriter} class is a singleton that writes the log messages to the log file on
+ * its own thread.  The callers only queue the messages and never wait for the file I/O.
+ *
+ * <p>The writer flushes the file when the buffered characters reach the flush size or the flush
+ * interval has elapsed.  The log file is rotated when it reaches the maximum file size and the
+ * oldest files in the log directory are deleted when a log file is opened and the number of
+ * files exceeds the maximum.</p>
+ *
+ * @author Godfrey Chung
+ * @version 1.0, 17 Oct 2026
+ * @since 0.6
+ */
+public final class LogFileWriter {
+
+    /**
+     * The {@code Entry} class stores a request to the writer thread.
+     */
+    private static final class Entry {
+
+        static final int TYPE_MESSAGE = 0;
+        static final int TYPE_OPEN = 1;
+        static final int TYPE_CLOSE = 2;
+
+        final int mType;
+        final long mTime;
+        final String mMsg;
+        final File mFile;
+
+        Entry(int type, long time, String msg, File file) {
+
+            mType = type;
+            mTime = time;
+            mMsg = msg;
+            mFile = file;
+        }
+    }
+
+    private static final String TAG = "LogFileWriter";
+    private static final LogFileWriter INSTANCE = new LogFileWriter();
+    private static final int BUFFER_CAPACITY = 8192;
+    private static final int WAKE_UP_THRESHOLD = 256;
+    private static final int FLUSH_SIZE = 16 * 1024;
+    private static final long FLUSH_INTERVAL = 500;
+
+    private final RingBuffer<Entry> mEntries = new RingBuffer<>(BUFFER_CAPACITY);
+    private final AtomicInteger mNumDroppedMessages = new AtomicInteger();
+    private final Thread mThread;
+    private volatile long mMaxFileSize = 1024 * 1024;
+    private volatile int mMaxFiles = 100;
+
+    /* The following fields are accessed by the writer thread only. */
+    private final DateFormat mDateFormat = new SimpleDateFormat("[dd-MM-yyyy HH:mm:ss]: ",
+            Locale.US);
+    private final Date mDate = new Date();
+    private long mTimestampSecond = -1;
+    private String mTimestamp;
+    private File mFile;
+    private Writer mWriter;
+    private long mFileSize;
+    private int mNumRotations;
+    private int mNumUnflushedChars;
+    private long mLastFlushTime;
+
+    /**
+     * Creates an instance of {@code LogFileWriter}.
+     */
+    private LogFileWriter() {
+
+        mThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                loop();
+            }
+        }, TAG);
+        mThread.setDaemon(true);
+        mThread.setPriority(Thread.NORM_PRIORITY - 1);
+        mThread.start();
+    }
+
+    /**
+     * Returns the instance of {@code LogFileWriter}.
+     *
+     * @return the instance
+     */
+    public static LogFileWriter getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Sets the maximum size of a log file in bytes before it is rotated.
+     *
+     * @param maxFileSize the maximum file size
+     */
+    public void setMaxFileSize(long maxFileSize) {
+
+        if (maxFileSize <= 0) {
+            throw new IllegalArgumentException("Maximum file size must be positive");
+        }
+
+        mMaxFileSize = maxFileSize;
+    }
+
+    /**
+     * Sets the maximum number of files kept in the log directory.
+     *
+     * @param maxFiles the maximum number of files
+     */
+    public void setMaxFiles(int maxFiles) {
+
+        if (maxFiles <= 0) {
+            throw new IllegalArgumentException("Maximum number of files must be positive");
+        }
+
+        mMaxFiles = maxFiles;
+    }
+
+    /**
+     * Opens the log file for append.  The current log file is closed.
+     *
+     * @param file the log file
+     */
+    public void open(File file) {
+
+        if (file == null) {
+            throw new IllegalArgumentException("File must not be null");
+        }
+
+        enqueue(new Entry(Entry.TYPE_OPEN, 0, null, file), true);
+    }
+
+    /**
+     * Closes the log file after the queued messages are written.
+     */
+    public void close() {
+        enqueue(new Entry(Entry.TYPE_CLOSE, 0, null, null), true);
+    }
+
+    /**
+     * Writes the message with the current time to the log file.
+     *
+     * @param msg the message
+     */
+    public void write(String msg) {
+        enqueue(new Entry(Entry.TYPE_MESSAGE, System.currentTimeMillis(), msg, null), false);
+    }
+
+    /**
+     * Queues the entry and wakes up the writer thread if needed.
+     *
+     * @param entry    the entry
+     * @param critical {@code true} if the entry must not be dropped
+     */
+    private void enqueue(Entry entry, boolean critical) {
+
+        while (!mEntries.offer(entry)) {
+
+            if (!critical) {
+
+                mNumDroppedMessages.incrementAndGet();
+                return;
+            }
+
+            /* Let the writer thread make room for the open or close request. */
+            LockSupport.unpark(mThread);
+            Thread.yield();
+        }
+
+        if (critical || (mEntries.size() >= WAKE_UP_THRESHOLD)) {
+            LockSupport.unpark(mThread);
+        }
+    }
+
+    /**
+     * Runs the writer loop.
+     */
+    private void loop() {
+
+        while (true) {
+
+            /* Write the queued entries. */
+            Entry entry;
+            while ((entry = mEntries.poll()) != null) {
+                process(entry);
+            }
+
+            /* Flush by size or by time. */
+            long now = System.currentTimeMillis();
+            if ((mNumUnflushedChars >= FLUSH_SIZE)
+                    || ((mNumUnflushedChars > 0) && (now - mLastFlushTime >= FLUSH_INTERVAL))) {
+                flush(now);
+            }
+
+            /* Wait for more entries. */
+            LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(FLUSH_INTERVAL));
+        }
+    }
+
+    /**
+     * Processes the entry.
+     *
+     * @param entry the entry
+     */
+    private void process(Entry entry) {
+
+        switch (entry.mType) {
+
+            case Entry.TYPE_OPEN:
+                closeFile();
+                mFile = entry.mFile;
+                mNumRotations = 0;
+                deleteOldFiles(mFile.getParentFile());
+                openFile();
+                break;
+
+            case Entry.TYPE_CLOSE:
+                closeFile();
+                mFile = null;
+                break;
+
+            default:
+                writeMessage(entry);
+                break;
+        }
+    }
+
+    /**
+     * Writes the message to the log file.
+     *
+     * @param entry the entry
+     */
+    private void writeMessage(Entry entry) {
+
+        if (mWriter == null) {
+            return;
+        }
+
+        /* Format the timestamp once per second. */
+        long second = entry.mTime / 1000;
+        if (second != mTimestampSecond) {
+
+            mDate.setTime(entry.mTime);
+            mTimestamp = mDateFormat.format(mDate);
+            mTimestampSecond = second;
+        }
+
+        try {
+
+            int numDroppedMessages = mNumDroppedMessages.getAndSet(0);
+            if (numDroppedMessages > 0) {
+                mWriter.write(mTimestamp + "(" + numDroppedMessages + " messages dropped)\n");
+            }
+
+            mWriter.write(mTimestamp);
+            mWriter.write(entry.mMsg);
+            mWriter.write('\n');
+
+        } catch (IOException e) {
+
+            e.printStackTrace();
+            closeFile();
+            return;
+        }
+
+        int numChars = mTimestamp.length() + entry.mMsg.length() + 1;
+        mNumUnflushedChars += numChars;
+        mFileSize += numChars;
+
+        /* Rotate the log file. */
+        if (mFileSize >= mMaxFileSize) {
+
+            closeFile();
+            mNumRotations++;
+            openFile();
+        }
+    }
+
+    /**
+     * Opens the current log file or its rotated file.
+     */
+    private void openFile() {
+
+        File file = mFile;
+        if (mNumRotations > 0) {
+
+            String name = mFile.getName();
+            int index = name.lastIndexOf('.');
+            if (index > 0) {
+                name = name.substring(0, index) + "-" + mNumRotations + name.substring(index);
+            } else {
+                name = name + "-" + mNumRotations;
+            }
+
+            file = new File(mFile.getParentFile(), name);
+        }
+
+        try {
+
+            mWriter = new BufferedWriter(new FileWriter(file, true));
+            mFileSize = file.length();
+            mLastFlushTime = System.currentTimeMillis();
+
+        } catch (IOException e) {
+
+            e.printStackTrace();
+            mWriter = null;
+        }
+    }
+
+    /**
+     * Flushes the log file.
+     *
+     * @param now the current time
+     */
+    private void flush(long now) {
+
+        if (mWriter != null) {
+            try {
+                mWriter.flush();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+
+        mNumUnflushedChars = 0;
+        mLastFlushTime = now;
+    }
+
+    /**
+     * Closes the log file.
+     */
+    private void closeFile() {
+
+        if (mWriter != null) {
+
+            try {
+                mWriter.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+
+            mWriter = null;
+        }
+
+        mNumUnflushedChars = 0;
+    }
+
+    /**
+     * Deletes the oldest files in the directory if the number of files exceeds the maximum.
+     * One slot is left for the new log file.
+     *
+     * @param dir the directory
+     */
+    private void deleteOldFiles(File dir) {
+
+        if (dir == null) {
+            return;
+        }
+
+        File[] files = dir.listFiles();
+        if ((files == null) || (files.length < mMaxFiles)) {
+            return;
+        }
+
+        /* Sort the files from the oldest to the newest. */
+        final long[] lastModified = new long[files.length];
+        for (int i = 0; i < files.length; i++) {
+            lastModified[i] = files[i].lastModified();
+        }
+
+        Integer[] indices = new Integer[files.length];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = i;
+        }
+
+        Arrays.sort(indices, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer lhs, Integer rhs) {
+                long diff = lastModified[lhs] - lastModified[rhs];
+                return (diff < 0) ? -1 : ((diff > 0) ? 1 : 0);
+            }
+        });
+
+        for (int i = 0; i <= files.length - mMaxFiles; i++) {
+
+            File file = files[indices[i]];
+            if (file.isFile() && !file.delete()) {
+                Log.w(TAG, "Cannot delete " + file.getName());
+            }
+        }
+    }
+}
@@ -10,32 +10,57 @@
 package com.acs.bletest;
 
 import android.app.Activity;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.text.Editable;
+import android.text.TextUtils;
 import android.text.method.ScrollingMovementMethod;
 import android.widget.TextView;
 
-import java.io.BufferedWriter;
+import com.acs.pidcore.Hex;
+
 import java.io.File;
-import java.io.FileWriter;
+import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.PrintWriter;
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
-import java.util.Date;
 import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * The {@code Logger} class logs the message to text view.
  *
+ * <p>The messages are queued to a ring buffer without waiting for the UI thread.  The UI thread
+ * appends the queued messages to the text view in one batch at most once per frame interval.
+ * If the ring buffer is full, the message is dropped and the number of dropped messages is
+ * logged in the next batch.  The log file is written by {@link LogFileWriter} on its own
+ * thread.</p>
+ *
  * @author Godfrey Chung
- * @version 1.0, 21 Jun 2017
+ * @version 1.1, 17 Oct 2026
  */
 public class Logger {
 
     private static final int MAX_LINES = 1000;
-    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
-    private Activity mActivity;
+    private static final int BUFFER_CAPACITY = 4096;
+    private static final long FLUSH_INTERVAL = 50;
     private TextView mTextView;
-    private PrintWriter mPrintWriter;
+    private final LogFileWriter mLogFileWriter = LogFileWriter.getInstance();
+    private volatile boolean mLogFileOpened;
+    private final RingBuffer<String> mMessages = new RingBuffer<>(BUFFER_CAPACITY);
+    private final AtomicBoolean mFlushScheduled = new AtomicBoolean();
+    private final AtomicInteger mNumDroppedMessages = new AtomicInteger();
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private final StringBuilder mBatch = new StringBuilder();
+    private volatile long mLastFlushTime;
+    private int mNumLines;
+
+    private final Runnable mFlushRunnable = new Runnable() {
+        @Override
+        public void run() {
+            flush();
+        }
+    };
 
     /**
      * Creates an instance of {@code Logger}.
@@ -53,24 +78,27 @@ public class Logger {
             throw new IllegalArgumentException("Text view must not be null");
         }
 
-        mActivity = activity;
         mTextView = textView;
         mTextView.setMovementMethod(new ScrollingMovementMethod());
     }
 
     /**
-     * Opens the log file.
+     * Opens the log file.  The log file is opened by the log file writer thread.
      *
      * @param logFile the log file
-     * @throws IOException if there is an error in opening or creating the log file
+     * @throws IOException if the directory of the log file does not exist
      */
     public void openLogFile(File logFile) throws IOException {
 
-        /* Close the log file if it is opened. */
-        closeLogFile();
+        /* Check the directory. */
+        File dir = logFile.getAbsoluteFile().getParentFile();
+        if ((dir == null) || !dir.isDirectory()) {
+            throw new FileNotFoundException("Directory not found");
+        }
 
         /* Open the log file for append. */
-        mPrintWriter = new PrintWriter(new BufferedWriter(new FileWriter(logFile, true)));
+        mLogFileWriter.open(logFile);
+        mLogFileOpened = true;
     }
 
     /**
@@ -78,11 +106,11 @@ public class Logger {
      */
     public void closeLogFile() {
 
-        /* Close the print writer. */
-        if (mPrintWriter != null) {
+        /* Close the log file after the queued messages are written. */
+        if (mLogFileOpened) {
 
-            mPrintWriter.close();
-            mPrintWriter = null;
+            mLogFileOpened = false;
+            mLogFileWriter.close();
         }
     }
 
@@ -94,43 +122,17 @@ public class Logger {
      */
     public void logMsg(String format, Object... args) {
 
-        final String msg = String.format(Locale.US, format, args);
-
-        mActivity.runOnUiThread(new Runnable() {
-            @Override
-            public void run() {
-
-                int lines = mTextView.getHeight() / mTextView.getLineHeight();
-
-                /* Append the message to the text view. */
-                mTextView.append(msg + "\n");
-
-                /* Remove the first line from the text view. */
-                if (mTextView.getLineCount() > MAX_LINES) {
-
-                    String logString = mTextView.getText().toString();
-                    int newLineIndex = logString.indexOf('\n', 1);
-
-                    if (newLineIndex >= 0) {
-                        mTextView.getEditableText().delete(0, newLineIndex);
-                    }
-                }
-
-                /* Scroll the text view. */
-                if (mTextView.getLineCount() > lines) {
-                    mTextView.scrollTo(0, (mTextView.getLineCount() - lines)
-                            * mTextView.getLineHeight());
-                }
-            }
-        });
+        final String msg = (args.length == 0) ? format : String.format(Locale.US, format, args);
 
-        if (mPrintWriter != null) {
+        /* Queue the message for the UI thread. */
+        if (!mMessages.offer(msg)) {
+            mNumDroppedMessages.incrementAndGet();
+        }
 
-            DateFormat dateFormat = new SimpleDateFormat("[dd-MM-yyyy HH:mm:ss]: ", Locale.US);
-            Date date = new Date();
+        scheduleFlush();
 
-            mPrintWriter.println(dateFormat.format(date) + msg);
-            mPrintWriter.flush();
+        if (mLogFileOpened) {
+            mLogFileWriter.write(msg);
         }
     }
 
@@ -160,28 +162,13 @@ public class Logger {
             return;
         }
 
-        StringBuilder builder = new StringBuilder(3 * byteCount);
-
-        for (int i = 0; i < byteCount; i++) {
-
-            int tmp = buffer[offset + i] & 0xFF;
-
-            if (i % 16 == 0) {
-                if (builder.length() > 0) {
+        char[] chars = new char[Hex.getHexStringLength(16)];
 
-                    logMsg(builder.toString());
-                    builder.setLength(0);
-                }
-            } else {
-                builder.append(" ");
-            }
-
-            builder.append(HEX_DIGITS[tmp >>> 4]);
-            builder.append(HEX_DIGITS[tmp & 0x0F]);
-        }
+        /* Log 16 bytes per line. */
+        for (int i = 0; i < byteCount; i += 16) {
 
-        if (builder.length() > 0) {
-            logMsg(builder.toString());
+            int length = Hex.toHexChars(buffer, offset + i, Math.min(16, byteCount - i), chars, 0);
+            logMsg(new String(chars, 0, length));
         }
     }
 
@@ -234,11 +221,94 @@ public class Logger {
     }
 
     /**
-     * Clears the log messages.
+     * Clears the log messages.  This method must be called from the UI thread.
      */
     public void clear() {
 
+        /* Discard the queued messages. */
+        mMessages.clear();
+        mNumDroppedMessages.set(0);
+
         mTextView.setText("");
         mTextView.scrollTo(0, 0);
+        mNumLines = 0;
+    }
+
+    /**
+     * Schedules the UI thread to append the queued messages if it is not scheduled.
+     */
+    private void scheduleFlush() {
+        if (mFlushScheduled.compareAndSet(false, true)) {
+
+            long delay = mLastFlushTime + FLUSH_INTERVAL - SystemClock.uptimeMillis();
+            mHandler.postDelayed(mFlushRunnable, Math.max(0, delay));
+        }
+    }
+
+    /**
+     * Appends the queued messages to the text view.  This method runs on the UI thread.
+     */
+    private void flush() {
+
+        /* Allow the next flush to be scheduled before draining the messages. */
+        mFlushScheduled.set(false);
+        mLastFlushTime = SystemClock.uptimeMillis();
+
+        /* Join the queued messages. */
+        mBatch.setLength(0);
+        String msg;
+        while ((msg = mMessages.poll()) != null) {
+            mBatch.append(msg).append('\n');
+        }
+
+        int numDroppedMessages = mNumDroppedMessages.getAndSet(0);
+        if (numDroppedMessages > 0) {
+            mBatch.append("(").append(numDroppedMessages).append(" messages dropped)\n");
+        }
+
+        if (mBatch.length() == 0) {
+            return;
+        }
+
+        for (int i = 0; i < mBatch.length(); i++) {
+            if (mBatch.charAt(i) == '\n') {
+                mNumLines++;
+            }
+        }
+
+        int lines = mTextView.getHeight() / mTextView.getLineHeight();
+
+        /* Append the messages to the text view. */
+        mTextView.append(mBatch);
+
+        /* Remove the first lines from the text view. */
+        if (mNumLines > MAX_LINES) {
+
+            Editable editable = mTextView.getEditableText();
+            if (editable != null) {
+
+                int end = 0;
+                while (mNumLines > MAX_LINES) {
+
+                    int index = TextUtils.indexOf(editable, '\n', end);
+                    if (index < 0) {
+                        break;
+                    }
+
+                    end = index + 1;
+                    mNumLines--;
+                }
+
+                if (end > 0) {
+                    editable.delete(0, end);
+                }
+            }
+        }
+
+        /* Scroll the text view. */
+        if (mTextView.getLineCount() > lines) {
+            mTextView.scrollTo(0, (mTextView.getLineCount() - lines)
+                    * mTextView.getLineHeight());
+        }
     }
 }
@@ -24,7 +24,8 @@ import android.os.Build;
 import android.os.Bundle;
 import android.os.Environment;
 import android.os.Handler;
-import android.os.SystemClock;
+import android.os.ParcelFileDescriptor;
+import android.provider.DocumentsContract;
 import android.provider.OpenableColumns;
 import android.util.Log;
 import android.view.Menu;
@@ -48,6 +49,21 @@ import androidx.core.content.ContextCompat;
 import androidx.fragment.app.DialogFragment;
 import androidx.preference.PreferenceManager;
 
+import com.acs.pidcore.BinaryScript;
+import com.acs.pidcore.CompiledScript;
+import com.acs.pidcore.MetricsRegistry;
+import com.acs.pidcore.MultiTerminalReader;
+import com.acs.pidcore.PersonalIdDecoder;
+import com.acs.pidcore.PersonalIdField;
+import com.acs.pidcore.PersonalIdRecord;
+import com.acs.pidcore.PersonalIdRecordEncoder;
+import com.acs.pidcore.RecentReadCache;
+import com.acs.pidcore.ResultAccumulator;
+import com.acs.pidcore.ResultForwarder;
+import com.acs.pidcore.ResultJournal;
+import com.acs.pidcore.ResultUploader;
+import com.acs.pidcore.ThaiIdCardReader;
+import com.acs.pidcore.ThaiIdPhotoReader;
 import com.acs.smartcardio.BluetoothSmartCard;
 import com.acs.smartcardio.BluetoothTerminalManager;
 import com.acs.smartcardio.TerminalTimeouts;
@@ -55,7 +71,9 @@ import com.acs.smartcardio.TransmitOptions;
 
 import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.InputStream;
@@ -63,9 +81,10 @@ import java.io.InputStreamReader;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Locale;
-import java.net.HttpURLConnection;
+import java.util.Set;
 
 import javax.smartcardio.Card;
 import javax.smartcardio.CardChannel;
@@ -99,7 +118,7 @@ public class MainActivity extends AppCompatActivity
          * @param command the command
          * @return the response
          */
-        byte[] onCommandSent(Card card, byte[] command) throws CardException;
+        byte[] onCommandSent(Card card, CompiledScript.Command command) throws CardException;
     }
 
     /**
@@ -136,27 +155,15 @@ public class MainActivity extends AppCompatActivity
                 add(terminal.getName());
 
                 /* Load the settings. */
-                SharedPreferences sharedPref = getSharedPreferences(
-                        "com.acs.bletest." + terminal.getName(), Context.MODE_PRIVATE);
-                boolean defaultKeyUsed = sharedPref.getBoolean(KEY_PREF_USE_DEFAULT_KEY, true);
-                String newKey = sharedPref.getString(KEY_PREF_NEW_KEY, null);
-                long connectionTimeout = sharedPref.getLong(KEY_PREF_CONNECTION_TIMEOUT,
-                        TerminalTimeouts.DEFAULT_TIMEOUT);
-                long powerTimeout = sharedPref.getLong(KEY_PREF_POWER_TIMEOUT,
-                        TerminalTimeouts.DEFAULT_TIMEOUT);
-                long protocolTimeout = sharedPref.getLong(KEY_PREF_PROTOCOL_TIMEOUT,
-                        TerminalTimeouts.DEFAULT_TIMEOUT);
-                long apduTimeout = sharedPref.getLong(KEY_PREF_APDU_TIMEOUT,
-                        TerminalTimeouts.DEFAULT_TIMEOUT);
-                long controlTimeout = sharedPref.getLong(KEY_PREF_CONTROL_TIMEOUT,
-                        TerminalTimeouts.DEFAULT_TIMEOUT);
+                TerminalProfileStore.Profile profile =
+                        mProfileStore.getProfile(terminal.getName());
 
                 /* Set the master key. */
-                if (!defaultKeyUsed) {
+                if (!profile.isDefaultKeyUsed()) {
 
                     mLogger.logMsg("Setting the master key (%s)...", terminal.getName());
                     try {
-                        mManager.setMasterKey(terminal, Hex.toByteArray(newKey));
+                        mManager.setMasterKey(terminal, profile.getMasterKey());
                     } catch (IllegalArgumentException e) {
                         mLogger.logMsg("Error: %s", e.getMessage());
                     }
@@ -164,12 +171,7 @@ public class MainActivity extends AppCompatActivity
 
                 /* Set the terminal timeouts. */
                 mLogger.logMsg("Setting the terminal timeouts (%s)...", terminal.getName());
-                TerminalTimeouts timeouts = mManager.getTimeouts(terminal);
-                timeouts.setConnectionTimeout(connectionTimeout);
-                timeouts.setPowerTimeout(powerTimeout);
-                timeouts.setProtocolTimeout(protocolTimeout);
-                timeouts.setApduTimeout(apduTimeout);
-                timeouts.setControlTimeout(controlTimeout);
+                profile.applyTimeouts(mManager.getTimeouts(terminal));
             }
         }
 
@@ -196,16 +198,10 @@ public class MainActivity extends AppCompatActivity
     private static final String STATE_LOG = "log";
     private static final int REQUEST_ENABLE_BT = 1;
     private static final int REQUEST_ACCESS_FINE_LOCATION = 2;
+    private static final byte[] EMPTY = new byte[0];
     private static final int REQUEST_ACCESS_WRITE_EXTERNAL_STORAGE = 3;
     private static final int REQUEST_PICK_TEXT_FILE = 4;
     private static final long SCAN_PERIOD = 5000;
-    private static final String KEY_PREF_USE_DEFAULT_KEY = "pref_use_default_key";
-    private static final String KEY_PREF_NEW_KEY = "pref_new_key";
-    private static final String KEY_PREF_CONNECTION_TIMEOUT = "pref_connection_timeout";
-    private static final String KEY_PREF_POWER_TIMEOUT = "pref_power_timeout";
-    private static final String KEY_PREF_PROTOCOL_TIMEOUT = "pref_protocol_timeout";
-    private static final String KEY_PREF_APDU_TIMEOUT = "pref_apdu_timeout";
-    private static final String KEY_PREF_CONTROL_TIMEOUT = "pref_control_timeout";
 
     private BluetoothAdapter mBluetoothAdapter;
     private BluetoothTerminalManager mManager;
@@ -213,7 +209,19 @@ public class MainActivity extends AppCompatActivity
     private Handler mHandler;
     private Logger mLogger;
     private CardStateMonitor mCardStateMonitor;
+    private CardSessionManager mSessionManager;
+    private TerminalProfileStore mProfileStore;
+    private final MetricsRegistry mMetrics = MetricsRegistry.getInstance();
+    private final MultiTerminalReader mMultiTerminalReader = new MultiTerminalReader();
+    private int mNumSingleReads;
+    private boolean mReadingAllTerminals;
+    private final RecentReadCache mReadCache = new RecentReadCache();
+    private ResultForwarder mForwarder;
     private Uri mScriptFileUri;
+    private final Object mScriptLock = new Object();
+    private CompiledScript mCompiledScript;
+    private String mCompiledScriptKey;
+    private long mCompiledScriptLastModified;
 
     private Spinner mTerminalSpinner;
     private TerminalAdapter mTerminalAdapter;
@@ -385,6 +393,9 @@ public class MainActivity extends AppCompatActivity
                         /* Remove the terminal from card state monitor. */
                         mCardStateMonitor.removeTerminal(terminal);
 
+                        /* Close the card session. */
+                        mSessionManager.close(terminal);
+
                         /* Disconnect from the terminal. */
                         mLogger.logMsg("Disconnecting %s...", terminal.getName());
                         mManager.disconnect(terminal);
@@ -432,7 +443,9 @@ public class MainActivity extends AppCompatActivity
                     /* Use a documents provider to select a file. */
                     Intent intent = new Intent(Intent.ACTION_OPEN_DOCUMENT);
                     intent.addCategory(Intent.CATEGORY_OPENABLE);
-                    intent.setType("text/plain");
+                    intent.setType("*/*");
+                    intent.putExtra(Intent.EXTRA_MIME_TYPES,
+                            new String[]{"text/plain", "application/octet-stream"});
                     try {
                         startActivityForResult(intent, REQUEST_PICK_TEXT_FILE);
                     } catch (ActivityNotFoundException e) {
@@ -492,65 +505,29 @@ public class MainActivity extends AppCompatActivity
                 }
 
                 /* Get the protocol. */
-                String protocol;
-                if (mT0CheckBox.isChecked()) {
-                    if (mT1CheckBox.isChecked()) {
-                        protocol = "*";
-                    } else {
-                        protocol = "T=0";
-                    }
-                } else {
-                    if (mT1CheckBox.isChecked()) {
-                        protocol = "T=1";
-                    } else {
-                        mLogger.logMsg("Error: Protocol not selected");
-                        return;
-                    }
+                final String protocol = getSelectedProtocol();
+                if (protocol == null) {
+                    return;
+                }
+
+                /* Acquire the card terminal. */
+                if (!acquireTerminal(terminal)) {
+                    return;
                 }
 
                 /* Clear the log. */
                 mLogger.clear();
 
                 mTransmitButton.setEnabled(false);
-                final String finalProtocol = protocol;
                 new Thread(new Runnable() {
 
                     @Override
                     public void run() {
 
+                        openLogFile();
                         try {
 
-                            /* Connect to the card. */
-                            mLogger.logMsg("Connecting to the card (%s, %s)...", terminal.getName(),
-                                    finalProtocol);
-                            Card card = terminal.connect(finalProtocol);
-
-                            /* Get the ATR string. */
-                            mLogger.logMsg("ATR:");
-                            mLogger.logBuffer(card.getATR().getBytes());
-
-                            /* Get the active protocol. */
-                            mLogger.logMsg("Active Protocol: %s", card.getProtocol());
-
-                            /* Run the script. */
-                            runScript(card, filename, new OnCommandSentListener() {
-
-                                @Override
-                                public byte[] onCommandSent(Card card, byte[] command)
-                                        throws CardException {
-
-                                    CardChannel channel = card.getBasicChannel();
-                                    CommandAPDU commandAPDU = new CommandAPDU(command);
-                                    ResponseAPDU responseAPDU = channel.transmit(commandAPDU);
-
-                                    return responseAPDU.getBytes();
-                                }
-                            });
-
-                            /* Disconnect from the card. */
-                            mLogger.logMsg("Disconnecting the card (%s)...",
-                                    terminal.getName());
-                            card.disconnect(false);
+                            readCard(terminal, protocol, filename, true);
 
                         } catch (CardException e) {
 
@@ -561,11 +538,15 @@ public class MainActivity extends AppCompatActivity
                             }
                         }
 
+                        mLogger.closeLogFile();
+                        mMultiTerminalReader.release(terminal);
                         runOnUiThread(new Runnable() {
 
                             @Override
                             public void run() {
+
                                 mTransmitButton.setEnabled(true);
+                                releaseTerminal();
                             }
                         });
                     }
@@ -609,6 +590,11 @@ public class MainActivity extends AppCompatActivity
                     return;
                 }
 
+                /* Acquire the card terminal. */
+                if (!acquireTerminal(terminal)) {
+                    return;
+                }
+
                 /* Clear the log. */
                 mLogger.clear();
 
@@ -619,22 +605,28 @@ public class MainActivity extends AppCompatActivity
                     @Override
                     public void run() {
 
+                        openLogFile();
                         try {
 
+                            /* Close the card session before connecting directly. */
+                            mSessionManager.close(terminal);
+
                             /* Connect to the card. */
                             mLogger.logMsg("Connecting to the card (%s, direct)...",
                                     terminal.getName());
                             Card card = terminal.connect("direct");
 
                             /* Run the script. */
-                            runScript(card, filename, new OnCommandSentListener() {
+                            runScript(terminal, card, null, filename,
+                                    new OnCommandSentListener() {
 
                                 @Override
-                                public byte[] onCommandSent(Card card, byte[] command)
-                                        throws CardException {
-                                    return card.transmitControlCommand(finalControlCode, command);
+                                public byte[] onCommandSent(Card card,
+                                        CompiledScript.Command command) throws CardException {
+                                    return card.transmitControlCommand(finalControlCode,
+                                            command.getBytes());
                                 }
-                            });
+                            }, true);
 
                             /* Disconnect from the card. */
                             mLogger.logMsg("Disconnecting the card (%s)...",
@@ -650,11 +642,15 @@ public class MainActivity extends AppCompatActivity
                             }
                         }
 
+                        mLogger.closeLogFile();
+                        mMultiTerminalReader.release(terminal);
                         runOnUiThread(new Runnable() {
 
                             @Override
                             public void run() {
+
                                 mControlButton.setEnabled(true);
+                                releaseTerminal();
                             }
                         });
                     }
@@ -668,8 +664,48 @@ public class MainActivity extends AppCompatActivity
         /* Initialize the logger. */
         mLogger = new Logger(this, mLogTextView);
 
+        /* Initialize the card session manager. */
+        mSessionManager = CardSessionManager.getInstance();
+
+        /* Initialize the terminal profile store. */
+        mProfileStore = TerminalProfileStore.getInstance(this);
+
+        /* Initialize the result forwarder. */
+        try {
+
+            mForwarder = new ResultForwarder(
+                    new ResultJournal(new File(getFilesDir(), "Journal")), new ResultUploader());
+            mForwarder.setRejectedJournal(new ResultJournal(new File(getFilesDir(), "Rejected")));
+            mForwarder.setOnUploadListener(new ResultUploader.OnUploadListener() {
+
+                @Override
+                public void onUploaded(String url, int responseCode) {
+                    mLogger.logMsg("Upload OK (HTTP %d)", responseCode);
+                }
+
+                @Override
+                public void onUploadFailed(String url, IOException e) {
+
+                    if ((e instanceof ResultUploader.HttpException)
+                            && ((ResultUploader.HttpException) e).isClientError()) {
+                        mLogger.logMsg("Error: Upload rejected (%s), result moved to Rejected",
+                                e.getMessage());
+                    } else {
+                        mLogger.logMsg("Error: Upload failed (%s)", e.getMessage());
+                    }
+                }
+            });
+            mForwarder.start();
+
+        } catch (IOException e) {
+
+            Log.e(TAG, "Result journal open failed", e);
+            mLogger.logMsg("Error: Result journal open failed");
+        }
+
         /* Initialize the card state monitor. */
         mCardStateMonitor = CardStateMonitor.getInstance();
+        mCardStateMonitor.setMode(CardStateMonitor.MODE_SHARED_SCHEDULER);
         mCardStateMonitor.setOnStateChangeListener(new CardStateMonitor.OnStateChangeListener() {
 
             @Override
@@ -677,9 +713,14 @@ public class MainActivity extends AppCompatActivity
                     int prevState, int currState) {
                 if ((prevState > CardStateMonitor.CARD_STATE_ABSENT)
                         && (currState <= CardStateMonitor.CARD_STATE_ABSENT)) {
+
+                    /* Close the card session because the card is removed. */
+                    mSessionManager.close(terminal);
                     mLogger.logMsg(terminal.getName() + ": removed");
+
                 } else if ((prevState <= CardStateMonitor.CARD_STATE_ABSENT)
                         && (currState > CardStateMonitor.CARD_STATE_ABSENT)) {
+
                     mLogger.logMsg(terminal.getName() + ": inserted");
                 }
             }
@@ -765,18 +806,13 @@ public class MainActivity extends AppCompatActivity
         /* Save the settings. */
         MasterKeyDialogFragment fragment = (MasterKeyDialogFragment) dialog;
         CardTerminal terminal = mTerminalAdapter.getTerminal(index);
-        SharedPreferences sharedPref = getSharedPreferences(
-                "com.acs.bletest." + terminal.getName(), Context.MODE_PRIVATE);
-        SharedPreferences.Editor editor = sharedPref.edit();
-        editor.putBoolean(KEY_PREF_USE_DEFAULT_KEY, fragment.isDefaultKeyUsed());
-        editor.putString(KEY_PREF_NEW_KEY, fragment.getNewKey());
-        editor.apply();
+        TerminalProfileStore.Profile profile = mProfileStore.setMasterKey(terminal.getName(),
+                fragment.isDefaultKeyUsed(), fragment.getNewKey());
 
         /* Set the master key. */
         mLogger.logMsg("Setting the master key (%s)...", terminal.getName());
         try {
-            mManager.setMasterKey(terminal, fragment.isDefaultKeyUsed() ?
-                    null : Hex.toByteArray(fragment.getNewKey()));
+            mManager.setMasterKey(terminal, profile.getMasterKey());
         } catch (IllegalArgumentException e) {
             mLogger.logMsg("Error: %s", e.getMessage());
         }
@@ -801,24 +837,14 @@ public class MainActivity extends AppCompatActivity
         /* Save the settings. */
         TerminalTimeoutsDialogFragment fragment = (TerminalTimeoutsDialogFragment) dialog;
         CardTerminal terminal = mTerminalAdapter.getTerminal(index);
-        SharedPreferences sharedPref = getSharedPreferences(
-                "com.acs.bletest." + terminal.getName(), Context.MODE_PRIVATE);
-        SharedPreferences.Editor editor = sharedPref.edit();
-        editor.putLong(KEY_PREF_CONNECTION_TIMEOUT, fragment.getConnectionTimeout());
-        editor.putLong(KEY_PREF_POWER_TIMEOUT, fragment.getPowerTimeout());
-        editor.putLong(KEY_PREF_PROTOCOL_TIMEOUT, fragment.getProtocolTimeout());
-        editor.putLong(KEY_PREF_APDU_TIMEOUT, fragment.getApduTimeout());
-        editor.putLong(KEY_PREF_CONTROL_TIMEOUT, fragment.getControlTimeout());
-        editor.apply();
+        TerminalProfileStore.Profile profile = mProfileStore.setTimeouts(terminal.getName(),
+                fragment.getConnectionTimeout(), fragment.getPowerTimeout(),
+                fragment.getProtocolTimeout(), fragment.getApduTimeout(),
+                fragment.getControlTimeout());
 
         /* Set the terminal timeouts. */
         mLogger.logMsg("Setting the terminal timeouts (%s)...", terminal.getName());
-        TerminalTimeouts timeouts = mManager.getTimeouts(terminal);
-        timeouts.setConnectionTimeout(fragment.getConnectionTimeout());
-        timeouts.setPowerTimeout(fragment.getPowerTimeout());
-        timeouts.setProtocolTimeout(fragment.getProtocolTimeout());
-        timeouts.setApduTimeout(fragment.getApduTimeout());
-        timeouts.setControlTimeout(fragment.getControlTimeout());
+        profile.applyTimeouts(mManager.getTimeouts(terminal));
     }
 
     @Override
@@ -841,6 +867,21 @@ public class MainActivity extends AppCompatActivity
         }
 
         mCardStateMonitor.resume();
+
+        /* Apply the batch mode of upload. */
+        if (mForwarder != null) {
+
+            SharedPreferences sharedPref = PreferenceManager.getDefaultSharedPreferences(this);
+            String batchMode = sharedPref.getString(
+                    SettingsActivity.KEY_PREF_UPLOAD_BATCH_MODE, "none");
+            if ("json".equals(batchMode)) {
+                mForwarder.setBatchMode(ResultForwarder.BATCH_MODE_JSON);
+            } else if ("binary".equals(batchMode)) {
+                mForwarder.setBatchMode(ResultForwarder.BATCH_MODE_BINARY);
+            } else {
+                mForwarder.setBatchMode(ResultForwarder.BATCH_MODE_NONE);
+            }
+        }
     }
 
     @Override
@@ -848,6 +889,31 @@ public class MainActivity extends AppCompatActivity
         super.onPause();
 
         mCardStateMonitor.pause();
+
+        /* Write the changed profiles before the process may be killed. */
+        mProfileStore.flush();
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+
+        /* The reads in progress are completed. */
+        mMultiTerminalReader.shutdown();
+
+        /* Wipe the recent reads. */
+        mReadCache.clear();
+
+        /* The results not uploaded are kept in the journal. */
+        if (mForwarder != null) {
+
+            mForwarder.stop();
+            try {
+                mForwarder.getJournal().close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
     }
 
     @Override
@@ -926,6 +992,10 @@ public class MainActivity extends AppCompatActivity
     @Override
     public boolean onPrepareOptionsMenu(Menu menu) {
 
+        /* Read All Terminals shares the log file with Transmit and Control. */
+        menu.findItem(R.id.menu_read_all_terminals).setEnabled(
+                !mReadingAllTerminals && (mNumSingleReads == 0));
+
         MenuItem item = menu.findItem(R.id.menu_show_card_state);
 
         /* Get the selected card terminal. */
@@ -965,16 +1035,14 @@ public class MainActivity extends AppCompatActivity
 
                 /* Load the settings. */
                 CardTerminal terminal = mTerminalAdapter.getTerminal(index);
-                SharedPreferences sharedPref = getSharedPreferences(
-                        "com.acs.bletest." + terminal.getName(), Context.MODE_PRIVATE);
-                boolean defaultKeyUsed = sharedPref.getBoolean(KEY_PREF_USE_DEFAULT_KEY, true);
-                String newKey = sharedPref.getString(KEY_PREF_NEW_KEY, null);
+                TerminalProfileStore.Profile profile =
+                        mProfileStore.getProfile(terminal.getName());
 
                 /* Show the dialog. */
                 MasterKeyDialogFragment fragment = new MasterKeyDialogFragment();
                 fragment.setTerminalName(terminal.getName());
-                fragment.setDefaultKeyUsed(defaultKeyUsed);
-                fragment.setNewKey(newKey);
+                fragment.setDefaultKeyUsed(profile.isDefaultKeyUsed());
+                fragment.setNewKey(profile.getNewKey());
                 fragment.show(getSupportFragmentManager(), "set_master_key");
                 break;
             }
@@ -1173,6 +1241,73 @@ public class MainActivity extends AppCompatActivity
                 break;
             }
 
+            case R.id.menu_convert_script: {
+                /* Get the selected filename. */
+                final String filename = mFilenameTextView.getText().toString();
+                if (filename.isEmpty()) {
+
+                    mLogger.logMsg("Error: File not selected");
+                    break;
+                }
+
+                /* Convert the script. */
+                item.setEnabled(false);
+                new Thread(new Runnable() {
+
+                    @Override
+                    public void run() {
+
+                        try {
+
+                            mLogger.logMsg("Converting %s...", filename);
+                            File binaryFile = convertScript(filename);
+                            mLogger.logMsg("Binary Script: %s", binaryFile.getAbsolutePath());
+
+                        } catch (FileNotFoundException e) {
+
+                            mLogger.logMsg("Error: Script file not found");
+
+                        } catch (IOException e) {
+
+                            mLogger.logMsg("Error: %s", e.getMessage());
+                        }
+
+                        runOnUiThread(new Runnable() {
+
+                            @Override
+                            public void run() {
+                                item.setEnabled(true);
+                            }
+                        });
+                    }
+                }).start();
+                break;
+            }
+
+            case R.id.menu_read_all_terminals: {
+                /* Wait for Transmit or Control to finish. */
+                if (mReadingAllTerminals || (mNumSingleReads > 0)) {
+
+                    mLogger.logMsg("Error: Card terminal busy");
+                    break;
+                }
+
+                /* Get the selected filename. */
+                String filename = mFilenameTextView.getText().toString();
+                if (filename.isEmpty()) {
+
+                    mLogger.logMsg("Error: File not selected");
+                    break;
+                }
+
+                /* Get the protocol. */
+                String protocol = getSelectedProtocol();
+                if (protocol != null) {
+                    readAllTerminals(item, filename, protocol);
+                }
+                break;
+            }
+
             case R.id.menu_show_card_state:
                 /* Get the selected card terminal. */
                 int index = mTerminalSpinner.getSelectedItemPosition();
@@ -1185,12 +1320,28 @@ public class MainActivity extends AppCompatActivity
                 /* Show or hide the card state. */
                 CardTerminal terminal = mTerminalAdapter.getTerminal(index);
                 if (mCardStateMonitor.isTerminalEnabled(terminal)) {
+
+                    /* The card removal cannot be detected without the monitor. */
                     mCardStateMonitor.removeTerminal(terminal);
+                    mSessionManager.close(terminal);
+
                 } else {
                     mCardStateMonitor.addTerminal(terminal);
                 }
                 break;
 
+            case R.id.menu_show_metrics:
+                /* Log the metrics in the dump format. */
+                mLogger.logMsg("Metrics:");
+                for (String line : mMetrics.dump().split("\n")) {
+                    if (!line.isEmpty()) {
+                        mLogger.logMsg("%s", line);
+                    }
+                }
+                mLogger.logMsg("Recent Reads: %d (%d hits, %d misses)", mReadCache.size(),
+                        mReadCache.getHitCount(), mReadCache.getMissCount());
+                break;
+
             case R.id.menu_settings:
                 Intent intent = new Intent(this, SettingsActivity.class);
                 startActivity(intent);
@@ -1234,15 +1385,12 @@ public class MainActivity extends AppCompatActivity
     }
 
     /**
-     * Runs the script.
+     * Opens the log file named after the current time.
      *
-     * @param card     the card
-     * @param filename the filename
-     * @param listener the listener for sending command
+     * @since 0.6
      */
-    private void runScript(Card card, String filename, OnCommandSentListener listener) {
+    private void openLogFile() {
 
-        /* Opens the log file. */
         File logDir = getDir("Logs");
         DateFormat dateFormat = new SimpleDateFormat("yyyyMMddHHmmss", Locale.US);
         Date date = new Date();
@@ -1252,140 +1400,426 @@ public class MainActivity extends AppCompatActivity
         } catch (IOException e) {
             mLogger.logMsg("Error: Log file open failed");
         }
+    }
+
+    /**
+     * Gets the protocol selected by the check boxes.
+     *
+     * @return the protocol or {@code null} if it is not selected
+     * @since 0.6
+     */
+    private String getSelectedProtocol() {
+
+        String protocol;
+        if (mT0CheckBox.isChecked()) {
+            if (mT1CheckBox.isChecked()) {
+                protocol = "*";
+            } else {
+                protocol = "T=0";
+            }
+        } else {
+            if (mT1CheckBox.isChecked()) {
+                protocol = "T=1";
+            } else {
+                mLogger.logMsg("Error: Protocol not selected");
+                protocol = null;
+            }
+        }
+
+        return protocol;
+    }
 
-        mLogger.logMsg("Running the script...");
-        BufferedReader bufferedReader = null;
+    /**
+     * Connects to the card or reuses the session, runs the script and keeps the session if the
+     * card is still present.  The session is closed if there is an error.
+     *
+     * @param terminal the card terminal
+     * @param protocol the protocol
+     * @param filename the filename
+     * @param verbose  {@code true} to log each command, otherwise {@code false}
+     * @return {@code true} if all commands are sent, otherwise {@code false}.
+     * @throws CardException if the card cannot be connected
+     * @since 0.6
+     */
+    private boolean readCard(CardTerminal terminal, String protocol, String filename,
+            boolean verbose) throws CardException {
 
+        boolean completed;
         try {
 
-            /* Open the script file. */
-            mLogger.logMsg("Opening %s...", filename);
-            bufferedReader = getBufferedReader(filename);
-            // way 1 send data as http to server
-              //HttpURLConnection urlConnection = null;
-            // way 2 open browser and pass paramether to server
-            Intent browser = new Intent(Intent.ACTION_VIEW);
+            /* Connect to the card or reuse the session. */
+            CardSessionManager.Session session = mSessionManager.getSession(terminal);
+            if ((session != null) && session.getProtocol().equals(protocol)) {
 
-            String data = "";
-            String sendUrl = "";
-            int numCommands = 0;
-            while (true) {
+                mLogger.logMsg("Reusing the card session (%s, %s)...", terminal.getName(),
+                        protocol);
 
-                boolean commandLoaded = false;
-                boolean responseLoaded = false;
-                byte[] command = null;
+            } else {
 
-                /* Read the first line. */
-                //String line = bufferedReader.readLine();
-                String line = null;
-                while((line = bufferedReader.readLine()) != null) {
-				//while (line != null) {
-					//commandLoaded = false;
-                    mLogger.logMsg("Line:");
-                    mLogger.logMsg(line);
-                    /* Skip the comment line. */
-                    if ((line.length() > 0) && (line.charAt(0) != ';')) {
+                mLogger.logMsg("Connecting to the card (%s, %s)...", terminal.getName(),
+                        protocol);
+                session = mSessionManager.open(terminal, protocol);
+            }
 
-                        if (!commandLoaded) {
+            Card card = session.getCard();
+            final CardChannel channel = session.getChannel();
 
-                            command = Hex.toByteArray(line);
-                            mLogger.logMsg("cmdL:");
-                            mLogger.logBuffer(command);
+            if (verbose) {
 
-                            if ((command != null) && (command.length > 0)) {
-                                commandLoaded = true;
+                /* Get the ATR string. */
+                mLogger.logMsg("ATR:");
+                mLogger.logBuffer(session.getAtr());
 
-                            }
+                /* Get the active protocol. */
+                mLogger.logMsg("Active Protocol: %s", card.getProtocol());
+            }
 
-                        } else {
+            /* Run the script. */
+            completed = runScript(terminal, card, channel, filename,
+                    new OnCommandSentListener() {
 
-                            if (checkLine(line) > 0) {
-                                responseLoaded = true;
-                            }
-                        }
-                    } else {
-                        if(line.contains("url=")){
-                            sendUrl =line.split("=")[1];
-                        }
-                    }
+                @Override
+                public byte[] onCommandSent(Card card, CompiledScript.Command command)
+                        throws CardException {
 
-                    if (commandLoaded && responseLoaded) {
-                        break;
+                    CommandAPDU commandAPDU = command.getApdu();
+                    if (commandAPDU == null) {
+                        commandAPDU = new CommandAPDU(command.getBytes());
                     }
 
-                    /* Read the next line. */
-                    //line = bufferedReader.readLine();
+                    ResponseAPDU responseAPDU = channel.transmit(commandAPDU);
+
+                    return responseAPDU.getBytes();
                 }
+            }, verbose);
 
-                if (!commandLoaded || !responseLoaded) {
-                    break;
+        } catch (CardException e) {
+
+            mSessionManager.close(terminal);
+            throw e;
+        }
+
+        /*
+         * Keep the session while the card state monitor reports the card is present.  Otherwise,
+         * the card removal cannot be detected.
+         */
+        if (completed && (mCardStateMonitor.getCardState(terminal)
+                == CardStateMonitor.CARD_STATE_PRESENT)) {
+
+            mLogger.logMsg("Keeping the card session (%s)...", terminal.getName());
+
+        } else {
+
+            /* Disconnect from the card. */
+            mLogger.logMsg("Disconnecting the card (%s)...", terminal.getName());
+            mSessionManager.close(terminal);
+        }
+
+        return completed;
+    }
+
+    /**
+     * Reads the cards in all connected card terminals at the same time.  The log file is shared
+     * by the card terminals and each command is not logged.
+     *
+     * @param item     the menu item
+     * @param filename the filename
+     * @param protocol the protocol
+     * @since 0.6
+     */
+    private void readAllTerminals(final MenuItem item, final String filename,
+            final String protocol) {
+
+        List<CardTerminal> terminals = TerminalList.getInstance().getTerminals();
+        if (terminals.isEmpty()) {
+
+            mLogger.logMsg("Error: Card terminal not found");
+            return;
+        }
+
+        /* Clear the log. */
+        mLogger.clear();
+        openLogFile();
+        mLogger.logMsg("Reading %d card terminals (%d at a time)...", terminals.size(),
+                mMultiTerminalReader.getMaxConcurrency());
+
+        mReadingAllTerminals = true;
+        item.setEnabled(false);
+        mMultiTerminalReader.readAll(terminals, new MultiTerminalReader.ReadTask<Boolean>() {
+
+            @Override
+            public Boolean read(CardTerminal terminal) throws CardException {
+                return readCard(terminal, protocol, filename, false);
+            }
+        }, new MultiTerminalReader.OnReadListener<Boolean>() {
+
+            @Override
+            public void onRead(MultiTerminalReader.Result<Boolean> result) {
+
+                String name = result.getTerminal().getName();
+                if (!result.isSuccessful()) {
+                    mLogger.logMsg("%s: Error: %s", name, result.getError().getMessage());
+                } else if (result.getValue()) {
+                    mLogger.logMsg("%s: Script completed (%d ms)", name, result.getElapsedTime());
+                } else {
+                    mLogger.logMsg("%s: Script not completed", name);
+                }
+            }
+
+            @Override
+            public void onComplete(List<MultiTerminalReader.Result<Boolean>> results) {
+
+                int numCompleted = 0;
+                for (MultiTerminalReader.Result<Boolean> result : results) {
+                    if (result.isSuccessful() && result.getValue()) {
+                        numCompleted++;
+                    }
                 }
 
+                mLogger.logMsg("Completed: %d/%d", numCompleted, results.size());
+                mLogger.closeLogFile();
+                runOnUiThread(new Runnable() {
+
+                    @Override
+                    public void run() {
+
+                        mReadingAllTerminals = false;
+                        item.setEnabled(true);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Acquires the card terminal for Transmit or Control.  The card terminal is not acquired if
+     * it is being read or Read All Terminals is running.  This method must be called on the UI
+     * thread.
+     *
+     * @param terminal the card terminal
+     * @return {@code true} if the card terminal is acquired, otherwise {@code false}
+     * @since 0.6
+     */
+    private boolean acquireTerminal(CardTerminal terminal) {
+
+        if (mReadingAllTerminals || !mMultiTerminalReader.tryAcquire(terminal)) {
+
+            mLogger.logMsg("Error: Card terminal busy");
+            return false;
+        }
+
+        mNumSingleReads++;
+        invalidateOptionsMenu();
+        return true;
+    }
+
+    /**
+     * Updates the options menu after Transmit or Control releases the card terminal.  This
+     * method must be called on the UI thread.
+     *
+     * @since 0.6
+     */
+    private void releaseTerminal() {
+
+        mNumSingleReads--;
+        invalidateOptionsMenu();
+    }
+
+    /**
+     * Runs the script.
+     *
+     * @param terminal the card terminal
+     * @param card     the card
+     * @param channel  the card channel to read the photo with {@link ThaiIdPhotoReader} or
+     *                 {@code null} to send the photo commands of the script
+     * @param filename the filename
+     * @param listener the listener for sending command
+     * @param verbose  {@code true} to log each command and the record, {@code false} to log the
+     *                 errors only when the card terminals are read at the same time
+     * @return {@code true} if all commands are sent, otherwise {@code false}.
+     */
+    private boolean runScript(CardTerminal terminal, Card card, CardChannel channel,
+            String filename, OnCommandSentListener listener, boolean verbose) {
+
+        boolean completed = false;
+        long scriptStartTime = System.nanoTime();
+        RecentReadCache.Entry cachedEntry = null;
+
+        if (verbose) {
+            mLogger.logMsg("Running the script...");
+        }
+
+        try {
+
+            /* Get the compiled script. */
+            CompiledScript script = getCompiledScript(filename);
+
+            /* Select the commands of the requested fields. */
+            Set<PersonalIdField> fields = getSelectedFields();
+            boolean[] skipped = null;
+            if (fields.size() < PersonalIdField.values().length) {
+
+                skipped = ThaiIdCardReader.getSkippedCommands(script, fields);
+                script = ThaiIdCardReader.selectFields(script, fields);
+                if (verbose) {
+
+                    mLogger.logMsg("Fields: %s", fields);
+                    mLogger.logMsg("Selected Commands: %d", script.getCommandCount());
+                }
+            }
+
+            boolean verified = isResponseVerified();
+            byte[][] responses = new byte[script.getCommandCount()][];
+            byte[] atr = null;
+            ResultAccumulator data = new ResultAccumulator();
+            String sendUrl = script.getUrl();
+            PersonalIdDecoder decoder = new PersonalIdDecoder();
+            byte[][] photoResponses = null;
+            int photoStart = 0;
+            int numCommands = 0;
+            int scriptIndex = 0;
+            for (int commandIndex = 0; commandIndex < script.getCommandCount(); commandIndex++) {
+
+                CompiledScript.Command command = script.getCommand(commandIndex);
+
+                /* Keep the fields of the form data in place. */
+                scriptIndex = appendSkippedFields(data, skipped, scriptIndex) + 1;
+
                 /* Increment the number of loaded commands. */
                 numCommands++;
 
-                mLogger.logMsg("Command:");
-                mLogger.logBuffer(command);
+                if (verbose) {
+
+                    mLogger.logMsg("Command:");
+                    mLogger.logBuffer(command.getBytes());
+                }
+
+                /* Take the response from the recent read or send the command. */
+                byte[] response = null;
+                if (cachedEntry != null) {
+                    response = cachedEntry.getResponse(commandIndex, command.getBytes());
+                }
+
+                boolean cached = response != null;
+
+                /* Read the photo at once and take the responses of the photo commands. */
+                if (!cached && (channel != null)) {
 
-                /* Send the command. */
-                long startTime = SystemClock.elapsedRealtime();
-                byte[] response = listener.onCommandSent(card, command);
-                long time = Math.abs(SystemClock.elapsedRealtime() - startTime);
+                    if (((photoResponses == null)
+                            || (commandIndex >= photoStart + photoResponses.length))
+                            && ThaiIdCardReader.isPhotoCommand(command.getBytes())) {
 
-                // send data as hex string
+                        photoResponses = readPhoto(terminal, channel, script, commandIndex,
+                                verbose);
+                        photoStart = commandIndex;
+                    }
 
-                StringBuilder sb = new StringBuilder();
-                //for (byte b : response) {
-                for(int i=0;i<response.length;i++){
-                    byte b =response[i];
-                    if(i<=response.length-3) {
-                        sb.append(String.format("%02X", b));
+                    if ((photoResponses != null) && (commandIndex >= photoStart)
+                            && (commandIndex < photoStart + photoResponses.length)) {
+                        response = photoResponses[commandIndex - photoStart];
                     }
                 }
-                //data += (new String(sb))+ ";";
-                // cut out 90 00
-                byte[] b = new byte[sb.length() / 2];
-                for (int i = 0; i < b.length; i++) {
-                    int index = i * 2;
-                    int v = Integer.parseInt(sb.substring(index, index + 2), 16);
-                    b[i] = (byte) v;
+
+                boolean photo = !cached && (response != null);
+                long nanos = 0;
+                if (!cached && !photo) {
+
+                    long startTime = System.nanoTime();
+                    try {
+                        response = listener.onCommandSent(card, command);
+                    } catch (CardException e) {
+
+                        mMetrics.recordCommandError(terminal.getName());
+                        throw e;
+                    }
+                    nanos = System.nanoTime() - startTime;
+                    mMetrics.recordCommand(terminal.getName(), command.getBytes(),
+                            response.length, nanos);
                 }
+                long time = nanos / 1000000;
+                responses[commandIndex] = response;
+                decoder.decode(command.getBytes(), response);
 
-                data += (new String(b, "TIS620"))+ ";";
+                /* Look up the recent read after the citizen ID is read. */
+                if ((atr == null) && decoder.getRecord().hasField(PersonalIdField.CITIZEN_ID)) {
 
+                    atr = card.getATR().getBytes();
+                    cachedEntry = mReadCache.get(atr, decoder.getRecord().getCitizenId());
+                    if (cachedEntry != null) {
+                        mLogger.logMsg("Using the recent read (%s)...", terminal.getName());
+                    }
+                }
 
-                mLogger.logMsg("Response:");
-                mLogger.logBuffer(response);
+                /* Decode the response data without the status word. */
+                int dataStart = data.appendField(response, 0, Math.max(0, response.length - 2));
 
-                mLogger.logMsg("Data:");
-                mLogger.logMsg(data);
+                if (verbose) {
 
-                mLogger.logMsg("Bytes Sent    : %d", command.length);
-                mLogger.logMsg("Bytes Received: %d", response.length);
-                mLogger.logMsg("Transfer Time : %d ms", time);
-                mLogger.logMsg("Transfer Rate : %.2f bytes/second",
-                        (command.length + response.length) * 1000.0 / time);
-               
-                mLogger.logMsg("Expected:");
-                mLogger.logHexString(line);
+                    if (cached) {
+                        mLogger.logMsg("Response (Recent Read):");
+                    } else if (photo) {
+                        mLogger.logMsg("Response (Photo):");
+                    } else {
+                        mLogger.logMsg("Response:");
+                    }
+                    mLogger.logBuffer(response);
 
-                /* Compare the response. */
-            /*
-                if (compareResponse(line, response)) {
+                    mLogger.logMsg("Data:");
+                    mLogger.logMsg(data.subSequence(dataStart, data.length() - 1).toString());
 
-                    mLogger.logMsg("Compare OK");
+                    if (!cached && !photo) {
 
-                } else {
-					mLogger.logBuffer(response);;
-					//mLogger.logMsg(response);
-                    mLogger.logMsg("Msg: Unexpected response");
-                    break;
+                        mLogger.logMsg("Bytes Sent    : %d", command.getBytes().length);
+                        mLogger.logMsg("Bytes Received: %d", response.length);
+                        mLogger.logMsg("Transfer Time : %d ms", time);
+                        mLogger.logMsg("Transfer Rate : %.2f bytes/second",
+                                (command.getBytes().length + response.length) * 1000000000.0
+                                        / Math.max(1, nanos));
+                    }
+
+                    mLogger.logMsg("Expected:");
+                    mLogger.logHexString(command.getExpectedResponse().toString());
+                }
+
+                /* Compare the response.  The photo reader checks the status words itself. */
+                if (verified && !photo) {
+                    if (command.getExpectedResponse().matches(response)) {
+
+                        if (verbose) {
+                            mLogger.logMsg("Compare OK");
+                        }
+
+                    } else {
+
+                        mLogger.logMsg("Error: Unexpected response (%s, command %d)",
+                                terminal.getName(), commandIndex + 1);
+                        if (!verbose) {
+                            mLogger.logBuffer(response);
+                        }
+
+                        return false;
+                    }
                 }
-            */
             }
-            if(sendUrl=="") {sendUrl="https://pq-soft.com/api/getPid.php";}
-            browser.setData(Uri.parse(sendUrl+"?data="+data.replaceAll("#", " ")));
-            startActivity(browser);
+            appendSkippedFields(data, skipped, scriptIndex);
+            completed = true;
+            if (verbose) {
+                logRecord(decoder.getRecord());
+            }
+
+            /* Keep the responses for the card put back. */
+            if ((atr != null) && (cachedEntry == null)) {
+                mReadCache.put(atr, decoder.getRecord().getCitizenId(), script, responses);
+            }
+            if(sendUrl.isEmpty()) {sendUrl="https://pq-soft.com/api/getPid.php";}
+
+            /* Queue the result for upload. */
+            if (isCompactUploadFormat()) {
+                queueResult(sendUrl,
+                        new PersonalIdRecordEncoder(false).toRequestBody(decoder.getRecord()));
+            } else {
+                queueResult(sendUrl, data.toFormBody("data"));
+            }
             if (numCommands == 0) {
                 mLogger.logMsg("Error: Cannot load the command");
             }
@@ -1412,123 +1846,284 @@ public class MainActivity extends AppCompatActivity
 
         } finally {
 
-            /* Close the script file. */
-            if (bufferedReader != null) {
+            mMetrics.recordScript(terminal.getName(), System.nanoTime() - scriptStartTime,
+                    completed);
 
-                mLogger.logMsg("Closing %s...", filename);
-                try {
-                    bufferedReader.close();
-                } catch (IOException e) {
-                    e.printStackTrace();
-                }
+            /* Wipe the copy of the recent read. */
+            if (cachedEntry != null) {
+                cachedEntry.wipe();
             }
-
-            /* Close the log file. */
-            mLogger.closeLogFile();
         }
+
+        return completed;
     }
 
     /**
-     * Checks the line.
+     * Appends an empty field for each command skipped from the index of the script so that the
+     * server finds the fields at the same positions as the full script.
      *
-     * @param line the line
-     * @return the number of characters
+     * @param data    the result accumulator
+     * @param skipped the skipped commands or {@code null} if all commands are sent
+     * @param index   the command index of the full script
+     * @return the command index of the full script after the skipped commands
+     * @since 0.6
      */
-    private int checkLine(String line) {
+    private static int appendSkippedFields(ResultAccumulator data, boolean[] skipped,
+            int index) {
 
-        int count = 0;
+        if (skipped != null) {
+            while ((index < skipped.length) && skipped[index]) {
 
-        if (line != null) {
+                data.appendField(EMPTY, 0, 0);
+                index++;
+            }
+        }
 
-            for (int i = 0; i < line.length(); i++) {
+        return index;
+    }
 
-                char c = line.charAt(i);
-                if (((c >= '0') && (c <= '9'))
-                        || ((c >= 'A') && (c <= 'F'))
-                        || ((c >= 'a') && (c <= 'f'))
-                        || (c == 'X')
-                        || (c == 'x')) {
-                    count++;
-                }
+    /**
+     * Reads the photo with {@link ThaiIdPhotoReader} and returns the responses of the photo
+     * commands of the script.
+     *
+     * @param terminal the card terminal
+     * @param channel  the card channel
+     * @param script   the compiled script
+     * @param index    the index of the first photo command
+     * @param verbose  {@code true} to log the photo
+     * @return the responses of the photo commands
+     * @throws CardException if the card operation failed
+     * @since 0.6
+     */
+    private byte[][] readPhoto(final CardTerminal terminal, CardChannel channel,
+            CompiledScript script, int index, boolean verbose) throws CardException {
+
+        if (verbose) {
+            mLogger.logMsg("Reading the photo...");
+        }
+
+        /* Record each command of the photo reader. */
+        ThaiIdPhotoReader photoReader = new ThaiIdPhotoReader(channel);
+        photoReader.setOnCommandListener(new ThaiIdPhotoReader.OnCommandListener() {
+
+            @Override
+            public void onCommand(byte[] command, int bytesReceived, long nanos) {
+                mMetrics.recordCommand(terminal.getName(), command, bytesReceived, nanos);
             }
+        });
+
+        long startTime = System.nanoTime();
+        int length;
+        try {
+            length = photoReader.read();
+        } catch (CardException e) {
+
+            mMetrics.recordCommandError(terminal.getName());
+            throw e;
         }
+        long nanos = System.nanoTime() - startTime;
+
+        if (verbose) {
 
-        return count;
+            mLogger.logMsg("Photo Size    : %d bytes", length);
+            mLogger.logMsg("Transfer Time : %d ms", nanos / 1000000);
+        }
+
+        return ThaiIdCardReader.toPhotoResponses(script, index, photoReader.getBuffer(), length);
     }
 
     /**
-     * Compares the response with line.
+     * Writes the result to the journal for upload.
      *
-     * @param line     the line
-     * @param response the response
-     * @return {@code true} if they are equal, otherwise {@code false}.
+     * @param url  the URL
+     * @param body the body
+     * @since 0.6
      */
-    private boolean compareResponse(String line, byte[] response) {
+    private void queueResult(String url, ResultUploader.RequestBody body) {
 
-        boolean ret = true;
-        int length = 0;
-        boolean first = true;
-        int j = 0;
+        if (mForwarder == null) {
 
-        /* Check the parameter. */
-        if ((line == null) || (response == null)) {
-            return false;
+            mLogger.logMsg("Error: Result journal not available");
+            return;
         }
 
-        for (int i = 0; i < line.length(); i++) {
+        try {
 
-            char c = line.charAt(i);
-            int num;
+            mForwarder.submit(url, body);
+            mLogger.logMsg("Result queued for %s (%d pending)", url,
+                    mForwarder.getJournal().size());
 
-            if ((c >= '0') && (c <= '9')) {
-                num = c - '0';
-            } else if ((c >= 'A') && (c <= 'F')) {
-                num = c - 'A' + 10;
-            } else if ((c >= 'a') && (c <= 'f')) {
-                num = c - 'a' + 10;
-            } else {
-                num = -1;
+        } catch (IOException e) {
+
+            mLogger.logMsg("Error: Result journal write failed");
+        }
+    }
+
+    /**
+     * Returns {@code true} if the results are uploaded in the compact binary format.
+     *
+     * @return {@code true} if the compact format is selected, otherwise {@code false}.
+     * @since 0.6
+     */
+    private boolean isCompactUploadFormat() {
+
+        SharedPreferences sharedPref = PreferenceManager.getDefaultSharedPreferences(this);
+        return "compact".equals(sharedPref.getString(SettingsActivity.KEY_PREF_UPLOAD_FORMAT,
+                "form"));
+    }
+
+    /**
+     * Returns {@code true} if the responses are compared with the expected responses of the
+     * script.
+     *
+     * @return {@code true} if the responses are verified, otherwise {@code false}.
+     * @since 0.6
+     */
+    private boolean isResponseVerified() {
+
+        SharedPreferences sharedPref = PreferenceManager.getDefaultSharedPreferences(this);
+        return sharedPref.getBoolean(SettingsActivity.KEY_PREF_VERIFY_RESPONSE, true);
+    }
+
+    /**
+     * Returns the personal ID fields selected in the settings.
+     *
+     * @return the fields
+     * @since 0.6
+     */
+    private Set<PersonalIdField> getSelectedFields() {
+
+        SharedPreferences sharedPref = PreferenceManager.getDefaultSharedPreferences(this);
+        Set<String> values = sharedPref.getStringSet(SettingsActivity.KEY_PREF_ID_FIELDS, null);
+        if (values == null) {
+            return EnumSet.allOf(PersonalIdField.class);
+        }
+
+        Set<PersonalIdField> fields = EnumSet.noneOf(PersonalIdField.class);
+        for (String value : values) {
+            try {
+                fields.add(PersonalIdField.valueOf(value));
+            } catch (IllegalArgumentException e) {
+                Log.w(TAG, "Unknown field: " + value);
             }
+        }
 
-            if ((num >= 0) || (c == 'X') || (c == 'x')) {
+        return fields;
+    }
 
-                /* Increment the string length. */
-                length++;
+    /**
+     * Logs the fields of the personal ID record.
+     *
+     * @param record the record
+     * @since 0.6
+     */
+    private void logRecord(PersonalIdRecord record) {
 
-                if (j >= response.length) {
+        if (record.hasField(PersonalIdField.CITIZEN_ID)) {
+            mLogger.logMsg("Citizen ID    : %s", record.getCitizenId());
+        }
 
-                    ret = false;
-                    break;
-                }
+        if (record.hasField(PersonalIdField.THAI_NAME)) {
+            mLogger.logMsg("Thai Name     : %s", record.getThaiName());
+        }
 
-                int num2;
-                if (first) {
-                    num2 = (response[j] >> 4) & 0x0F;
-                } else {
-                    num2 = response[j++] & 0x0F;
-                }
+        if (record.hasField(PersonalIdField.ENGLISH_NAME)) {
+            mLogger.logMsg("English Name  : %s", record.getEnglishName());
+        }
 
-                first = !first;
+        if (record.hasField(PersonalIdField.BIRTH_DATE)) {
+            mLogger.logMsg("Birth Date    : %s", record.getBirthDate());
+        }
 
-                if ((c == 'X') || (c == 'x')) {
-                    num = num2;
-                }
+        if (record.hasField(PersonalIdField.GENDER)) {
+            mLogger.logMsg("Gender        : %d", record.getGender());
+        }
 
-                /* Compare two numbers. */
-                if (num2 != num) {
+        if (record.hasField(PersonalIdField.CARD_ISSUER)) {
+            mLogger.logMsg("Card Issuer   : %s", record.getCardIssuer());
+        }
 
-                    ret = false;
-                    break;
-                }
-            }
+        if (record.hasField(PersonalIdField.ISSUE_DATE)) {
+            mLogger.logMsg("Issue Date    : %s", record.getIssueDate());
         }
 
-        /* Return false if the length is not matched. */
-        if (length != 2 * response.length) {
-            ret = false;
+        if (record.hasField(PersonalIdField.EXPIRY_DATE)) {
+            mLogger.logMsg("Expiry Date   : %s", record.getExpiryDate());
         }
 
-        return ret;
+        if (record.hasField(PersonalIdField.ADDRESS)) {
+            mLogger.logMsg("Address       : %s", record.getAddress());
+        }
+
+        if (record.hasField(PersonalIdField.PHOTO)) {
+            mLogger.logMsg("Photo         : %d bytes", record.getPhoto().length);
+        }
+    }
+
+    /**
+     * Gets the compiled script.  The script is compiled only if it is not compiled or it is
+     * modified since the last compilation.  If the modification time is unknown, the script is
+     * compiled every time.
+     *
+     * @param filename the filename
+     * @return the compiled script
+     * @throws IOException if there is an error in reading the script
+     * @since 0.6
+     */
+    private CompiledScript getCompiledScript(String filename) throws IOException {
+
+        synchronized (mScriptLock) {
+
+            /* Get the key and the modification time of the script. */
+            String key;
+            long lastModified;
+            if (mScriptFileUri == null) {
+
+                key = filename;
+                lastModified = new File(filename).lastModified();
+
+            } else {
+
+                key = mScriptFileUri.toString();
+                lastModified = getLastModified(mScriptFileUri);
+            }
+
+            /* Return the cached script if it is not changed. */
+            if ((mCompiledScript != null) && (lastModified > 0) && key.equals(mCompiledScriptKey)
+                    && (lastModified == mCompiledScriptLastModified)) {
+                return mCompiledScript;
+            }
+
+            if (filename.toLowerCase(Locale.US).endsWith(BinaryScript.FILE_EXTENSION)) {
+
+                /* Load the binary script. */
+                mLogger.logMsg("Loading %s...", filename);
+                mCompiledScript = loadBinaryScript(filename);
+
+            } else {
+
+                /* Compile the text script. */
+                mLogger.logMsg("Compiling %s...", filename);
+                BufferedReader bufferedReader = getBufferedReader(filename);
+                try {
+                    mCompiledScript = CompiledScript.compile(bufferedReader);
+                } finally {
+
+                    /* Close the script file. */
+                    try {
+                        bufferedReader.close();
+                    } catch (IOException e) {
+                        e.printStackTrace();
+                    }
+                }
+            }
+
+            mCompiledScriptKey = key;
+            mCompiledScriptLastModified = lastModified;
+
+            mLogger.logMsg("Commands: %d", mCompiledScript.getCommandCount());
+            return mCompiledScript;
+        }
     }
 
     /**
@@ -1601,6 +2196,120 @@ public class MainActivity extends AppCompatActivity
         return displayName;
     }
 
+    /**
+     * Returns the modification time of the document.
+     *
+     * @param uri the URI
+     * @return the modification time or 0 if it is unknown
+     * @since 0.6
+     */
+    private long getLastModified(Uri uri) {
+
+        long lastModified = 0;
+
+        Cursor cursor = null;
+        try {
+            cursor = getContentResolver().query(uri,
+                    new String[] { DocumentsContract.Document.COLUMN_LAST_MODIFIED }, null, null,
+                    null, null);
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+
+        if (cursor != null) {
+            try {
+                int columnIndex =
+                        cursor.getColumnIndex(DocumentsContract.Document.COLUMN_LAST_MODIFIED);
+                if ((columnIndex >= 0) && cursor.moveToFirst() && !cursor.isNull(columnIndex)) {
+                    lastModified = cursor.getLong(columnIndex);
+                }
+            } finally {
+                cursor.close();
+            }
+        }
+
+        return lastModified;
+    }
+
+    /**
+     * Loads the binary script by mapping the file to memory.
+     *
+     * @param filename the filename
+     * @return the compiled script
+     * @throws IOException if there is an error in reading the script
+     * @since 0.6
+     */
+    private CompiledScript loadBinaryScript(String filename) throws IOException {
+
+        CompiledScript script;
+
+        if (mScriptFileUri == null) {
+
+            script = BinaryScript.load(new File(filename));
+
+        } else {
+
+            ParcelFileDescriptor fileDescriptor =
+                    getContentResolver().openFileDescriptor(mScriptFileUri, "r");
+            if (fileDescriptor == null) {
+                throw new FileNotFoundException();
+            }
+
+            try {
+
+                FileInputStream inputStream =
+                        new FileInputStream(fileDescriptor.getFileDescriptor());
+                try {
+                    script = BinaryScript.load(inputStream.getChannel());
+                } finally {
+                    inputStream.close();
+                }
+
+            } finally {
+                fileDescriptor.close();
+            }
+        }
+
+        return script;
+    }
+
+    /**
+     * Converts the text script to the binary script.
+     *
+     * @param filename the filename
+     * @return the binary script file
+     * @throws IOException if there is an error in reading or writing the script
+     * @since 0.6
+     */
+    private File convertScript(String filename) throws IOException {
+
+        /* Get the binary script file. */
+        String name = new File(filename).getName();
+        int index = name.lastIndexOf('.');
+        if (index > 0) {
+            name = name.substring(0, index);
+        }
+
+        File binaryFile = new File(getDir("Scripts"), name + BinaryScript.FILE_EXTENSION);
+
+        /* Convert the script. */
+        BufferedReader bufferedReader = getBufferedReader(filename);
+        try {
+
+            FileOutputStream outputStream = new FileOutputStream(binaryFile);
+            try {
+                BinaryScript.convert(bufferedReader, outputStream);
+            } finally {
+                outputStream.close();
+            }
+
+        } finally {
+            bufferedReader.close();
+        }
+
+        return binaryFile;
+    }
+
     /**
      * Gets the buffered reader.
      *
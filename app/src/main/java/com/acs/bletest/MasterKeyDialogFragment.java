@@ -24,6 +24,8 @@ import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatDialogFragment;
 import androidx.fragment.app.DialogFragment;
 
+import com.acs.pidcore.Hex;
+
 /**
  * The {@code MasterKeyDialogFragment} class shows the master key settings of card terminal.
  *
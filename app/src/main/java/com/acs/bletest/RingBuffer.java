@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2026 Advanced Card Systems Ltd. All rights reserved.
+ *
+ * This software is the confidential and proprietary information of Advanced
+ * Card Systems Ltd. ("Confidential Information").  You shall not disclose such
+ * Confidential Information and shall use it only in accordance with the terms
+ * of the license agreement you entered into with ACS.
+ */
+
+package com.acs.bletest;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The {@code RingBuffer} class is a bounded lock-free queue that can be offered by many threads
+ * and polled by a single thread.  The producers never block: {@link #offer(Object)} returns
+ * {@code false} if the buffer is full.
+ *
+ * @param <E> the type of elements
+ * @author Godfrey Chung
+ * @version 1.0, 17 Oct 2026
+ * @since 0.6
+ */
+public final class RingBuffer<E> {
+
+    private final AtomicReferenceArray<E> mElements;
+    private final int mMask;
+    private final AtomicLong mHead = new AtomicLong();
+    private final AtomicLong mTail = new AtomicLong();
+
+    /**
+     * Creates an instance of {@code RingBuffer}.
+     *
+     * @param capacity the capacity which is rounded up to the power of two
+     */
+    public RingBuffer(int capacity) {
+
+        if ((capacity <= 0) || (capacity > (1 << 30))) {
+            throw new IllegalArgumentException("Capacity out of range");
+        }
+
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+
+        mElements = new AtomicReferenceArray<>(size);
+        mMask = size - 1;
+    }
+
+    /**
+     * Returns the capacity.
+     *
+     * @return the capacity
+     */
+    public int getCapacity() {
+        return mMask + 1;
+    }
+
+    /**
+     * Inserts the element.  This method can be called from any thread.
+     *
+     * @param element the element
+     * @return {@code true} if the element is inserted, or {@code false} if the buffer is full
+     */
+    public boolean offer(E element) {
+
+        if (element == null) {
+            throw new IllegalArgumentException("Element must not be null");
+        }
+
+        while (true) {
+
+            long tail = mTail.get();
+            if (tail - mHead.get() > mMask) {
+                return false;
+            }
+
+            /* Claim the slot and publish the element. */
+            if (mTail.compareAndSet(tail, tail + 1)) {
+
+                mElements.lazySet((int) tail & mMask, element);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Removes the first element.  This method must be called from the consumer thread only.
+     *
+     * @return the element or {@code null} if the buffer is empty
+     */
+    public E poll() {
+
+        long head = mHead.get();
+        int index = (int) head & mMask;
+
+        /* The slot is null if it is empty or not yet published. */
+        E element = mElements.get(index);
+        if (element != null) {
+
+            mElements.lazySet(index, null);
+            mHead.lazySet(head + 1);
+        }
+
+        return element;
+    }
+
+    /**
+     * Removes all available elements and adds them to the collection.  This method must be
+     * called from the consumer thread only.
+     *
+     * @param collection the collection
+     * @return the number of elements removed
+     */
+    public int drainTo(Collection<? super E> collection) {
+
+        int count = 0;
+        E element;
+
+        while ((element = poll()) != null) {
+
+            collection.add(element);
+            count++;
+        }
+
+        return count;
+    }
+
+    /**
+     * Removes all available elements.  This method must be called from the consumer thread only.
+     */
+    public void clear() {
+        while (poll() != null) {
+            /* Discard the element. */
+        }
+    }
+
+    /**
+     * Returns {@code true} if the buffer is empty.
+     *
+     * @return {@code true} if the buffer is empty, otherwise {@code false}.
+     */
+    public boolean isEmpty() {
+        return mTail.get() == mHead.get();
+    }
+
+    /**
+     * Returns the approximate number of elements.
+     *
+     * @return the number of elements
+     */
+    public int size() {
+        return (int) Math.max(0, mTail.get() - mHead.get());
+    }
+}
@@ -32,6 +32,18 @@ public class SettingsActivity extends AppCompatActivity {
     /** Preference key: Strip Le for T=1 */
     public static final String KEY_PREF_T1_STRIP_LE = "pref_t1_strip_le";
 
+    /** Preference key: Verify the responses */
+    public static final String KEY_PREF_VERIFY_RESPONSE = "pref_verify_response";
+
+    /** Preference key: Personal ID fields to read */
+    public static final String KEY_PREF_ID_FIELDS = "pref_id_fields";
+
+    /** Preference key: Batch mode of upload */
+    public static final String KEY_PREF_UPLOAD_BATCH_MODE = "pref_upload_batch_mode";
+
+    /** Preference key: Format of upload */
+    public static final String KEY_PREF_UPLOAD_FORMAT = "pref_upload_format";
+
     @Override
     protected void onCreate(@Nullable Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -0,0 +1,436 @@
+/*
+ * Copyright (C) 2026 Advanced Card Systems Ltd. All rights reserved.
+ *
+ * This software is the confidential and proprietary information of Advanced
+ * Card Systems Ltd. ("Confidential Information").  You shall not disclose such
+ * Confidential Information and shall use it only in accordance with the terms
+ * of the license agreement you entered into with ACS.
+ */
+
+package com.acs.bletest;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import com.acs.pidcore.Hex;
+import com.acs.smartcardio.TerminalTimeouts;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@code TerminalProfileStore} class is a singleton that keeps the master key and the
+ * timeouts of each card terminal in memory.
+ *
+ * <p>The profile of a card terminal is loaded from its shared preferences once when it is first
+ * requested.  The profiles are kept in an immutable map which is replaced on each change so that
+ * the readers never lock.  The master key is decoded when the profile is created.</p>
+ *
+ * <p>The changes are written back to the shared preferences on the writer thread after the write
+ * delay.  The changes of the same card terminal made within the delay are written in one edit,
+ * which is applied without waiting for the disk.  {@link #flush()} applies the pending changes
+ * on the caller so that the framework saves them before the activity stops.</p>
+ *
+ * @author Godfrey Chung
+ * @version 1.0, 17 Oct 2026
+ * @since 0.6
+ */
+public final class TerminalProfileStore {
+
+    /**
+     * The {@code Profile} class stores the settings of a card terminal.  It is immutable.
+     */
+    public static final class Profile {
+
+        private final String mTerminalName;
+        private final boolean mDefaultKeyUsed;
+        private final String mNewKey;
+        private final byte[] mMasterKey;
+        private final long mConnectionTimeout;
+        private final long mPowerTimeout;
+        private final long mProtocolTimeout;
+        private final long mApduTimeout;
+        private final long mControlTimeout;
+
+        /**
+         * Creates an instance of {@code Profile}.
+         *
+         * @param terminalName      the terminal name
+         * @param defaultKeyUsed    {@code true} if the default key is used
+         * @param newKey            the new key in HEX string
+         * @param connectionTimeout the connection timeout
+         * @param powerTimeout      the power timeout
+         * @param protocolTimeout   the protocol timeout
+         * @param apduTimeout       the APDU timeout
+         * @param controlTimeout    the control timeout
+         */
+        Profile(String terminalName, boolean defaultKeyUsed, String newKey,
+                long connectionTimeout, long powerTimeout, long protocolTimeout,
+                long apduTimeout, long controlTimeout) {
+
+            mTerminalName = terminalName;
+            mDefaultKeyUsed = defaultKeyUsed;
+            mNewKey = newKey;
+            mMasterKey = defaultKeyUsed ? null : Hex.toByteArray(newKey);
+            mConnectionTimeout = connectionTimeout;
+            mPowerTimeout = powerTimeout;
+            mProtocolTimeout = protocolTimeout;
+            mApduTimeout = apduTimeout;
+            mControlTimeout = controlTimeout;
+        }
+
+        /**
+         * Returns the terminal name.
+         *
+         * @return the terminal name
+         */
+        public String getTerminalName() {
+            return mTerminalName;
+        }
+
+        /**
+         * Returns {@code true} if the default key is used.
+         *
+         * @return {@code true} if the default key is used, otherwise {@code false}.
+         */
+        public boolean isDefaultKeyUsed() {
+            return mDefaultKeyUsed;
+        }
+
+        /**
+         * Returns the new key in HEX string as entered.
+         *
+         * @return the new key or {@code null} if it is not set
+         */
+        public String getNewKey() {
+            return mNewKey;
+        }
+
+        /**
+         * Returns a copy of the decoded master key.
+         *
+         * @return the master key or {@code null} if the default key is used
+         */
+        public byte[] getMasterKey() {
+            return (mMasterKey == null) ? null : mMasterKey.clone();
+        }
+
+        /**
+         * Returns the connection timeout.
+         *
+         * @return the connection timeout
+         */
+        public long getConnectionTimeout() {
+            return mConnectionTimeout;
+        }
+
+        /**
+         * Returns the power timeout.
+         *
+         * @return the power timeout
+         */
+        public long getPowerTimeout() {
+            return mPowerTimeout;
+        }
+
+        /**
+         * Returns the protocol timeout.
+         *
+         * @return the protocol timeout
+         */
+        public long getProtocolTimeout() {
+            return mProtocolTimeout;
+        }
+
+        /**
+         * Returns the APDU timeout.
+         *
+         * @return the APDU timeout
+         */
+        public long getApduTimeout() {
+            return mApduTimeout;
+        }
+
+        /**
+         * Returns the control timeout.
+         *
+         * @return the control timeout
+         */
+        public long getControlTimeout() {
+            return mControlTimeout;
+        }
+
+        /**
+         * Copies the timeouts to the terminal timeouts.
+         *
+         * @param timeouts the terminal timeouts
+         */
+        public void applyTimeouts(TerminalTimeouts timeouts) {
+
+            timeouts.setConnectionTimeout(mConnectionTimeout);
+            timeouts.setPowerTimeout(mPowerTimeout);
+            timeouts.setProtocolTimeout(mProtocolTimeout);
+            timeouts.setApduTimeout(mApduTimeout);
+            timeouts.setControlTimeout(mControlTimeout);
+        }
+
+        /**
+         * Returns the timeouts in a new {@code TerminalTimeouts}.
+         *
+         * @return the terminal timeouts
+         */
+        public TerminalTimeouts getTimeouts() {
+
+            TerminalTimeouts timeouts = new TerminalTimeouts();
+            applyTimeouts(timeouts);
+
+            return timeouts;
+        }
+    }
+
+    private static final String TAG = "TerminalProfileStore";
+    private static final String PREFS_NAME_PREFIX = "com.acs.bletest.";
+    private static final String KEY_PREF_USE_DEFAULT_KEY = "pref_use_default_key";
+    private static final String KEY_PREF_NEW_KEY = "pref_new_key";
+    private static final String KEY_PREF_CONNECTION_TIMEOUT = "pref_connection_timeout";
+    private static final String KEY_PREF_POWER_TIMEOUT = "pref_power_timeout";
+    private static final String KEY_PREF_PROTOCOL_TIMEOUT = "pref_protocol_timeout";
+    private static final String KEY_PREF_APDU_TIMEOUT = "pref_apdu_timeout";
+    private static final String KEY_PREF_CONTROL_TIMEOUT = "pref_control_timeout";
+    private static final long WRITE_DELAY = 500;
+    private static final long KEEP_ALIVE_TIME = 10;
+
+    private static TerminalProfileStore sInstance;
+
+    private final Context mContext;
+    private final Object mLock = new Object();
+    private final Object mWriteLock = new Object();
+    private volatile Map<String, Profile> mProfiles = Collections.emptyMap();
+    private final Map<String, Profile> mPendingProfiles = new LinkedHashMap<>();
+    private final ScheduledThreadPoolExecutor mWriter;
+    private ScheduledFuture<?> mWriteFuture;
+
+    private final Runnable mWriteRunnable = new Runnable() {
+
+        @Override
+        public void run() {
+            write();
+        }
+    };
+
+    /**
+     * Creates an instance of {@code TerminalProfileStore}.
+     *
+     * @param context the context
+     */
+    private TerminalProfileStore(Context context) {
+
+        mContext = context.getApplicationContext();
+        mWriter = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+
+            @Override
+            public Thread newThread(Runnable r) {
+
+                Thread thread = new Thread(r, TAG);
+                thread.setDaemon(true);
+
+                return thread;
+            }
+        });
+        mWriter.setKeepAliveTime(KEEP_ALIVE_TIME, TimeUnit.SECONDS);
+        mWriter.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Returns the instance of {@code TerminalProfileStore}.
+     *
+     * @param context the context
+     * @return the instance
+     */
+    public static synchronized TerminalProfileStore getInstance(Context context) {
+
+        if (sInstance == null) {
+            sInstance = new TerminalProfileStore(context);
+        }
+
+        return sInstance;
+    }
+
+    /**
+     * Returns the profile of the card terminal.  It is loaded from the shared preferences if it
+     * is not in memory.
+     *
+     * @param terminalName the terminal name
+     * @return the profile
+     */
+    public Profile getProfile(String terminalName) {
+
+        if (terminalName == null) {
+            throw new IllegalArgumentException("Terminal name must not be null");
+        }
+
+        Profile profile = mProfiles.get(terminalName);
+        if (profile != null) {
+            return profile;
+        }
+
+        synchronized (mLock) {
+
+            profile = mProfiles.get(terminalName);
+            if (profile == null) {
+
+                profile = load(terminalName);
+                publish(profile);
+            }
+        }
+
+        return profile;
+    }
+
+    /**
+     * Sets the master key of the card terminal.
+     *
+     * @param terminalName   the terminal name
+     * @param defaultKeyUsed {@code true} if the default key is used
+     * @param newKey         the new key in HEX string
+     * @return the updated profile
+     */
+    public Profile setMasterKey(String terminalName, boolean defaultKeyUsed, String newKey) {
+
+        synchronized (mLock) {
+
+            Profile profile = getProfile(terminalName);
+            return update(new Profile(terminalName, defaultKeyUsed, newKey,
+                    profile.mConnectionTimeout, profile.mPowerTimeout, profile.mProtocolTimeout,
+                    profile.mApduTimeout, profile.mControlTimeout));
+        }
+    }
+
+    /**
+     * Sets the timeouts of the card terminal.
+     *
+     * @param terminalName      the terminal name
+     * @param connectionTimeout the connection timeout
+     * @param powerTimeout      the power timeout
+     * @param protocolTimeout   the protocol timeout
+     * @param apduTimeout       the APDU timeout
+     * @param controlTimeout    the control timeout
+     * @return the updated profile
+     */
+    public Profile setTimeouts(String terminalName, long connectionTimeout, long powerTimeout,
+            long protocolTimeout, long apduTimeout, long controlTimeout) {
+
+        synchronized (mLock) {
+
+            Profile profile = getProfile(terminalName);
+            return update(new Profile(terminalName, profile.mDefaultKeyUsed, profile.mNewKey,
+                    connectionTimeout, powerTimeout, protocolTimeout, apduTimeout,
+                    controlTimeout));
+        }
+    }
+
+    /**
+     * Writes the pending changes on the caller without waiting for the write delay.  The changes
+     * are applied to the shared preferences before this method returns.
+     */
+    public void flush() {
+        write();
+    }
+
+    /**
+     * Publishes the profile and schedules it to be written.
+     *
+     * @param profile the profile
+     * @return the profile
+     */
+    private Profile update(Profile profile) {
+
+        publish(profile);
+        mPendingProfiles.put(profile.mTerminalName, profile);
+        if (mWriteFuture == null) {
+            mWriteFuture = mWriter.schedule(mWriteRunnable, WRITE_DELAY, TimeUnit.MILLISECONDS);
+        }
+
+        return profile;
+    }
+
+    /**
+     * Replaces the map of profiles with a copy containing the profile.  The caller must hold
+     * the lock.
+     *
+     * @param profile the profile
+     */
+    private void publish(Profile profile) {
+
+        Map<String, Profile> profiles = new HashMap<>(mProfiles);
+        profiles.put(profile.mTerminalName, profile);
+        mProfiles = Collections.unmodifiableMap(profiles);
+    }
+
+    /**
+     * Loads the profile from the shared preferences.
+     *
+     * @param terminalName the terminal name
+     * @return the profile
+     */
+    private Profile load(String terminalName) {
+
+        SharedPreferences sharedPref = mContext.getSharedPreferences(
+                PREFS_NAME_PREFIX + terminalName, Context.MODE_PRIVATE);
+
+        return new Profile(terminalName,
+                sharedPref.getBoolean(KEY_PREF_USE_DEFAULT_KEY, true),
+                sharedPref.getString(KEY_PREF_NEW_KEY, null),
+                sharedPref.getLong(KEY_PREF_CONNECTION_TIMEOUT, TerminalTimeouts.DEFAULT_TIMEOUT),
+                sharedPref.getLong(KEY_PREF_POWER_TIMEOUT, TerminalTimeouts.DEFAULT_TIMEOUT),
+                sharedPref.getLong(KEY_PREF_PROTOCOL_TIMEOUT, TerminalTimeouts.DEFAULT_TIMEOUT),
+                sharedPref.getLong(KEY_PREF_APDU_TIMEOUT, TerminalTimeouts.DEFAULT_TIMEOUT),
+                sharedPref.getLong(KEY_PREF_CONTROL_TIMEOUT, TerminalTimeouts.DEFAULT_TIMEOUT));
+    }
+
+    /**
+     * Writes the pending profiles to the shared preferences.  It is called on the writer thread
+     * or by {@link #flush()}.
+     */
+    private void write() {
+
+        /* Hold the lock until the changes are applied so that flush() waits for the writer. */
+        synchronized (mWriteLock) {
+
+            List<Profile> profiles;
+            synchronized (mLock) {
+
+                if (mWriteFuture != null) {
+
+                    mWriteFuture.cancel(false);
+                    mWriteFuture = null;
+                }
+
+                profiles = new ArrayList<>(mPendingProfiles.values());
+                mPendingProfiles.clear();
+            }
+
+            for (Profile profile : profiles) {
+
+                SharedPreferences.Editor editor = mContext.getSharedPreferences(
+                        PREFS_NAME_PREFIX + profile.mTerminalName, Context.MODE_PRIVATE).edit();
+                editor.putBoolean(KEY_PREF_USE_DEFAULT_KEY, profile.mDefaultKeyUsed);
+                editor.putString(KEY_PREF_NEW_KEY, profile.mNewKey);
+                editor.putLong(KEY_PREF_CONNECTION_TIMEOUT, profile.mConnectionTimeout);
+                editor.putLong(KEY_PREF_POWER_TIMEOUT, profile.mPowerTimeout);
+                editor.putLong(KEY_PREF_PROTOCOL_TIMEOUT, profile.mProtocolTimeout);
+                editor.putLong(KEY_PREF_APDU_TIMEOUT, profile.mApduTimeout);
+                editor.putLong(KEY_PREF_CONTROL_TIMEOUT, profile.mControlTimeout);
+                editor.apply();
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2026 Advanced Card Systems Ltd. All rights reserved.
+ *
+ * This software is the confidential and proprietary information of Advanced
+ * Card Systems Ltd. ("Confidential Information").  You shall not disclose such
+ * Confidential Information and shall use it only in accordance with the terms
+ * of the license agreement you entered into with ACS.
+ */
+
+package com.acs.bletest.benchmark;
+
+import com.acs.pidcore.Hex;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@code HexBenchmark} class measures the HEX conversions used for the script commands and
+ * the log.
+ *
+ * @author Godfrey Chung
+ * @version 1.0, 17 Oct 2026
+ * @since 0.6
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class HexBenchmark {
+
+    /** Length of the buffer: a command, a field response and a full response. */
+    @Param({ "7", "102", "258" })
+    public int mLength;
+
+    private byte[] mBuffer;
+    private String mHexString;
+    private char[] mLineChars;
+
+    @Setup
+    public void setUp() {
+
+        mBuffer = new byte[mLength];
+        new Random(0).nextBytes(mBuffer);
+        mHexString = Hex.toHexString(mBuffer);
+        mLineChars = new char[Hex.getHexStringLength(16)];
+    }
+
+    @Benchmark
+    public byte[] toByteArray() {
+        return Hex.toByteArray(mHexString);
+    }
+
+    @Benchmark
+    public String toHexString() {
+        return Hex.toHexString(mBuffer);
+    }
+
+    /**
+     * Formats the buffer in lines of 16 bytes as {@code Logger.logBuffer()} does.
+     *
+     * @param blackhole the blackhole
+     */
+    @Benchmark
+    public void logBufferFormat(Blackhole blackhole) {
+
+        for (int i = 0; i < mBuffer.length; i += 16) {
+
+            int length = Hex.toHexChars(mBuffer, i, Math.min(16, mBuffer.length - i),
+                    mLineChars, 0);
+            blackhole.consume(new String(mLineChars, 0, length));
+        }
+    }
+}
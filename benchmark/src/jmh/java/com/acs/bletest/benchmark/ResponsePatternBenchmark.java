@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2026 Advanced Card Systems Ltd. All rights reserved.
+ *
+ * This software is the confidential and proprietary information of Advanced
+ * Card Systems Ltd. ("Confidential Information").  You shall not disclose such
+ * Confidential Information and shall use it only in accordance with the terms
+ * of the license agreement you entered into with ACS.
+ */
+
+package com.acs.bletest.benchmark;
+
+import com.acs.pidcore.ResponsePattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@code ResponsePatternBenchmark} class measures the checking of the expected response
+ * lines and the comparison of the responses, which replaced {@code checkLine()} and
+ * {@code compareResponse()} of {@code MainActivity}.
+ *
+ * @author Godfrey Chung
+ * @version 1.0, 17 Oct 2026
+ * @since 0.6
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ResponsePatternBenchmark {
+
+    /** Length of the response including the status word. */
+    @Param({ "2", "102", "258" })
+    public int mLength;
+
+    private String mExactLine;
+    private String mWildcardLine;
+    private ResponsePattern mExactPattern;
+    private ResponsePattern mWildcardPattern;
+    private byte[] mResponse;
+
+    @Setup
+    public void setUp() {
+
+        mResponse = new byte[mLength];
+        new Random(0).nextBytes(mResponse);
+        mResponse[mLength - 2] = (byte) 0x90;
+        mResponse[mLength - 1] = 0x00;
+
+        StringBuilder exact = new StringBuilder();
+        StringBuilder wildcard = new StringBuilder();
+        for (int i = 0; i < mLength; i++) {
+
+            String digits = String.format("%02X ", mResponse[i] & 0xFF);
+            exact.append(digits);
+            wildcard.append((i < mLength - 2) ? "XX " : digits);
+        }
+
+        mExactLine = exact.toString();
+        mWildcardLine = wildcard.toString();
+        mExactPattern = ResponsePattern.compile(mExactLine);
+        mWildcardPattern = ResponsePattern.compile(mWildcardLine);
+    }
+
+    @Benchmark
+    public int countDigits() {
+        return ResponsePattern.countDigits(mWildcardLine);
+    }
+
+    @Benchmark
+    public ResponsePattern compile() {
+        return ResponsePattern.compile(mWildcardLine);
+    }
+
+    @Benchmark
+    public boolean matchesExact() {
+        return mExactPattern.matches(mResponse);
+    }
+
+    @Benchmark
+    public boolean matchesWildcard() {
+        return mWildcardPattern.matches(mResponse);
+    }
+}
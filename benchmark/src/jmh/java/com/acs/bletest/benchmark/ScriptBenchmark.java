@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2026 Advanced Card Systems Ltd. All rights reserved.
+ *
+ * This software is the confidential and proprietary information of Advanced
+ * Card Systems Ltd. ("Confidential Information").  You shall not disclose such
+ * Confidential Information and shall use it only in accordance with the terms
+ * of the license agreement you entered into with ACS.
+ */
+
+package com.acs.bletest.benchmark;
+
+import com.acs.pidcore.CompiledScript;
+import com.acs.pidcore.PersonalIdDecoder;
+import com.acs.pidcore.PersonalIdField;
+import com.acs.pidcore.PersonalIdRecord;
+import com.acs.pidcore.ResultAccumulator;
+import com.acs.pidcore.SimulatedTerminalProvider;
+import com.acs.pidcore.ThaiIdCardReader;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.smartcardio.Card;
+import javax.smartcardio.CardChannel;
+import javax.smartcardio.CardException;
+import javax.smartcardio.CommandAPDU;
+import javax.smartcardio.TerminalFactory;
+
+/**
+ * The {@code ScriptBenchmark} class measures the whole script reading a Thai personal ID card
+ * against a simulated terminal without latency.  {@link #runScript()} follows the loop of
+ * {@code MainActivity.runScript()} and {@link #readCard()} uses {@link ThaiIdCardReader}.
+ *
+ * @author Godfrey Chung
+ * @version 1.0, 17 Oct 2026
+ * @since 0.6
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ScriptBenchmark {
+
+    private CompiledScript mScript;
+    private ThaiIdCardReader mReader;
+    private Card mCard;
+    private CardChannel mChannel;
+
+    @Setup
+    public void setUp() throws Exception {
+
+        ThaiIdCardFixture fixture = new ThaiIdCardFixture();
+        mScript = fixture.getScript();
+        mReader = new ThaiIdCardReader(mScript);
+
+        SimulatedTerminalProvider.Parameters parameters =
+                new SimulatedTerminalProvider.Parameters(fixture.getRecording());
+        parameters.setSeed(0);
+
+        TerminalFactory factory = TerminalFactory.getInstance(SimulatedTerminalProvider.TYPE,
+                parameters, new SimulatedTerminalProvider());
+        mCard = factory.terminals().list().get(0).connect("*");
+        mChannel = mCard.getBasicChannel();
+    }
+
+    @TearDown
+    public void tearDown() throws CardException {
+        mCard.disconnect(false);
+    }
+
+    @Benchmark
+    public int runScript() throws CardException {
+
+        ResultAccumulator data = new ResultAccumulator();
+        PersonalIdDecoder decoder = new PersonalIdDecoder();
+        int numMismatches = 0;
+
+        for (int i = 0; i < mScript.getCommandCount(); i++) {
+
+            CompiledScript.Command command = mScript.getCommand(i);
+            CommandAPDU apdu = command.getApdu();
+            byte[] response = mChannel.transmit(apdu).getBytes();
+
+            decoder.decode(command.getBytes(), response);
+            data.appendField(response, 0, Math.max(0, response.length - 2));
+            if (!command.getExpectedResponse().matches(response)) {
+                numMismatches++;
+            }
+        }
+
+        if (numMismatches > 0) {
+            throw new IllegalStateException(numMismatches + " responses do not match");
+        }
+
+        return data.length();
+    }
+
+    @Benchmark
+    public PersonalIdRecord readCard() throws CardException {
+
+        PersonalIdRecord record = mReader.read(mChannel);
+        if (!record.hasField(PersonalIdField.PHOTO)) {
+            throw new IllegalStateException("Photo not read");
+        }
+
+        return record;
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright (C) 2026 Advanced Card Systems Ltd. All rights reserved.
+ *
+ * This software is the confidential and proprietary information of Advanced
+ * Card Systems Ltd. ("Confidential Information").  You shall not disclose such
+ * Confidential Information and shall use it only in accordance with the terms
+ * of the license agreement you entered into with ACS.
+ */
+
+package com.acs.bletest.benchmark;
+
+import com.acs.pidcore.ApduRecording;
+import com.acs.pidcore.CompiledScript;
+import com.acs.pidcore.Hex;
+import com.acs.pidcore.PersonalIdField;
+import com.acs.pidcore.ThaiIdPhotoReader;
+import com.acs.pidcore.Tis620;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * The {@code ThaiIdCardFixture} class generates the script reading all fields of Thai personal
+ * ID card and the recording of a T=0 card answering it.
+ *
+ * @author Godfrey Chung
+ * @version 1.0, 17 Oct 2026
+ * @since 0.6
+ */
+final class ThaiIdCardFixture {
+
+    /** Length of the JPEG photo in the card. */
+    static final int PHOTO_LENGTH = 3000;
+
+    private static final String SELECT_COMMAND = "00 A4 04 00 08 A0 00 00 00 54 48 00 01";
+
+    private final StringBuilder mScript = new StringBuilder();
+    private final StringBuilder mRecording = new StringBuilder();
+
+    /**
+     * Creates an instance of {@code ThaiIdCardFixture}.
+     */
+    ThaiIdCardFixture() {
+
+        mScript.append("; url=http://localhost/api/getPid.php\n");
+        mRecording.append("; atr=3B 67 00 00 A1 00 00 90 00\n");
+
+        addCommand(SELECT_COMMAND, new byte[0], "61 0A");
+        for (PersonalIdField field : PersonalIdField.values()) {
+            if (field == PersonalIdField.PHOTO) {
+                addPhoto();
+            } else {
+                addField(field, getFieldData(field));
+            }
+        }
+    }
+
+    /**
+     * Returns the compiled script.
+     *
+     * @return the compiled script
+     * @throws IOException if the script cannot be compiled
+     */
+    CompiledScript getScript() throws IOException {
+        return CompiledScript.compile(new BufferedReader(new StringReader(mScript.toString())));
+    }
+
+    /**
+     * Returns the recording.
+     *
+     * @return the recording
+     * @throws IOException if the recording cannot be loaded
+     */
+    ApduRecording getRecording() throws IOException {
+        return ApduRecording.load(new BufferedReader(new StringReader(mRecording.toString())));
+    }
+
+    /**
+     * Returns the data of the field padded with spaces.
+     *
+     * @param field the field
+     * @return the data
+     */
+    static byte[] getFieldData(PersonalIdField field) {
+
+        String text;
+        switch (field) {
+
+            case CITIZEN_ID:
+                text = "1234567890123";
+                break;
+
+            case THAI_NAME:
+                text = "นาย#สมชาย##ใจดี";
+                break;
+
+            case ENGLISH_NAME:
+                text = "Mr.#Somchai##Jaidee";
+                break;
+
+            case BIRTH_DATE:
+                text = "25300101";
+                break;
+
+            case GENDER:
+                text = "1";
+                break;
+
+            case CARD_ISSUER:
+                text = "กรุงเทพมหานคร/เขตบางรัก";
+                break;
+
+            case ISSUE_DATE:
+                text = "25630101";
+                break;
+
+            case EXPIRY_DATE:
+                text = "25720101";
+                break;
+
+            case ADDRESS:
+                text = "1/2#หมู่ที่ 3####ตำบลบางรัก#อำเภอบางรัก#จังหวัดกรุงเทพมหานคร";
+                break;
+
+            default:
+                text = "";
+                break;
+        }
+
+        byte[] data = new byte[field.getLength()];
+        Arrays.fill(data, (byte) ' ');
+        Tis620.encode(text, 0, text.length(), data, 0);
+
+        return data;
+    }
+
+    /**
+     * Adds the READ BINARY command of the field and its GET RESPONSE command.
+     *
+     * @param field the field
+     * @param data  the data
+     */
+    private void addField(PersonalIdField field, byte[] data) {
+        addReadBinary(field.getOffset(), data, 0, data.length);
+    }
+
+    /**
+     * Adds the READ BINARY commands of the photo in chunks and their GET RESPONSE commands.
+     */
+    private void addPhoto() {
+
+        PersonalIdField field = PersonalIdField.PHOTO;
+        byte[] photo = new byte[field.getLength()];
+
+        /* Generate the JPEG without the end of image marker inside. */
+        Random random = new Random(0);
+        random.nextBytes(photo);
+        for (int i = 0; i < PHOTO_LENGTH; i++) {
+            if (photo[i] == (byte) 0xFF) {
+                photo[i] = (byte) 0xFE;
+            }
+        }
+
+        photo[0] = (byte) 0xFF;
+        photo[1] = (byte) 0xD8;
+        photo[PHOTO_LENGTH - 2] = (byte) 0xFF;
+        photo[PHOTO_LENGTH - 1] = (byte) 0xD9;
+        Arrays.fill(photo, PHOTO_LENGTH, photo.length, (byte) 0);
+
+        for (int offset = 0; offset < photo.length; offset += ThaiIdPhotoReader.CHUNK_SIZE) {
+            addReadBinary(field.getOffset() + offset, photo, offset,
+                    Math.min(ThaiIdPhotoReader.CHUNK_SIZE, photo.length - offset));
+        }
+    }
+
+    /**
+     * Adds the READ BINARY command and its GET RESPONSE command.
+     *
+     * @param cardOffset the offset in the card
+     * @param data       the data
+     * @param offset     the offset of data
+     * @param length     the length of data
+     */
+    private void addReadBinary(int cardOffset, byte[] data, int offset, int length) {
+
+        String readBinary = String.format("80 B0 %02X %02X 02 00 %02X", cardOffset >> 8,
+                cardOffset & 0xFF, length);
+        String getResponse = String.format("00 C0 00 00 %02X", length);
+        String status = String.format("61 %02X", length);
+
+        addCommand(readBinary, new byte[0], status);
+        addCommand(getResponse, Arrays.copyOfRange(data, offset, offset + length), "90 00");
+    }
+
+    /**
+     * Adds the command, its expected response to the script and its response to the recording.
+     *
+     * @param command the command
+     * @param data    the response data
+     * @param status  the status word
+     */
+    private void addCommand(String command, byte[] data, String status) {
+
+        mScript.append(command).append('\n');
+        for (int i = 0; i < data.length; i++) {
+            mScript.append("XX ");
+        }
+        mScript.append(status).append('\n');
+
+        mRecording.append(command).append('\n');
+        if (data.length > 0) {
+            mRecording.append(Hex.toHexString(data)).append(' ');
+        }
+        mRecording.append(status).append('\n');
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2026 Advanced Card Systems Ltd. All rights reserved.
+ *
+ * This software is the confidential and proprietary information of Advanced
+ * Card Systems Ltd. ("Confidential Information").  You shall not disclose such
+ * Confidential Information and shall use it only in accordance with the terms
+ * of the license agreement you entered into with ACS.
+ */
+
+package com.acs.bletest.benchmark;
+
+import com.acs.pidcore.PersonalIdField;
+import com.acs.pidcore.ResultAccumulator;
+import com.acs.pidcore.Tis620;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@code Tis620Benchmark} class measures the decoding of a Thai address field and the
+ * accumulation of the fields of a card for upload.  The charset decoding is the baseline.
+ *
+ * @author Godfrey Chung
+ * @version 1.0, 17 Oct 2026
+ * @since 0.6
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class Tis620Benchmark {
+
+    private static final OutputStream NULL_OUTPUT_STREAM = new OutputStream() {
+
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
+    private final Charset mCharset = Charset.forName("TIS620");
+    private final StringBuilder mBuilder = new StringBuilder(256);
+    private final ResultAccumulator mAccumulator = new ResultAccumulator();
+    private byte[] mAddress;
+    private byte[][] mFields;
+
+    @Setup
+    public void setUp() {
+
+        mAddress = ThaiIdCardFixture.getFieldData(PersonalIdField.ADDRESS);
+        mFields = new byte[PersonalIdField.values().length - 1][];
+
+        int i = 0;
+        for (PersonalIdField field : PersonalIdField.values()) {
+            if (field != PersonalIdField.PHOTO) {
+                mFields[i++] = ThaiIdCardFixture.getFieldData(field);
+            }
+        }
+    }
+
+    @Benchmark
+    public String decodeByName() throws UnsupportedEncodingException {
+        return new String(mAddress, "TIS620");
+    }
+
+    @Benchmark
+    public String decodeCharset() {
+        return new String(mAddress, mCharset);
+    }
+
+    @Benchmark
+    public StringBuilder decodeTable() {
+
+        mBuilder.setLength(0);
+        return Tis620.decode(mAddress, 0, mAddress.length, mBuilder);
+    }
+
+    @Benchmark
+    public int accumulateFields() {
+
+        mAccumulator.clear();
+        for (byte[] field : mFields) {
+            mAccumulator.appendField(field, 0, field.length);
+        }
+
+        return mAccumulator.length();
+    }
+
+    @Benchmark
+    public long accumulateAndFormEncode() throws IOException {
+
+        int length = accumulateFields();
+        mAccumulator.toFormBody("data").writeTo(NULL_OUTPUT_STREAM);
+
+        return length;
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ * Copyright (C) 2026 Advanced Card Systems Ltd. All rights reserved.
+ *
+ * This software is the confidential and proprietary information of Advanced
+ * Card Systems Ltd. ("Confidential Information").  You shall not disclose such
+ * Confidential Information and shall use it only in accordance with the terms
+ * of the license agreement you entered into with ACS.
+ */
+
+package com.acs.pidcore;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@code ApduRecording} class stores the recorded command APDUs and their responses for
+ * replaying by the simulated card terminal.
+ *
+ * <p>The recording uses the same text format as the script: a command line in hex followed by
+ * its response line in hex.  The lines beginning with {@code ';'} are comments and the ATR can
+ * be specified in a comment as {@code atr=3B 67 ...}.  Unlike the script, the response must not
+ * contain wildcards.</p>
+ *
+ * <p>The same command can be recorded several times with different responses, for example, GET
+ * RESPONSE.  The responses are replayed in the recorded order starting from the position of the
+ * previous match.  The recording must not be modified after it is used by the terminals.</p>
+ *
+ * @author Godfrey Chung
+ * @version 1.0, 17 Oct 2026
+ * @since 0.6
+ */
+public final class ApduRecording {
+
+    /** Response of the command not found in the recording (INS not supported). */
+    public static final byte[] UNKNOWN_COMMAND_RESPONSE = { 0x6D, 0x00 };
+
+    /** Default ATR. */
+    public static final byte[] DEFAULT_ATR = {
+            0x3B, 0x67, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, (byte) 0x90, 0x00
+    };
+
+    private static final String ATR_PREFIX = "atr=";
+
+    /**
+     * The {@code Key} class wraps the command bytes for lookup.
+     */
+    private static final class Key {
+
+        private final byte[] mBytes;
+        private final int mHashCode;
+
+        /**
+         * Creates an instance of {@code Key}.
+         *
+         * @param bytes the bytes
+         */
+        Key(byte[] bytes) {
+
+            mBytes = bytes;
+            mHashCode = Arrays.hashCode(bytes);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return (obj instanceof Key) && Arrays.equals(mBytes, ((Key) obj).mBytes);
+        }
+
+        @Override
+        public int hashCode() {
+            return mHashCode;
+        }
+    }
+
+    private final List<byte[]> mCommands = new ArrayList<>();
+    private final List<byte[]> mResponses = new ArrayList<>();
+    private final Map<Key, int[]> mIndices = new HashMap<>();
+    private byte[] mAtr = DEFAULT_ATR;
+
+    /**
+     * Creates an empty instance of {@code ApduRecording}.
+     */
+    public ApduRecording() {
+    }
+
+    /**
+     * Loads the recording.
+     *
+     * @param reader the reader of the recording
+     * @return the recording
+     * @throws IOException if there is an error in reading the recording
+     */
+    public static ApduRecording load(BufferedReader reader) throws IOException {
+
+        if (reader == null) {
+            throw new IllegalArgumentException("Reader must not be null");
+        }
+
+        ApduRecording recording = new ApduRecording();
+        byte[] command = null;
+        String line;
+
+        while ((line = reader.readLine()) != null) {
+
+            /* Skip the comment line. */
+            if ((line.length() > 0) && (line.charAt(0) != ';')) {
+
+                byte[] bytes = Hex.toByteArray(line);
+                if (bytes.length > 0) {
+
+                    if (command == null) {
+
+                        command = bytes;
+
+                    } else {
+
+                        recording.add(command, bytes);
+                        command = null;
+                    }
+                }
+
+            } else {
+
+                /* Get the ATR from the comment. */
+                int index = line.indexOf(ATR_PREFIX);
+                if (index >= 0) {
+                    recording.setAtr(Hex.toByteArray(line.substring(index + ATR_PREFIX.length())));
+                }
+            }
+        }
+
+        return recording;
+    }
+
+    /**
+     * Adds the command and its response.
+     *
+     * @param command  the command
+     * @param response the response
+     */
+    public void add(byte[] command, byte[] response) {
+
+        if (command == null) {
+            throw new IllegalArgumentException("Command must not be null");
+        }
+
+        if (response == null) {
+            throw new IllegalArgumentException("Response must not be null");
+        }
+
+        if (response.length < 2) {
+            throw new IllegalArgumentException("Response must contain the status word");
+        }
+
+        Key key = new Key(command.clone());
+        int[] indices = mIndices.get(key);
+        if (indices == null) {
+            indices = new int[] { mCommands.size() };
+        } else {
+            indices = Arrays.copyOf(indices, indices.length + 1);
+            indices[indices.length - 1] = mCommands.size();
+        }
+
+        mIndices.put(key, indices);
+        mCommands.add(key.mBytes);
+        mResponses.add(response.clone());
+    }
+
+    /**
+     * Returns the ATR.
+     *
+     * @return the ATR
+     */
+    public byte[] getAtr() {
+        return mAtr.clone();
+    }
+
+    /**
+     * Sets the ATR.
+     *
+     * @param atr the ATR
+     */
+    public void setAtr(byte[] atr) {
+
+        if ((atr == null) || (atr.length == 0)) {
+            throw new IllegalArgumentException("ATR must not be empty");
+        }
+
+        mAtr = atr.clone();
+    }
+
+    /**
+     * Returns the number of recorded commands.
+     *
+     * @return the number of recorded commands
+     */
+    public int size() {
+        return mCommands.size();
+    }
+
+    /**
+     * Returns the command.
+     *
+     * @param index the index
+     * @return the command
+     */
+    public byte[] getCommand(int index) {
+        return mCommands.get(index).clone();
+    }
+
+    /**
+     * Returns the response.  The returned array must not be modified.
+     *
+     * @param index the index
+     * @return the response
+     */
+    byte[] getResponse(int index) {
+        return mResponses.get(index);
+    }
+
+    /**
+     * Finds the command recorded at or after the position.  If it is not found, the search wraps
+     * around to the beginning.
+     *
+     * @param command the command
+     * @param offset  the command bytes offset
+     * @param length  the command bytes length
+     * @param start   the position to start searching
+     * @return the index of the command or -1 if it is not recorded
+     */
+    int find(byte[] command, int offset, int length, int start) {
+
+        byte[] bytes = ((offset == 0) && (length == command.length))
+                ? command : Arrays.copyOfRange(command, offset, offset + length);
+        int[] indices = mIndices.get(new Key(bytes));
+        if (indices == null) {
+            return -1;
+        }
+
+        int i = Arrays.binarySearch(indices, start);
+        if (i < 0) {
+            i = -i - 1;
+        }
+
+        return (i < indices.length) ? indices[i] : indices[0];
+    }
+}
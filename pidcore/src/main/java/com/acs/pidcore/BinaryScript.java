@@ -0,0 +1,235 @@
+/*
+ * Copyright (C) 2026 Advanced Card Systems Ltd. All rights reserved.
+ *
+ * This software is the confidential and proprietary information of Advanced
+ * Card Systems Ltd. ("Confidential Information").  You shall not disclose such
+ * Confidential Information and shall use it only in accordance with the terms
+ * of the license agreement you entered into with ACS.
+ */
+
+package com.acs.pidcore;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+/**
+ * The {@code BinaryScript} class reads and writes the compiled script in binary format.  The
+ * binary script is loaded by mapping the file to memory so that no text decoding is needed
+ * before running it.
+ *
+ * <p>The binary script is stored in big-endian byte order as follows:</p>
+ * <pre>
+ * magic       4 bytes  "APDU"
+ * version     1 byte   1
+ * flags       1 byte   0 (reserved)
+ * url length  2 bytes  followed by the URL in UTF-8
+ * count       2 bytes  number of commands
+ * For each command:
+ *   length    2 bytes  followed by the command
+ *   digits    2 bytes  number of digits of the expected response, followed by the value and
+ *                      the mask of (digits + 1) / 2 bytes each
+ * </pre>
+ *
+ * @author Godfrey Chung
+ * @version 1.0, 17 Oct 2026
+ * @since 0.6
+ */
+public final class BinaryScript {
+
+    /** The file extension of the binary script. */
+    public static final String FILE_EXTENSION = ".bin";
+
+    private static final int MAGIC = 0x41504455;
+    private static final int VERSION = 1;
+    private static final int MAX_LENGTH = 0xFFFF;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /**
+     * Creates an instance of {@code BinaryScript}.
+     */
+    private BinaryScript() {
+    }
+
+    /**
+     * Converts the text script to the binary script.
+     *
+     * @param reader the reader of the text script
+     * @param out    the output stream of the binary script
+     * @throws IOException if there is an error in reading or writing the script
+     */
+    public static void convert(BufferedReader reader, OutputStream out) throws IOException {
+        write(CompiledScript.compile(reader), out);
+    }
+
+    /**
+     * Writes the compiled script in binary format.  The output stream is not closed.
+     *
+     * @param script the compiled script
+     * @param out    the output stream
+     * @throws IOException if there is an error in writing the script
+     */
+    public static void write(CompiledScript script, OutputStream out) throws IOException {
+
+        if (script == null) {
+            throw new IllegalArgumentException("Script must not be null");
+        }
+
+        if (out == null) {
+            throw new IllegalArgumentException("Output stream must not be null");
+        }
+
+        byte[] url = script.getUrl().getBytes(UTF_8);
+        checkLength(url.length);
+        checkLength(script.getCommandCount());
+
+        DataOutputStream dataOut = new DataOutputStream(new BufferedOutputStream(out));
+
+        /* Write the header. */
+        dataOut.writeInt(MAGIC);
+        dataOut.writeByte(VERSION);
+        dataOut.writeByte(0);
+        dataOut.writeShort(url.length);
+        dataOut.write(url);
+        dataOut.writeShort(script.getCommandCount());
+
+        /* Write the commands. */
+        for (int i = 0; i < script.getCommandCount(); i++) {
+
+            CompiledScript.Command command = script.getCommand(i);
+            ResponsePattern expectedResponse = command.getExpectedResponse();
+
+            checkLength(command.getBytes().length);
+            checkLength(expectedResponse.getNumDigits());
+
+            dataOut.writeShort(command.getBytes().length);
+            dataOut.write(command.getBytes());
+            dataOut.writeShort(expectedResponse.getNumDigits());
+            dataOut.write(expectedResponse.getValue());
+            dataOut.write(expectedResponse.getMask());
+        }
+
+        dataOut.flush();
+    }
+
+    /**
+     * Loads the binary script from the file.
+     *
+     * @param file the file
+     * @return the compiled script
+     * @throws IOException if there is an error in reading the file or the file is invalid
+     */
+    public static CompiledScript load(File file) throws IOException {
+
+        if (file == null) {
+            throw new IllegalArgumentException("File must not be null");
+        }
+
+        FileInputStream inputStream = new FileInputStream(file);
+        try {
+            return load(inputStream.getChannel());
+        } finally {
+            inputStream.close();
+        }
+    }
+
+    /**
+     * Loads the binary script by mapping the file channel to memory.  The channel is not closed.
+     *
+     * @param channel the file channel
+     * @return the compiled script
+     * @throws IOException if there is an error in reading the file or the file is invalid
+     */
+    public static CompiledScript load(FileChannel channel) throws IOException {
+
+        if (channel == null) {
+            throw new IllegalArgumentException("Channel must not be null");
+        }
+
+        return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+    }
+
+    /**
+     * Reads the binary script from the buffer.
+     *
+     * @param buffer the buffer
+     * @return the compiled script
+     * @throws IOException if the binary script is invalid
+     */
+    public static CompiledScript read(ByteBuffer buffer) throws IOException {
+
+        if (buffer == null) {
+            throw new IllegalArgumentException("Buffer must not be null");
+        }
+
+        buffer.order(ByteOrder.BIG_ENDIAN);
+
+        try {
+
+            /* Read the header. */
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Invalid binary script");
+            }
+
+            int version = buffer.get() & 0xFF;
+            if (version != VERSION) {
+                throw new IOException("Unsupported binary script version: " + version);
+            }
+
+            /* Skip the flags. */
+            buffer.get();
+
+            byte[] url = new byte[buffer.getShort() & 0xFFFF];
+            buffer.get(url);
+
+            /* Read the commands. */
+            CompiledScript.Command[] commands =
+                    new CompiledScript.Command[buffer.getShort() & 0xFFFF];
+            for (int i = 0; i < commands.length; i++) {
+
+                byte[] command = new byte[buffer.getShort() & 0xFFFF];
+                buffer.get(command);
+
+                int numDigits = buffer.getShort() & 0xFFFF;
+                byte[] value = new byte[(numDigits + 1) / 2];
+                byte[] mask = new byte[value.length];
+                buffer.get(value);
+                buffer.get(mask);
+
+                commands[i] = new CompiledScript.Command(command,
+                        ResponsePattern.create(value, mask, numDigits));
+            }
+
+            return new CompiledScript(new String(url, UTF_8), commands);
+
+        } catch (BufferUnderflowException e) {
+
+            throw new IOException("Binary script truncated");
+
+        } catch (IllegalArgumentException e) {
+
+            throw new IOException("Invalid binary script: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Checks the length that is stored in 2 bytes.
+     *
+     * @param length the length
+     * @throws IOException if the length is too long
+     */
+    private static void checkLength(int length) throws IOException {
+        if (length > MAX_LENGTH) {
+            throw new IOException("Length too long: " + length);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright (C) 2026 Advanced Card Systems Ltd. All rights reserved.
+ *
+ * This software is the confidential and proprietary information of Advanced
+ * Card Systems Ltd. ("Confidential Information").  You shall not disclose such
+ * Confidential Information and shall use it only in accordance with the terms
+ * of the license agreement you entered into with ACS.
+ */
+
+package com.acs.pidcore;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.smartcardio.CommandAPDU;
+
+/**
+ * The {@code CompiledScript} class is an immutable script that is parsed once from the text
+ * script and can be run repeatedly without reading or parsing the file again.
+ *
+ * <p>The text script consists of pairs of lines.  The first line of a pair is the command in HEX
+ * and the second line is the expected response in HEX, where {@code X} matches any digit.  The
+ * line starting with {@code ;} is a comment.  A comment containing {@code url=} specifies the URL
+ * for sending the data.</p>
+ *
+ * @author Godfrey Chung
+ * @version 1.0, 17 Oct 2026
+ * @since 0.6
+ */
+public final class CompiledScript {
+
+    /**
+     * The {@code Command} class stores a command of the script and its expected response.
+     */
+    public static final class Command {
+
+        private final byte[] mBytes;
+        private final CommandAPDU mApdu;
+        private final ResponsePattern mExpectedResponse;
+
+        /**
+         * Creates an instance of {@code Command}.
+         *
+         * @param bytes            the command
+         * @param expectedResponse the expected response
+         */
+        Command(byte[] bytes, ResponsePattern expectedResponse) {
+
+            if ((bytes == null) || (bytes.length == 0)) {
+                throw new IllegalArgumentException("Command must not be empty");
+            }
+
+            if (expectedResponse == null) {
+                throw new IllegalArgumentException("Expected response must not be null");
+            }
+
+            mBytes = bytes;
+            mApdu = toCommandApdu(bytes);
+            mExpectedResponse = expectedResponse;
+        }
+
+        /**
+         * Returns the command.  The returned array is shared and must not be modified.
+         *
+         * @return the command
+         */
+        public byte[] getBytes() {
+            return mBytes;
+        }
+
+        /**
+         * Returns the command APDU.
+         *
+         * @return the command APDU or {@code null} if the command is not a valid APDU (e.g.
+         * escape command)
+         */
+        public CommandAPDU getApdu() {
+            return mApdu;
+        }
+
+        /**
+         * Returns the expected response.
+         *
+         * @return the expected response
+         */
+        public ResponsePattern getExpectedResponse() {
+            return mExpectedResponse;
+        }
+
+        /**
+         * Converts the command to command APDU.
+         *
+         * @param bytes the command
+         * @return the command APDU or {@code null} if the command is not a valid APDU
+         */
+        private static CommandAPDU toCommandApdu(byte[] bytes) {
+
+            try {
+                return new CommandAPDU(bytes);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+
+    private static final String URL_PREFIX = "url=";
+    private final String mUrl;
+    private final Command[] mCommands;
+
+    /**
+     * Creates an instance of {@code CompiledScript}.
+     *
+     * @param url      the URL or an empty string if it is not specified
+     * @param commands the commands
+     */
+    CompiledScript(String url, Command[] commands) {
+
+        mUrl = (url == null) ? "" : url;
+        mCommands = commands;
+    }
+
+    /**
+     * Compiles the text script.
+     *
+     * @param reader the reader of the script
+     * @return the compiled script
+     * @throws IOException if there is an error in reading the script
+     */
+    public static CompiledScript compile(BufferedReader reader) throws IOException {
+
+        if (reader == null) {
+            throw new IllegalArgumentException("Reader must not be null");
+        }
+
+        List<Command> commands = new ArrayList<>();
+        String url = "";
+        byte[] command = null;
+        String line;
+
+        while ((line = reader.readLine()) != null) {
+
+            /* Skip the comment line. */
+            if ((line.length() > 0) && (line.charAt(0) != ';')) {
+
+                if (command == null) {
+
+                    /* Load the command. */
+                    byte[] bytes = Hex.toByteArray(line);
+                    if (bytes.length > 0) {
+                        command = bytes;
+                    }
+
+                } else if (ResponsePattern.countDigits(line) > 0) {
+
+                    /* Load the expected response. */
+                    commands.add(new Command(command, ResponsePattern.compile(line)));
+                    command = null;
+                }
+
+            } else {
+
+                /* Get the URL from the comment. */
+                int index = line.indexOf(URL_PREFIX);
+                if (index >= 0) {
+                    url = line.substring(index + URL_PREFIX.length()).trim();
+                }
+            }
+        }
+
+        return new CompiledScript(url, commands.toArray(new Command[commands.size()]));
+    }
+
+    /**
+     * Returns the URL specified in the script.
+     *
+     * @return the URL or an empty string if it is not specified
+     */
+    public String getUrl() {
+        return mUrl;
+    }
+
+    /**
+     * Returns the number of commands.
+     *
+     * @return the number of commands
+     */
+    public int getCommandCount() {
+        return mCommands.length;
+    }
+
+    /**
+     * Returns the command.
+     *
+     * @param index the index
+     * @return the command
+     */
+    public Command getCommand(int index) {
+        return mCommands[index];
+    }
+}
@@ -0,0 +1,361 @@
+/*
+ * Copyright (C) 2017 Advanced Card Systems Ltd. All rights reserved.
+ *
+ * This software is the confidential and proprietary information of Advanced
+ * Card Systems Ltd. ("Confidential Information").  You shall not disclose such
+ * Confidential Information and shall use it only in accordance with the terms
+ * of the license agreement you entered into with ACS.
+ */
+
+package com.acs.pidcore;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * The {@code Hex} class provides the conversion routines between the HEX string and the byte array.
+ *
+ * <p>The conversion is done in a single pass using lookup tables.  The overloads with the offset
+ * and the length write to the buffer supplied by the caller so that no object is created for
+ * each conversion.</p>
+ *
+ * @author Godfrey Chung
+ * @version 1.1, 17 Oct 2026
+ */
+public class Hex {
+
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+    private static final byte[] HEX_VALUES = new byte[128];
+
+    static {
+
+        /* Build the table of HEX values. */
+        Arrays.fill(HEX_VALUES, (byte) -1);
+        for (int i = 0; i < 10; i++) {
+            HEX_VALUES['0' + i] = (byte) i;
+        }
+
+        for (int i = 0; i < 6; i++) {
+
+            HEX_VALUES['A' + i] = (byte) (10 + i);
+            HEX_VALUES['a' + i] = (byte) (10 + i);
+        }
+    }
+
+    /**
+     * Returns the value of the HEX digit.
+     *
+     * @param c the character
+     * @return the value or -1 if the character is not a HEX digit
+     * @since 0.6
+     */
+    public static int toDigit(char c) {
+        return (c < HEX_VALUES.length) ? HEX_VALUES[c] : -1;
+    }
+
+    /**
+     * Returns the length of HEX string converted from the byte count.
+     *
+     * @param byteCount the byte count
+     * @return the length of HEX string
+     * @since 0.6
+     */
+    public static int getHexStringLength(int byteCount) {
+        return (byteCount > 0) ? 3 * byteCount - 1 : 0;
+    }
+
+    /**
+     * Converts the byte array to HEX string.
+     *
+     * @param buffer the buffer
+     * @return the HEX string
+     */
+    public static String toHexString(byte[] buffer) {
+
+        /* Check the parameter. */
+        if (buffer == null) {
+            return "";
+        }
+
+        return toHexString(buffer, 0, buffer.length);
+    }
+
+    /**
+     * Converts the byte array to HEX string.
+     *
+     * @param buffer    the buffer
+     * @param offset    the offset
+     * @param byteCount the byte count
+     * @return the HEX string
+     * @since 0.6
+     */
+    public static String toHexString(byte[] buffer, int offset, int byteCount) {
+
+        char[] chars = new char[getHexStringLength(byteCount)];
+        toHexChars(buffer, offset, byteCount, chars, 0);
+
+        return new String(chars);
+    }
+
+    /**
+     * Converts the byte array to HEX characters separated by space.
+     *
+     * @param buffer     the buffer
+     * @param offset     the offset
+     * @param byteCount  the byte count
+     * @param dest       the destination
+     * @param destOffset the offset of destination
+     * @return the number of characters written
+     * @since 0.6
+     */
+    public static int toHexChars(byte[] buffer, int offset, int byteCount, char[] dest,
+            int destOffset) {
+
+        checkRange(buffer.length, offset, byteCount);
+        checkRange(dest.length, destOffset, getHexStringLength(byteCount));
+
+        int j = destOffset;
+
+        /* For each byte, convert it to HEX digit. */
+        for (int i = 0; i < byteCount; i++) {
+
+            int tmp = buffer[offset + i] & 0xFF;
+
+            if (i != 0) {
+                dest[j++] = ' ';
+            }
+
+            dest[j++] = HEX_DIGITS[tmp >>> 4];
+            dest[j++] = HEX_DIGITS[tmp & 0x0F];
+        }
+
+        return j - destOffset;
+    }
+
+    /**
+     * Appends the byte array as HEX string to the string builder.
+     *
+     * @param builder   the string builder
+     * @param buffer    the buffer
+     * @param offset    the offset
+     * @param byteCount the byte count
+     * @return the string builder
+     * @since 0.6
+     */
+    public static StringBuilder appendHexString(StringBuilder builder, byte[] buffer, int offset,
+            int byteCount) {
+
+        checkRange(buffer.length, offset, byteCount);
+        builder.ensureCapacity(builder.length() + getHexStringLength(byteCount));
+
+        /* For each byte, convert it to HEX digit. */
+        for (int i = 0; i < byteCount; i++) {
+
+            int tmp = buffer[offset + i] & 0xFF;
+
+            if (i != 0) {
+                builder.append(' ');
+            }
+
+            builder.append(HEX_DIGITS[tmp >>> 4]);
+            builder.append(HEX_DIGITS[tmp & 0x0F]);
+        }
+
+        return builder;
+    }
+
+    /**
+     * Appends the byte array as HEX string to the appendable.
+     *
+     * @param out       the appendable
+     * @param buffer    the buffer
+     * @param offset    the offset
+     * @param byteCount the byte count
+     * @return the appendable
+     * @throws IOException if an I/O error occurs
+     * @since 0.6
+     */
+    public static Appendable appendHexString(Appendable out, byte[] buffer, int offset,
+            int byteCount) throws IOException {
+
+        checkRange(buffer.length, offset, byteCount);
+
+        /* For each byte, convert it to HEX digit. */
+        for (int i = 0; i < byteCount; i++) {
+
+            int tmp = buffer[offset + i] & 0xFF;
+
+            if (i != 0) {
+                out.append(' ');
+            }
+
+            out.append(HEX_DIGITS[tmp >>> 4]);
+            out.append(HEX_DIGITS[tmp & 0x0F]);
+        }
+
+        return out;
+    }
+
+    /**
+     * Appends the remaining bytes of the buffer as HEX string to the string builder.  The
+     * position of the buffer is not changed.
+     *
+     * @param builder the string builder
+     * @param buffer  the buffer
+     * @return the string builder
+     * @since 0.6
+     */
+    public static StringBuilder appendHexString(StringBuilder builder, ByteBuffer buffer) {
+
+        int start = buffer.position();
+        int end = buffer.limit();
+        builder.ensureCapacity(builder.length() + getHexStringLength(end - start));
+
+        /* For each byte, convert it to HEX digit. */
+        for (int i = start; i < end; i++) {
+
+            int tmp = buffer.get(i) & 0xFF;
+
+            if (i != start) {
+                builder.append(' ');
+            }
+
+            builder.append(HEX_DIGITS[tmp >>> 4]);
+            builder.append(HEX_DIGITS[tmp & 0x0F]);
+        }
+
+        return builder;
+    }
+
+    /**
+     * Converts the HEX string to byte array.
+     *
+     * @param hexString the HEX string
+     * @return the byte array
+     */
+    public static byte[] toByteArray(String hexString) {
+
+        byte[] byteArray = null;
+
+        if (hexString != null) {
+
+            /* Allocate the byte array for the maximum length. */
+            byteArray = new byte[(hexString.length() + 1) / 2];
+
+            int length = toByteArray(hexString, 0, hexString.length(), byteArray, 0);
+            if (length != byteArray.length) {
+                byteArray = Arrays.copyOf(byteArray, length);
+            }
+        }
+
+        return byteArray;
+    }
+
+    /**
+     * Converts the HEX characters to byte array.  The characters other than HEX digits are
+     * ignored.  If the number of HEX digits is odd, the last digit is stored in the high nibble
+     * of the last byte.
+     *
+     * @param hexString  the HEX string
+     * @param start      the start index
+     * @param end        the end index
+     * @param dest       the destination
+     * @param destOffset the offset of destination
+     * @return the number of bytes written
+     * @throws IndexOutOfBoundsException if the destination is too small
+     * @since 0.6
+     */
+    public static int toByteArray(CharSequence hexString, int start, int end, byte[] dest,
+            int destOffset) {
+
+        checkRange(hexString.length(), start, end - start);
+
+        int length = destOffset;
+        int high = -1;
+
+        /* For each HEX character, convert it to byte. */
+        for (int i = start; i < end; i++) {
+
+            int value = toDigit(hexString.charAt(i));
+            if (value >= 0) {
+
+                if (high < 0) {
+
+                    high = value;
+
+                } else {
+
+                    dest[length++] = (byte) ((high << 4) | value);
+                    high = -1;
+                }
+            }
+        }
+
+        if (high >= 0) {
+            dest[length++] = (byte) (high << 4);
+        }
+
+        return length - destOffset;
+    }
+
+    /**
+     * Converts the HEX characters to bytes and puts them to the buffer.  The characters other
+     * than HEX digits are ignored.  If the number of HEX digits is odd, the last digit is stored
+     * in the high nibble of the last byte.
+     *
+     * @param hexString the HEX string
+     * @param start     the start index
+     * @param end       the end index
+     * @param dest      the destination
+     * @return the number of bytes written
+     * @throws java.nio.BufferOverflowException if the destination is too small
+     * @since 0.6
+     */
+    public static int toByteArray(CharSequence hexString, int start, int end, ByteBuffer dest) {
+
+        checkRange(hexString.length(), start, end - start);
+
+        int position = dest.position();
+        int high = -1;
+
+        /* For each HEX character, convert it to byte. */
+        for (int i = start; i < end; i++) {
+
+            int value = toDigit(hexString.charAt(i));
+            if (value >= 0) {
+
+                if (high < 0) {
+
+                    high = value;
+
+                } else {
+
+                    dest.put((byte) ((high << 4) | value));
+                    high = -1;
+                }
+            }
+        }
+
+        if (high >= 0) {
+            dest.put((byte) (high << 4));
+        }
+
+        return dest.position() - position;
+    }
+
+    /**
+     * Checks the range.
+     *
+     * @param length the length of array
+     * @param offset the offset
+     * @param count  the count
+     * @throws IndexOutOfBoundsException if the range is out of bounds
+     */
+    private static void checkRange(int length, int offset, int count) {
+        if ((offset < 0) || (count < 0) || (offset > length - count)) {
+            throw new IndexOutOfBoundsException(
+                    "Length: " + length + ", offset: " + offset + ", count: " + count);
+        }
+    }
+}
@@ -0,0 +1,247 @@
+/*
+ * Copyright (C) 2026 Advanced Card Systems Ltd. All rights reserved.
+ *
+ * This software is the confidential and proprietary information of Advanced
+ * Card Systems Ltd. ("Confidential Information").  You shall not disclose such
+ * Confidential Information and shall use it only in accordance with the terms
+ * of the license agreement you entered into with ACS.
+ */
+
+package com.acs.pidcore;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The {@code LatencyHistogram} class records the latencies in microseconds into log-linear
+ * buckets like HdrHistogram.
+ *
+ * <p>The values below {@value #SUB_BUCKET_COUNT} are counted exactly.  Each power of 2 above is
+ * divided into {@value #SUB_BUCKET_COUNT} linear buckets so that the relative error is less
+ * than 1 / {@value #SUB_BUCKET_COUNT} (about 3%).  The values larger than
+ * {@link #MAX_VALUE} (about 12 days) are clamped.  Recording is lock-free and does not
+ * allocate.  The percentiles read while other threads are recording may be slightly
+ * inconsistent.</p>
+ *
+ * @author Godfrey Chung
+ * @version 1.0, 17 Oct 2026
+ * @since 0.6
+ */
+public final class LatencyHistogram {
+
+    /** Number of sub-buckets. */
+    public static final int SUB_BUCKET_COUNT = 32;
+
+    /** Maximum value trackable in microseconds. */
+    public static final long MAX_VALUE = (1L << 40) - 1;
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int BUCKET_COUNT = getIndex(MAX_VALUE) + 1;
+
+    private final AtomicLongArray mCounts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong mCount = new AtomicLong();
+    private final AtomicLong mTotal = new AtomicLong();
+    private final AtomicLong mMin = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong mMax = new AtomicLong();
+
+    /**
+     * Creates an instance of {@code LatencyHistogram}.
+     */
+    public LatencyHistogram() {
+    }
+
+    /**
+     * Records the value.
+     *
+     * @param value the value in microseconds
+     */
+    public void record(long value) {
+
+        if (value < 0) {
+            value = 0;
+        } else if (value > MAX_VALUE) {
+            value = MAX_VALUE;
+        }
+
+        mCounts.incrementAndGet(getIndex(value));
+        mCount.incrementAndGet();
+        mTotal.addAndGet(value);
+
+        long min;
+        while (value < (min = mMin.get()) && !mMin.compareAndSet(min, value)) {
+            /* Retry. */
+        }
+
+        long max;
+        while (value > (max = mMax.get()) && !mMax.compareAndSet(max, value)) {
+            /* Retry. */
+        }
+    }
+
+    /**
+     * Records the value in nanoseconds.
+     *
+     * @param nanos the value in nanoseconds
+     */
+    public void recordNanos(long nanos) {
+        record(nanos / 1000);
+    }
+
+    /**
+     * Returns the number of recorded values.
+     *
+     * @return the number of recorded values
+     */
+    public long getCount() {
+        return mCount.get();
+    }
+
+    /**
+     * Returns the sum of recorded values.
+     *
+     * @return the sum in microseconds
+     */
+    public long getTotal() {
+        return mTotal.get();
+    }
+
+    /**
+     * Returns the minimum value.
+     *
+     * @return the minimum value in microseconds or 0 if no value is recorded
+     */
+    public long getMin() {
+
+        long min = mMin.get();
+        return (min == Long.MAX_VALUE) ? 0 : min;
+    }
+
+    /**
+     * Returns the maximum value.
+     *
+     * @return the maximum value in microseconds
+     */
+    public long getMax() {
+        return mMax.get();
+    }
+
+    /**
+     * Returns the mean value.
+     *
+     * @return the mean value in microseconds or 0 if no value is recorded
+     */
+    public double getMean() {
+
+        long count = mCount.get();
+        return (count == 0) ? 0 : (double) mTotal.get() / count;
+    }
+
+    /**
+     * Returns the value at the percentile.  The value is the highest value of the bucket and
+     * does not exceed the maximum value.
+     *
+     * @param percentile the percentile from 0 to 100
+     * @return the value in microseconds or 0 if no value is recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+
+        if (!(percentile >= 0) || (percentile > 100)) {
+            throw new IllegalArgumentException("Percentile must be from 0 to 100");
+        }
+
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            total += mCounts.get(i);
+        }
+
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long count = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+
+            count += mCounts.get(i);
+            if (count >= rank) {
+                return Math.min(getHighestValue(i), getMax());
+            }
+        }
+
+        return getMax();
+    }
+
+    /**
+     * Clears the recorded values.
+     */
+    public void reset() {
+
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            mCounts.set(i, 0);
+        }
+
+        mCount.set(0);
+        mTotal.set(0);
+        mMin.set(Long.MAX_VALUE);
+        mMax.set(0);
+    }
+
+    /**
+     * Appends the summary to the string builder.
+     *
+     * @param builder the string builder
+     * @return the string builder
+     */
+    public StringBuilder appendSummary(StringBuilder builder) {
+
+        builder.append("count=").append(getCount())
+                .append(" min=").append(getMin())
+                .append(" mean=").append(Math.round(getMean()))
+                .append(" p50=").append(getValueAtPercentile(50))
+                .append(" p90=").append(getValueAtPercentile(90))
+                .append(" p99=").append(getValueAtPercentile(99))
+                .append(" p999=").append(getValueAtPercentile(99.9))
+                .append(" max=").append(getMax());
+
+        return builder;
+    }
+
+    @Override
+    public String toString() {
+        return appendSummary(new StringBuilder()).toString();
+    }
+
+    /**
+     * Returns the index of bucket for the value.
+     *
+     * @param value the value
+     * @return the index
+     */
+    private static int getIndex(long value) {
+
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return shift * SUB_BUCKET_COUNT + (int) (value >>> shift);
+    }
+
+    /**
+     * Returns the highest value of the bucket.
+     *
+     * @param index the index
+     * @return the highest value
+     */
+    private static long getHighestValue(int index) {
+
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        long subBucket = index % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT;
+
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
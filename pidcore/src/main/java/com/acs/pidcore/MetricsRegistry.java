@@ -0,0 +1,348 @@
+/*
+ * Copyright (C) 2026 Advanced Card Systems Ltd. All rights reserved.
+ *
+ * This software is the confidential and proprietary information of Advanced
+ * Card Systems Ltd. ("Confidential Information").  You shall not disclose such
+ * Confidential Information and shall use it only in accordance with the terms
+ * of the license agreement you entered into with ACS.
+ */
+
+package com.acs.pidcore;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The {@code MetricsRegistry} class is a singleton that keeps the latency histograms and the
+ * counters of the card operations and the uploads.
+ *
+ * <p>The metric is named as the base name optionally followed by a tag, for example,
+ * {@code apdu.latency{terminal=ACR3901U-S1}}.  Each command is recorded to the overall histogram,
+ * the histogram of its terminal and the histogram of its header (CLA INS P1 P2) so that the time
+ * spent in the reader, the card and the app can be told apart.</p>
+ *
+ * <p>The dump format has one metric per line:</p>
+ *
+ * <pre>
+ * counter apdu.bytes_sent 1234
+ * histogram apdu.latency count=10 min=812 mean=1520 p50=1407 p90=2111 p99=4031 p999=4031 max=4120
+ * </pre>
+ *
+ * <p>The latencies are in microseconds.</p>
+ *
+ * @author Godfrey Chung
+ * @version 1.0, 17 Oct 2026
+ * @since 0.6
+ */
+public final class MetricsRegistry {
+
+    /** Latency of the command APDU. */
+    public static final String APDU_LATENCY = "apdu.latency";
+
+    /** Number of command APDUs. */
+    public static final String APDU_COUNT = "apdu.count";
+
+    /** Number of command APDUs failed. */
+    public static final String APDU_ERRORS = "apdu.errors";
+
+    /** Number of bytes sent to the card. */
+    public static final String APDU_BYTES_SENT = "apdu.bytes_sent";
+
+    /** Number of bytes received from the card. */
+    public static final String APDU_BYTES_RECEIVED = "apdu.bytes_received";
+
+    /** Latency of the script. */
+    public static final String SCRIPT_LATENCY = "script.latency";
+
+    /** Number of scripts. */
+    public static final String SCRIPT_COUNT = "script.count";
+
+    /** Number of scripts not completed. */
+    public static final String SCRIPT_ERRORS = "script.errors";
+
+    /** Latency of the upload request. */
+    public static final String UPLOAD_LATENCY = "upload.latency";
+
+    /** Number of upload requests. */
+    public static final String UPLOAD_COUNT = "upload.count";
+
+    /** Number of upload requests failed after all retries. */
+    public static final String UPLOAD_ERRORS = "upload.errors";
+
+    /** Number of upload retries. */
+    public static final String UPLOAD_RETRIES = "upload.retries";
+
+    private static final MetricsRegistry INSTANCE = new MetricsRegistry();
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+    private final ConcurrentHashMap<String, LatencyHistogram> mHistograms =
+            new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, AtomicLong> mCounters = new ConcurrentHashMap<>();
+
+    /**
+     * Creates an instance of {@code MetricsRegistry}.
+     */
+    private MetricsRegistry() {
+    }
+
+    /**
+     * Returns the instance of {@code MetricsRegistry}.
+     *
+     * @return the instance
+     */
+    public static MetricsRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the name with the tag.
+     *
+     * @param name  the base name
+     * @param tag   the tag
+     * @param value the value of tag
+     * @return the name with the tag
+     */
+    public static String getName(String name, String tag, String value) {
+        return name + '{' + tag + '=' + value + '}';
+    }
+
+    /**
+     * Returns the histogram.  The histogram is created if it does not exist.
+     *
+     * @param name the name
+     * @return the histogram
+     */
+    public LatencyHistogram getHistogram(String name) {
+
+        if (name == null) {
+            throw new IllegalArgumentException("Name must not be null");
+        }
+
+        LatencyHistogram histogram = mHistograms.get(name);
+        if (histogram == null) {
+
+            LatencyHistogram newHistogram = new LatencyHistogram();
+            histogram = mHistograms.putIfAbsent(name, newHistogram);
+            if (histogram == null) {
+                histogram = newHistogram;
+            }
+        }
+
+        return histogram;
+    }
+
+    /**
+     * Returns the counter.  The counter is created if it does not exist.
+     *
+     * @param name the name
+     * @return the counter
+     */
+    public AtomicLong getCounter(String name) {
+
+        if (name == null) {
+            throw new IllegalArgumentException("Name must not be null");
+        }
+
+        AtomicLong counter = mCounters.get(name);
+        if (counter == null) {
+
+            AtomicLong newCounter = new AtomicLong();
+            counter = mCounters.putIfAbsent(name, newCounter);
+            if (counter == null) {
+                counter = newCounter;
+            }
+        }
+
+        return counter;
+    }
+
+    /**
+     * Returns the value of counter.
+     *
+     * @param name the name
+     * @return the value or 0 if the counter does not exist
+     */
+    public long getCounterValue(String name) {
+
+        AtomicLong counter = mCounters.get(name);
+        return (counter == null) ? 0 : counter.get();
+    }
+
+    /**
+     * Returns the histograms sorted by name.
+     *
+     * @return the histograms
+     */
+    public SortedMap<String, LatencyHistogram> getHistograms() {
+        return new TreeMap<>(mHistograms);
+    }
+
+    /**
+     * Returns the histograms whose names start with the prefix sorted by name.
+     *
+     * @param prefix the prefix
+     * @return the histograms
+     */
+    public SortedMap<String, LatencyHistogram> getHistograms(String prefix) {
+
+        SortedMap<String, LatencyHistogram> histograms = new TreeMap<>();
+        for (Map.Entry<String, LatencyHistogram> entry : mHistograms.entrySet()) {
+            if (entry.getKey().startsWith(prefix)) {
+                histograms.put(entry.getKey(), entry.getValue());
+            }
+        }
+
+        return histograms;
+    }
+
+    /**
+     * Returns the values of counters sorted by name.
+     *
+     * @return the values of counters
+     */
+    public SortedMap<String, Long> getCounters() {
+
+        SortedMap<String, Long> counters = new TreeMap<>();
+        for (Map.Entry<String, AtomicLong> entry : mCounters.entrySet()) {
+            counters.put(entry.getKey(), entry.getValue().get());
+        }
+
+        return counters;
+    }
+
+    /**
+     * Records the command sent to the card.
+     *
+     * @param terminal      the terminal name
+     * @param command       the command
+     * @param bytesReceived the number of bytes received
+     * @param nanos         the latency in nanoseconds
+     */
+    public void recordCommand(String terminal, byte[] command, int bytesReceived, long nanos) {
+
+        getHistogram(APDU_LATENCY).recordNanos(nanos);
+        getHistogram(getName(APDU_LATENCY, "terminal", terminal)).recordNanos(nanos);
+        getHistogram(getName(APDU_LATENCY, "command", getHeader(command))).recordNanos(nanos);
+
+        getCounter(APDU_COUNT).incrementAndGet();
+        getCounter(APDU_BYTES_SENT).addAndGet(command.length);
+        getCounter(APDU_BYTES_RECEIVED).addAndGet(bytesReceived);
+    }
+
+    /**
+     * Records the command failed.
+     *
+     * @param terminal the terminal name
+     */
+    public void recordCommandError(String terminal) {
+
+        getCounter(APDU_ERRORS).incrementAndGet();
+        getCounter(getName(APDU_ERRORS, "terminal", terminal)).incrementAndGet();
+    }
+
+    /**
+     * Records the script.
+     *
+     * @param terminal  the terminal name
+     * @param nanos     the latency in nanoseconds
+     * @param completed {@code true} if all commands are sent
+     */
+    public void recordScript(String terminal, long nanos, boolean completed) {
+
+        getHistogram(SCRIPT_LATENCY).recordNanos(nanos);
+        getHistogram(getName(SCRIPT_LATENCY, "terminal", terminal)).recordNanos(nanos);
+
+        getCounter(SCRIPT_COUNT).incrementAndGet();
+        if (!completed) {
+            getCounter(SCRIPT_ERRORS).incrementAndGet();
+        }
+    }
+
+    /**
+     * Records the upload request.
+     *
+     * @param nanos      the latency in nanoseconds including the retries
+     * @param numRetries the number of retries
+     * @param succeeded  {@code true} if the request succeeded
+     */
+    public void recordUpload(long nanos, int numRetries, boolean succeeded) {
+
+        getHistogram(UPLOAD_LATENCY).recordNanos(nanos);
+        getCounter(UPLOAD_COUNT).incrementAndGet();
+        getCounter(UPLOAD_RETRIES).addAndGet(numRetries);
+        if (!succeeded) {
+            getCounter(UPLOAD_ERRORS).incrementAndGet();
+        }
+    }
+
+    /**
+     * Clears all metrics.
+     */
+    public void reset() {
+
+        mHistograms.clear();
+        mCounters.clear();
+    }
+
+    /**
+     * Writes the metrics in the dump format.
+     *
+     * @param out the output
+     * @throws IOException if an I/O error occurs
+     */
+    public void dump(Appendable out) throws IOException {
+
+        StringBuilder builder = new StringBuilder(128);
+        for (Map.Entry<String, Long> entry : getCounters().entrySet()) {
+            out.append("counter ").append(entry.getKey()).append(' ')
+                    .append(String.valueOf(entry.getValue())).append('\n');
+        }
+
+        for (Map.Entry<String, LatencyHistogram> entry : getHistograms().entrySet()) {
+
+            builder.setLength(0);
+            builder.append("histogram ").append(entry.getKey()).append(' ');
+            entry.getValue().appendSummary(builder).append('\n');
+            out.append(builder);
+        }
+    }
+
+    /**
+     * Returns the metrics in the dump format.
+     *
+     * @return the dump
+     */
+    public String dump() {
+
+        StringBuilder builder = new StringBuilder();
+        try {
+            dump(builder);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Returns the command header (CLA INS P1 P2) in HEX.
+     *
+     * @param command the command
+     * @return the header
+     */
+    private static String getHeader(byte[] command) {
+
+        int length = Math.min(4, command.length);
+        char[] chars = new char[length * 2];
+        for (int i = 0; i < length; i++) {
+
+            chars[i * 2] = HEX_DIGITS[(command[i] >> 4) & 0x0F];
+            chars[i * 2 + 1] = HEX_DIGITS[command[i] & 0x0F];
+        }
+
+        return new String(chars);
+    }
+}
@@ -0,0 +1,419 @@
+/*
+ * Copyright (C) 2026 Advanced Card Systems Ltd. All rights reserved.
+ *
+ * This software is the confidential and proprietary information of Advanced
+ * Card Systems Ltd. ("Confidential Information").  You shall not disclose such
+ * Confidential Information and shall use it only in accordance with the terms
+ * of the license agreement you entered into with ACS.
+ */
+
+package com.acs.pidcore;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.smartcardio.CardException;
+import javax.smartcardio.CardTerminal;
+
+/**
+ * The {@code MultiTerminalReader} class reads the cards in several card terminals at the same
+ * time.
+ *
+ * <p>{@link #readAll(List, ReadTask, OnReadListener)} runs the task once for each card terminal
+ * on a bounded pool of threads so that the total throughput grows with the number of card
+ * terminals.  The failure of a card terminal is reported in its {@link Result} and does not stop
+ * the others.  The results are delivered to the listener one at a time in the order they
+ * complete, followed by all results in the order of the card terminals.</p>
+ *
+ * <p>A card terminal is read by one task at a time.  If it is still being read by the previous
+ * call, its result fails with {@link IllegalStateException}.  The code reading a single card
+ * terminal on its own thread marks it busy with {@link #tryAcquire(CardTerminal)} and
+ * {@link #release(CardTerminal)} so that it is not read by both at the same time.</p>
+ *
+ * @author Godfrey Chung
+ * @version 1.0, 17 Oct 2026
+ * @since 0.6
+ */
+public final class MultiTerminalReader {
+
+    /**
+     * Interface definition for a task reading the card in the card terminal.
+     *
+     * @param <T> the type of value
+     */
+    public interface ReadTask<T> {
+
+        /**
+         * Reads the card in the card terminal.  It is called on the reader thread.
+         *
+         * @param terminal the card terminal
+         * @return the value
+         * @throws CardException if the card cannot be read
+         */
+        T read(CardTerminal terminal) throws CardException;
+    }
+
+    /**
+     * Interface definition for a callback to be invoked when the card terminals are read.  The
+     * methods are called on the reader threads but never at the same time for a call to
+     * {@link #readAll(List, ReadTask, OnReadListener)}.  The results of the card terminals that
+     * are busy or cannot be scheduled, and the completion of an empty list, are delivered on
+     * the thread calling {@link #readAll(List, ReadTask, OnReadListener)} before it returns.
+     *
+     * @param <T> the type of value
+     */
+    public interface OnReadListener<T> {
+
+        /**
+         * Called when the card terminal is read.
+         *
+         * @param result the result
+         */
+        void onRead(Result<T> result);
+
+        /**
+         * Called when all card terminals are read.
+         *
+         * @param results the results in the order of the card terminals
+         */
+        void onComplete(List<Result<T>> results);
+    }
+
+    /**
+     * The {@code Result} class represents the result of reading a card terminal.
+     *
+     * @param <T> the type of value
+     */
+    public static final class Result<T> {
+
+        private final CardTerminal mTerminal;
+        private final T mValue;
+        private final Exception mError;
+        private final long mElapsedTime;
+
+        /**
+         * Creates an instance of {@code Result}.
+         *
+         * @param terminal    the card terminal
+         * @param value       the value
+         * @param error       the error or {@code null} if the task succeeded
+         * @param elapsedTime the elapsed time in milliseconds
+         */
+        Result(CardTerminal terminal, T value, Exception error, long elapsedTime) {
+
+            mTerminal = terminal;
+            mValue = value;
+            mError = error;
+            mElapsedTime = elapsedTime;
+        }
+
+        /**
+         * Returns the card terminal.
+         *
+         * @return the card terminal
+         */
+        public CardTerminal getTerminal() {
+            return mTerminal;
+        }
+
+        /**
+         * Returns the value returned by the task.
+         *
+         * @return the value or {@code null} if the task failed
+         */
+        public T getValue() {
+            return mValue;
+        }
+
+        /**
+         * Returns the error thrown by the task.  An {@link Error} thrown by the task is wrapped in
+         * {@link ExecutionException}.
+         *
+         * @return the error or {@code null} if the task succeeded
+         */
+        public Exception getError() {
+            return mError;
+        }
+
+        /**
+         * Returns {@code true} if the task succeeded.
+         *
+         * @return {@code true} if the task succeeded, otherwise {@code false}.
+         */
+        public boolean isSuccessful() {
+            return mError == null;
+        }
+
+        /**
+         * Returns the time in milliseconds to run the task.
+         *
+         * @return the elapsed time
+         */
+        public long getElapsedTime() {
+            return mElapsedTime;
+        }
+    }
+
+    /** Default maximum number of card terminals read at the same time. */
+    public static final int DEFAULT_MAX_CONCURRENCY = 4;
+
+    private static final String TAG = "MultiTerminalReader";
+    private static final long KEEP_ALIVE_TIME = 30;
+
+    private final ThreadPoolExecutor mExecutor;
+    private final Set<CardTerminal> mBusyTerminals =
+            Collections.newSetFromMap(new ConcurrentHashMap<CardTerminal, Boolean>());
+
+    /**
+     * Creates an instance of {@code MultiTerminalReader} with the default maximum concurrency.
+     */
+    public MultiTerminalReader() {
+        this(DEFAULT_MAX_CONCURRENCY);
+    }
+
+    /**
+     * Creates an instance of {@code MultiTerminalReader}.
+     *
+     * @param maxConcurrency the maximum number of card terminals read at the same time
+     */
+    public MultiTerminalReader(int maxConcurrency) {
+
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("Maximum concurrency must be positive");
+        }
+
+        mExecutor = new ThreadPoolExecutor(maxConcurrency, maxConcurrency, KEEP_ALIVE_TIME,
+                TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+
+            private final AtomicInteger mThreadNumber = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+
+                Thread thread = new Thread(r, TAG + "-" + mThreadNumber.incrementAndGet());
+                thread.setDaemon(true);
+
+                return thread;
+            }
+        });
+        mExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Returns the maximum number of card terminals read at the same time.
+     *
+     * @return the maximum concurrency
+     */
+    public int getMaxConcurrency() {
+        return mExecutor.getMaximumPoolSize();
+    }
+
+    /**
+     * Returns {@code true} if the card terminal is being read.
+     *
+     * @param terminal the card terminal
+     * @return {@code true} if the card terminal is being read, otherwise {@code false}.
+     */
+    public boolean isBusy(CardTerminal terminal) {
+        return mBusyTerminals.contains(terminal);
+    }
+
+    /**
+     * Marks the card terminal busy so that it is not read by
+     * {@link #readAll(List, ReadTask, OnReadListener)} until it is released.
+     *
+     * @param terminal the card terminal
+     * @return {@code true} if the card terminal is acquired, or {@code false} if it is busy
+     */
+    public boolean tryAcquire(CardTerminal terminal) {
+
+        if (terminal == null) {
+            throw new IllegalArgumentException("Terminal must not be null");
+        }
+
+        return mBusyTerminals.add(terminal);
+    }
+
+    /**
+     * Releases the card terminal acquired by {@link #tryAcquire(CardTerminal)}.
+     *
+     * @param terminal the card terminal
+     */
+    public void release(CardTerminal terminal) {
+
+        if (terminal == null) {
+            throw new IllegalArgumentException("Terminal must not be null");
+        }
+
+        mBusyTerminals.remove(terminal);
+    }
+
+    /**
+     * Reads the card terminals with the task and returns immediately.  The list is copied so
+     * that it can be changed after this method returns.
+     *
+     * @param terminals the card terminals
+     * @param task      the task
+     * @param listener  the listener
+     * @param <T>       the type of value
+     */
+    public <T> void readAll(List<CardTerminal> terminals, ReadTask<T> task,
+            OnReadListener<T> listener) {
+
+        if (terminals == null) {
+            throw new IllegalArgumentException("Terminals must not be null");
+        }
+
+        if (task == null) {
+            throw new IllegalArgumentException("Task must not be null");
+        }
+
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener must not be null");
+        }
+
+        List<CardTerminal> snapshot = new ArrayList<>(terminals);
+        Batch<T> batch = new Batch<>(snapshot.size(), listener);
+        if (snapshot.isEmpty()) {
+
+            listener.onComplete(Collections.<Result<T>>emptyList());
+            return;
+        }
+
+        for (int i = 0; i < snapshot.size(); i++) {
+
+            CardTerminal terminal = snapshot.get(i);
+            if (!mBusyTerminals.add(terminal)) {
+
+                batch.deliver(i, new Result<T>(terminal, null,
+                        new IllegalStateException("Card terminal busy"), 0));
+                continue;
+            }
+
+            try {
+
+                mExecutor.execute(new ReadRunnable<>(batch, i, terminal, task));
+
+            } catch (RejectedExecutionException e) {
+
+                mBusyTerminals.remove(terminal);
+                batch.deliver(i, new Result<T>(terminal, null, e, 0));
+            }
+        }
+    }
+
+    /**
+     * Stops accepting the tasks.  The running tasks are completed.
+     */
+    public void shutdown() {
+        mExecutor.shutdown();
+    }
+
+    /**
+     * The {@code Batch} class merges the results of a call to
+     * {@link #readAll(List, ReadTask, OnReadListener)}.
+     *
+     * @param <T> the type of value
+     */
+    private static final class Batch<T> {
+
+        private final Result<?>[] mResults;
+        private final OnReadListener<T> mListener;
+        private int mNumRemaining;
+
+        /**
+         * Creates an instance of {@code Batch}.
+         *
+         * @param size     the number of card terminals
+         * @param listener the listener
+         */
+        Batch(int size, OnReadListener<T> listener) {
+
+            mResults = new Result<?>[size];
+            mListener = listener;
+            mNumRemaining = size;
+        }
+
+        /**
+         * Stores the result and passes it to the listener.
+         *
+         * @param index  the index of card terminal
+         * @param result the result
+         */
+        @SuppressWarnings("unchecked")
+        synchronized void deliver(int index, Result<T> result) {
+
+            mResults[index] = result;
+            mNumRemaining--;
+
+            mListener.onRead(result);
+            if (mNumRemaining == 0) {
+                mListener.onComplete(Collections.unmodifiableList(
+                        Arrays.asList((Result<T>[]) mResults)));
+            }
+        }
+    }
+
+    /**
+     * The {@code ReadRunnable} class runs the task for a card terminal.
+     *
+     * @param <T> the type of value
+     */
+    private final class ReadRunnable<T> implements Runnable {
+
+        private final Batch<T> mBatch;
+        private final int mIndex;
+        private final CardTerminal mTerminal;
+        private final ReadTask<T> mTask;
+
+        /**
+         * Creates an instance of {@code ReadRunnable}.
+         *
+         * @param batch    the batch
+         * @param index    the index of card terminal
+         * @param terminal the card terminal
+         * @param task     the task
+         */
+        ReadRunnable(Batch<T> batch, int index, CardTerminal terminal, ReadTask<T> task) {
+
+            mBatch = batch;
+            mIndex = index;
+            mTerminal = terminal;
+            mTask = task;
+        }
+
+        @Override
+        public void run() {
+
+            long startTime = System.nanoTime();
+            T value = null;
+            Exception error = null;
+            try {
+                value = mTask.read(mTerminal);
+            } catch (CardException | RuntimeException e) {
+                error = e;
+            } catch (Error e) {
+
+                /* Report the error (e.g. OutOfMemoryError) so that the batch still completes. */
+                error = new ExecutionException(e);
+
+            } finally {
+                mBusyTerminals.remove(mTerminal);
+            }
+
+            long elapsedTime = (System.nanoTime() - startTime) / 1000000;
+            mBatch.deliver(mIndex, new Result<>(mTerminal, value, error, elapsedTime));
+        }
+    }
+}
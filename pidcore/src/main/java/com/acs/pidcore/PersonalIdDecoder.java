@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2026 Advanced Card Systems Ltd. All rights reserved.
+ *
+ * This software is the confidential and proprietary information of Advanced
+ * Card Systems Ltd. ("Confidential Information").  You shall not disclose such
+ * Confidential Information and shall use it only in accordance with the terms
+ * of the license agreement you entered into with ACS.
+ */
+
+package com.acs.pidcore;
+
+/**
+ * The {@code PersonalIdDecoder} class decodes the command and response pairs exchanged with Thai
+ * national ID card into {@link PersonalIdRecord}.  The READ BINARY command
+ * ({@code 80 B0 P1 P2 02 00 Le}) selects the field by its offset.  If the card returns
+ * {@code 61 xx}, the data is taken from the following GET RESPONSE command
+ * ({@code 00 C0 00 00 Le}).  The other commands are ignored.
+ *
+ * @author Godfrey Chung
+ * @version 1.0, 17 Oct 2026
+ * @since 0.6
+ */
+public final class PersonalIdDecoder {
+
+    private PersonalIdRecord mRecord = new PersonalIdRecord();
+    private PersonalIdField mPendingField;
+    private int mPendingOffset;
+
+    /**
+     * Creates an instance of {@code PersonalIdDecoder}.
+     */
+    public PersonalIdDecoder() {
+    }
+
+    /**
+     * Decodes the command and the response.
+     *
+     * @param command  the command
+     * @param response the response including the status word
+     * @return {@code true} if the response is assigned to a field, otherwise {@code false}.
+     */
+    public boolean decode(byte[] command, byte[] response) {
+
+        if (command == null) {
+            throw new IllegalArgumentException("Command must not be null");
+        }
+
+        if (response == null) {
+            throw new IllegalArgumentException("Response must not be null");
+        }
+
+        if ((command.length < 4) || (response.length < 2)) {
+            return false;
+        }
+
+        int sw1 = response[response.length - 2] & 0xFF;
+        int sw2 = response[response.length - 1] & 0xFF;
+        int ins = command[1] & 0xFF;
+
+        /* READ BINARY. */
+        if (((command[0] & 0xFF) == 0x80) && (ins == 0xB0)) {
+
+            int offset = ((command[2] & 0xFF) << 8) | (command[3] & 0xFF);
+            PersonalIdField field = PersonalIdField.fromOffset(offset);
+
+            mPendingField = null;
+            if (field == null) {
+                return false;
+            }
+
+            if (sw1 == 0x61) {
+
+                /* Wait for GET RESPONSE. */
+                mPendingField = field;
+                mPendingOffset = offset;
+                return false;
+            }
+
+            return (sw1 == 0x90) && (sw2 == 0x00) && assign(field, offset, response);
+        }
+
+        /* GET RESPONSE. */
+        if ((ins == 0xC0) && (mPendingField != null)) {
+
+            PersonalIdField field = mPendingField;
+            mPendingField = null;
+
+            return (sw1 == 0x90) && (sw2 == 0x00) && assign(field, mPendingOffset, response);
+        }
+
+        mPendingField = null;
+        return false;
+    }
+
+    /**
+     * Returns the decoded record.
+     *
+     * @return the record
+     */
+    public PersonalIdRecord getRecord() {
+        return mRecord;
+    }
+
+    /**
+     * Resets the decoder with a new record.
+     */
+    public void reset() {
+
+        mRecord = new PersonalIdRecord();
+        mPendingField = null;
+    }
+
+    /**
+     * Assigns the response data to the field.
+     *
+     * @param field    the field
+     * @param offset   the offset in the card
+     * @param response the response
+     * @return {@code true} if the data is not empty, otherwise {@code false}.
+     */
+    private boolean assign(PersonalIdField field, int offset, byte[] response) {
+
+        int length = response.length - 2;
+        if (length <= 0) {
+            return false;
+        }
+
+        if (field == PersonalIdField.PHOTO) {
+            mRecord.setPhoto(offset - field.getOffset(), response, 0, length);
+        } else {
+            mRecord.setField(field, response, 0, length);
+        }
+
+        return true;
+    }
+}
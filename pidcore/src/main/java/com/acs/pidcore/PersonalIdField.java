@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2026 Advanced Card Systems Ltd. All rights reserved.
+ *
+ * This software is the confidential and proprietary information of Advanced
+ * Card Systems Ltd. ("Confidential Information").  You shall not disclose such
+ * Confidential Information and shall use it only in accordance with the terms
+ * of the license agreement you entered into with ACS.
+ */
+
+package com.acs.pidcore;
+
+/**
+ * The {@code PersonalIdField} enum defines the fields of Thai national ID card and their
+ * locations in the personal data applet.  A field is read by READ BINARY command
+ * ({@code 80 B0 P1 P2 02 00 Le}) where {@code P1 P2} is the offset and {@code Le} is the length.
+ *
+ * @author Godfrey Chung
+ * @version 1.0, 17 Oct 2026
+ * @since 0.6
+ */
+public enum PersonalIdField {
+
+    /** Citizen ID. */
+    CITIZEN_ID(0x0004, 13),
+
+    /** Name in Thai. */
+    THAI_NAME(0x0011, 100),
+
+    /** Name in English. */
+    ENGLISH_NAME(0x0075, 100),
+
+    /** Birth date. */
+    BIRTH_DATE(0x00D9, 8),
+
+    /** Gender. */
+    GENDER(0x00E1, 1),
+
+    /** Card issuer. */
+    CARD_ISSUER(0x00F6, 100),
+
+    /** Issue date. */
+    ISSUE_DATE(0x0167, 8),
+
+    /** Expiry date. */
+    EXPIRY_DATE(0x016F, 8),
+
+    /** Photo in JPEG which is read in chunks of 255 bytes. */
+    PHOTO(0x017B, 5100),
+
+    /** Address. */
+    ADDRESS(0x1579, 160);
+
+    private static final PersonalIdField[] FIELDS = values();
+    private final int mOffset;
+    private final int mLength;
+
+    /**
+     * Creates an instance of {@code PersonalIdField}.
+     *
+     * @param offset the offset
+     * @param length the maximum length
+     */
+    PersonalIdField(int offset, int length) {
+
+        mOffset = offset;
+        mLength = length;
+    }
+
+    /**
+     * Returns the offset of the field.
+     *
+     * @return the offset
+     */
+    public int getOffset() {
+        return mOffset;
+    }
+
+    /**
+     * Returns the maximum length of the field.
+     *
+     * @return the maximum length
+     */
+    public int getLength() {
+        return mLength;
+    }
+
+    /**
+     * Returns {@code true} if the offset is in the field.
+     *
+     * @param offset the offset
+     * @return {@code true} if the offset is in the field, otherwise {@code false}.
+     */
+    public boolean contains(int offset) {
+        return (offset >= mOffset) && (offset < mOffset + mLength);
+    }
+
+    /**
+     * Returns the field that starts at the offset or, for the photo, contains the offset.
+     *
+     * @param offset the offset
+     * @return the field or {@code null} if the offset is unknown
+     */
+    public static PersonalIdField fromOffset(int offset) {
+
+        for (PersonalIdField field : FIELDS) {
+            if ((field.mOffset == offset) || ((field == PHOTO) && field.contains(offset))) {
+                return field;
+            }
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,586 @@
+/*
+ * Copyright (C) 2026 Advanced Card Systems Ltd. All rights reserved.
+ *
+ * This software is the confidential and proprietary information of Advanced
+ * Card Systems Ltd. ("Confidential Information").  You shall not disclose such
+ * Confidential Information and shall use it only in accordance with the terms
+ * of the license agreement you entered into with ACS.
+ */
+
+package com.acs.pidcore;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * The {@code PersonalIdRecord} class stores the fields read from Thai national ID card.  The
+ * fields not read from the card are {@code null}.
+ *
+ * @author Godfrey Chung
+ * @version 1.0, 17 Oct 2026
+ * @since 0.6
+ */
+public final class PersonalIdRecord {
+
+    /** Gender is unknown. */
+    public static final int GENDER_UNKNOWN = 0;
+
+    /** Gender is male. */
+    public static final int GENDER_MALE = 1;
+
+    /** Gender is female. */
+    public static final int GENDER_FEMALE = 2;
+
+    /**
+     * The {@code Name} class stores the name which is stored as
+     * {@code title#first name#middle name#last name} in the card.
+     */
+    public static final class Name {
+
+        private final String mTitle;
+        private final String mFirstName;
+        private final String mMiddleName;
+        private final String mLastName;
+
+        /**
+         * Creates an instance of {@code Name}.
+         *
+         * @param title      the title
+         * @param firstName  the first name
+         * @param middleName the middle name
+         * @param lastName   the last name
+         */
+        public Name(String title, String firstName, String middleName, String lastName) {
+
+            mTitle = (title == null) ? "" : title;
+            mFirstName = (firstName == null) ? "" : firstName;
+            mMiddleName = (middleName == null) ? "" : middleName;
+            mLastName = (lastName == null) ? "" : lastName;
+        }
+
+        /**
+         * Parses the name separated by {@code '#'}.
+         *
+         * @param value the value
+         * @return the name
+         */
+        static Name parse(String value) {
+
+            String[] parts = new String[4];
+            int start = 0;
+            for (int i = 0; i < parts.length; i++) {
+
+                int end = (i < parts.length - 1) ? value.indexOf('#', start) : -1;
+                if (end < 0) {
+                    end = value.length();
+                }
+
+                parts[i] = (start < end) ? value.substring(start, end).trim() : "";
+                start = Math.min(end + 1, value.length());
+            }
+
+            return new Name(parts[0], parts[1], parts[2], parts[3]);
+        }
+
+        /**
+         * Returns the title.
+         *
+         * @return the title
+         */
+        public String getTitle() {
+            return mTitle;
+        }
+
+        /**
+         * Returns the first name.
+         *
+         * @return the first name
+         */
+        public String getFirstName() {
+            return mFirstName;
+        }
+
+        /**
+         * Returns the middle name.
+         *
+         * @return the middle name
+         */
+        public String getMiddleName() {
+            return mMiddleName;
+        }
+
+        /**
+         * Returns the last name.
+         *
+         * @return the last name
+         */
+        public String getLastName() {
+            return mLastName;
+        }
+
+        /**
+         * Returns the full name separated by space.
+         *
+         * @return the full name
+         */
+        @Override
+        public String toString() {
+
+            StringBuilder builder = new StringBuilder();
+            for (String part : new String[]{mTitle, mFirstName, mMiddleName, mLastName}) {
+                if (!part.isEmpty()) {
+
+                    if (builder.length() > 0) {
+                        builder.append(' ');
+                    }
+
+                    builder.append(part);
+                }
+            }
+
+            return builder.toString();
+        }
+    }
+
+    /**
+     * The {@code BuddhistDate} class stores the date in Buddhist Era which is stored as
+     * {@code yyyyMMdd} in the card.  The month and the day are 0 if they are unknown.  The
+     * expiry date of lifetime card is stored as {@code 99999999} and is {@link #LIFETIME}.
+     */
+    public static final class BuddhistDate {
+
+        /** The difference between Buddhist Era and Common Era. */
+        public static final int YEAR_OFFSET = 543;
+
+        /** The expiry date of lifetime card. */
+        public static final BuddhistDate LIFETIME = new BuddhistDate();
+
+        private static final String LIFETIME_VALUE = "99999999";
+
+        private final int mYear;
+        private final int mMonth;
+        private final int mDay;
+
+        /**
+         * Creates an instance of {@code BuddhistDate}.
+         *
+         * @param year  the year in Buddhist Era
+         * @param month the month (1-12) or 0 if it is unknown
+         * @param day   the day (1-31) or 0 if it is unknown
+         */
+        public BuddhistDate(int year, int month, int day) {
+
+            if ((month < 0) || (month > 12)) {
+                throw new IllegalArgumentException("Month out of range");
+            }
+
+            if ((day < 0) || (day > 31)) {
+                throw new IllegalArgumentException("Day out of range");
+            }
+
+            mYear = year;
+            mMonth = month;
+            mDay = day;
+        }
+
+        /**
+         * Creates the lifetime date.  Its year is 9999 and the month and the day are unknown.
+         */
+        private BuddhistDate() {
+
+            mYear = 9999;
+            mMonth = 0;
+            mDay = 0;
+        }
+
+        /**
+         * Parses the date in {@code yyyyMMdd} format.
+         *
+         * @param value the value
+         * @return the date, {@link #LIFETIME} or {@code null} if the value is invalid
+         */
+        static BuddhistDate parse(String value) {
+
+            if (value.length() != 8) {
+                return null;
+            }
+
+            if (value.equals(LIFETIME_VALUE)) {
+                return LIFETIME;
+            }
+
+            for (int i = 0; i < value.length(); i++) {
+                if ((value.charAt(i) < '0') || (value.charAt(i) > '9')) {
+                    return null;
+                }
+            }
+
+            int month = Integer.parseInt(value.substring(4, 6));
+            int day = Integer.parseInt(value.substring(6, 8));
+            if ((month > 12) || (day > 31)) {
+                return null;
+            }
+
+            return new BuddhistDate(Integer.parseInt(value.substring(0, 4)), month, day);
+        }
+
+        /**
+         * Returns the year in Buddhist Era.
+         *
+         * @return the year
+         */
+        public int getYear() {
+            return mYear;
+        }
+
+        /**
+         * Returns the year in Common Era.
+         *
+         * @return the year
+         */
+        public int getGregorianYear() {
+            return mYear - YEAR_OFFSET;
+        }
+
+        /**
+         * Returns the month.
+         *
+         * @return the month (1-12) or 0 if it is unknown
+         */
+        public int getMonth() {
+            return mMonth;
+        }
+
+        /**
+         * Returns the day.
+         *
+         * @return the day (1-31) or 0 if it is unknown
+         */
+        public int getDay() {
+            return mDay;
+        }
+
+        /**
+         * Returns {@code true} if the date is the expiry date of lifetime card.
+         *
+         * @return {@code true} if the date is {@link #LIFETIME}, otherwise {@code false}.
+         */
+        public boolean isLifetime() {
+            return this == LIFETIME;
+        }
+
+        /**
+         * Returns the date in {@code yyyyMMdd} format.
+         *
+         * @return the date
+         */
+        @Override
+        public String toString() {
+
+            if (isLifetime()) {
+                return LIFETIME_VALUE;
+            }
+
+            return String.format("%04d%02d%02d", mYear, mMonth, mDay);
+        }
+    }
+
+    private final Set<PersonalIdField> mFields = EnumSet.noneOf(PersonalIdField.class);
+    private String mCitizenId;
+    private Name mThaiName;
+    private Name mEnglishName;
+    private BuddhistDate mBirthDate;
+    private int mGender = GENDER_UNKNOWN;
+    private String mCardIssuer;
+    private BuddhistDate mIssueDate;
+    private BuddhistDate mExpiryDate;
+    private String mAddress;
+    private byte[] mPhoto;
+    private int mPhotoLength;
+
+    /**
+     * Creates an instance of {@code PersonalIdRecord}.
+     */
+    PersonalIdRecord() {
+    }
+
+    /**
+     * Returns {@code true} if the field is read from the card.
+     *
+     * @param field the field
+     * @return {@code true} if the field is read, otherwise {@code false}.
+     */
+    public boolean hasField(PersonalIdField field) {
+        return mFields.contains(field);
+    }
+
+    /**
+     * Returns the citizen ID.
+     *
+     * @return the citizen ID
+     */
+    public String getCitizenId() {
+        return mCitizenId;
+    }
+
+    /**
+     * Returns the name in Thai.
+     *
+     * @return the name
+     */
+    public Name getThaiName() {
+        return mThaiName;
+    }
+
+    /**
+     * Returns the name in English.
+     *
+     * @return the name
+     */
+    public Name getEnglishName() {
+        return mEnglishName;
+    }
+
+    /**
+     * Returns the birth date.
+     *
+     * @return the birth date
+     */
+    public BuddhistDate getBirthDate() {
+        return mBirthDate;
+    }
+
+    /**
+     * Returns the gender.
+     *
+     * @return {@link #GENDER_UNKNOWN}, {@link #GENDER_MALE} or {@link #GENDER_FEMALE}
+     */
+    public int getGender() {
+        return mGender;
+    }
+
+    /**
+     * Returns the card issuer.
+     *
+     * @return the card issuer
+     */
+    public String getCardIssuer() {
+        return mCardIssuer;
+    }
+
+    /**
+     * Returns the issue date.
+     *
+     * @return the issue date
+     */
+    public BuddhistDate getIssueDate() {
+        return mIssueDate;
+    }
+
+    /**
+     * Returns the expiry date.
+     *
+     * @return the expiry date
+     */
+    public BuddhistDate getExpiryDate() {
+        return mExpiryDate;
+    }
+
+    /**
+     * Returns the address.  The parts separated by {@code '#'} in the card are joined by space.
+     *
+     * @return the address
+     */
+    public String getAddress() {
+        return mAddress;
+    }
+
+    /**
+     * Returns the photo in JPEG.
+     *
+     * @return the photo
+     */
+    public byte[] getPhoto() {
+        return (mPhoto == null) ? null : Arrays.copyOf(mPhoto, mPhotoLength);
+    }
+
+    /**
+     * Returns the buffer of photo without copying.
+     *
+     * @return the buffer or {@code null} if the photo is not read
+     */
+    byte[] getPhotoBuffer() {
+        return mPhoto;
+    }
+
+    /**
+     * Returns the length of photo.
+     *
+     * @return the length
+     */
+    int getPhotoLength() {
+        return mPhotoLength;
+    }
+
+    /**
+     * Sets the field from the data read from the card.
+     *
+     * @param field  the field
+     * @param buffer the buffer
+     * @param offset the offset
+     * @param length the length
+     */
+    void setField(PersonalIdField field, byte[] buffer, int offset, int length) {
+
+        if (field == PersonalIdField.PHOTO) {
+
+            setPhoto(0, buffer, offset, length);
+            return;
+        }
+
+        String value = decode(buffer, offset, length);
+        switch (field) {
+
+            case CITIZEN_ID:
+                mCitizenId = value;
+                break;
+
+            case THAI_NAME:
+                mThaiName = Name.parse(value);
+                break;
+
+            case ENGLISH_NAME:
+                mEnglishName = Name.parse(value);
+                break;
+
+            case BIRTH_DATE:
+                mBirthDate = BuddhistDate.parse(value);
+                break;
+
+            case GENDER:
+                if (value.equals("1")) {
+                    mGender = GENDER_MALE;
+                } else if (value.equals("2")) {
+                    mGender = GENDER_FEMALE;
+                } else {
+                    mGender = GENDER_UNKNOWN;
+                }
+                break;
+
+            case CARD_ISSUER:
+                mCardIssuer = value;
+                break;
+
+            case ISSUE_DATE:
+                mIssueDate = BuddhistDate.parse(value);
+                break;
+
+            case EXPIRY_DATE:
+                mExpiryDate = BuddhistDate.parse(value);
+                break;
+
+            case ADDRESS:
+                mAddress = joinParts(value);
+                break;
+
+            default:
+                break;
+        }
+
+        mFields.add(field);
+    }
+
+    /**
+     * Sets the chunk of photo.
+     *
+     * @param photoOffset the offset in the photo
+     * @param buffer      the buffer
+     * @param offset      the offset
+     * @param length      the length
+     */
+    void setPhoto(int photoOffset, byte[] buffer, int offset, int length) {
+
+        int capacity = PersonalIdField.PHOTO.getLength();
+        if ((photoOffset < 0) || (photoOffset >= capacity)) {
+            throw new IllegalArgumentException("Photo offset out of range");
+        }
+
+        if (mPhoto == null) {
+            mPhoto = new byte[capacity];
+        }
+
+        length = Math.min(length, capacity - photoOffset);
+        System.arraycopy(buffer, offset, mPhoto, photoOffset, length);
+        mPhotoLength = Math.max(mPhotoLength, photoOffset + length);
+        mFields.add(PersonalIdField.PHOTO);
+    }
+
+    /**
+     * Sets the photo.  The buffer is used without copying.
+     *
+     * @param buffer the buffer
+     * @param length the length of photo
+     */
+    void setPhoto(byte[] buffer, int length) {
+
+        if ((length < 0) || (length > buffer.length)) {
+            throw new IllegalArgumentException("Length out of range");
+        }
+
+        mPhoto = buffer;
+        mPhotoLength = length;
+        mFields.add(PersonalIdField.PHOTO);
+    }
+
+    /**
+     * Decodes the data in TIS-620.  The trailing spaces and null characters are removed.
+     *
+     * @param buffer the buffer
+     * @param offset the offset
+     * @param length the length
+     * @return the string
+     */
+    private static String decode(byte[] buffer, int offset, int length) {
+
+        while ((length > 0) && ((buffer[offset + length - 1] == ' ')
+                || (buffer[offset + length - 1] == 0))) {
+            length--;
+        }
+
+        return Tis620.decode(buffer, offset, length).trim();
+    }
+
+    /**
+     * Joins the parts separated by {@code '#'} with space.  The empty parts are skipped.
+     *
+     * @param value the value
+     * @return the joined string
+     */
+    private static String joinParts(String value) {
+
+        StringBuilder builder = new StringBuilder(value.length());
+        int start = 0;
+        while (start <= value.length()) {
+
+            int end = value.indexOf('#', start);
+            if (end < 0) {
+                end = value.length();
+            }
+
+            String part = value.substring(start, end).trim();
+            if (!part.isEmpty()) {
+
+                if (builder.length() > 0) {
+                    builder.append(' ');
+                }
+
+                builder.append(part);
+            }
+
+            start = end + 1;
+        }
+
+        return builder.toString();
+    }
+}
@@ -0,0 +1,379 @@
+/*
+ * Copyright (C) 2026 Advanced Card Systems Ltd. All rights reserved.
+ *
+ * This software is the confidential and proprietary information of Advanced
+ * Card Systems Ltd. ("Confidential Information").  You shall not disclose such
+ * Confidential Information and shall use it only in accordance with the terms
+ * of the license agreement you entered into with ACS.
+ */
+
+package com.acs.pidcore;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+
+/**
+ * The {@code PersonalIdRecordEncoder} class encodes {@link PersonalIdRecord} in a compact binary
+ * format and writes it directly to the output stream.
+ *
+ * <p>The format is big-endian: magic {@code "PIDR"}, version (1 byte), flags (1 byte) and the
+ * fields read from the card.  Each field is stored as the tag (1 byte), the length (unsigned
+ * LEB128) and the data.  The tag is the ordinal of {@link PersonalIdField} plus 1 and its bit 7
+ * is set if the data is compressed by zlib deflate.  The record ends with tag 0.</p>
+ *
+ * <ul>
+ * <li>The text fields are stored in TIS-620.  The parts of the name are separated by
+ * {@code '#'}.</li>
+ * <li>The dates are stored as the year in Buddhist Era (2 bytes), the month and the day.  The
+ * expiry date of lifetime card is stored as year 9999, month 99 and day 99 as in the card.  The
+ * date not readable is stored with length 0.</li>
+ * <li>The gender is stored in 1 byte.</li>
+ * <li>The photo is stored in JPEG and can be compressed optionally.</li>
+ * </ul>
+ *
+ * <p>The encoder reuses its buffers and is not thread-safe.</p>
+ *
+ * @author Godfrey Chung
+ * @version 1.0, 17 Oct 2026
+ * @since 0.6
+ */
+public final class PersonalIdRecordEncoder {
+
+    /** Content type of the encoded record. */
+    public static final String CONTENT_TYPE = "application/x-acs-personal-id";
+
+    /** Magic number. */
+    public static final int MAGIC = 0x50494452;  /* "PIDR" */
+
+    /** Version. */
+    public static final int VERSION = 1;
+
+    /** Bit of the tag set if the data is compressed. */
+    public static final int TAG_COMPRESSED = 0x80;
+
+    /** Tag of the end of record. */
+    public static final int TAG_END = 0;
+
+    /** Month and day of the lifetime date. */
+    private static final byte LIFETIME_MONTH_DAY = 99;
+
+    private final boolean mPhotoCompressed;
+    private final StringBuilder mText = new StringBuilder(256);
+    private final byte[] mHeader = new byte[8];
+    private byte[] mTextBuffer = new byte[256];
+    private Deflater mDeflater;
+    private byte[] mDeflateBuffer;
+
+    /**
+     * Creates an instance of {@code PersonalIdRecordEncoder}.
+     *
+     * @param photoCompressed {@code true} to compress the photo
+     */
+    public PersonalIdRecordEncoder(boolean photoCompressed) {
+        mPhotoCompressed = photoCompressed;
+    }
+
+    /**
+     * Encodes the record to the byte array.
+     *
+     * @param record the record
+     * @return the encoded record
+     */
+    public byte[] encode(PersonalIdRecord record) {
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(
+                record.hasField(PersonalIdField.PHOTO) ? record.getPhotoLength() + 512 : 512);
+        try {
+            encode(record, out);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+
+        return out.toByteArray();
+    }
+
+    /**
+     * Returns the request body which encodes the record when it is written.  The length is
+     * unknown and the body is sent in chunked streaming mode.
+     *
+     * @param record the record
+     * @return the request body
+     */
+    public ResultUploader.RequestBody toRequestBody(final PersonalIdRecord record) {
+
+        if (record == null) {
+            throw new IllegalArgumentException("Record must not be null");
+        }
+
+        return new ResultUploader.RequestBody() {
+
+            @Override
+            public String getContentType() {
+                return CONTENT_TYPE;
+            }
+
+            @Override
+            public long getContentLength() {
+                return -1;
+            }
+
+            @Override
+            public void writeTo(OutputStream out) throws IOException {
+                encode(record, out);
+            }
+        };
+    }
+
+    /**
+     * Encodes the record to the output stream.
+     *
+     * @param record the record
+     * @param out    the output stream
+     * @throws IOException if an I/O error occurs
+     */
+    public void encode(PersonalIdRecord record, OutputStream out) throws IOException {
+
+        if (record == null) {
+            throw new IllegalArgumentException("Record must not be null");
+        }
+
+        if (out == null) {
+            throw new IllegalArgumentException("Output stream must not be null");
+        }
+
+        mHeader[0] = (byte) (MAGIC >>> 24);
+        mHeader[1] = (byte) (MAGIC >>> 16);
+        mHeader[2] = (byte) (MAGIC >>> 8);
+        mHeader[3] = (byte) MAGIC;
+        mHeader[4] = (byte) VERSION;
+        mHeader[5] = 0;
+        out.write(mHeader, 0, 6);
+
+        for (PersonalIdField field : PersonalIdField.values()) {
+            if (record.hasField(field)) {
+                encodeField(record, field, out);
+            }
+        }
+
+        out.write(TAG_END);
+    }
+
+    /**
+     * Encodes the field.
+     *
+     * @param record the record
+     * @param field  the field
+     * @param out    the output stream
+     * @throws IOException if an I/O error occurs
+     */
+    private void encodeField(PersonalIdRecord record, PersonalIdField field, OutputStream out)
+            throws IOException {
+
+        int tag = field.ordinal() + 1;
+        switch (field) {
+
+            case CITIZEN_ID:
+                writeText(out, tag, record.getCitizenId());
+                break;
+
+            case THAI_NAME:
+                writeName(out, tag, record.getThaiName());
+                break;
+
+            case ENGLISH_NAME:
+                writeName(out, tag, record.getEnglishName());
+                break;
+
+            case BIRTH_DATE:
+                writeDate(out, tag, record.getBirthDate());
+                break;
+
+            case ISSUE_DATE:
+                writeDate(out, tag, record.getIssueDate());
+                break;
+
+            case EXPIRY_DATE:
+                writeDate(out, tag, record.getExpiryDate());
+                break;
+
+            case GENDER:
+                mHeader[0] = (byte) record.getGender();
+                writeField(out, tag, mHeader, 0, 1);
+                break;
+
+            case CARD_ISSUER:
+                writeText(out, tag, record.getCardIssuer());
+                break;
+
+            case ADDRESS:
+                writeText(out, tag, record.getAddress());
+                break;
+
+            case PHOTO:
+                writePhoto(out, tag, record.getPhotoBuffer(), record.getPhotoLength());
+                break;
+
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Writes the name.
+     *
+     * @param out  the output stream
+     * @param tag  the tag
+     * @param name the name
+     * @throws IOException if an I/O error occurs
+     */
+    private void writeName(OutputStream out, int tag, PersonalIdRecord.Name name)
+            throws IOException {
+
+        mText.setLength(0);
+        if (name != null) {
+            mText.append(name.getTitle()).append('#')
+                    .append(name.getFirstName()).append('#')
+                    .append(name.getMiddleName()).append('#')
+                    .append(name.getLastName());
+        }
+
+        writeText(out, tag, mText);
+    }
+
+    /**
+     * Writes the text in TIS-620.
+     *
+     * @param out  the output stream
+     * @param tag  the tag
+     * @param text the text
+     * @throws IOException if an I/O error occurs
+     */
+    private void writeText(OutputStream out, int tag, CharSequence text) throws IOException {
+
+        if (text == null) {
+            text = "";
+        }
+
+        /* TIS-620 is a single-byte encoding. */
+        if (mTextBuffer.length < text.length()) {
+            mTextBuffer = new byte[text.length()];
+        }
+
+        int length = Tis620.encode(text, 0, text.length(), mTextBuffer, 0);
+        writeField(out, tag, mTextBuffer, 0, length);
+    }
+
+    /**
+     * Writes the date.
+     *
+     * @param out  the output stream
+     * @param tag  the tag
+     * @param date the date
+     * @throws IOException if an I/O error occurs
+     */
+    private void writeDate(OutputStream out, int tag, PersonalIdRecord.BuddhistDate date)
+            throws IOException {
+
+        if (date == null) {
+
+            writeField(out, tag, mHeader, 0, 0);
+            return;
+        }
+
+        mHeader[0] = (byte) (date.getYear() >> 8);
+        mHeader[1] = (byte) date.getYear();
+        if (date.isLifetime()) {
+
+            mHeader[2] = LIFETIME_MONTH_DAY;
+            mHeader[3] = LIFETIME_MONTH_DAY;
+
+        } else {
+
+            mHeader[2] = (byte) date.getMonth();
+            mHeader[3] = (byte) date.getDay();
+        }
+        writeField(out, tag, mHeader, 0, 4);
+    }
+
+    /**
+     * Writes the photo.
+     *
+     * @param out    the output stream
+     * @param tag    the tag
+     * @param photo  the photo
+     * @param length the length of photo
+     * @throws IOException if an I/O error occurs
+     */
+    private void writePhoto(OutputStream out, int tag, byte[] photo, int length)
+            throws IOException {
+
+        if (!mPhotoCompressed || (length == 0)) {
+
+            writeField(out, tag, photo, 0, length);
+            return;
+        }
+
+        if (mDeflater == null) {
+            mDeflater = new Deflater(Deflater.BEST_SPEED);
+        }
+
+        int capacity = length + length / 1000 + 64;
+        if ((mDeflateBuffer == null) || (mDeflateBuffer.length < capacity)) {
+            mDeflateBuffer = new byte[capacity];
+        }
+
+        mDeflater.reset();
+        mDeflater.setInput(photo, 0, length);
+        mDeflater.finish();
+
+        int compressedLength = 0;
+        while (!mDeflater.finished()) {
+
+            if (compressedLength == mDeflateBuffer.length) {
+
+                byte[] buffer = new byte[mDeflateBuffer.length * 2];
+                System.arraycopy(mDeflateBuffer, 0, buffer, 0, compressedLength);
+                mDeflateBuffer = buffer;
+            }
+
+            compressedLength += mDeflater.deflate(mDeflateBuffer, compressedLength,
+                    mDeflateBuffer.length - compressedLength);
+        }
+
+        /* Keep the photo uncompressed if the compression does not help. */
+        if (compressedLength >= length) {
+            writeField(out, tag, photo, 0, length);
+        } else {
+            writeField(out, tag | TAG_COMPRESSED, mDeflateBuffer, 0, compressedLength);
+        }
+    }
+
+    /**
+     * Writes the field.
+     *
+     * @param out    the output stream
+     * @param tag    the tag
+     * @param buffer the buffer
+     * @param offset the offset
+     * @param length the length
+     * @throws IOException if an I/O error occurs
+     */
+    private static void writeField(OutputStream out, int tag, byte[] buffer, int offset,
+            int length) throws IOException {
+
+        out.write(tag);
+
+        /* Write the length in unsigned LEB128. */
+        int value = length;
+        while (value >= 0x80) {
+
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+
+        out.write(value);
+        out.write(buffer, offset, length);
+    }
+}
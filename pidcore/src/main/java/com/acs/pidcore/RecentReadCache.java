@@ -0,0 +1,400 @@
+/*
+ * Copyright (C) 2026 Advanced Card Systems Ltd. All rights reserved.
+ *
+ * This software is the confidential and proprietary information of Advanced
+ * Card Systems Ltd. ("Confidential Information").  You shall not disclose such
+ * Confidential Information and shall use it only in accordance with the terms
+ * of the license agreement you entered into with ACS.
+ */
+
+package com.acs.pidcore;
+
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The {@code RecentReadCache} class keeps the responses of the recently read cards so that the
+ * card taken out and put back is not read again.
+ *
+ * <p>The entry is keyed by the ATR and the citizen ID, which are known after the first commands
+ * of the script.  The script runner looks up the entry and takes the responses of the remaining
+ * commands from it.  A response is used only if the command at the same index is the same so
+ * that the changed script or the changed field selection is sent to the card.</p>
+ *
+ * <p>The entry expires after the time to live.  If the cache is full, the least recently used
+ * entry is evicted.  The responses and the key are filled with zeros when the entry is evicted,
+ * expired, removed or cleared.  {@link #get(byte[], String)} returns a copy which is wiped by
+ * the caller with {@link Entry#wipe()}.</p>
+ *
+ * @author Godfrey Chung
+ * @version 1.0, 17 Oct 2026
+ * @since 0.6
+ */
+public final class RecentReadCache {
+
+    /**
+     * The {@code Entry} class stores the commands of the script and the responses read from the
+     * card.
+     */
+    public static final class Entry {
+
+        private final byte[][] mCommands;
+        private final byte[][] mResponses;
+        private final long mCreationTime;
+
+        /**
+         * Creates an instance of {@code Entry}.
+         *
+         * @param commands     the commands
+         * @param responses    the responses
+         * @param creationTime the creation time in nanoseconds
+         */
+        Entry(byte[][] commands, byte[][] responses, long creationTime) {
+
+            mCommands = commands;
+            mResponses = responses;
+            mCreationTime = creationTime;
+        }
+
+        /**
+         * Returns the number of commands.
+         *
+         * @return the number of commands
+         */
+        public int size() {
+            return mCommands.length;
+        }
+
+        /**
+         * Returns the response of the command.  The returned array is shared and must not be
+         * modified.
+         *
+         * @param index   the index of command
+         * @param command the command
+         * @return the response or {@code null} if the command at the index is different or it is
+         * not read
+         */
+        public byte[] getResponse(int index, byte[] command) {
+
+            if ((index < 0) || (index >= mCommands.length)
+                    || !Arrays.equals(mCommands[index], command)) {
+                return null;
+            }
+
+            return mResponses[index];
+        }
+
+        /**
+         * Fills the responses with zeros.
+         */
+        public void wipe() {
+            for (byte[] response : mResponses) {
+                if (response != null) {
+                    Arrays.fill(response, (byte) 0);
+                }
+            }
+        }
+
+        /**
+         * Returns a copy of the entry.
+         *
+         * @return the copy
+         */
+        Entry copy() {
+
+            byte[][] responses = new byte[mResponses.length][];
+            for (int i = 0; i < responses.length; i++) {
+                if (mResponses[i] != null) {
+                    responses[i] = mResponses[i].clone();
+                }
+            }
+
+            return new Entry(mCommands, responses, mCreationTime);
+        }
+    }
+
+    /** Default maximum number of entries. */
+    public static final int DEFAULT_CAPACITY = 16;
+
+    /** Default time to live in milliseconds. */
+    public static final long DEFAULT_TIME_TO_LIVE = 120000;
+
+    private static final Charset ASCII = Charset.forName("US-ASCII");
+
+    private final int mCapacity;
+    private final long mTimeToLive;
+    private final LinkedHashMap<Key, Entry> mEntries;
+    private long mNumHits;
+    private long mNumMisses;
+
+    /**
+     * Creates an instance of {@code RecentReadCache} with the default capacity and time to live.
+     */
+    public RecentReadCache() {
+        this(DEFAULT_CAPACITY, DEFAULT_TIME_TO_LIVE);
+    }
+
+    /**
+     * Creates an instance of {@code RecentReadCache}.
+     *
+     * @param capacity   the maximum number of entries
+     * @param timeToLive the time to live in milliseconds
+     */
+    public RecentReadCache(int capacity, long timeToLive) {
+
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+
+        if (timeToLive <= 0) {
+            throw new IllegalArgumentException("Time to live must be positive");
+        }
+
+        mCapacity = capacity;
+        mTimeToLive = timeToLive;
+        mEntries = new LinkedHashMap<Key, Entry>(capacity * 4 / 3 + 1, 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+
+                if (size() <= mCapacity) {
+                    return false;
+                }
+
+                /* Remove and wipe the least recently used entry. */
+                remove(eldest.getKey());
+                wipe(eldest.getKey(), eldest.getValue());
+
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the entry of the card.  The returned entry is a copy and should be wiped after
+     * use.
+     *
+     * @param atr       the ATR
+     * @param citizenId the citizen ID
+     * @return the entry or {@code null} if it is not found or expired
+     */
+    public synchronized Entry get(byte[] atr, String citizenId) {
+
+        Key key = new Key(atr, citizenId);
+        Entry entry = mEntries.get(key);
+        key.wipe();
+
+        if ((entry != null) && isExpired(entry, System.nanoTime())) {
+
+            removeExpired();
+            entry = null;
+        }
+
+        if (entry == null) {
+
+            mNumMisses++;
+            return null;
+        }
+
+        mNumHits++;
+
+        return entry.copy();
+    }
+
+    /**
+     * Stores the responses of the script read from the card.  The responses are stored without
+     * copying and must not be modified after this method returns.
+     *
+     * @param atr       the ATR
+     * @param citizenId the citizen ID
+     * @param script    the script
+     * @param responses the responses of the commands
+     */
+    public synchronized void put(byte[] atr, String citizenId, CompiledScript script,
+            byte[][] responses) {
+
+        if (script == null) {
+            throw new IllegalArgumentException("Script must not be null");
+        }
+
+        if ((responses == null) || (responses.length != script.getCommandCount())) {
+            throw new IllegalArgumentException("Invalid responses");
+        }
+
+        byte[][] commands = new byte[responses.length][];
+        for (int i = 0; i < commands.length; i++) {
+            commands[i] = script.getCommand(i).getBytes();
+        }
+
+        removeExpired();
+
+        Key key = new Key(atr, citizenId);
+        Entry oldEntry = mEntries.put(key, new Entry(commands, responses, System.nanoTime()));
+        if (oldEntry != null) {
+
+            /* The map keeps the old key. */
+            wipe(key, oldEntry);
+        }
+    }
+
+    /**
+     * Removes and wipes the entry of the card.
+     *
+     * @param atr       the ATR
+     * @param citizenId the citizen ID
+     */
+    public synchronized void remove(byte[] atr, String citizenId) {
+
+        Key key = new Key(atr, citizenId);
+        Iterator<Map.Entry<Key, Entry>> it = mEntries.entrySet().iterator();
+        while (it.hasNext()) {
+
+            Map.Entry<Key, Entry> mapEntry = it.next();
+            if (mapEntry.getKey().equals(key)) {
+
+                it.remove();
+                wipe(mapEntry.getKey(), mapEntry.getValue());
+                break;
+            }
+        }
+
+        key.wipe();
+    }
+
+    /**
+     * Removes and wipes all entries.
+     */
+    public synchronized void clear() {
+
+        for (Map.Entry<Key, Entry> mapEntry : mEntries.entrySet()) {
+            wipe(mapEntry.getKey(), mapEntry.getValue());
+        }
+
+        mEntries.clear();
+    }
+
+    /**
+     * Returns the number of entries including the expired entries not removed yet.
+     *
+     * @return the number of entries
+     */
+    public synchronized int size() {
+        return mEntries.size();
+    }
+
+    /**
+     * Returns the number of entries found by {@link #get(byte[], String)}.
+     *
+     * @return the number of hits
+     */
+    public synchronized long getHitCount() {
+        return mNumHits;
+    }
+
+    /**
+     * Returns the number of entries not found or expired in {@link #get(byte[], String)}.
+     *
+     * @return the number of misses
+     */
+    public synchronized long getMissCount() {
+        return mNumMisses;
+    }
+
+    /**
+     * Removes and wipes the expired entries.
+     */
+    private void removeExpired() {
+
+        long now = System.nanoTime();
+        Iterator<Map.Entry<Key, Entry>> it = mEntries.entrySet().iterator();
+        while (it.hasNext()) {
+
+            Map.Entry<Key, Entry> mapEntry = it.next();
+            if (isExpired(mapEntry.getValue(), now)) {
+
+                it.remove();
+                wipe(mapEntry.getKey(), mapEntry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Returns {@code true} if the entry is expired.
+     *
+     * @param entry the entry
+     * @param now   the current time in nanoseconds
+     * @return {@code true} if the entry is expired, otherwise {@code false}.
+     */
+    private boolean isExpired(Entry entry, long now) {
+        return now - entry.mCreationTime >= mTimeToLive * 1000000L;
+    }
+
+    /**
+     * Wipes the key and the entry.
+     *
+     * @param key   the key
+     * @param entry the entry
+     */
+    private static void wipe(Key key, Entry entry) {
+
+        key.wipe();
+        entry.wipe();
+    }
+
+    /**
+     * The {@code Key} class stores the ATR and the citizen ID in a byte array which can be wiped.
+     */
+    private static final class Key {
+
+        private final byte[] mBytes;
+        private final int mHashCode;
+
+        /**
+         * Creates an instance of {@code Key}.
+         *
+         * @param atr       the ATR
+         * @param citizenId the citizen ID
+         */
+        Key(byte[] atr, String citizenId) {
+
+            if (atr == null) {
+                throw new IllegalArgumentException("ATR must not be null");
+            }
+
+            if (citizenId == null) {
+                throw new IllegalArgumentException("Citizen ID must not be null");
+            }
+
+            /* The ATR is prefixed with its length. */
+            byte[] id = citizenId.getBytes(ASCII);
+            mBytes = new byte[1 + atr.length + id.length];
+            mBytes[0] = (byte) atr.length;
+            System.arraycopy(atr, 0, mBytes, 1, atr.length);
+            System.arraycopy(id, 0, mBytes, 1 + atr.length, id.length);
+            Arrays.fill(id, (byte) 0);
+            mHashCode = Arrays.hashCode(mBytes);
+        }
+
+        /**
+         * Fills the key with zeros.
+         */
+        void wipe() {
+            Arrays.fill(mBytes, (byte) 0);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return (obj instanceof Key) && Arrays.equals(mBytes, ((Key) obj).mBytes);
+        }
+
+        @Override
+        public int hashCode() {
+            return mHashCode;
+        }
+    }
+}
@@ -0,0 +1,278 @@
+/*
+ * Copyright (C) 2026 Advanced Card Systems Ltd. All rights reserved.
+ *
+ * This software is the confidential and proprietary information of Advanced
+ * Card Systems Ltd. ("Confidential Information").  You shall not disclose such
+ * Confidential Information and shall use it only in accordance with the terms
+ * of the license agreement you entered into with ACS.
+ */
+
+package com.acs.pidcore;
+
+/**
+ * The {@code ResponsePattern} class stores the expected response of a script command as a value
+ * and a mask.  A HEX digit in the expected line must match the response and an {@code X} digit
+ * matches any value.
+ *
+ * <p>The value and the mask are also packed into 64-bit words when the pattern is created.  Only
+ * the words having a digit to check are kept so that {@link #matches(byte[])} compares the
+ * response 8 bytes at a time and skips the wildcard data, which is most of a READ BINARY
+ * response.</p>
+ *
+ * @author Godfrey Chung
+ * @version 1.0, 17 Oct 2026
+ * @since 0.6
+ */
+public final class ResponsePattern {
+
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+    private static final int WORD_SIZE = 8;
+    private final byte[] mValue;
+    private final byte[] mMask;
+    private final int mNumDigits;
+    private final int[] mWordOffsets;
+    private final long[] mValueWords;
+    private final long[] mMaskWords;
+
+    /**
+     * Creates an instance of {@code ResponsePattern}.
+     *
+     * @param value     the value
+     * @param mask      the mask
+     * @param numDigits the number of digits
+     */
+    private ResponsePattern(byte[] value, byte[] mask, int numDigits) {
+
+        mValue = value;
+        mMask = mask;
+        mNumDigits = numDigits;
+
+        /* Count the words having a digit to check. */
+        int numWords = 0;
+        for (int offset = 0; offset < mask.length; offset += WORD_SIZE) {
+            if (getWord(mask, offset) != 0) {
+                numWords++;
+            }
+        }
+
+        /* Pack the value and the mask of these words. */
+        mWordOffsets = new int[numWords];
+        mValueWords = new long[numWords];
+        mMaskWords = new long[numWords];
+        int i = 0;
+        for (int offset = 0; offset < mask.length; offset += WORD_SIZE) {
+
+            long maskWord = getWord(mask, offset);
+            if (maskWord != 0) {
+
+                mWordOffsets[i] = offset;
+                mValueWords[i] = getWord(value, offset) & maskWord;
+                mMaskWords[i] = maskWord;
+                i++;
+            }
+        }
+    }
+
+    /**
+     * Creates a response pattern from the value and the mask.
+     *
+     * @param value     the value
+     * @param mask      the mask
+     * @param numDigits the number of digits
+     * @return the response pattern
+     */
+    static ResponsePattern create(byte[] value, byte[] mask, int numDigits) {
+
+        if ((value == null) || (mask == null) || (numDigits < 0)
+                || (value.length != (numDigits + 1) / 2) || (mask.length != value.length)) {
+            throw new IllegalArgumentException("Invalid response pattern");
+        }
+
+        return new ResponsePattern(value, mask, numDigits);
+    }
+
+    /**
+     * Compiles the expected line to a response pattern.
+     *
+     * @param line the line
+     * @return the response pattern
+     */
+    public static ResponsePattern compile(String line) {
+
+        int numDigits = countDigits(line);
+        byte[] value = new byte[(numDigits + 1) / 2];
+        byte[] mask = new byte[value.length];
+        int j = 0;
+
+        if (numDigits > 0) {
+
+            for (int i = 0; i < line.length(); i++) {
+
+                char c = line.charAt(i);
+                int num;
+
+                if ((c >= '0') && (c <= '9')) {
+                    num = c - '0';
+                } else if ((c >= 'A') && (c <= 'F')) {
+                    num = c - 'A' + 10;
+                } else if ((c >= 'a') && (c <= 'f')) {
+                    num = c - 'a' + 10;
+                } else if ((c == 'X') || (c == 'x')) {
+                    num = -1;
+                } else {
+                    continue;
+                }
+
+                /* The high nibble comes first. */
+                int shift = ((j & 1) == 0) ? 4 : 0;
+                if (num >= 0) {
+
+                    value[j / 2] |= num << shift;
+                    mask[j / 2] |= 0x0F << shift;
+                }
+
+                j++;
+            }
+        }
+
+        return new ResponsePattern(value, mask, numDigits);
+    }
+
+    /**
+     * Counts the number of HEX or {@code X} digits in the line.
+     *
+     * @param line the line
+     * @return the number of digits
+     */
+    public static int countDigits(String line) {
+
+        int count = 0;
+
+        if (line != null) {
+
+            for (int i = 0; i < line.length(); i++) {
+
+                char c = line.charAt(i);
+                if (((c >= '0') && (c <= '9'))
+                        || ((c >= 'A') && (c <= 'F'))
+                        || ((c >= 'a') && (c <= 'f'))
+                        || (c == 'X')
+                        || (c == 'x')) {
+                    count++;
+                }
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Returns {@code true} if the response matches the pattern.
+     *
+     * @param response the response
+     * @return {@code true} if they are equal, otherwise {@code false}.
+     */
+    public boolean matches(byte[] response) {
+
+        /* Return false if the length is not matched. */
+        if ((response == null) || (mNumDigits != 2 * response.length)) {
+            return false;
+        }
+
+        for (int i = 0; i < mWordOffsets.length; i++) {
+            if ((getWord(response, mWordOffsets[i]) & mMaskWords[i]) != mValueWords[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the 8 bytes of the buffer from the offset as a big-endian word.  The bytes beyond
+     * the end of buffer are zero.
+     *
+     * @param buffer the buffer
+     * @param offset the offset
+     * @return the word
+     */
+    private static long getWord(byte[] buffer, int offset) {
+
+        long word = 0;
+        int end = offset + WORD_SIZE;
+
+        if (end <= buffer.length) {
+
+            word = ((long) buffer[offset] << 56)
+                    | ((long) (buffer[offset + 1] & 0xFF) << 48)
+                    | ((long) (buffer[offset + 2] & 0xFF) << 40)
+                    | ((long) (buffer[offset + 3] & 0xFF) << 32)
+                    | ((long) (buffer[offset + 4] & 0xFF) << 24)
+                    | ((buffer[offset + 5] & 0xFF) << 16)
+                    | ((buffer[offset + 6] & 0xFF) << 8)
+                    | (buffer[offset + 7] & 0xFF);
+
+        } else {
+
+            for (int i = offset; i < end; i++) {
+                word = (word << 8) | ((i < buffer.length) ? (buffer[i] & 0xFF) : 0);
+            }
+        }
+
+        return word;
+    }
+
+    /**
+     * Returns the number of HEX or {@code X} digits in the pattern.
+     *
+     * @return the number of digits
+     */
+    public int getNumDigits() {
+        return mNumDigits;
+    }
+
+    /**
+     * Returns the value.  The returned array is shared and must not be modified.
+     *
+     * @return the value
+     */
+    byte[] getValue() {
+        return mValue;
+    }
+
+    /**
+     * Returns the mask.  The returned array is shared and must not be modified.
+     *
+     * @return the mask
+     */
+    byte[] getMask() {
+        return mMask;
+    }
+
+    /**
+     * Returns the pattern as HEX string with {@code X} for the masked digits.
+     *
+     * @return the HEX string
+     */
+    @Override
+    public String toString() {
+
+        StringBuilder builder = new StringBuilder(mNumDigits + mNumDigits / 2);
+
+        for (int j = 0; j < mNumDigits; j++) {
+
+            int shift = ((j & 1) == 0) ? 4 : 0;
+            if ((j != 0) && (shift == 4)) {
+                builder.append(' ');
+            }
+
+            if (((mMask[j / 2] >> shift) & 0x0F) == 0) {
+                builder.append('X');
+            } else {
+                builder.append(HEX_DIGITS[(mValue[j / 2] >> shift) & 0x0F]);
+            }
+        }
+
+        return builder.toString();
+    }
+}
@@ -0,0 +1,303 @@
+/*
+ * Copyright (C) 2026 Advanced Card Systems Ltd. All rights reserved.
+ *
+ * This software is the confidential and proprietary information of Advanced
+ * Card Systems Ltd. ("Confidential Information").  You shall not disclose such
+ * Confidential Information and shall use it only in accordance with the terms
+ * of the license agreement you entered into with ACS.
+ */
+
+package com.acs.pidcore;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * The {@code ResultAccumulator} class accumulates the response data of a script into a growable
+ * buffer.
+ *
+ * <p>Each field is decoded from TIS-620 in a single pass, the separator {@code '#'} is replaced
+ * with space while decoding and the field is terminated with {@code ';'}.  The accumulated text
+ * can be written to the request body as {@code application/x-www-form-urlencoded} without being
+ * copied to an intermediate string.</p>
+ *
+ * @author Godfrey Chung
+ * @version 1.0, 17 Oct 2026
+ * @since 0.6
+ */
+public final class ResultAccumulator implements CharSequence {
+
+    /** Field separator. */
+    public static final char FIELD_SEPARATOR = ';';
+
+    private static final byte[] HEX_DIGITS = {
+            '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'A', 'B', 'C', 'D', 'E', 'F'
+    };
+
+    private char[] mChars;
+    private int mLength;
+    private int mFieldCount;
+
+    /**
+     * Creates an instance of {@code ResultAccumulator}.
+     */
+    public ResultAccumulator() {
+        this(1024);
+    }
+
+    /**
+     * Creates an instance of {@code ResultAccumulator} with the initial capacity.
+     *
+     * @param capacity the initial capacity in characters
+     */
+    public ResultAccumulator(int capacity) {
+
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity must not be negative");
+        }
+
+        mChars = new char[capacity];
+    }
+
+    /**
+     * Decodes the field in TIS-620 and appends it followed by the field separator.
+     *
+     * @param buffer the buffer
+     * @param offset the offset
+     * @param length the length
+     * @return the index of the first character of the field
+     */
+    public int appendField(byte[] buffer, int offset, int length) {
+
+        if (buffer == null) {
+            throw new IllegalArgumentException("Buffer must not be null");
+        }
+
+        if ((offset < 0) || (length < 0) || (offset > buffer.length - length)) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        ensureCapacity(mLength + length + 1);
+
+        int start = mLength;
+        char[] chars = mChars;
+        int j = mLength;
+        for (int i = offset; i < offset + length; i++) {
+
+            char c = Tis620.toChar(buffer[i]);
+            chars[j++] = (c == '#') ? ' ' : c;
+        }
+
+        chars[j++] = FIELD_SEPARATOR;
+        mLength = j;
+        mFieldCount++;
+
+        return start;
+    }
+
+    /**
+     * Returns the number of fields.
+     *
+     * @return the number of fields
+     */
+    public int getFieldCount() {
+        return mFieldCount;
+    }
+
+    /**
+     * Removes all fields.  The buffer is kept for reuse.
+     */
+    public void clear() {
+
+        mLength = 0;
+        mFieldCount = 0;
+    }
+
+    @Override
+    public int length() {
+        return mLength;
+    }
+
+    @Override
+    public char charAt(int index) {
+
+        if ((index < 0) || (index >= mLength)) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", length: " + mLength);
+        }
+
+        return mChars[index];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+
+        if ((start < 0) || (end > mLength) || (start > end)) {
+            throw new IndexOutOfBoundsException(
+                    "Start: " + start + ", end: " + end + ", length: " + mLength);
+        }
+
+        return new String(mChars, start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        return new String(mChars, 0, mLength);
+    }
+
+    /**
+     * Returns the request body which form-encodes the accumulated text as the value of the name
+     * in UTF-8 when it is written.  The accumulator must not be changed until the body is
+     * written.
+     *
+     * @param name the name
+     * @return the request body
+     */
+    public ResultUploader.RequestBody toFormBody(String name) {
+
+        if (name == null) {
+            throw new IllegalArgumentException("Name must not be null");
+        }
+
+        final byte[] prefix = ResultUploader.formEncode(name, "");
+        final long contentLength = prefix.length + getFormEncodedLength();
+
+        return new ResultUploader.RequestBody() {
+
+            @Override
+            public String getContentType() {
+                return ResultUploader.CONTENT_TYPE_FORM;
+            }
+
+            @Override
+            public long getContentLength() {
+                return contentLength;
+            }
+
+            @Override
+            public void writeTo(OutputStream out) throws IOException {
+
+                out.write(prefix);
+                writeFormEncoded(out);
+            }
+        };
+    }
+
+    /**
+     * Returns the length of the accumulated text form-encoded in UTF-8.
+     *
+     * @return the length in bytes
+     */
+    long getFormEncodedLength() {
+
+        long length = 0;
+        for (int i = 0; i < mLength; i++) {
+
+            char c = mChars[i];
+            if (isUnreserved(c) || (c == ' ')) {
+                length++;
+            } else if (c < 0x80) {
+                length += 3;
+            } else if (c < 0x800) {
+                length += 6;
+            } else {
+                length += 9;
+            }
+        }
+
+        return length;
+    }
+
+    /**
+     * Writes the accumulated text form-encoded in UTF-8.  It produces the same output as
+     * {@link java.net.URLEncoder} for the characters decoded from TIS-620.
+     *
+     * @param out the output stream
+     * @throws IOException if an I/O error occurs
+     */
+    void writeFormEncoded(OutputStream out) throws IOException {
+
+        byte[] buffer = new byte[1024];
+        int j = 0;
+
+        for (int i = 0; i < mLength; i++) {
+
+            /* Flush the buffer if the next character may not fit. */
+            if (j > buffer.length - 9) {
+
+                out.write(buffer, 0, j);
+                j = 0;
+            }
+
+            char c = mChars[i];
+            if (isUnreserved(c)) {
+
+                buffer[j++] = (byte) c;
+
+            } else if (c == ' ') {
+
+                buffer[j++] = '+';
+
+            } else if (c < 0x80) {
+
+                j = putEscaped(buffer, j, c);
+
+            } else if (c < 0x800) {
+
+                j = putEscaped(buffer, j, 0xC0 | (c >> 6));
+                j = putEscaped(buffer, j, 0x80 | (c & 0x3F));
+
+            } else {
+
+                j = putEscaped(buffer, j, 0xE0 | (c >> 12));
+                j = putEscaped(buffer, j, 0x80 | ((c >> 6) & 0x3F));
+                j = putEscaped(buffer, j, 0x80 | (c & 0x3F));
+            }
+        }
+
+        out.write(buffer, 0, j);
+    }
+
+    /**
+     * Ensures the capacity of buffer.
+     *
+     * @param capacity the minimum capacity
+     */
+    private void ensureCapacity(int capacity) {
+
+        if (capacity > mChars.length) {
+
+            char[] chars = new char[Math.max(capacity, mChars.length * 2)];
+            System.arraycopy(mChars, 0, chars, 0, mLength);
+            mChars = chars;
+        }
+    }
+
+    /**
+     * Returns {@code true} if the character is not encoded in the form.
+     *
+     * @param c the character
+     * @return {@code true} if the character is not encoded, otherwise {@code false}.
+     */
+    private static boolean isUnreserved(char c) {
+        return ((c >= 'a') && (c <= 'z')) || ((c >= 'A') && (c <= 'Z'))
+                || ((c >= '0') && (c <= '9'))
+                || (c == '.') || (c == '-') || (c == '*') || (c == '_');
+    }
+
+    /**
+     * Puts the byte as {@code %XX}.
+     *
+     * @param buffer the buffer
+     * @param offset the offset
+     * @param b      the byte
+     * @return the offset after the escaped byte
+     */
+    private static int putEscaped(byte[] buffer, int offset, int b) {
+
+        buffer[offset] = '%';
+        buffer[offset + 1] = HEX_DIGITS[(b >> 4) & 0x0F];
+        buffer[offset + 2] = HEX_DIGITS[b & 0x0F];
+
+        return offset + 3;
+    }
+}
@@ -0,0 +1,266 @@
+/*
+ * Copyright (C) 2026 Advanced Card Systems Ltd. All rights reserved.
+ *
+ * This software is the confidential and proprietary information of Advanced
+ * Card Systems Ltd. ("Confidential Information").  You shall not disclose such
+ * Confidential Information and shall use it only in accordance with the terms
+ * of the license agreement you entered into with ACS.
+ */
+
+package com.acs.pidcore;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.util.List;
+
+/**
+ * The {@code ResultBatchEncoder} class encodes several journal entries into one request body.
+ *
+ * <p>The JSON format is {@code {"count":n,"results":[{"type":"...","data":"..."},...]}}.  The
+ * data of textual content types is stored as a string.  Otherwise, it is stored in Base64 and
+ * the entry has {@code "encoding":"base64"}.</p>
+ *
+ * <p>The binary format is big-endian: magic {@code "RBAT"}, version (1 byte), count (u16) and,
+ * for each entry, the content type (u16 length + UTF-8) and the data (u32 length + bytes).</p>
+ *
+ * @author Godfrey Chung
+ * @version 1.0, 17 Oct 2026
+ * @since 0.6
+ */
+public final class ResultBatchEncoder {
+
+    /** Content type of the JSON batch. */
+    public static final String CONTENT_TYPE_JSON = "application/json; charset=UTF-8";
+
+    /** Content type of the binary batch. */
+    public static final String CONTENT_TYPE_BINARY = "application/x-acs-result-batch";
+
+    /** Magic number of the binary batch. */
+    public static final int MAGIC = 0x52424154;  /* "RBAT" */
+
+    /** Version of the binary batch. */
+    public static final int VERSION = 1;
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final char[] BASE64_DIGITS =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+
+    /**
+     * Creates an instance of {@code ResultBatchEncoder}.
+     */
+    private ResultBatchEncoder() {
+    }
+
+    /**
+     * Encodes the entries as JSON.
+     *
+     * @param entries the entries
+     * @return the body
+     */
+    public static byte[] encodeJson(List<ResultJournal.Entry> entries) {
+
+        if (entries == null) {
+            throw new IllegalArgumentException("Entries must not be null");
+        }
+
+        int capacity = 32;
+        for (ResultJournal.Entry entry : entries) {
+            capacity += 64 + entry.getBody().length * 4 / 3;
+        }
+
+        StringBuilder builder = new StringBuilder(capacity);
+        builder.append("{\"count\":").append(entries.size()).append(",\"results\":[");
+        for (int i = 0; i < entries.size(); i++) {
+
+            ResultJournal.Entry entry = entries.get(i);
+            String contentType = entry.getContentType();
+
+            if (i > 0) {
+                builder.append(',');
+            }
+
+            builder.append("{\"type\":");
+            appendJsonString(builder, (contentType == null) ? "" : contentType);
+            builder.append(",\"data\":");
+            if (isText(contentType)) {
+
+                appendJsonString(builder, toUtf8String(entry.getBody()));
+
+            } else {
+
+                builder.append('"');
+                appendBase64(builder, entry.getBody());
+                builder.append("\",\"encoding\":\"base64\"");
+            }
+
+            builder.append('}');
+        }
+
+        builder.append("]}");
+
+        try {
+            return builder.toString().getBytes("UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Encodes the entries as length-delimited binary.
+     *
+     * @param entries the entries
+     * @return the body
+     */
+    public static byte[] encodeBinary(List<ResultJournal.Entry> entries) {
+
+        if (entries == null) {
+            throw new IllegalArgumentException("Entries must not be null");
+        }
+
+        if (entries.size() > 0xFFFF) {
+            throw new IllegalArgumentException("Too many entries");
+        }
+
+        int capacity = 7;
+        for (ResultJournal.Entry entry : entries) {
+            capacity += 64 + entry.getBody().length;
+        }
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(capacity);
+        DataOutputStream out = new DataOutputStream(buffer);
+        try {
+
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeShort(entries.size());
+            for (ResultJournal.Entry entry : entries) {
+
+                String contentType = entry.getContentType();
+                out.writeUTF((contentType == null) ? "" : contentType);
+                out.writeInt(entry.getBody().length);
+                out.write(entry.getBody());
+            }
+
+            out.close();
+
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Returns {@code true} if the content type is textual.
+     *
+     * @param contentType the content type
+     * @return {@code true} if the content type is textual, otherwise {@code false}.
+     */
+    private static boolean isText(String contentType) {
+        return (contentType != null) && (contentType.startsWith("text/")
+                || contentType.startsWith("application/x-www-form-urlencoded")
+                || contentType.startsWith("application/json"));
+    }
+
+    /**
+     * Converts the bytes in UTF-8 to string.
+     *
+     * @param bytes the bytes
+     * @return the string
+     */
+    private static String toUtf8String(byte[] bytes) {
+
+        try {
+            return new String(bytes, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Appends the string as JSON string.
+     *
+     * @param builder the string builder
+     * @param value   the value
+     */
+    private static void appendJsonString(StringBuilder builder, String value) {
+
+        builder.append('"');
+        for (int i = 0; i < value.length(); i++) {
+
+            char c = value.charAt(i);
+            switch (c) {
+
+                case '"':
+                    builder.append("\\\"");
+                    break;
+
+                case '\\':
+                    builder.append("\\\\");
+                    break;
+
+                case '\n':
+                    builder.append("\\n");
+                    break;
+
+                case '\r':
+                    builder.append("\\r");
+                    break;
+
+                case '\t':
+                    builder.append("\\t");
+                    break;
+
+                default:
+                    if (c < 0x20) {
+                        builder.append("\\u00").append(HEX_DIGITS[c >> 4])
+                                .append(HEX_DIGITS[c & 0x0F]);
+                    } else {
+                        builder.append(c);
+                    }
+                    break;
+            }
+        }
+
+        builder.append('"');
+    }
+
+    /**
+     * Appends the bytes in Base64.
+     *
+     * @param builder the string builder
+     * @param bytes   the bytes
+     */
+    private static void appendBase64(StringBuilder builder, byte[] bytes) {
+
+        int i = 0;
+        for (; i + 3 <= bytes.length; i += 3) {
+
+            int value = ((bytes[i] & 0xFF) << 16) | ((bytes[i + 1] & 0xFF) << 8)
+                    | (bytes[i + 2] & 0xFF);
+            builder.append(BASE64_DIGITS[value >>> 18])
+                    .append(BASE64_DIGITS[(value >>> 12) & 0x3F])
+                    .append(BASE64_DIGITS[(value >>> 6) & 0x3F])
+                    .append(BASE64_DIGITS[value & 0x3F]);
+        }
+
+        int remaining = bytes.length - i;
+        if (remaining == 1) {
+
+            int value = (bytes[i] & 0xFF) << 16;
+            builder.append(BASE64_DIGITS[value >>> 18])
+                    .append(BASE64_DIGITS[(value >>> 12) & 0x3F])
+                    .append("==");
+
+        } else if (remaining == 2) {
+
+            int value = ((bytes[i] & 0xFF) << 16) | ((bytes[i + 1] & 0xFF) << 8);
+            builder.append(BASE64_DIGITS[value >>> 18])
+                    .append(BASE64_DIGITS[(value >>> 12) & 0x3F])
+                    .append(BASE64_DIGITS[(value >>> 6) & 0x3F])
+                    .append('=');
+        }
+    }
+}
@@ -0,0 +1,528 @@
+/*
+ * Copyright (C) 2026 Advanced Card Systems Ltd. All rights reserved.
+ *
+ * This software is the confidential and proprietary information of Advanced
+ * Card Systems Ltd. ("Confidential Information").  You shall not disclose such
+ * Confidential Information and shall use it only in accordance with the terms
+ * of the license agreement you entered into with ACS.
+ */
+
+package com.acs.pidcore;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The {@code ResultForwarder} class stores the read results in {@link ResultJournal} and uploads
+ * them with {@link ResultUploader} on its own thread.
+ *
+ * <p>{@link #submit(String, String, byte[])} returns as soon as the result is written to the
+ * journal so that the card reading never waits for the server.  The forwarder reads the journal
+ * in batches and acknowledges each entry after it is uploaded.  If the upload failed, the
+ * forwarder waits for the retry interval, which is doubled up to the maximum after each
+ * failure, and tries the same entry again.  The entry is acknowledged only if the server
+ * returns 2xx.  The entry rejected by the server with a client error (4xx except 408 and 429) is
+ * reported as failed and moved to the rejected journal so that it does not block the journal.
+ * If the rejected journal is not set, the entry is kept and tried again.</p>
+ *
+ * <p>In batch mode, the forwarder waits until the batch size is reached or the batch window has
+ * elapsed and sends the consecutive entries of the same URL in one request encoded by
+ * {@link ResultBatchEncoder}.  The entries are acknowledged together after the server accepted
+ * the batch.  If the server rejects the batch with a client error, e.g. the legacy endpoint
+ * expecting the form data, the entries are sent one by one in their own content types and the
+ * later entries of the same URL are not batched.</p>
+ *
+ * @author Godfrey Chung
+ * @version 1.0, 17 Oct 2026
+ * @since 0.6
+ */
+public final class ResultForwarder {
+
+    /** Batch mode: each entry is sent in its own request. */
+    public static final int BATCH_MODE_NONE = 0;
+
+    /** Batch mode: the entries are sent in JSON. */
+    public static final int BATCH_MODE_JSON = 1;
+
+    /** Batch mode: the entries are sent in length-delimited binary. */
+    public static final int BATCH_MODE_BINARY = 2;
+
+    private static final String TAG = "ResultForwarder";
+
+    private final ResultJournal mJournal;
+    private final ResultUploader mUploader;
+    private final Object mLock = new Object();
+    private final Set<String> mBatchRejectedUrls = new HashSet<>();
+    private volatile ResultJournal mRejectedJournal;
+    private Thread mThread;
+    private boolean mPending;
+    private volatile int mBatchSize = 16;
+    private volatile int mBatchMode = BATCH_MODE_NONE;
+    private volatile long mBatchWindow = 2000;
+    private volatile long mRetryInterval = 1000;
+    private volatile long mMaxRetryInterval = 60000;
+    private volatile ResultUploader.OnUploadListener mListener;
+
+    /**
+     * Creates an instance of {@code ResultForwarder}.
+     *
+     * @param journal  the journal
+     * @param uploader the uploader
+     */
+    public ResultForwarder(ResultJournal journal, ResultUploader uploader) {
+
+        if (journal == null) {
+            throw new IllegalArgumentException("Journal must not be null");
+        }
+
+        if (uploader == null) {
+            throw new IllegalArgumentException("Uploader must not be null");
+        }
+
+        mJournal = journal;
+        mUploader = uploader;
+    }
+
+    /**
+     * Sets the batch mode.
+     *
+     * @param batchMode {@link #BATCH_MODE_NONE}, {@link #BATCH_MODE_JSON} or
+     *                  {@link #BATCH_MODE_BINARY}
+     */
+    public void setBatchMode(int batchMode) {
+
+        if ((batchMode < BATCH_MODE_NONE) || (batchMode > BATCH_MODE_BINARY)) {
+            throw new IllegalArgumentException("Invalid batch mode");
+        }
+
+        mBatchMode = batchMode;
+    }
+
+    /**
+     * Sets the time in milliseconds to gather the entries for a batch.
+     *
+     * @param batchWindow the batch window
+     */
+    public void setBatchWindow(long batchWindow) {
+
+        if (batchWindow < 0) {
+            throw new IllegalArgumentException("Batch window must not be negative");
+        }
+
+        mBatchWindow = batchWindow;
+    }
+
+    /**
+     * Sets the maximum number of entries read from the journal at a time.  In batch mode, it is
+     * also the maximum number of entries in a request.
+     *
+     * @param batchSize the batch size
+     */
+    public void setBatchSize(int batchSize) {
+
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+
+        mBatchSize = batchSize;
+    }
+
+    /**
+     * Sets the initial and the maximum retry intervals in milliseconds.
+     *
+     * @param retryInterval    the initial retry interval
+     * @param maxRetryInterval the maximum retry interval
+     */
+    public void setRetryInterval(long retryInterval, long maxRetryInterval) {
+
+        if ((retryInterval <= 0) || (maxRetryInterval < retryInterval)) {
+            throw new IllegalArgumentException("Invalid retry interval");
+        }
+
+        mRetryInterval = retryInterval;
+        mMaxRetryInterval = maxRetryInterval;
+    }
+
+    /**
+     * Sets the journal storing the entries rejected by the server.  The rejected entries are
+     * kept there and are not uploaded again.
+     *
+     * @param rejectedJournal the rejected journal or {@code null} to keep the rejected entries
+     *                        in the journal and try them again
+     */
+    public void setRejectedJournal(ResultJournal rejectedJournal) {
+
+        if (rejectedJournal == mJournal) {
+            throw new IllegalArgumentException("Rejected journal must not be the journal");
+        }
+
+        mRejectedJournal = rejectedJournal;
+    }
+
+    /**
+     * Returns the journal storing the entries rejected by the server.
+     *
+     * @return the rejected journal or {@code null} if it is not set
+     */
+    public ResultJournal getRejectedJournal() {
+        return mRejectedJournal;
+    }
+
+    /**
+     * Sets the listener for upload.  The listener is called on the forwarder thread.
+     *
+     * @param listener the listener
+     */
+    public void setOnUploadListener(ResultUploader.OnUploadListener listener) {
+        mListener = listener;
+    }
+
+    /**
+     * Returns the journal.
+     *
+     * @return the journal
+     */
+    public ResultJournal getJournal() {
+        return mJournal;
+    }
+
+    /**
+     * Writes the result to the journal and wakes up the forwarder.
+     *
+     * @param url         the URL
+     * @param contentType the content type
+     * @param body        the body
+     * @throws IOException if the result cannot be written to the journal
+     */
+    public void submit(String url, String contentType, byte[] body) throws IOException {
+
+        mJournal.append(url, contentType, body);
+        wakeUp();
+    }
+
+    /**
+     * Writes the result to the journal and wakes up the forwarder.  The body is encoded into the
+     * journal on the calling thread.
+     *
+     * @param url  the URL
+     * @param body the body
+     * @throws IOException if the result cannot be written to the journal
+     * @since 0.6
+     */
+    public void submit(String url, ResultUploader.RequestBody body) throws IOException {
+
+        mJournal.append(url, body);
+        wakeUp();
+    }
+
+    /**
+     * Starts the forwarder thread.  The entries left in the journal are uploaded first.
+     */
+    public void start() {
+
+        synchronized (mLock) {
+
+            if (mThread != null) {
+                return;
+            }
+
+            mPending = true;
+            mThread = new Thread(new Runnable() {
+
+                @Override
+                public void run() {
+                    loop();
+                }
+            }, TAG);
+            mThread.setDaemon(true);
+            mThread.start();
+        }
+    }
+
+    /**
+     * Stops the forwarder thread.  The entries not uploaded are kept in the journal.
+     */
+    public void stop() {
+
+        Thread thread;
+        synchronized (mLock) {
+
+            thread = mThread;
+            mThread = null;
+            mLock.notifyAll();
+        }
+
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    /**
+     * Wakes up the forwarder thread.
+     */
+    private void wakeUp() {
+
+        synchronized (mLock) {
+
+            mPending = true;
+            mLock.notifyAll();
+        }
+    }
+
+    /**
+     * Runs the forwarder loop.
+     */
+    private void loop() {
+
+        long retryInterval = mRetryInterval;
+        boolean retrying = false;
+
+        while (true) {
+
+            /* Wait for the new entries. */
+            synchronized (mLock) {
+
+                while (isRunning() && !mPending) {
+                    try {
+                        mLock.wait();
+                    } catch (InterruptedException e) {
+                        /* Check the running state. */
+                    }
+                }
+
+                if (!isRunning()) {
+                    return;
+                }
+
+                mPending = false;
+            }
+
+            /* Gather the entries for the batch. */
+            if (!retrying && (mBatchMode != BATCH_MODE_NONE) && !awaitBatch()) {
+                return;
+            }
+
+            /* Upload the entries in batches. */
+            boolean failed = false;
+            try {
+
+                List<ResultJournal.Entry> entries;
+                while (!failed && isRunning()
+                        && !(entries = mJournal.read(mBatchSize)).isEmpty()) {
+                    failed = !forward(entries);
+                }
+
+            } catch (IOException | IllegalStateException e) {
+
+                e.printStackTrace();
+                failed = true;
+            }
+
+            if (failed) {
+
+                /* Retry after the interval. */
+                if (!sleep(retryInterval)) {
+                    return;
+                }
+
+                retryInterval = Math.min(retryInterval * 2, mMaxRetryInterval);
+                retrying = true;
+                wakeUp();
+
+            } else {
+
+                retryInterval = mRetryInterval;
+                retrying = false;
+            }
+        }
+    }
+
+    /**
+     * Uploads the entries and acknowledges them.
+     *
+     * @param entries the entries
+     * @return {@code true} if all entries are acknowledged, otherwise {@code false}.
+     * @throws IOException if the journal cannot be updated
+     */
+    private boolean forward(List<ResultJournal.Entry> entries) throws IOException {
+
+        int batchMode = mBatchMode;
+        int start = 0;
+
+        while (start < entries.size()) {
+
+            if (!isRunning()) {
+                return false;
+            }
+
+            /* Group the consecutive entries of the same URL which accepts the batch. */
+            String url = entries.get(start).getUrl();
+            int entryBatchMode = mBatchRejectedUrls.contains(url) ? BATCH_MODE_NONE : batchMode;
+            int end = start + 1;
+            if (entryBatchMode != BATCH_MODE_NONE) {
+                while ((end < entries.size()) && entries.get(end).getUrl().equals(url)) {
+                    end++;
+                }
+            }
+
+            if (!upload(entries.subList(start, end), entryBatchMode)) {
+                return false;
+            }
+
+            start = end;
+        }
+
+        return true;
+    }
+
+    /**
+     * Uploads the entries of the same URL in one request and acknowledges them.
+     *
+     * @param entries   the entries
+     * @param batchMode the batch mode
+     * @return {@code true} if the entries are acknowledged, otherwise {@code false}.
+     * @throws IOException if the journal cannot be updated
+     */
+    private boolean upload(List<ResultJournal.Entry> entries, int batchMode) throws IOException {
+
+        ResultJournal.Entry firstEntry = entries.get(0);
+        ResultJournal.Entry lastEntry = entries.get(entries.size() - 1);
+        String url = firstEntry.getUrl();
+
+        /* Encode the request body. */
+        byte[] body;
+        String contentType;
+        switch (batchMode) {
+
+            case BATCH_MODE_JSON:
+                body = ResultBatchEncoder.encodeJson(entries);
+                contentType = ResultBatchEncoder.CONTENT_TYPE_JSON;
+                break;
+
+            case BATCH_MODE_BINARY:
+                body = ResultBatchEncoder.encodeBinary(entries);
+                contentType = ResultBatchEncoder.CONTENT_TYPE_BINARY;
+                break;
+
+            default:
+                body = firstEntry.getBody();
+                contentType = firstEntry.getContentType();
+                break;
+        }
+
+        ResultUploader.OnUploadListener listener = mListener;
+        try {
+
+            int responseCode = mUploader.post(url, body, contentType);
+            mJournal.acknowledge(lastEntry);
+            if (listener != null) {
+                listener.onUploaded(url, responseCode);
+            }
+
+        } catch (ResultUploader.HttpException e) {
+
+            if (listener != null) {
+                listener.onUploadFailed(url, e);
+            }
+
+            /* Send the entries one by one if the server rejected the batch. */
+            if (e.isClientError() && (batchMode != BATCH_MODE_NONE)) {
+
+                mBatchRejectedUrls.add(url);
+                for (ResultJournal.Entry entry : entries) {
+                    if (!upload(Collections.singletonList(entry), BATCH_MODE_NONE)) {
+                        return false;
+                    }
+                }
+
+                return true;
+            }
+
+            /* Keep the entries until they are uploaded or moved to the rejected journal. */
+            ResultJournal rejectedJournal = mRejectedJournal;
+            if (!e.isClientError() || (rejectedJournal == null)) {
+                return false;
+            }
+
+            for (ResultJournal.Entry entry : entries) {
+                rejectedJournal.append(entry.getUrl(), entry.getContentType(), entry.getBody());
+            }
+
+            mJournal.acknowledge(lastEntry);
+
+        } catch (IOException e) {
+
+            if (listener != null) {
+                listener.onUploadFailed(url, e);
+            }
+
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Waits until the journal has enough entries for a batch or the batch window has elapsed.
+     *
+     * @return {@code true} if the forwarder is still running, otherwise {@code false}.
+     */
+    private boolean awaitBatch() {
+
+        long deadline = System.nanoTime() + mBatchWindow * 1000000L;
+        synchronized (mLock) {
+
+            long remaining;
+            while (isRunning() && (mJournal.size() < mBatchSize)
+                    && ((remaining = deadline - System.nanoTime()) > 0)) {
+                try {
+                    mLock.wait(Math.max(1, remaining / 1000000L));
+                } catch (InterruptedException e) {
+                    /* Check the running state. */
+                }
+            }
+
+            mPending = false;
+            return isRunning();
+        }
+    }
+
+    /**
+     * Returns {@code true} if the calling thread is the running forwarder thread.
+     *
+     * @return {@code true} if the forwarder is running, otherwise {@code false}.
+     */
+    private boolean isRunning() {
+
+        synchronized (mLock) {
+            return mThread == Thread.currentThread();
+        }
+    }
+
+    /**
+     * Sleeps for the interval unless the forwarder is stopped.
+     *
+     * @param interval the interval in milliseconds
+     * @return {@code true} if the forwarder is still running, otherwise {@code false}.
+     */
+    private boolean sleep(long interval) {
+
+        long deadline = System.nanoTime() + interval * 1000000L;
+        synchronized (mLock) {
+
+            long remaining;
+            while (isRunning() && ((remaining = deadline - System.nanoTime()) > 0)) {
+                try {
+                    mLock.wait(Math.max(1, remaining / 1000000L));
+                } catch (InterruptedException e) {
+                    /* Check the running state. */
+                }
+            }
+
+            return isRunning();
+        }
+    }
+}
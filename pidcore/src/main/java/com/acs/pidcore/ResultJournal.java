@@ -0,0 +1,556 @@
+/*
+ * Copyright (C) 2026 Advanced Card Systems Ltd. All rights reserved.
+ *
+ * This software is the confidential and proprietary information of Advanced
+ * Card Systems Ltd. ("Confidential Information").  You shall not disclose such
+ * Confidential Information and shall use it only in accordance with the terms
+ * of the license agreement you entered into with ACS.
+ */
+
+package com.acs.pidcore;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * The {@code ResultJournal} class is an append-only journal of the read results waiting to be
+ * uploaded.  The results are written to the journal first so that they are not lost if the
+ * network is down or the application is terminated.
+ *
+ * <p>Each entry is stored as the length, the CRC-32 and the data (URL, content type and body).
+ * The entries before the acknowledged offset have been uploaded.  The acknowledged offset is
+ * stored in a separate file with the generation of the journal.  The journal is compacted by
+ * copying the remaining entries to a new journal with the next generation so that a stale
+ * acknowledged offset is never applied to the compacted journal.  An incomplete entry at the
+ * end of the journal, e.g. after a crash, is discarded when the journal is opened.</p>
+ *
+ * @author Godfrey Chung
+ * @version 1.0, 17 Oct 2026
+ * @since 0.6
+ */
+public final class ResultJournal {
+
+    /**
+     * The {@code Entry} class stores a read result in the journal.
+     */
+    public static final class Entry {
+
+        private final String mUrl;
+        private final String mContentType;
+        private final byte[] mBody;
+        private final long mEndOffset;
+
+        /**
+         * Creates an instance of {@code Entry}.
+         *
+         * @param url         the URL
+         * @param contentType the content type
+         * @param body        the body
+         * @param endOffset   the offset after the entry in the journal
+         */
+        Entry(String url, String contentType, byte[] body, long endOffset) {
+
+            mUrl = url;
+            mContentType = contentType;
+            mBody = body;
+            mEndOffset = endOffset;
+        }
+
+        /**
+         * Returns the URL.
+         *
+         * @return the URL
+         */
+        public String getUrl() {
+            return mUrl;
+        }
+
+        /**
+         * Returns the content type.
+         *
+         * @return the content type
+         */
+        public String getContentType() {
+            return mContentType;
+        }
+
+        /**
+         * Returns the body.  The returned array is shared and must not be modified.
+         *
+         * @return the body
+         */
+        public byte[] getBody() {
+            return mBody;
+        }
+
+        /**
+         * Returns the offset after the entry in the journal.
+         *
+         * @return the offset
+         */
+        long getEndOffset() {
+            return mEndOffset;
+        }
+    }
+
+    private static final String JOURNAL_FILENAME = "results.journal";
+    private static final String ACK_FILENAME = "results.ack";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final int MAGIC = 0x524A4E4C;  /* "RJNL" */
+    private static final int HEADER_SIZE = 12;
+    private static final int ENTRY_HEADER_SIZE = 8;
+    private static final int MAX_ENTRY_SIZE = 16 * 1024 * 1024;
+    private static final long COMPACT_THRESHOLD = 256 * 1024;
+
+    private final File mDir;
+    private final File mJournalFile;
+    private final File mAckFile;
+    private final CRC32 mCrc = new CRC32();
+    private RandomAccessFile mFile;
+    private long mGeneration;
+    private long mAckOffset;
+    private long mEndOffset;
+    private int mNumEntries;
+    private boolean mSyncEnabled = true;
+
+    /**
+     * Creates an instance of {@code ResultJournal} and opens the journal in the directory.
+     *
+     * @param dir the directory
+     * @throws IOException if the journal cannot be opened
+     */
+    public ResultJournal(File dir) throws IOException {
+
+        if (dir == null) {
+            throw new IllegalArgumentException("Directory must not be null");
+        }
+
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new FileNotFoundException("Cannot create " + dir);
+        }
+
+        mDir = dir;
+        mJournalFile = new File(dir, JOURNAL_FILENAME);
+        mAckFile = new File(dir, ACK_FILENAME);
+        open();
+    }
+
+    /**
+     * Enables or disables syncing the journal to the storage after each append.  The default is
+     * enabled.
+     *
+     * @param enabled {@code true} to sync after each append
+     */
+    public synchronized void setSyncEnabled(boolean enabled) {
+        mSyncEnabled = enabled;
+    }
+
+    /**
+     * Appends the entry to the journal.
+     *
+     * @param url         the URL
+     * @param contentType the content type or {@code null}
+     * @param body        the body
+     * @throws IOException if the entry cannot be written
+     */
+    public void append(String url, String contentType, byte[] body) throws IOException {
+        append(url, ResultUploader.createRequestBody(body, contentType));
+    }
+
+    /**
+     * Appends the entry to the journal.  The body is written to the journal buffer directly.
+     *
+     * @param url  the URL
+     * @param body the body
+     * @throws IOException if the entry cannot be written
+     * @since 0.6
+     */
+    public synchronized void append(String url, ResultUploader.RequestBody body)
+            throws IOException {
+
+        if (url == null) {
+            throw new IllegalArgumentException("URL must not be null");
+        }
+
+        if (body == null) {
+            throw new IllegalArgumentException("Body must not be null");
+        }
+
+        checkOpen();
+
+        /* Serialize the entry.  The body length is filled after the body is written. */
+        long contentLength = body.getContentLength();
+        String contentType = body.getContentType();
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(
+                (int) Math.max(0, Math.min(contentLength, MAX_ENTRY_SIZE)) + 256);
+        DataOutputStream out = new DataOutputStream(buffer);
+        out.writeInt(0);
+        out.writeInt(0);
+        out.writeUTF(url);
+        out.writeUTF((contentType == null) ? "" : contentType);
+        int bodyLengthOffset = out.size();
+        out.writeInt(0);
+        body.writeTo(out);
+        out.close();
+
+        byte[] entry = buffer.toByteArray();
+        int dataLength = entry.length - ENTRY_HEADER_SIZE;
+        if (dataLength > MAX_ENTRY_SIZE) {
+            throw new IllegalArgumentException("Entry too large");
+        }
+
+        ByteBuffer.wrap(entry).putInt(bodyLengthOffset, entry.length - bodyLengthOffset - 4);
+
+        mCrc.reset();
+        mCrc.update(entry, ENTRY_HEADER_SIZE, dataLength);
+        ByteBuffer header = ByteBuffer.wrap(entry, 0, ENTRY_HEADER_SIZE);
+        header.putInt(dataLength);
+        header.putInt((int) mCrc.getValue());
+
+        /* Write the entry in one call. */
+        mFile.seek(mEndOffset);
+        mFile.write(entry);
+        if (mSyncEnabled) {
+            mFile.getChannel().force(false);
+        }
+
+        mEndOffset += entry.length;
+        mNumEntries++;
+    }
+
+    /**
+     * Reads the entries which are not acknowledged.
+     *
+     * @param maxEntries the maximum number of entries
+     * @return the entries
+     * @throws IOException if the journal cannot be read
+     */
+    public synchronized List<Entry> read(int maxEntries) throws IOException {
+
+        checkOpen();
+
+        List<Entry> entries = new ArrayList<>();
+        long offset = mAckOffset;
+        while ((entries.size() < maxEntries) && (offset < mEndOffset)) {
+
+            Entry entry = readEntry(offset);
+            entries.add(entry);
+            offset = entry.getEndOffset();
+        }
+
+        return entries;
+    }
+
+    /**
+     * Acknowledges the entry and all entries before it.  The journal is compacted if the
+     * acknowledged entries take too much space.
+     *
+     * @param entry the entry
+     * @throws IOException if the acknowledged offset cannot be written
+     */
+    public synchronized void acknowledge(Entry entry) throws IOException {
+
+        if (entry == null) {
+            throw new IllegalArgumentException("Entry must not be null");
+        }
+
+        checkOpen();
+
+        long offset = entry.getEndOffset();
+        if ((offset <= mAckOffset) || (offset > mEndOffset)) {
+            return;
+        }
+
+        /* Count the acknowledged entries. */
+        long position = mAckOffset;
+        while (position < offset) {
+
+            mFile.seek(position);
+            position += ENTRY_HEADER_SIZE + mFile.readInt();
+            mNumEntries--;
+        }
+
+        mAckOffset = offset;
+        if (mAckOffset == mEndOffset) {
+
+            /* Nothing is left.  Truncate the journal and start the next generation. */
+            mGeneration++;
+            mFile.seek(4);
+            mFile.writeLong(mGeneration);
+            mFile.setLength(HEADER_SIZE);
+            mFile.getChannel().force(true);
+            mAckOffset = HEADER_SIZE;
+            mEndOffset = HEADER_SIZE;
+            writeAckOffset();
+
+        } else {
+
+            writeAckOffset();
+            if (mAckOffset - HEADER_SIZE >= COMPACT_THRESHOLD) {
+                compact();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of entries which are not acknowledged.
+     *
+     * @return the number of entries
+     */
+    public synchronized int size() {
+        return mNumEntries;
+    }
+
+    /**
+     * Returns the size of the journal in bytes.
+     *
+     * @return the size
+     */
+    public synchronized long getFileSize() {
+        return mEndOffset;
+    }
+
+    /**
+     * Compacts the journal by removing the acknowledged entries.
+     *
+     * @throws IOException if the journal cannot be compacted
+     */
+    public synchronized void compact() throws IOException {
+
+        checkOpen();
+
+        if (mAckOffset == HEADER_SIZE) {
+            return;
+        }
+
+        /* Copy the remaining entries to the new journal. */
+        File tempFile = new File(mDir, JOURNAL_FILENAME + TEMP_SUFFIX);
+        RandomAccessFile newFile = new RandomAccessFile(tempFile, "rw");
+        try {
+
+            newFile.setLength(0);
+            newFile.writeInt(MAGIC);
+            newFile.writeLong(mGeneration + 1);
+
+            FileChannel source = mFile.getChannel();
+            FileChannel target = newFile.getChannel();
+            long position = mAckOffset;
+            while (position < mEndOffset) {
+                position += source.transferTo(position, mEndOffset - position, target);
+            }
+
+            target.force(true);
+
+        } finally {
+            newFile.close();
+        }
+
+        /* Replace the journal.  The stale acknowledged offset is ignored by the generation. */
+        mFile.close();
+        mFile = null;
+        if (!tempFile.renameTo(mJournalFile)) {
+
+            open();
+            throw new IOException("Cannot rename " + tempFile);
+        }
+
+        mFile = new RandomAccessFile(mJournalFile, "rw");
+        mGeneration++;
+        mEndOffset -= mAckOffset - HEADER_SIZE;
+        mAckOffset = HEADER_SIZE;
+        writeAckOffset();
+    }
+
+    /**
+     * Closes the journal.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    public synchronized void close() throws IOException {
+
+        if (mFile != null) {
+
+            mFile.close();
+            mFile = null;
+        }
+    }
+
+    /**
+     * Opens the journal and recovers the state.
+     *
+     * @throws IOException if the journal cannot be opened
+     */
+    private void open() throws IOException {
+
+        mFile = new RandomAccessFile(mJournalFile, "rw");
+        if (mFile.length() < HEADER_SIZE) {
+
+            /* Create a new journal. */
+            mFile.setLength(0);
+            mFile.writeInt(MAGIC);
+            mFile.writeLong(0);
+            mFile.getChannel().force(true);
+
+        } else {
+
+            mFile.seek(0);
+            if (mFile.readInt() != MAGIC) {
+
+                mFile.close();
+                mFile = null;
+                throw new IOException("Invalid journal: " + mJournalFile);
+            }
+        }
+
+        mFile.seek(4);
+        mGeneration = mFile.readLong();
+
+        /* Read the acknowledged offset of the same generation. */
+        mAckOffset = HEADER_SIZE;
+        readAckOffset();
+
+        /* Scan the entries and discard the incomplete entry at the end. */
+        long fileLength = mFile.length();
+        if (mAckOffset > fileLength) {
+            mAckOffset = HEADER_SIZE;
+        }
+
+        long offset = mAckOffset;
+        mNumEntries = 0;
+        while (offset < fileLength) {
+
+            long next;
+            try {
+                next = readEntry(offset).getEndOffset();
+            } catch (IOException e) {
+                break;
+            }
+
+            offset = next;
+            mNumEntries++;
+        }
+
+        if (offset < fileLength) {
+            mFile.setLength(offset);
+        }
+
+        mEndOffset = offset;
+    }
+
+    /**
+     * Reads the entry at the offset.
+     *
+     * @param offset the offset
+     * @return the entry
+     * @throws IOException if the entry is invalid
+     */
+    private Entry readEntry(long offset) throws IOException {
+
+        mFile.seek(offset);
+        int dataLength = mFile.readInt();
+        int crc = mFile.readInt();
+        if ((dataLength <= 0) || (dataLength > MAX_ENTRY_SIZE)
+                || (offset + ENTRY_HEADER_SIZE + dataLength > mFile.length())) {
+            throw new EOFException("Incomplete entry at " + offset);
+        }
+
+        byte[] data = new byte[dataLength];
+        mFile.readFully(data);
+
+        mCrc.reset();
+        mCrc.update(data, 0, dataLength);
+        if ((int) mCrc.getValue() != crc) {
+            throw new IOException("Corrupted entry at " + offset);
+        }
+
+        /* Parse the entry.  The strings are in modified UTF-8 written by writeUTF(). */
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        String url = in.readUTF();
+        String contentType = in.readUTF();
+        int bodyLength = in.readInt();
+        if ((bodyLength < 0) || (bodyLength != in.available())) {
+            throw new IOException("Invalid entry at " + offset);
+        }
+
+        byte[] body = new byte[bodyLength];
+        in.readFully(body);
+
+        return new Entry(url, contentType.isEmpty() ? null : contentType, body,
+                offset + ENTRY_HEADER_SIZE + dataLength);
+    }
+
+    /**
+     * Reads the acknowledged offset if it belongs to the current generation.
+     */
+    private void readAckOffset() {
+
+        if (!mAckFile.isFile()) {
+            return;
+        }
+
+        try {
+
+            RandomAccessFile file = new RandomAccessFile(mAckFile, "r");
+            try {
+
+                long generation = file.readLong();
+                long ackOffset = file.readLong();
+                if ((generation == mGeneration) && (ackOffset >= HEADER_SIZE)) {
+                    mAckOffset = ackOffset;
+                }
+
+            } finally {
+                file.close();
+            }
+
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Writes the acknowledged offset atomically.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    private void writeAckOffset() throws IOException {
+
+        File tempFile = new File(mDir, ACK_FILENAME + TEMP_SUFFIX);
+        RandomAccessFile file = new RandomAccessFile(tempFile, "rw");
+        try {
+
+            file.setLength(0);
+            file.writeLong(mGeneration);
+            file.writeLong(mAckOffset);
+            file.getChannel().force(false);
+
+        } finally {
+            file.close();
+        }
+
+        if (!tempFile.renameTo(mAckFile)) {
+            throw new IOException("Cannot rename " + tempFile);
+        }
+    }
+
+    /**
+     * Checks if the journal is open.
+     */
+    private void checkOpen() {
+        if (mFile == null) {
+            throw new IllegalStateException("Journal closed");
+        }
+    }
+}
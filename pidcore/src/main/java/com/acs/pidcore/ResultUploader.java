@@ -0,0 +1,496 @@
+/*
+ * Copyright (C) 2026 Advanced Card Systems Ltd. All rights reserved.
+ *
+ * This software is the confidential and proprietary information of Advanced
+ * Card Systems Ltd. ("Confidential Information").  You shall not disclose such
+ * Confidential Information and shall use it only in accordance with the terms
+ * of the license agreement you entered into with ACS.
+ */
+
+package com.acs.pidcore;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * The {@code ResultUploader} class posts the read results to the server on a background thread.
+ *
+ * <p>The requests are sent one by one on a single thread.  The response is always read to the
+ * end and closed without disconnecting so that {@link HttpURLConnection} keeps the connection
+ * alive and reuses it for the next request to the same server.  Only 2xx is a success.  The
+ * failed request is retried with exponential backoff if an I/O error occurs, the server returns
+ * 5xx, 408 or 429, or the request is redirected (3xx), which {@link HttpURLConnection} does not
+ * follow for a streamed POST.  The other 4xx is not retried.</p>
+ *
+ * <p>The body can be supplied as {@link RequestBody} which is written straight to the output
+ * stream of the connection.  The body of unknown length is sent in chunked streaming mode.</p>
+ *
+ * @author Godfrey Chung
+ * @version 1.0, 17 Oct 2026
+ * @since 0.6
+ */
+public final class ResultUploader {
+
+    /**
+     * Interface definition for a callback to be invoked when the upload is finished.
+     */
+    public interface OnUploadListener {
+
+        /**
+         * Called when the server accepted the request.
+         *
+         * @param url          the URL
+         * @param responseCode the response code
+         */
+        void onUploaded(String url, int responseCode);
+
+        /**
+         * Called when the request failed after all retries.
+         *
+         * @param url the URL
+         * @param e   the exception
+         */
+        void onUploadFailed(String url, IOException e);
+    }
+
+    /**
+     * Interface definition for a request body which is written to the connection.
+     */
+    public interface RequestBody {
+
+        /**
+         * Returns the content type.
+         *
+         * @return the content type or {@code null}
+         */
+        String getContentType();
+
+        /**
+         * Returns the content length.
+         *
+         * @return the content length or -1 if it is unknown
+         */
+        long getContentLength();
+
+        /**
+         * Writes the body to the output stream.  This method is called again if the request is
+         * retried.
+         *
+         * @param out the output stream
+         * @throws IOException if an I/O error occurs
+         */
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    /**
+     * The {@code HttpException} class is thrown when the server returns an error.
+     */
+    public static final class HttpException extends IOException {
+
+        private static final long serialVersionUID = 1L;
+        private final int mResponseCode;
+
+        /**
+         * Creates an instance of {@code HttpException}.
+         *
+         * @param responseCode the response code
+         */
+        public HttpException(int responseCode) {
+
+            super("HTTP " + responseCode);
+            mResponseCode = responseCode;
+        }
+
+        /**
+         * Returns the response code.
+         *
+         * @return the response code
+         */
+        public int getResponseCode() {
+            return mResponseCode;
+        }
+
+        /**
+         * Returns {@code true} if the server rejected the request and it should not be retried.
+         * Request Timeout (408) and Too Many Requests (429) are not client errors because the
+         * same request may succeed later.
+         *
+         * @return {@code true} if it is a client error, otherwise {@code false}.
+         */
+        public boolean isClientError() {
+            return (mResponseCode >= 400) && (mResponseCode < 500) && (mResponseCode != 408)
+                    && (mResponseCode != 429);
+        }
+    }
+
+    /** Content type of the form data. */
+    public static final String CONTENT_TYPE_FORM =
+            "application/x-www-form-urlencoded; charset=UTF-8";
+
+    private static final String TAG = "ResultUploader";
+
+    private final ExecutorService mExecutor;
+    private final byte[] mDrainBuffer = new byte[1024];
+    private final MetricsRegistry mMetrics = MetricsRegistry.getInstance();
+    private volatile int mConnectTimeout = 10000;
+    private volatile int mReadTimeout = 15000;
+    private volatile int mMaxRetries = 2;
+    private volatile long mRetryDelay = 500;
+
+    /**
+     * Creates an instance of {@code ResultUploader}.
+     */
+    public ResultUploader() {
+
+        mExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+
+            @Override
+            public Thread newThread(Runnable r) {
+
+                Thread thread = new Thread(r, TAG);
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Sets the connect timeout in milliseconds.
+     *
+     * @param connectTimeout the connect timeout
+     */
+    public void setConnectTimeout(int connectTimeout) {
+
+        if (connectTimeout < 0) {
+            throw new IllegalArgumentException("Connect timeout must not be negative");
+        }
+
+        mConnectTimeout = connectTimeout;
+    }
+
+    /**
+     * Sets the read timeout in milliseconds.
+     *
+     * @param readTimeout the read timeout
+     */
+    public void setReadTimeout(int readTimeout) {
+
+        if (readTimeout < 0) {
+            throw new IllegalArgumentException("Read timeout must not be negative");
+        }
+
+        mReadTimeout = readTimeout;
+    }
+
+    /**
+     * Sets the maximum number of retries.
+     *
+     * @param maxRetries the maximum number of retries
+     */
+    public void setMaxRetries(int maxRetries) {
+
+        if (maxRetries < 0) {
+            throw new IllegalArgumentException("Maximum number of retries must not be negative");
+        }
+
+        mMaxRetries = maxRetries;
+    }
+
+    /**
+     * Sets the delay in milliseconds before the first retry.  The delay is doubled for each
+     * retry.
+     *
+     * @param retryDelay the retry delay
+     */
+    public void setRetryDelay(long retryDelay) {
+
+        if (retryDelay < 0) {
+            throw new IllegalArgumentException("Retry delay must not be negative");
+        }
+
+        mRetryDelay = retryDelay;
+    }
+
+    /**
+     * Encodes the name and the value as form data.
+     *
+     * @param name  the name
+     * @param value the value
+     * @return the form data
+     */
+    public static byte[] formEncode(String name, String value) {
+
+        try {
+            return (URLEncoder.encode(name, "UTF-8") + "="
+                    + URLEncoder.encode(value, "UTF-8")).getBytes("US-ASCII");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Creates the request body from the byte array.
+     *
+     * @param body        the body
+     * @param contentType the content type or {@code null}
+     * @return the request body
+     */
+    public static RequestBody createRequestBody(final byte[] body, final String contentType) {
+
+        if (body == null) {
+            throw new IllegalArgumentException("Body must not be null");
+        }
+
+        return new RequestBody() {
+
+            @Override
+            public String getContentType() {
+                return contentType;
+            }
+
+            @Override
+            public long getContentLength() {
+                return body.length;
+            }
+
+            @Override
+            public void writeTo(OutputStream out) throws IOException {
+                out.write(body);
+            }
+        };
+    }
+
+    /**
+     * Posts the body to the URL on the background thread.
+     *
+     * @param url         the URL
+     * @param body        the body
+     * @param contentType the content type
+     * @param listener    the listener or {@code null}
+     * @return the future of the response code
+     */
+    public Future<Integer> upload(String url, byte[] body, String contentType,
+            OnUploadListener listener) {
+        return upload(url, createRequestBody(body, contentType), listener);
+    }
+
+    /**
+     * Posts the body to the URL on the background thread.
+     *
+     * @param url      the URL
+     * @param body     the body
+     * @param listener the listener or {@code null}
+     * @return the future of the response code
+     * @since 0.6
+     */
+    public Future<Integer> upload(final String url, final RequestBody body,
+            final OnUploadListener listener) {
+
+        if (url == null) {
+            throw new IllegalArgumentException("URL must not be null");
+        }
+
+        if (body == null) {
+            throw new IllegalArgumentException("Body must not be null");
+        }
+
+        return mExecutor.submit(new Callable<Integer>() {
+
+            @Override
+            public Integer call() throws IOException {
+
+                int responseCode;
+                try {
+
+                    responseCode = post(url, body);
+
+                } catch (IOException e) {
+
+                    if (listener != null) {
+                        listener.onUploadFailed(url, e);
+                    }
+
+                    throw e;
+                }
+
+                if (listener != null) {
+                    listener.onUploaded(url, responseCode);
+                }
+
+                return responseCode;
+            }
+        });
+    }
+
+    /**
+     * Posts the body to the URL on the calling thread.  The request is retried if an I/O error
+     * occurs or the server returns a status other than 2xx and the client error.
+     *
+     * @param url         the URL
+     * @param body        the body
+     * @param contentType the content type
+     * @return the response code
+     * @throws IOException if the request failed after all retries
+     */
+    public int post(String url, byte[] body, String contentType) throws IOException {
+        return post(url, createRequestBody(body, contentType));
+    }
+
+    /**
+     * Posts the body to the URL on the calling thread.  The request is retried if an I/O error
+     * occurs or the server returns a status other than 2xx and the client error.
+     *
+     * @param url  the URL
+     * @param body the body
+     * @return the response code
+     * @throws IOException if the request failed after all retries
+     */
+    public int post(String url, RequestBody body) throws IOException {
+
+        if (url == null) {
+            throw new IllegalArgumentException("URL must not be null");
+        }
+
+        if (body == null) {
+            throw new IllegalArgumentException("Body must not be null");
+        }
+
+        IOException exception = null;
+        long delay = mRetryDelay;
+        long startTime = System.nanoTime();
+        int attempt;
+
+        for (attempt = 0; attempt <= mMaxRetries; attempt++) {
+
+            if (attempt > 0) {
+
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException e) {
+
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Upload interrupted");
+                }
+
+                delay *= 2;
+            }
+
+            int responseCode;
+            try {
+
+                responseCode = postOnce(url, body);
+
+            } catch (IOException e) {
+
+                exception = e;
+                continue;
+            }
+
+            if ((responseCode >= 200) && (responseCode < 300)) {
+
+                mMetrics.recordUpload(System.nanoTime() - startTime, attempt, true);
+                return responseCode;
+            }
+
+            /* Do not retry the client error. */
+            HttpException httpException = new HttpException(responseCode);
+            if (httpException.isClientError()) {
+
+                mMetrics.recordUpload(System.nanoTime() - startTime, attempt, false);
+                throw httpException;
+            }
+
+            exception = httpException;
+        }
+
+        mMetrics.recordUpload(System.nanoTime() - startTime, attempt - 1, false);
+        throw exception;
+    }
+
+    /**
+     * Shuts down the background thread.  The queued requests are still sent.
+     */
+    public void shutdown() {
+        mExecutor.shutdown();
+    }
+
+    /**
+     * Posts the body to the URL once.
+     *
+     * @param url  the URL
+     * @param body the body
+     * @return the response code
+     * @throws IOException if an I/O error occurs
+     */
+    private int postOnce(String url, RequestBody body) throws IOException {
+
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        boolean reusable = false;
+
+        try {
+
+            connection.setConnectTimeout(mConnectTimeout);
+            connection.setReadTimeout(mReadTimeout);
+            connection.setRequestMethod("POST");
+            connection.setDoOutput(true);
+            connection.setUseCaches(false);
+            long contentLength = body.getContentLength();
+            if ((contentLength >= 0) && (contentLength <= Integer.MAX_VALUE)) {
+                connection.setFixedLengthStreamingMode((int) contentLength);
+            } else {
+                connection.setChunkedStreamingMode(0);
+            }
+
+            connection.setRequestProperty("Connection", "keep-alive");
+            String contentType = body.getContentType();
+            if (contentType != null) {
+                connection.setRequestProperty("Content-Type", contentType);
+            }
+
+            OutputStream out = connection.getOutputStream();
+            try {
+                body.writeTo(out);
+            } finally {
+                out.close();
+            }
+
+            int responseCode = connection.getResponseCode();
+
+            /* Read the response to the end so that the connection can be reused. */
+            InputStream in = (responseCode >= 400) ? connection.getErrorStream()
+                    : connection.getInputStream();
+            if (in != null) {
+                try {
+                    synchronized (mDrainBuffer) {
+                        while (in.read(mDrainBuffer) >= 0) {
+                            /* Discard the response. */
+                        }
+                    }
+                } finally {
+                    in.close();
+                }
+            }
+
+            reusable = true;
+            return responseCode;
+
+        } finally {
+
+            /* Drop the connection only if it is in an unknown state. */
+            if (!reusable) {
+                connection.disconnect();
+            }
+        }
+    }
+}
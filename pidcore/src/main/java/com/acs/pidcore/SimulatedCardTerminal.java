@@ -0,0 +1,444 @@
+/*
+ * Copyright (C) 2026 Advanced Card Systems Ltd. All rights reserved.
+ *
+ * This software is the confidential and proprietary information of Advanced
+ * Card Systems Ltd. ("Confidential Information").  You shall not disclose such
+ * Confidential Information and shall use it only in accordance with the terms
+ * of the license agreement you entered into with ACS.
+ */
+
+package com.acs.pidcore;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import javax.smartcardio.ATR;
+import javax.smartcardio.Card;
+import javax.smartcardio.CardChannel;
+import javax.smartcardio.CardException;
+import javax.smartcardio.CardNotPresentException;
+import javax.smartcardio.CardTerminal;
+import javax.smartcardio.CommandAPDU;
+import javax.smartcardio.ResponseAPDU;
+
+/**
+ * The {@code SimulatedCardTerminal} class is a card terminal which replays
+ * {@link ApduRecording}.  The card can be inserted or removed with {@link #insertCard()} and
+ * {@link #removeCard()}.
+ *
+ * <p>Each transmission is delayed by the latency and the jitter and fails with
+ * {@code CardException} at the configured rate.  The transmissions of a card are serialized as
+ * on the real reader.</p>
+ *
+ * @author Godfrey Chung
+ * @version 1.0, 17 Oct 2026
+ * @since 0.6
+ */
+public final class SimulatedCardTerminal extends CardTerminal {
+
+    /**
+     * The {@code SimulatedCard} class replays the recording for a connection.
+     */
+    private class SimulatedCard extends Card {
+
+        private final String mProtocol;
+        private final int mGeneration;
+        private final SimulatedChannel mChannel = new SimulatedChannel(this);
+        private boolean mDisconnected;
+        private int mPosition;
+
+        /**
+         * Creates an instance of {@code SimulatedCard}.
+         *
+         * @param protocol   the protocol
+         * @param generation the generation of card insertion
+         */
+        SimulatedCard(String protocol, int generation) {
+
+            mProtocol = protocol;
+            mGeneration = generation;
+        }
+
+        @Override
+        public ATR getATR() {
+            return mAtr;
+        }
+
+        @Override
+        public String getProtocol() {
+            return mProtocol;
+        }
+
+        @Override
+        public CardChannel getBasicChannel() {
+
+            checkConnected();
+            return mChannel;
+        }
+
+        @Override
+        public CardChannel openLogicalChannel() throws CardException {
+
+            checkConnected();
+            throw new CardException("Logical channel is not supported");
+        }
+
+        @Override
+        public void beginExclusive() throws CardException {
+            checkPresent();
+        }
+
+        @Override
+        public void endExclusive() throws CardException {
+            checkConnected();
+        }
+
+        @Override
+        public byte[] transmitControlCommand(int controlCode, byte[] command)
+                throws CardException {
+
+            if (command == null) {
+                throw new NullPointerException("Command must not be null");
+            }
+
+            synchronized (this) {
+
+                checkPresent();
+                delay();
+
+                int index = mRecording.find(command, 0, command.length, 0);
+                return (index < 0) ? new byte[0] : mRecording.getResponse(index).clone();
+            }
+        }
+
+        @Override
+        public void disconnect(boolean reset) throws CardException {
+
+            synchronized (this) {
+                mDisconnected = true;
+            }
+        }
+
+        /**
+         * Transmits the command and returns the recorded response.
+         *
+         * @param command the command
+         * @param offset  the offset
+         * @param length  the length
+         * @return the response
+         * @throws CardException if the card is removed or the failure is injected
+         */
+        synchronized byte[] transmit(byte[] command, int offset, int length)
+                throws CardException {
+
+            checkPresent();
+            delay();
+
+            if (mRandom.nextDouble() < mParameters.getTransmitFailureRate()) {
+                throw new CardException("Transmit failed (injected)");
+            }
+
+            int index = mRecording.find(command, offset, length, mPosition);
+            if (index < 0) {
+                return ApduRecording.UNKNOWN_COMMAND_RESPONSE;
+            }
+
+            mPosition = index + 1;
+            return mRecording.getResponse(index);
+        }
+
+        /**
+         * Checks whether the card is connected.
+         *
+         * @throws IllegalStateException if the card is disconnected
+         */
+        synchronized void checkConnected() {
+            if (mDisconnected) {
+                throw new IllegalStateException("Card has been disconnected");
+            }
+        }
+
+        /**
+         * Checks whether the card is connected and still present.
+         *
+         * @throws CardException if the card is removed
+         */
+        private void checkPresent() throws CardException {
+
+            checkConnected();
+            synchronized (mLock) {
+                if (!mCardPresent || (mGeneration != mCardGeneration)) {
+                    throw new CardException("Card has been removed");
+                }
+            }
+        }
+    }
+
+    /**
+     * The {@code SimulatedChannel} class is the basic channel of {@code SimulatedCard}.
+     */
+    private class SimulatedChannel extends CardChannel {
+
+        private final SimulatedCard mCard;
+
+        /**
+         * Creates an instance of {@code SimulatedChannel}.
+         *
+         * @param card the card
+         */
+        SimulatedChannel(SimulatedCard card) {
+            mCard = card;
+        }
+
+        @Override
+        public Card getCard() {
+            return mCard;
+        }
+
+        @Override
+        public int getChannelNumber() {
+
+            mCard.checkConnected();
+            return 0;
+        }
+
+        @Override
+        public ResponseAPDU transmit(CommandAPDU command) throws CardException {
+
+            if (command == null) {
+                throw new NullPointerException("Command must not be null");
+            }
+
+            byte[] bytes = command.getBytes();
+            return new ResponseAPDU(mCard.transmit(bytes, 0, bytes.length).clone());
+        }
+
+        @Override
+        public int transmit(ByteBuffer command, ByteBuffer response) throws CardException {
+
+            if ((command == null) || (response == null)) {
+                throw new NullPointerException("Buffer must not be null");
+            }
+
+            if (command == response) {
+                throw new IllegalArgumentException("Command and response must not be the same");
+            }
+
+            if (response.isReadOnly()) {
+                throw new IllegalArgumentException("Response must not be read-only");
+            }
+
+            /* Get the command without copying if possible. */
+            byte[] bytes;
+            int offset;
+            int length = command.remaining();
+            if (command.hasArray()) {
+
+                bytes = command.array();
+                offset = command.arrayOffset() + command.position();
+
+            } else {
+
+                bytes = new byte[length];
+                offset = 0;
+                command.duplicate().get(bytes);
+            }
+
+            byte[] responseBytes = mCard.transmit(bytes, offset, length);
+            if (response.remaining() < responseBytes.length) {
+                throw new IllegalArgumentException("Insufficient space in response buffer");
+            }
+
+            ((Buffer) command).position(command.limit());
+            response.put(responseBytes);
+
+            return responseBytes.length;
+        }
+
+        @Override
+        public void close() throws CardException {
+
+            mCard.checkConnected();
+            throw new IllegalStateException("Cannot close basic channel");
+        }
+    }
+
+    private final String mName;
+    private final SimulatedTerminalProvider.Parameters mParameters;
+    private final ApduRecording mRecording;
+    private final ATR mAtr;
+    private final Random mRandom;
+    private final Object mLock;
+    private boolean mCardPresent;
+    private int mCardGeneration;
+
+    /**
+     * Creates an instance of {@code SimulatedCardTerminal}.
+     *
+     * @param name       the name
+     * @param parameters the parameters
+     * @param seed       the seed of random numbers
+     * @param lock       the lock shared by the terminals of the factory
+     */
+    SimulatedCardTerminal(String name, SimulatedTerminalProvider.Parameters parameters,
+            long seed, Object lock) {
+
+        mName = name;
+        mParameters = parameters;
+        mRecording = parameters.getRecording();
+        mAtr = new ATR(mRecording.getAtr());
+        mRandom = new Random(seed);
+        mLock = lock;
+        mCardPresent = parameters.isCardPresent();
+    }
+
+    /**
+     * Inserts the card.
+     */
+    public void insertCard() {
+
+        synchronized (mLock) {
+
+            if (!mCardPresent) {
+
+                mCardPresent = true;
+                mCardGeneration++;
+                mLock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Removes the card.  The connected cards become invalid.
+     */
+    public void removeCard() {
+
+        synchronized (mLock) {
+
+            if (mCardPresent) {
+
+                mCardPresent = false;
+                mLock.notifyAll();
+            }
+        }
+    }
+
+    @Override
+    public String getName() {
+        return mName;
+    }
+
+    @Override
+    public Card connect(String protocol) throws CardException {
+
+        if (protocol == null) {
+            throw new NullPointerException("Protocol must not be null");
+        }
+
+        if (!protocol.equals("*") && !protocol.equals("T=0") && !protocol.equals("T=1")) {
+            throw new IllegalArgumentException("Unsupported protocol: " + protocol);
+        }
+
+        int generation;
+        synchronized (mLock) {
+
+            if (!mCardPresent) {
+                throw new CardNotPresentException("No card present");
+            }
+
+            generation = mCardGeneration;
+        }
+
+        delay();
+        if (mRandom.nextDouble() < mParameters.getConnectFailureRate()) {
+            throw new CardException("Connect failed (injected)");
+        }
+
+        return new SimulatedCard(protocol.equals("*") ? "T=1" : protocol, generation);
+    }
+
+    @Override
+    public boolean isCardPresent() {
+
+        synchronized (mLock) {
+            return mCardPresent;
+        }
+    }
+
+    @Override
+    public boolean waitForCardPresent(long timeout) throws CardException {
+        return waitForCard(true, timeout);
+    }
+
+    @Override
+    public boolean waitForCardAbsent(long timeout) throws CardException {
+        return waitForCard(false, timeout);
+    }
+
+    @Override
+    public String toString() {
+        return "SimulatedCardTerminal: " + mName;
+    }
+
+    /**
+     * Waits until the card is present or absent.
+     *
+     * @param present {@code true} to wait for the card present
+     * @param timeout the timeout in milliseconds or 0 to wait forever
+     * @return {@code true} if the card state is reached, otherwise {@code false}.
+     * @throws CardException if the thread is interrupted
+     */
+    private boolean waitForCard(boolean present, long timeout) throws CardException {
+
+        if (timeout < 0) {
+            throw new IllegalArgumentException("Timeout must not be negative");
+        }
+
+        long deadline = System.nanoTime() + timeout * 1000000L;
+        synchronized (mLock) {
+
+            while (mCardPresent != present) {
+
+                long remaining = deadline - System.nanoTime();
+                if ((timeout > 0) && (remaining <= 0)) {
+                    return false;
+                }
+
+                try {
+                    mLock.wait((timeout == 0) ? 0 : Math.max(1, remaining / 1000000L));
+                } catch (InterruptedException e) {
+
+                    Thread.currentThread().interrupt();
+                    throw new CardException("Interrupted", e);
+                }
+            }
+
+            return true;
+        }
+    }
+
+    /**
+     * Delays for the latency and the jitter.
+     *
+     * @throws CardException if the thread is interrupted
+     */
+    private void delay() throws CardException {
+
+        long delay = mParameters.getLatency();
+        long jitter = mParameters.getJitter();
+        if (jitter > 0) {
+            delay += (long) (mRandom.nextDouble() * (jitter + 1));
+        }
+
+        if (delay > 0) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+
+                Thread.currentThread().interrupt();
+                throw new CardException("Interrupted", e);
+            }
+        }
+    }
+}
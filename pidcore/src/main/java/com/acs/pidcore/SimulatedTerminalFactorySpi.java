@@ -0,0 +1,178 @@
+/*
+ * Copyright (C) 2026 Advanced Card Systems Ltd. All rights reserved.
+ *
+ * This software is the confidential and proprietary information of Advanced
+ * Card Systems Ltd. ("Confidential Information").  You shall not disclose such
+ * Confidential Information and shall use it only in accordance with the terms
+ * of the license agreement you entered into with ACS.
+ */
+
+package com.acs.pidcore;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.smartcardio.CardException;
+import javax.smartcardio.CardTerminal;
+import javax.smartcardio.CardTerminals;
+import javax.smartcardio.TerminalFactorySpi;
+
+/**
+ * The {@code SimulatedTerminalFactorySpi} class implements {@code TerminalFactorySpi} for
+ * {@link SimulatedTerminalProvider}.  It creates the {@link SimulatedCardTerminal}s from
+ * {@link SimulatedTerminalProvider.Parameters}.
+ *
+ * @author Godfrey Chung
+ * @version 1.0, 17 Oct 2026
+ * @since 0.6
+ */
+public final class SimulatedTerminalFactorySpi extends TerminalFactorySpi {
+
+    /**
+     * The {@code SimulatedCardTerminals} class lists the simulated card terminals and waits for
+     * the card insertion or removal.
+     */
+    private class SimulatedCardTerminals extends CardTerminals {
+
+        private boolean[] mKnownStates;
+        private final List<CardTerminal> mInserted = new ArrayList<>();
+        private final List<CardTerminal> mRemoved = new ArrayList<>();
+
+        @Override
+        public List<CardTerminal> list(State state) throws CardException {
+
+            if (state == null) {
+                throw new NullPointerException("State must not be null");
+            }
+
+            synchronized (mLock) {
+
+                List<CardTerminal> terminals = new ArrayList<>();
+                switch (state) {
+
+                    case ALL:
+                        terminals.addAll(mTerminals);
+                        break;
+
+                    case CARD_PRESENT:
+                    case CARD_ABSENT:
+                        for (SimulatedCardTerminal terminal : mTerminals) {
+                            if (terminal.isCardPresent() == (state == State.CARD_PRESENT)) {
+                                terminals.add(terminal);
+                            }
+                        }
+                        break;
+
+                    case CARD_INSERTION:
+                        terminals.addAll(mInserted);
+                        break;
+
+                    case CARD_REMOVAL:
+                        terminals.addAll(mRemoved);
+                        break;
+
+                    default:
+                        break;
+                }
+
+                return Collections.unmodifiableList(terminals);
+            }
+        }
+
+        @Override
+        public boolean waitForChange(long timeout) throws CardException {
+
+            if (timeout < 0) {
+                throw new IllegalArgumentException("Timeout must not be negative");
+            }
+
+            long deadline = System.nanoTime() + timeout * 1000000L;
+            synchronized (mLock) {
+
+                /* Wait for the change since the previous call. */
+                if (mKnownStates == null) {
+                    mKnownStates = getStates();
+                }
+
+                boolean[] states;
+                while (Arrays.equals(states = getStates(), mKnownStates)) {
+
+                    long remaining = deadline - System.nanoTime();
+                    if ((timeout > 0) && (remaining <= 0)) {
+                        return false;
+                    }
+
+                    try {
+                        mLock.wait((timeout == 0) ? 0 : Math.max(1, remaining / 1000000L));
+                    } catch (InterruptedException e) {
+
+                        Thread.currentThread().interrupt();
+                        throw new CardException("Interrupted", e);
+                    }
+                }
+
+                /* Update the inserted and removed terminals. */
+                mInserted.clear();
+                mRemoved.clear();
+                for (int i = 0; i < states.length; i++) {
+                    if (states[i] && !mKnownStates[i]) {
+                        mInserted.add(mTerminals.get(i));
+                    } else if (!states[i] && mKnownStates[i]) {
+                        mRemoved.add(mTerminals.get(i));
+                    }
+                }
+
+                mKnownStates = states;
+                return true;
+            }
+        }
+
+        /**
+         * Returns the card presence of the terminals.
+         *
+         * @return the card presence
+         */
+        private boolean[] getStates() {
+
+            boolean[] states = new boolean[mTerminals.size()];
+            for (int i = 0; i < states.length; i++) {
+                states[i] = mTerminals.get(i).isCardPresent();
+            }
+
+            return states;
+        }
+    }
+
+    private final Object mLock = new Object();
+    private final List<SimulatedCardTerminal> mTerminals;
+
+    /**
+     * Creates an instance of {@code SimulatedTerminalFactorySpi}.  It is called by
+     * {@code TerminalFactory}.
+     *
+     * @param parameter the {@link SimulatedTerminalProvider.Parameters}
+     */
+    public SimulatedTerminalFactorySpi(Object parameter) {
+
+        if (!(parameter instanceof SimulatedTerminalProvider.Parameters)) {
+            throw new IllegalArgumentException("Invalid parameter");
+        }
+
+        SimulatedTerminalProvider.Parameters parameters =
+                (SimulatedTerminalProvider.Parameters) parameter;
+        List<SimulatedCardTerminal> terminals = new ArrayList<>();
+        for (int i = 0; i < parameters.getTerminalCount(); i++) {
+            terminals.add(new SimulatedCardTerminal(parameters.getTerminalName() + " " + i,
+                    parameters, parameters.getSeed() + i, mLock));
+        }
+
+        mTerminals = Collections.unmodifiableList(terminals);
+    }
+
+    @Override
+    protected CardTerminals engineTerminals() {
+        return new SimulatedCardTerminals();
+    }
+}
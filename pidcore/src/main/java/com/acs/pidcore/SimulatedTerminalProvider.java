@@ -0,0 +1,256 @@
+/*
+ * Copyright (C) 2026 Advanced Card Systems Ltd. All rights reserved.
+ *
+ * This software is the confidential and proprietary information of Advanced
+ * Card Systems Ltd. ("Confidential Information").  You shall not disclose such
+ * Confidential Information and shall use it only in accordance with the terms
+ * of the license agreement you entered into with ACS.
+ */
+
+package com.acs.pidcore;
+
+import java.security.Provider;
+
+/**
+ * The {@code SimulatedTerminalProvider} class provides the {@code TerminalFactory} of type
+ * {@value #TYPE} whose card terminals replay {@link ApduRecording} in memory.  It allows the
+ * card reading, the card state monitoring and the upload to run without the reader hardware,
+ * for example, for load testing on a plain JVM.
+ *
+ * <pre>
+ * TerminalFactory factory = TerminalFactory.getInstance(SimulatedTerminalProvider.TYPE,
+ *         new SimulatedTerminalProvider.Parameters(recording),
+ *         new SimulatedTerminalProvider());
+ * </pre>
+ *
+ * @author Godfrey Chung
+ * @version 1.0, 17 Oct 2026
+ * @since 0.6
+ */
+public final class SimulatedTerminalProvider extends Provider {
+
+    /**
+     * The {@code Parameters} class configures the simulated card terminals.  The latency is
+     * applied to each transmission and the jitter adds a uniformly distributed random delay on
+     * top of it.  The failure rates are the probabilities that the operation throws
+     * {@code CardException}.  The parameters must not be changed after the factory is created.
+     */
+    public static final class Parameters {
+
+        private final ApduRecording mRecording;
+        private int mTerminalCount = 1;
+        private String mTerminalName = "Simulated Reader";
+        private boolean mCardPresent = true;
+        private long mLatency;
+        private long mJitter;
+        private double mTransmitFailureRate;
+        private double mConnectFailureRate;
+        private long mSeed = System.nanoTime();
+
+        /**
+         * Creates an instance of {@code Parameters}.
+         *
+         * @param recording the recording
+         */
+        public Parameters(ApduRecording recording) {
+
+            if (recording == null) {
+                throw new IllegalArgumentException("Recording must not be null");
+            }
+
+            mRecording = recording;
+        }
+
+        /**
+         * Returns the recording.
+         *
+         * @return the recording
+         */
+        public ApduRecording getRecording() {
+            return mRecording;
+        }
+
+        /**
+         * Returns the number of terminals.
+         *
+         * @return the number of terminals
+         */
+        public int getTerminalCount() {
+            return mTerminalCount;
+        }
+
+        /**
+         * Sets the number of terminals.  The default is 1.
+         *
+         * @param terminalCount the number of terminals
+         */
+        public void setTerminalCount(int terminalCount) {
+
+            if (terminalCount <= 0) {
+                throw new IllegalArgumentException("Terminal count must be positive");
+            }
+
+            mTerminalCount = terminalCount;
+        }
+
+        /**
+         * Returns the terminal name.
+         *
+         * @return the terminal name
+         */
+        public String getTerminalName() {
+            return mTerminalName;
+        }
+
+        /**
+         * Sets the terminal name.  The terminals are named as the name followed by the index.
+         *
+         * @param terminalName the terminal name
+         */
+        public void setTerminalName(String terminalName) {
+
+            if (terminalName == null) {
+                throw new IllegalArgumentException("Terminal name must not be null");
+            }
+
+            mTerminalName = terminalName;
+        }
+
+        /**
+         * Returns {@code true} if the card is initially present.
+         *
+         * @return {@code true} if the card is initially present, otherwise {@code false}.
+         */
+        public boolean isCardPresent() {
+            return mCardPresent;
+        }
+
+        /**
+         * Sets whether the card is initially present.  The default is {@code true}.
+         *
+         * @param cardPresent {@code true} if the card is initially present
+         */
+        public void setCardPresent(boolean cardPresent) {
+            mCardPresent = cardPresent;
+        }
+
+        /**
+         * Returns the latency in milliseconds.
+         *
+         * @return the latency
+         */
+        public long getLatency() {
+            return mLatency;
+        }
+
+        /**
+         * Returns the jitter in milliseconds.
+         *
+         * @return the jitter
+         */
+        public long getJitter() {
+            return mJitter;
+        }
+
+        /**
+         * Sets the latency and the jitter in milliseconds.  The default is 0.
+         *
+         * @param latency the latency
+         * @param jitter  the jitter
+         */
+        public void setLatency(long latency, long jitter) {
+
+            if ((latency < 0) || (jitter < 0)) {
+                throw new IllegalArgumentException("Latency must not be negative");
+            }
+
+            mLatency = latency;
+            mJitter = jitter;
+        }
+
+        /**
+         * Returns the transmit failure rate.
+         *
+         * @return the transmit failure rate
+         */
+        public double getTransmitFailureRate() {
+            return mTransmitFailureRate;
+        }
+
+        /**
+         * Sets the probability that the transmission fails.  The default is 0.
+         *
+         * @param transmitFailureRate the transmit failure rate from 0 to 1
+         */
+        public void setTransmitFailureRate(double transmitFailureRate) {
+
+            checkRate(transmitFailureRate);
+            mTransmitFailureRate = transmitFailureRate;
+        }
+
+        /**
+         * Returns the connect failure rate.
+         *
+         * @return the connect failure rate
+         */
+        public double getConnectFailureRate() {
+            return mConnectFailureRate;
+        }
+
+        /**
+         * Sets the probability that the connection fails.  The default is 0.
+         *
+         * @param connectFailureRate the connect failure rate from 0 to 1
+         */
+        public void setConnectFailureRate(double connectFailureRate) {
+
+            checkRate(connectFailureRate);
+            mConnectFailureRate = connectFailureRate;
+        }
+
+        /**
+         * Returns the seed of random numbers.
+         *
+         * @return the seed
+         */
+        public long getSeed() {
+            return mSeed;
+        }
+
+        /**
+         * Sets the seed of random numbers so that the jitter and the failures can be reproduced.
+         *
+         * @param seed the seed
+         */
+        public void setSeed(long seed) {
+            mSeed = seed;
+        }
+
+        /**
+         * Checks the rate.
+         *
+         * @param rate the rate
+         */
+        private static void checkRate(double rate) {
+            if (!(rate >= 0) || (rate > 1)) {
+                throw new IllegalArgumentException("Rate must be from 0 to 1");
+            }
+        }
+    }
+
+    /** Type of the terminal factory. */
+    public static final String TYPE = "Simulated";
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Creates an instance of {@code SimulatedTerminalProvider}.  The deprecated constructor of
+     * {@link Provider} is used because JDK 8 has no {@code (String, String, String)} constructor.
+     */
+    @SuppressWarnings("deprecation")
+    public SimulatedTerminalProvider() {
+
+        super("ACSSimulated", 1.0, "ACS simulated card terminals");
+        put("TerminalFactory." + TYPE, SimulatedTerminalFactorySpi.class.getName());
+    }
+}
@@ -0,0 +1,310 @@
+/*
+ * Copyright (C) 2026 Advanced Card Systems Ltd. All rights reserved.
+ *
+ * This software is the confidential and proprietary information of Advanced
+ * Card Systems Ltd. ("Confidential Information").  You shall not disclose such
+ * Confidential Information and shall use it only in accordance with the terms
+ * of the license agreement you entered into with ACS.
+ */
+
+package com.acs.pidcore;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import javax.smartcardio.CardChannel;
+import javax.smartcardio.CardException;
+import javax.smartcardio.CommandAPDU;
+
+/**
+ * The {@code ThaiIdCardReader} class reads Thai national ID card into
+ * {@link PersonalIdRecord}.  The APDU sequence is taken from the compiled script so that the
+ * same script file can be used by the reader and by the script runner.
+ *
+ * <p>The fields can be selected so that only the commands of the requested fields and the
+ * shared commands (e.g. SELECT) are sent.</p>
+ *
+ * <p>If the script reads the photo, the photo commands are replaced by
+ * {@link ThaiIdPhotoReader} which receives the chunks into a single buffer.</p>
+ *
+ * @author Godfrey Chung
+ * @version 1.0, 17 Oct 2026
+ * @since 0.6
+ */
+public final class ThaiIdCardReader {
+
+    private final CompiledScript mScript;
+    private ThaiIdPhotoReader.OnProgressListener mPhotoListener;
+
+    /**
+     * Creates an instance of {@code ThaiIdCardReader}.
+     *
+     * @param script the compiled script
+     */
+    public ThaiIdCardReader(CompiledScript script) {
+
+        if (script == null) {
+            throw new IllegalArgumentException("Script must not be null");
+        }
+
+        mScript = script;
+    }
+
+    /**
+     * Creates an instance of {@code ThaiIdCardReader} which reads the selected fields only.
+     *
+     * @param script the compiled script
+     * @param fields the fields
+     * @see #selectFields(CompiledScript, Set)
+     */
+    public ThaiIdCardReader(CompiledScript script, Set<PersonalIdField> fields) {
+        this(selectFields(script, fields));
+    }
+
+    /**
+     * Selects the commands of the fields from the script.  The READ BINARY commands of the other
+     * fields and their GET RESPONSE commands are removed.  The other commands such as SELECT are
+     * shared by all fields and are kept.
+     *
+     * @param script the compiled script
+     * @param fields the fields
+     * @return the compiled script with the selected commands
+     * @see #getSkippedCommands(CompiledScript, Set)
+     */
+    public static CompiledScript selectFields(CompiledScript script, Set<PersonalIdField> fields) {
+
+        boolean[] skipped = getSkippedCommands(script, fields);
+        List<CompiledScript.Command> commands = new ArrayList<>(script.getCommandCount());
+        for (int i = 0; i < script.getCommandCount(); i++) {
+            if (!skipped[i]) {
+                commands.add(script.getCommand(i));
+            }
+        }
+
+        if (commands.size() == script.getCommandCount()) {
+            return script;
+        }
+
+        return new CompiledScript(script.getUrl(),
+                commands.toArray(new CompiledScript.Command[commands.size()]));
+    }
+
+    /**
+     * Returns the commands of the script removed by
+     * {@link #selectFields(CompiledScript, Set)}.  The caller uses them to keep the results of
+     * the removed commands in place, e.g. as empty fields of the form data.
+     *
+     * @param script the compiled script
+     * @param fields the fields
+     * @return the array indexed by the command index of the script which is {@code true} if the
+     * command is removed
+     */
+    public static boolean[] getSkippedCommands(CompiledScript script,
+            Set<PersonalIdField> fields) {
+
+        if (script == null) {
+            throw new IllegalArgumentException("Script must not be null");
+        }
+
+        if (fields == null) {
+            throw new IllegalArgumentException("Fields must not be null");
+        }
+
+        boolean[] skipped = new boolean[script.getCommandCount()];
+        boolean commandSkipped = false;
+        for (int i = 0; i < script.getCommandCount(); i++) {
+
+            byte[] bytes = script.getCommand(i).getBytes();
+
+            PersonalIdField field = getField(bytes);
+            if (field != null) {
+                commandSkipped = !fields.contains(field);
+            } else if (!commandSkipped || !isGetResponse(bytes)) {
+                commandSkipped = false;
+            }
+
+            skipped[i] = commandSkipped;
+        }
+
+        return skipped;
+    }
+
+    /**
+     * Returns {@code true} if the command is the READ BINARY command of the photo.
+     *
+     * @param command the command
+     * @return {@code true} if the command reads the photo, otherwise {@code false}.
+     */
+    public static boolean isPhotoCommand(byte[] command) {
+
+        if (command == null) {
+            throw new IllegalArgumentException("Command must not be null");
+        }
+
+        return getField(command) == PersonalIdField.PHOTO;
+    }
+
+    /**
+     * Returns the responses of the photo commands of the script from the photo read by
+     * {@link ThaiIdPhotoReader}.  The photo commands start at the index and include the READ
+     * BINARY commands of the photo and their GET RESPONSE commands.  The READ BINARY command
+     * followed by GET RESPONSE gets 61xx and the data is returned by GET RESPONSE.  The data
+     * after the end of the photo is empty because it is not read from the card.
+     *
+     * @param script the compiled script
+     * @param index  the index of the first photo command
+     * @param photo  the buffer of photo
+     * @param length the length of photo
+     * @return the responses of the photo commands
+     */
+    public static byte[][] toPhotoResponses(CompiledScript script, int index, byte[] photo,
+            int length) {
+
+        if (script == null) {
+            throw new IllegalArgumentException("Script must not be null");
+        }
+
+        if ((index < 0) || (index >= script.getCommandCount())
+                || !isPhotoCommand(script.getCommand(index).getBytes())) {
+            throw new IllegalArgumentException("Index is not a photo command");
+        }
+
+        if (photo == null) {
+            throw new IllegalArgumentException("Photo must not be null");
+        }
+
+        if ((length < 0) || (length > photo.length)) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        List<byte[]> responses = new ArrayList<>();
+        int end = index;
+        while ((end < script.getCommandCount())
+                && isPhotoCommand(script.getCommand(end).getBytes())) {
+
+            byte[] command = script.getCommand(end).getBytes();
+            int photoOffset = (((command[2] & 0xFF) << 8) | (command[3] & 0xFF))
+                    - PersonalIdField.PHOTO.getOffset();
+            int requested = command[command.length - 1] & 0xFF;
+            end++;
+
+            /* Take the data of the command from the photo. */
+            int start = Math.min(photoOffset, length);
+            int dataLength = Math.min(requested, length - start);
+            byte[] response = new byte[dataLength + 2];
+            System.arraycopy(photo, start, response, 0, dataLength);
+            response[dataLength] = (byte) 0x90;
+
+            if ((end < script.getCommandCount())
+                    && isGetResponse(script.getCommand(end).getBytes())) {
+
+                responses.add(new byte[]{0x61, (byte) requested});
+                end++;
+            }
+
+            responses.add(response);
+        }
+
+        return responses.toArray(new byte[responses.size()][]);
+    }
+
+    /**
+     * Returns the compiled script.
+     *
+     * @return the compiled script
+     */
+    public CompiledScript getScript() {
+        return mScript;
+    }
+
+    /**
+     * Sets the listener for the progress of reading photo.
+     *
+     * @param listener the listener
+     */
+    public void setOnPhotoProgressListener(ThaiIdPhotoReader.OnProgressListener listener) {
+        mPhotoListener = listener;
+    }
+
+    /**
+     * Reads the card.
+     *
+     * @param channel the card channel
+     * @return the record
+     * @throws CardException if the card operation failed
+     */
+    public PersonalIdRecord read(CardChannel channel) throws CardException {
+
+        if (channel == null) {
+            throw new IllegalArgumentException("Channel must not be null");
+        }
+
+        PersonalIdDecoder decoder = new PersonalIdDecoder();
+        boolean photoRequested = false;
+        boolean photoCommandSkipped = false;
+        for (int i = 0; i < mScript.getCommandCount(); i++) {
+
+            CompiledScript.Command command = mScript.getCommand(i);
+            byte[] bytes = command.getBytes();
+
+            /* Skip the photo commands and their GET RESPONSE commands. */
+            if (getField(bytes) == PersonalIdField.PHOTO) {
+
+                photoRequested = true;
+                photoCommandSkipped = true;
+                continue;
+            }
+
+            if (photoCommandSkipped && isGetResponse(bytes)) {
+                continue;
+            }
+
+            photoCommandSkipped = false;
+
+            CommandAPDU apdu = command.getApdu();
+            if (apdu == null) {
+                throw new IllegalArgumentException("Invalid APDU at command " + (i + 1));
+            }
+
+            decoder.decode(bytes, channel.transmit(apdu).getBytes());
+        }
+
+        PersonalIdRecord record = decoder.getRecord();
+        if (photoRequested) {
+
+            ThaiIdPhotoReader photoReader = new ThaiIdPhotoReader(channel);
+            photoReader.setOnProgressListener(mPhotoListener);
+            int length = photoReader.read();
+            record.setPhoto(photoReader.getBuffer(), length);
+        }
+
+        return record;
+    }
+
+    /**
+     * Returns the field read by the READ BINARY command.
+     *
+     * @param command the command
+     * @return the field or {@code null} if the command does not read a known field
+     */
+    private static PersonalIdField getField(byte[] command) {
+
+        if ((command.length < 4) || ((command[0] & 0xFF) != 0x80)
+                || ((command[1] & 0xFF) != 0xB0)) {
+            return null;
+        }
+
+        return PersonalIdField.fromOffset(((command[2] & 0xFF) << 8) | (command[3] & 0xFF));
+    }
+
+    /**
+     * Returns {@code true} if the command is GET RESPONSE.
+     *
+     * @param command the command
+     * @return {@code true} if the command is GET RESPONSE, otherwise {@code false}.
+     */
+    private static boolean isGetResponse(byte[] command) {
+        return (command.length >= 2) && ((command[1] & 0xFF) == 0xC0);
+    }
+}
@@ -0,0 +1,513 @@
+/*
+ * Copyright (C) 2026 Advanced Card Systems Ltd. All rights reserved.
+ *
+ * This software is the confidential and proprietary information of Advanced
+ * Card Systems Ltd. ("Confidential Information").  You shall not disclose such
+ * Confidential Information and shall use it only in accordance with the terms
+ * of the license agreement you entered into with ACS.
+ */
+
+package com.acs.pidcore;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+
+import javax.smartcardio.CardChannel;
+import javax.smartcardio.CardException;
+
+/**
+ * The {@code ThaiIdPhotoReader} class reads the photo from Thai national ID card in chunks.
+ *
+ * <p>The chunks are received directly into a single preallocated buffer using
+ * {@link CardChannel#transmit(ByteBuffer, ByteBuffer)} and one command buffer is reused for all
+ * READ BINARY commands.  The reader stops after the JPEG end-of-image marker is received.  The
+ * segments before the image data are skipped by their lengths so that the marker inside a segment
+ * (e.g. the thumbnail in APP1) does not stop the reader.  If the photo is not a JPEG image, the
+ * whole photo field is read.</p>
+ *
+ * <p>The photo can be consumed while it is being read.  The stream returned by
+ * {@link #getInputStream()} blocks until the next chunk is available so that the image decoder
+ * running on another thread can start before the last chunk arrives.</p>
+ *
+ * @author Godfrey Chung
+ * @version 1.0, 17 Oct 2026
+ * @since 0.6
+ */
+public final class ThaiIdPhotoReader {
+
+    /**
+     * Interface definition for a callback to be invoked when a chunk of photo is read.
+     */
+    public interface OnProgressListener {
+
+        /**
+         * Called when a chunk of photo is read.
+         *
+         * @param bytesRead  the number of bytes read
+         * @param totalBytes the maximum size of photo
+         */
+        void onProgress(int bytesRead, int totalBytes);
+    }
+
+    /**
+     * Interface definition for a callback to be invoked when a command is sent to the card.
+     */
+    public interface OnCommandListener {
+
+        /**
+         * Called when a command is sent to the card.  The command buffer is reused by the
+         * reader and is valid only during the call.
+         *
+         * @param command       the command
+         * @param bytesReceived the number of bytes received including the status word
+         * @param nanos         the latency in nanoseconds
+         */
+        void onCommand(byte[] command, int bytesReceived, long nanos);
+    }
+
+    /** The maximum number of bytes read by each READ BINARY command. */
+    public static final int CHUNK_SIZE = 255;
+
+    private static final int SW_SIZE = 2;
+
+    private final CardChannel mChannel;
+    private final byte[] mBuffer;
+    private final ByteBuffer mCommand = ByteBuffer.wrap(new byte[]{
+            (byte) 0x80, (byte) 0xB0, 0x00, 0x00, 0x02, 0x00, 0x00});
+    private final ByteBuffer mGetResponse = ByteBuffer.wrap(new byte[]{
+            0x00, (byte) 0xC0, 0x00, 0x00, 0x00});
+    private final Object mLock = new Object();
+    private OnProgressListener mListener;
+    private OnCommandListener mCommandListener;
+    private int mBytesRead;
+    private int mScanPosition;
+    private boolean mScanningImageData;
+    private boolean mFinished;
+    private CardException mException;
+
+    /**
+     * Creates an instance of {@code ThaiIdPhotoReader}.
+     *
+     * @param channel the card channel
+     */
+    public ThaiIdPhotoReader(CardChannel channel) {
+
+        if (channel == null) {
+            throw new IllegalArgumentException("Channel must not be null");
+        }
+
+        mChannel = channel;
+
+        /* Reserve the space for the status word of the last chunk. */
+        mBuffer = new byte[PersonalIdField.PHOTO.getLength() + SW_SIZE];
+    }
+
+    /**
+     * Sets the listener for progress.
+     *
+     * @param listener the listener
+     */
+    public void setOnProgressListener(OnProgressListener listener) {
+        mListener = listener;
+    }
+
+    /**
+     * Sets the listener for command, e.g. to record the latency of each command.
+     *
+     * @param listener the listener
+     */
+    public void setOnCommandListener(OnCommandListener listener) {
+        mCommandListener = listener;
+    }
+
+    /**
+     * Reads the photo.  The reader can be used once only.
+     *
+     * @return the number of bytes read
+     * @throws CardException if the card operation failed
+     */
+    public int read() throws CardException {
+        return read(null);
+    }
+
+    /**
+     * Reads the photo and writes each chunk to the output stream as soon as it is received.
+     *
+     * @param out the output stream
+     * @return the number of bytes read
+     * @throws CardException if the card operation failed
+     * @throws IOException   if an I/O error occurs
+     */
+    public int readTo(OutputStream out) throws CardException, IOException {
+
+        if (out == null) {
+            throw new IllegalArgumentException("Output stream must not be null");
+        }
+
+        try {
+            return read(out);
+        } catch (WrappedIOException e) {
+            throw e.getIOException();
+        }
+    }
+
+    /**
+     * Returns the buffer of photo.  The buffer is shared and the photo is stored from offset 0
+     * to {@link #getLength()}.
+     *
+     * @return the buffer
+     */
+    public byte[] getBuffer() {
+        return mBuffer;
+    }
+
+    /**
+     * Returns the number of bytes read so far.
+     *
+     * @return the number of bytes read
+     */
+    public int getLength() {
+
+        synchronized (mLock) {
+            return mBytesRead;
+        }
+    }
+
+    /**
+     * Returns the photo.
+     *
+     * @return the photo
+     */
+    public byte[] getPhoto() {
+
+        byte[] photo;
+        synchronized (mLock) {
+
+            photo = new byte[mBytesRead];
+            System.arraycopy(mBuffer, 0, photo, 0, mBytesRead);
+        }
+
+        return photo;
+    }
+
+    /**
+     * Returns the input stream of photo.  The stream blocks until the data is read from the
+     * card and reaches the end when the reader is finished.  If the reader failed, the stream
+     * throws {@link IOException}.
+     *
+     * @return the input stream
+     */
+    public InputStream getInputStream() {
+
+        return new InputStream() {
+
+            private int mPosition;
+
+            @Override
+            public int read() throws IOException {
+
+                if (!await(mPosition + 1)) {
+                    return -1;
+                }
+
+                return mBuffer[mPosition++] & 0xFF;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+
+                if ((off < 0) || (len < 0) || (off > b.length - len)) {
+                    throw new IndexOutOfBoundsException();
+                }
+
+                if (len == 0) {
+                    return 0;
+                }
+
+                if (!await(mPosition + 1)) {
+                    return -1;
+                }
+
+                int count = Math.min(len, getLength() - mPosition);
+                System.arraycopy(mBuffer, mPosition, b, off, count);
+                mPosition += count;
+
+                return count;
+            }
+
+            @Override
+            public int available() {
+                return getLength() - mPosition;
+            }
+        };
+    }
+
+    /**
+     * Reads the photo.
+     *
+     * @param out the output stream or {@code null}
+     * @return the number of bytes read
+     * @throws CardException if the card operation failed
+     */
+    private int read(OutputStream out) throws CardException {
+
+        int totalBytes = PersonalIdField.PHOTO.getLength();
+        int offset = 0;
+
+        try {
+
+            while (offset < totalBytes) {
+
+                int length = Math.min(CHUNK_SIZE, totalBytes - offset);
+                int received = readChunk(PersonalIdField.PHOTO.getOffset() + offset, offset,
+                        length);
+                if (received == 0) {
+                    break;
+                }
+
+                int endOfImage = findEndOfImage(offset + received);
+                if (endOfImage >= 0) {
+                    received = endOfImage - offset;
+                }
+
+                if (out != null) {
+                    try {
+                        out.write(mBuffer, offset, received);
+                    } catch (IOException e) {
+                        throw new WrappedIOException(e);
+                    }
+                }
+
+                offset += received;
+                publish(offset, false, null);
+
+                OnProgressListener listener = mListener;
+                if (listener != null) {
+                    listener.onProgress(offset, totalBytes);
+                }
+
+                if ((endOfImage >= 0) || (received < length)) {
+                    break;
+                }
+            }
+
+        } catch (CardException e) {
+
+            publish(offset, true, e);
+            throw e;
+
+        } catch (RuntimeException e) {
+
+            publish(offset, true, new CardException(e.getMessage(), e));
+            throw e;
+        }
+
+        publish(offset, true, null);
+        return offset;
+    }
+
+    /**
+     * Reads a chunk into the buffer.
+     *
+     * @param cardOffset   the offset in the card
+     * @param bufferOffset the offset in the buffer
+     * @param length       the length
+     * @return the number of bytes received
+     * @throws CardException if the card operation failed
+     */
+    private int readChunk(int cardOffset, int bufferOffset, int length) throws CardException {
+
+        /* Update the offset and the length of the reused command. */
+        mCommand.put(2, (byte) (cardOffset >> 8));
+        mCommand.put(3, (byte) cardOffset);
+        mCommand.put(6, (byte) length);
+
+        /* Call Buffer.rewind() which exists on all Android versions. */
+        ((Buffer) mCommand).rewind();
+
+        int received = transmit(mCommand, bufferOffset, length);
+        int sw1 = mBuffer[bufferOffset + received - 2] & 0xFF;
+        int sw2 = mBuffer[bufferOffset + received - 1] & 0xFF;
+
+        /* Get the response data for T=0 card. */
+        if ((sw1 == 0x61) && (received == SW_SIZE)) {
+
+            mGetResponse.put(4, (byte) sw2);
+            ((Buffer) mGetResponse).rewind();
+
+            received = transmit(mGetResponse, bufferOffset, length);
+            sw1 = mBuffer[bufferOffset + received - 2] & 0xFF;
+            sw2 = mBuffer[bufferOffset + received - 1] & 0xFF;
+        }
+
+        if ((sw1 != 0x90) || (sw2 != 0x00)) {
+            throw new CardException(String.format("Unexpected status word: %02X %02X", sw1, sw2));
+        }
+
+        return received - SW_SIZE;
+    }
+
+    /**
+     * Transmits the command and receives the response into the buffer.
+     *
+     * @param command      the command
+     * @param bufferOffset the offset in the buffer
+     * @param length       the maximum length of data
+     * @return the length of response including the status word
+     * @throws CardException if the card operation failed
+     */
+    private int transmit(ByteBuffer command, int bufferOffset, int length)
+            throws CardException {
+
+        ByteBuffer response = ByteBuffer.wrap(mBuffer, bufferOffset, length + SW_SIZE);
+        long startTime = System.nanoTime();
+        int received = mChannel.transmit(command, response);
+        OnCommandListener listener = mCommandListener;
+        if (listener != null) {
+            listener.onCommand(command.array(), received, System.nanoTime() - startTime);
+        }
+        if ((received < SW_SIZE) || (received > length + SW_SIZE)) {
+            throw new CardException("Invalid response length: " + received);
+        }
+
+        return received;
+    }
+
+    /**
+     * Finds the JPEG end-of-image marker.  The scan continues from the position where the
+     * previous call stopped.  The segments before the start-of-scan marker are skipped by their
+     * lengths.  In the image data, the stuffed bytes (FF 00) and the restart markers are skipped
+     * and the other markers (e.g. DHT between progressive scans) are parsed as segments.
+     *
+     * @param end the end index of the data read
+     * @return the index after the marker or -1 if the marker is not found
+     */
+    private int findEndOfImage(int end) {
+
+        int i = mScanPosition;
+        while ((i >= 0) && (i < end - 1)) {
+
+            int marker = mBuffer[i + 1] & 0xFF;
+            if (mScanningImageData) {
+
+                if ((mBuffer[i] != (byte) 0xFF) || (marker == 0xFF)) {
+                    i++;
+                } else if ((marker == 0x00) || ((marker >= 0xD0) && (marker <= 0xD7))) {
+                    i += 2;
+                } else {
+                    mScanningImageData = false;
+                }
+
+            } else if ((mBuffer[i] != (byte) 0xFF) || ((i == 0) && (marker != 0xD8))) {
+
+                /* Stop scanning if the data is not a JPEG image. */
+                i = -1;
+
+            } else if (marker == 0xFF) {
+
+                /* Skip the fill byte. */
+                i++;
+
+            } else if (marker == 0xD9) {
+
+                mScanPosition = i + 2;
+                return i + 2;
+
+            } else if ((marker == 0xD8) || (marker == 0x01)
+                    || ((marker >= 0xD0) && (marker <= 0xD7))) {
+
+                /* Skip the marker without length. */
+                i += 2;
+
+            } else {
+
+                /* Wait for the segment length. */
+                if (i + 3 >= end) {
+                    break;
+                }
+
+                int length = ((mBuffer[i + 2] & 0xFF) << 8) | (mBuffer[i + 3] & 0xFF);
+                if (length < 2) {
+
+                    i = -1;
+                    break;
+                }
+
+                /* The image data follows the start-of-scan segment. */
+                mScanningImageData = marker == 0xDA;
+                i += 2 + length;
+            }
+        }
+
+        mScanPosition = i;
+        return -1;
+    }
+
+    /**
+     * Publishes the progress to the input streams.
+     *
+     * @param bytesRead the number of bytes read
+     * @param finished  {@code true} if the reader is finished
+     * @param exception the exception or {@code null}
+     */
+    private void publish(int bytesRead, boolean finished, CardException exception) {
+
+        synchronized (mLock) {
+
+            mBytesRead = bytesRead;
+            mFinished = finished;
+            mException = exception;
+            mLock.notifyAll();
+        }
+    }
+
+    /**
+     * Waits until the number of bytes are read or the reader is finished.
+     *
+     * @param length the number of bytes
+     * @return {@code true} if the bytes are available, or {@code false} if the end is reached
+     * @throws IOException if the reader failed or the thread is interrupted
+     */
+    private boolean await(int length) throws IOException {
+
+        synchronized (mLock) {
+
+            while ((mBytesRead < length) && !mFinished) {
+                try {
+                    mLock.wait();
+                } catch (InterruptedException e) {
+
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException();
+                }
+            }
+
+            if ((mBytesRead < length) && (mException != null)) {
+                throw new IOException(mException.getMessage(), mException);
+            }
+
+            return mBytesRead >= length;
+        }
+    }
+
+    /**
+     * The {@code WrappedIOException} class carries {@link IOException} from the output stream
+     * through the card reading loop.
+     */
+    private static final class WrappedIOException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        WrappedIOException(IOException cause) {
+            super(cause);
+        }
+
+        IOException getIOException() {
+            return (IOException) getCause();
+        }
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright (C) 2026 Advanced Card Systems Ltd. All rights reserved.
+ *
+ * This software is the confidential and proprietary information of Advanced
+ * Card Systems Ltd. ("Confidential Information").  You shall not disclose such
+ * Confidential Information and shall use it only in accordance with the terms
+ * of the license agreement you entered into with ACS.
+ */
+
+package com.acs.pidcore;
+
+import java.nio.BufferOverflowException;
+import java.nio.CharBuffer;
+
+/**
+ * The {@code Tis620} class converts between TIS-620 (Thai Industrial Standard 620-2533) and
+ * UTF-16 using lookup tables.
+ *
+ * <p>The bytes 0x00-0x7F are ASCII and 0xA0 is the no-break space.  The bytes 0xA1-0xDA and
+ * 0xDF-0xFB are mapped to U+0E01-U+0E3A and U+0E3F-U+0E5B.  The other bytes are undefined and
+ * decoded to U+FFFD.  The characters which cannot be encoded are replaced with
+ * {@code '?'}.</p>
+ *
+ * <p>The methods decode a slice of byte array in a single pass and append the characters to the
+ * buffer supplied by the caller so that nothing is allocated for each byte.</p>
+ *
+ * @author Godfrey Chung
+ * @version 1.0, 17 Oct 2026
+ * @since 0.6
+ */
+public final class Tis620 {
+
+    /** The replacement character for undefined bytes. */
+    public static final char REPLACEMENT_CHAR = '\uFFFD';
+
+    /** The replacement byte for characters which cannot be encoded. */
+    public static final byte REPLACEMENT_BYTE = '?';
+
+    private static final char[] CHARS = new char[256];
+    private static final byte[] THAI_BYTES = new byte[0x80];
+
+    static {
+
+        /* Build the decoding table. */
+        for (int i = 0; i < 0x80; i++) {
+            CHARS[i] = (char) i;
+        }
+
+        for (int i = 0x80; i < 0x100; i++) {
+            CHARS[i] = REPLACEMENT_CHAR;
+        }
+
+        CHARS[0xA0] = '\u00A0';
+        for (int i = 0xA1; i <= 0xDA; i++) {
+            CHARS[i] = (char) (0x0E01 + i - 0xA1);
+        }
+
+        for (int i = 0xDF; i <= 0xFB; i++) {
+            CHARS[i] = (char) (0x0E3F + i - 0xDF);
+        }
+
+        /* Build the encoding table for Thai block (U+0E00-U+0E7F). */
+        for (int i = 0xA1; i < 0x100; i++) {
+            if (CHARS[i] != REPLACEMENT_CHAR) {
+                THAI_BYTES[CHARS[i] - 0x0E00] = (byte) i;
+            }
+        }
+    }
+
+    /**
+     * Creates an instance of {@code Tis620}.
+     */
+    private Tis620() {
+    }
+
+    /**
+     * Decodes the byte.
+     *
+     * @param b the byte
+     * @return the character
+     */
+    public static char toChar(byte b) {
+        return CHARS[b & 0xFF];
+    }
+
+    /**
+     * Decodes the bytes to string.
+     *
+     * @param buffer the buffer
+     * @param offset the offset
+     * @param length the length
+     * @return the string
+     */
+    public static String decode(byte[] buffer, int offset, int length) {
+
+        checkRange(buffer.length, offset, length);
+
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = CHARS[buffer[offset + i] & 0xFF];
+        }
+
+        return new String(chars);
+    }
+
+    /**
+     * Decodes the bytes and appends the characters to the string builder.
+     *
+     * @param buffer  the buffer
+     * @param offset  the offset
+     * @param length  the length
+     * @param builder the string builder
+     * @return the string builder
+     */
+    public static StringBuilder decode(byte[] buffer, int offset, int length,
+            StringBuilder builder) {
+
+        checkRange(buffer.length, offset, length);
+        builder.ensureCapacity(builder.length() + length);
+
+        for (int i = 0; i < length; i++) {
+            builder.append(CHARS[buffer[offset + i] & 0xFF]);
+        }
+
+        return builder;
+    }
+
+    /**
+     * Decodes the bytes and puts the characters to the char buffer.
+     *
+     * @param buffer the buffer
+     * @param offset the offset
+     * @param length the length
+     * @param dest   the destination
+     * @return the number of characters written
+     * @throws BufferOverflowException if the destination is too small
+     */
+    public static int decode(byte[] buffer, int offset, int length, CharBuffer dest) {
+
+        checkRange(buffer.length, offset, length);
+        if (dest.remaining() < length) {
+            throw new BufferOverflowException();
+        }
+
+        for (int i = 0; i < length; i++) {
+            dest.put(CHARS[buffer[offset + i] & 0xFF]);
+        }
+
+        return length;
+    }
+
+    /**
+     * Encodes the character.
+     *
+     * @param c the character
+     * @return the byte or {@link #REPLACEMENT_BYTE} if the character cannot be encoded
+     */
+    public static byte toByte(char c) {
+
+        if (c < 0x80) {
+            return (byte) c;
+        }
+
+        if (c == '\u00A0') {
+            return (byte) 0xA0;
+        }
+
+        if ((c >= 0x0E00) && (c < 0x0E80)) {
+
+            byte b = THAI_BYTES[c - 0x0E00];
+            if (b != 0) {
+                return b;
+            }
+        }
+
+        return REPLACEMENT_BYTE;
+    }
+
+    /**
+     * Encodes the characters to the byte array.
+     *
+     * @param text       the text
+     * @param start      the start index
+     * @param end        the end index
+     * @param dest       the destination
+     * @param destOffset the offset of destination
+     * @return the number of bytes written
+     * @throws IndexOutOfBoundsException if the destination is too small
+     */
+    public static int encode(CharSequence text, int start, int end, byte[] dest,
+            int destOffset) {
+
+        checkRange(text.length(), start, end - start);
+        checkRange(dest.length, destOffset, end - start);
+
+        int j = destOffset;
+        for (int i = start; i < end; i++) {
+            dest[j++] = toByte(text.charAt(i));
+        }
+
+        return j - destOffset;
+    }
+
+    /**
+     * Checks the range.
+     *
+     * @param length the length of array
+     * @param offset the offset
+     * @param count  the count
+     * @throws IndexOutOfBoundsException if the range is out of bounds
+     */
+    private static void checkRange(int length, int offset, int count) {
+        if ((offset < 0) || (count < 0) || (offset > length - count)) {
+            throw new IndexOutOfBoundsException(
+                    "Length: " + length + ", offset: " + offset + ", count: " + count);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.acs.pidcore;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit test of {@link BinaryScript}.
+ */
+public class BinaryScriptTest {
+
+    private static final String SCRIPT =
+            "; url=https://example.com/api/getPid.php?n=\u0E44\u0E17\n"
+            + "00 A4 04 00 08 A0 00 00 00 54 48 00 01\n"
+            + "61 0A\n"
+            + "80 B0 00 04 02 00 0D\n"
+            + "1X X2 XX XX XX XX XX XX XX XX XX XX XX 90 00\n"
+            + "00 C0 00 00 0D\n"
+            + "6X 0\n";
+
+    private File mFile;
+
+    @Before
+    public void setUp() throws Exception {
+        mFile = File.createTempFile("script", BinaryScript.FILE_EXTENSION);
+    }
+
+    @After
+    public void tearDown() {
+        mFile.delete();
+    }
+
+    @Test
+    public void load_returnsWrittenScript() throws Exception {
+
+        CompiledScript script = CompiledScript.compile(
+                new BufferedReader(new StringReader(SCRIPT)));
+        writeFile(script);
+
+        CompiledScript loaded = BinaryScript.load(mFile);
+        assertEquals(script.getUrl(), loaded.getUrl());
+        assertEquals("https://example.com/api/getPid.php?n=\u0E44\u0E17", loaded.getUrl());
+        assertEquals(script.getCommandCount(), loaded.getCommandCount());
+
+        for (int i = 0; i < script.getCommandCount(); i++) {
+
+            CompiledScript.Command expected = script.getCommand(i);
+            CompiledScript.Command actual = loaded.getCommand(i);
+            assertArrayEquals(expected.getBytes(), actual.getBytes());
+            assertEquals(expected.getExpectedResponse().toString(),
+                    actual.getExpectedResponse().toString());
+            assertArrayEquals(expected.getExpectedResponse().getMask(),
+                    actual.getExpectedResponse().getMask());
+        }
+
+        /* The wildcard masks are kept. */
+        ResponsePattern pattern = loaded.getCommand(1).getExpectedResponse();
+        assertEquals("1X X2 XX XX XX XX XX XX XX XX XX XX XX 90 00", pattern.toString());
+        assertTrue(pattern.matches(Hex.toByteArray(
+                "1F F2 00 00 00 00 00 00 00 00 00 00 00 90 00")));
+        assertFalse(pattern.matches(Hex.toByteArray(
+                "2F F2 00 00 00 00 00 00 00 00 00 00 00 90 00")));
+
+        /* The odd number of digits. */
+        pattern = loaded.getCommand(2).getExpectedResponse();
+        assertEquals(3, pattern.getNumDigits());
+        assertEquals("6X 0", pattern.toString());
+    }
+
+    @Test
+    public void read_rejectsTruncatedScript() throws Exception {
+
+        byte[] binary = toByteArray(CompiledScript.compile(
+                new BufferedReader(new StringReader(SCRIPT))));
+
+        for (int length = 0; length < binary.length; length++) {
+            try {
+                BinaryScript.read(ByteBuffer.wrap(Arrays.copyOf(binary, length)));
+                fail("IOException expected: " + length);
+            } catch (IOException e) {
+                /* Expected. */
+            }
+        }
+    }
+
+    @Test
+    public void load_rejectsBadMagicAndVersion() throws Exception {
+
+        byte[] binary = toByteArray(CompiledScript.compile(
+                new BufferedReader(new StringReader(SCRIPT))));
+
+        byte[] badMagic = binary.clone();
+        badMagic[0] = 'B';
+        writeFile(badMagic);
+        try {
+            BinaryScript.load(mFile);
+            fail("IOException expected");
+        } catch (IOException e) {
+            assertEquals("Invalid binary script", e.getMessage());
+        }
+
+        byte[] badVersion = binary.clone();
+        badVersion[4] = 2;
+        writeFile(badVersion);
+        try {
+            BinaryScript.load(mFile);
+            fail("IOException expected");
+        } catch (IOException e) {
+            assertEquals("Unsupported binary script version: 2", e.getMessage());
+        }
+    }
+
+    private static byte[] toByteArray(CompiledScript script) throws IOException {
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryScript.write(script, out);
+
+        return out.toByteArray();
+    }
+
+    private void writeFile(CompiledScript script) throws IOException {
+        writeFile(toByteArray(script));
+    }
+
+    private void writeFile(byte[] data) throws IOException {
+
+        FileOutputStream out = new FileOutputStream(mFile);
+        try {
+            out.write(data);
+        } finally {
+            out.close();
+        }
+    }
+}
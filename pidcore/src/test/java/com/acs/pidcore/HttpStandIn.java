@@ -0,0 +1,163 @@
+package com.acs.pidcore;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * HTTP stand-in running on the loopback interface.  The requests are answered with the queued
+ * status codes.
+ */
+class HttpStandIn {
+
+    private final ServerSocket mServerSocket;
+    private final LinkedBlockingQueue<Integer> mStatusCodes = new LinkedBlockingQueue<>();
+    private final List<String> mBodies = Collections.synchronizedList(new ArrayList<String>());
+    private final List<String> mContentTypes =
+            Collections.synchronizedList(new ArrayList<String>());
+    private final AtomicInteger mNumConnections = new AtomicInteger();
+
+    HttpStandIn() throws IOException {
+
+        mServerSocket = new ServerSocket(0, 50, InetAddress.getByName("127.0.0.1"));
+        Thread thread = new Thread(new Runnable() {
+
+            @Override
+            public void run() {
+                serve();
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    String getUrl() {
+        return "http://127.0.0.1:" + mServerSocket.getLocalPort() + "/api/getPid.php";
+    }
+
+    void addStatusCodes(int... statusCodes) {
+        for (int statusCode : statusCodes) {
+            mStatusCodes.add(statusCode);
+        }
+    }
+
+    List<String> getBodies() {
+        return mBodies;
+    }
+
+    List<String> getContentTypes() {
+        return mContentTypes;
+    }
+
+    int getConnectionCount() {
+        return mNumConnections.get();
+    }
+
+    void close() throws IOException {
+        mServerSocket.close();
+    }
+
+    /**
+     * Accepts the connections and answers the requests with the queued status codes.
+     */
+    private void serve() {
+
+        while (!mServerSocket.isClosed()) {
+
+            final Socket socket;
+            try {
+                socket = mServerSocket.accept();
+            } catch (IOException e) {
+                return;
+            }
+
+            mNumConnections.incrementAndGet();
+            Thread thread = new Thread(new Runnable() {
+
+                @Override
+                public void run() {
+                    try {
+                        while (handle(socket.getInputStream(), socket.getOutputStream())) {
+                            /* Keep the connection alive. */
+                        }
+                    } catch (Exception e) {
+                        /* Connection closed. */
+                    } finally {
+                        try {
+                            socket.close();
+                        } catch (IOException e) {
+                            /* Ignore. */
+                        }
+                    }
+                }
+            });
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Handles one request.
+     *
+     * @return {@code true} if the connection is kept alive
+     */
+    private boolean handle(InputStream in, OutputStream out) throws Exception {
+
+        /* Read the headers. */
+        StringBuilder headers = new StringBuilder();
+        int c;
+        while ((c = in.read()) >= 0) {
+
+            headers.append((char) c);
+            if (headers.toString().endsWith("\r\n\r\n")) {
+                break;
+            }
+        }
+
+        if (c < 0) {
+            return false;
+        }
+
+        int contentLength = 0;
+        String contentType = null;
+        for (String line : headers.toString().split("\r\n")) {
+            if (line.toLowerCase().startsWith("content-length:")) {
+                contentLength = Integer.parseInt(line.substring(15).trim());
+            } else if (line.toLowerCase().startsWith("content-type:")) {
+                contentType = line.substring(13).trim();
+            }
+        }
+
+        /* Read the body. */
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        for (int i = 0; i < contentLength; i++) {
+            body.write(in.read());
+        }
+        mContentTypes.add(contentType);
+        mBodies.add(body.toString("UTF-8"));
+
+        Integer statusCode = mStatusCodes.poll(5, TimeUnit.SECONDS);
+        if (statusCode == null) {
+            statusCode = 500;
+        }
+
+        byte[] response = "OK".getBytes("US-ASCII");
+        out.write(("HTTP/1.1 " + statusCode + " Status\r\n"
+                + "Content-Length: " + response.length + "\r\n"
+                + "Connection: keep-alive\r\n\r\n").getBytes("US-ASCII"));
+        out.write(response);
+        out.flush();
+
+        return true;
+    }
+}
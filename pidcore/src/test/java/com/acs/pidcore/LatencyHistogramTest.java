@@ -0,0 +1,100 @@
+package com.acs.pidcore;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit test of {@link LatencyHistogram}.
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void getValueAtPercentile_returnsHighestValueOfBucket() {
+
+        /* The values below 32 are exact and each power of 2 above has 32 buckets. */
+        long[][] cases = {
+                {0, 0}, {31, 31}, {32, 32}, {33, 33}, {63, 63},
+                {64, 65}, {65, 65}, {66, 67}, {127, 127}, {128, 131}, {1000, 1007}};
+
+        for (long[] c : cases) {
+
+            /* The larger value keeps the maximum from capping the bucket. */
+            LatencyHistogram histogram = new LatencyHistogram();
+            histogram.record(c[0]);
+            histogram.record(1000000);
+
+            assertEquals("Value " + c[0], c[1], histogram.getValueAtPercentile(50));
+        }
+    }
+
+    @Test
+    public void record_clampsValues() {
+
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+
+        assertEquals(0, histogram.getMin());
+        assertEquals(LatencyHistogram.MAX_VALUE, histogram.getMax());
+        assertEquals(0, histogram.getValueAtPercentile(50));
+        assertEquals(LatencyHistogram.MAX_VALUE, histogram.getValueAtPercentile(100));
+        assertEquals(LatencyHistogram.MAX_VALUE, histogram.getTotal());
+    }
+
+    @Test
+    public void getValueAtPercentile_selectsRank() {
+
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getValueAtPercentile(50));
+
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i);
+        }
+
+        assertEquals(1000, histogram.getCount());
+        assertEquals(500.5, histogram.getMean(), 0.001);
+        assertEquals(1, histogram.getValueAtPercentile(0));
+        assertEquals(503, histogram.getValueAtPercentile(50));
+        assertEquals(911, histogram.getValueAtPercentile(90));
+        assertEquals(991, histogram.getValueAtPercentile(99));
+
+        /* The highest value of the bucket does not exceed the maximum. */
+        assertEquals(1000, histogram.getValueAtPercentile(100));
+        assertEquals("count=1000 min=1 mean=501 p50=503 p90=911 p99=991 p999=1000 max=1000",
+                histogram.toString());
+
+        /* 99 fast values and a slow one. */
+        histogram.reset();
+        for (int i = 0; i < 99; i++) {
+            histogram.record(10);
+        }
+        histogram.record(5000);
+
+        assertEquals(10, histogram.getValueAtPercentile(50));
+        assertEquals(10, histogram.getValueAtPercentile(99));
+        assertEquals(5000, histogram.getValueAtPercentile(99.9));
+    }
+
+    @Test
+    public void recordNanos_convertsToMicroseconds() {
+
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.recordNanos(1999);
+
+        assertEquals(1, histogram.getMax());
+    }
+
+    @Test
+    public void getValueAtPercentile_rejectsInvalidPercentile() {
+
+        for (double percentile : new double[]{-1, 100.1, Double.NaN}) {
+            try {
+                new LatencyHistogram().getValueAtPercentile(percentile);
+                fail("IllegalArgumentException expected");
+            } catch (IllegalArgumentException e) {
+                /* Expected. */
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.acs.pidcore;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit test of {@link MetricsRegistry}.
+ */
+public class MetricsRegistryTest {
+
+    private final MetricsRegistry mMetrics = MetricsRegistry.getInstance();
+
+    @Before
+    public void setUp() {
+        mMetrics.reset();
+    }
+
+    @After
+    public void tearDown() {
+        mMetrics.reset();
+    }
+
+    @Test
+    public void getName_appendsTag() {
+        assertEquals("apdu.latency{terminal=ACR3901U-S1}",
+                MetricsRegistry.getName(MetricsRegistry.APDU_LATENCY, "terminal", "ACR3901U-S1"));
+    }
+
+    @Test
+    public void recordCommand_recordsByTerminalAndHeader() {
+
+        byte[] command = Hex.toByteArray("00 A4 04 00 08");
+        mMetrics.recordCommand("R1", command, 10, 1500000);
+        mMetrics.recordCommand("R2", command, 12, 2500000);
+        mMetrics.recordCommandError("R1");
+
+        assertEquals(2, mMetrics.getCounterValue(MetricsRegistry.APDU_COUNT));
+        assertEquals(10, mMetrics.getCounterValue(MetricsRegistry.APDU_BYTES_SENT));
+        assertEquals(22, mMetrics.getCounterValue(MetricsRegistry.APDU_BYTES_RECEIVED));
+        assertEquals(1, mMetrics.getCounterValue(MetricsRegistry.APDU_ERRORS));
+        assertEquals(1, mMetrics.getCounterValue(
+                MetricsRegistry.getName(MetricsRegistry.APDU_ERRORS, "terminal", "R1")));
+        assertEquals(0, mMetrics.getCounterValue(
+                MetricsRegistry.getName(MetricsRegistry.APDU_ERRORS, "terminal", "R2")));
+
+        assertEquals("[apdu.latency, apdu.latency{command=00A40400}, "
+                + "apdu.latency{terminal=R1}, apdu.latency{terminal=R2}]",
+                mMetrics.getHistograms().keySet().toString());
+        assertEquals("[apdu.latency{terminal=R1}, apdu.latency{terminal=R2}]",
+                mMetrics.getHistograms("apdu.latency{terminal=").keySet().toString());
+        assertEquals(2, mMetrics.getHistogram("apdu.latency{command=00A40400}").getCount());
+        assertEquals(1500, mMetrics.getHistogram("apdu.latency{terminal=R1}").getMax());
+    }
+
+    @Test
+    public void dump_writesOneMetricPerLine() {
+
+        mMetrics.recordCommand("R1", Hex.toByteArray("80 B0"), 10, 1500000);
+        mMetrics.recordScript("R1", 20000000, false);
+
+        String summary = " count=1 min=1500 mean=1500 p50=1500 p90=1500 p99=1500 p999=1500"
+                + " max=1500\n";
+        assertEquals("counter apdu.bytes_received 10\n"
+                + "counter apdu.bytes_sent 2\n"
+                + "counter apdu.count 1\n"
+                + "counter script.count 1\n"
+                + "counter script.errors 1\n"
+                + "histogram apdu.latency" + summary
+                + "histogram apdu.latency{command=80B0}" + summary
+                + "histogram apdu.latency{terminal=R1}" + summary
+                + "histogram script.latency count=1 min=20000 mean=20000 p50=20000 p90=20000"
+                + " p99=20000 p999=20000 max=20000\n"
+                + "histogram script.latency{terminal=R1} count=1 min=20000 mean=20000"
+                + " p50=20000 p90=20000 p99=20000 p999=20000 max=20000\n",
+                mMetrics.dump());
+
+        mMetrics.reset();
+        assertEquals("", mMetrics.dump());
+    }
+}
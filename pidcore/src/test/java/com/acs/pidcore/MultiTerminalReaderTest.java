@@ -0,0 +1,279 @@
+package com.acs.pidcore;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.smartcardio.CardChannel;
+import javax.smartcardio.CardException;
+import javax.smartcardio.CardTerminal;
+import javax.smartcardio.CommandAPDU;
+import javax.smartcardio.ResponseAPDU;
+import javax.smartcardio.TerminalFactory;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit test of {@link MultiTerminalReader} reading simulated card terminals.
+ */
+public class MultiTerminalReaderTest {
+
+    private static final String RECORDING = "; atr=3B 67 00 00 A1 00 00 90 00\n"
+            + "00 A4 04 00 08 A0 00 00 00 54 48 00 01\n"
+            + "61 0A\n"
+            + "80 B0 00 04 02 00 0D\n"
+            + "61 0D\n"
+            + "00 C0 00 00 0D\n"
+            + "31 32 33 34 35 36 37 38 39 30 31 32 33 90 00\n";
+
+    private List<CardTerminal> mTerminals;
+    private MultiTerminalReader mReader;
+
+    @Before
+    public void setUp() throws Exception {
+
+        SimulatedTerminalProvider.Parameters parameters = new SimulatedTerminalProvider.Parameters(
+                ApduRecording.load(new BufferedReader(new StringReader(RECORDING))));
+        parameters.setTerminalCount(4);
+        parameters.setLatency(20, 0);
+        parameters.setSeed(1);
+        mTerminals = TerminalFactory.getInstance(SimulatedTerminalProvider.TYPE, parameters,
+                new SimulatedTerminalProvider()).terminals().list();
+        mReader = new MultiTerminalReader(4);
+    }
+
+    @After
+    public void tearDown() {
+        mReader.shutdown();
+    }
+
+    @Test
+    public void readAll_isolatesFailuresAndMergesResults() throws Exception {
+
+        ((SimulatedCardTerminal) mTerminals.get(2)).removeCard();
+
+        final AtomicInteger numRunning = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final AtomicBoolean overlapped = new AtomicBoolean();
+        final AtomicBoolean delivering = new AtomicBoolean();
+        final List<MultiTerminalReader.Result<String>> delivered = new ArrayList<>();
+        final List<List<MultiTerminalReader.Result<String>>> completed = new ArrayList<>();
+        final CountDownLatch latch = new CountDownLatch(1);
+
+        mReader.readAll(mTerminals, new MultiTerminalReader.ReadTask<String>() {
+
+            @Override
+            public String read(CardTerminal terminal) throws CardException {
+
+                int running = numRunning.incrementAndGet();
+                while (maxRunning.get() < running) {
+                    maxRunning.compareAndSet(maxRunning.get(), running);
+                }
+
+                try {
+                    return readCitizenId(terminal);
+                } finally {
+                    numRunning.decrementAndGet();
+                }
+            }
+        }, new MultiTerminalReader.OnReadListener<String>() {
+
+            @Override
+            public void onRead(MultiTerminalReader.Result<String> result) {
+
+                if (!delivering.compareAndSet(false, true)) {
+                    overlapped.set(true);
+                }
+
+                delivered.add(result);
+                delivering.set(false);
+            }
+
+            @Override
+            public void onComplete(List<MultiTerminalReader.Result<String>> results) {
+
+                completed.add(results);
+                latch.countDown();
+            }
+        });
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertFalse(overlapped.get());
+        assertTrue(maxRunning.get() > 1);
+        assertEquals(4, delivered.size());
+        assertEquals(1, completed.size());
+
+        List<MultiTerminalReader.Result<String>> results = completed.get(0);
+        assertEquals(4, results.size());
+        for (int i = 0; i < results.size(); i++) {
+
+            MultiTerminalReader.Result<String> result = results.get(i);
+            assertSame(mTerminals.get(i), result.getTerminal());
+            if (i == 2) {
+
+                assertFalse(result.isSuccessful());
+                assertTrue(result.getError() instanceof CardException);
+
+            } else {
+
+                assertTrue(result.isSuccessful());
+                assertEquals("1234567890123", result.getValue());
+            }
+        }
+
+        assertFalse(mReader.isBusy(mTerminals.get(0)));
+    }
+
+    @Test
+    public void readAll_rejectsBusyTerminal() throws Exception {
+
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch firstCompleted = new CountDownLatch(1);
+        final CountDownLatch secondCompleted = new CountDownLatch(1);
+        final List<MultiTerminalReader.Result<String>> secondResults = new ArrayList<>();
+        List<CardTerminal> terminals = mTerminals.subList(0, 1);
+
+        mReader.readAll(terminals, new MultiTerminalReader.ReadTask<String>() {
+
+            @Override
+            public String read(CardTerminal terminal) throws CardException {
+
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+
+                return readCitizenId(terminal);
+            }
+        }, new CompletionListener(firstCompleted, null));
+
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertTrue(mReader.isBusy(terminals.get(0)));
+
+        mReader.readAll(terminals, new MultiTerminalReader.ReadTask<String>() {
+
+            @Override
+            public String read(CardTerminal terminal) throws CardException {
+                return readCitizenId(terminal);
+            }
+        }, new CompletionListener(secondCompleted, secondResults));
+
+        assertTrue(secondCompleted.await(5, TimeUnit.SECONDS));
+        assertTrue(secondResults.get(0).getError() instanceof IllegalStateException);
+
+        release.countDown();
+        assertTrue(firstCompleted.await(5, TimeUnit.SECONDS));
+        assertFalse(mReader.isBusy(terminals.get(0)));
+    }
+
+    @Test
+    public void readAll_completesIfTaskThrowsError() throws Exception {
+
+        final CountDownLatch completed = new CountDownLatch(1);
+        final List<MultiTerminalReader.Result<String>> results = new ArrayList<>();
+
+        mReader.readAll(mTerminals.subList(0, 2), new MultiTerminalReader.ReadTask<String>() {
+
+            @Override
+            public String read(CardTerminal terminal) throws CardException {
+
+                if (terminal == mTerminals.get(0)) {
+                    throw new OutOfMemoryError("Photo");
+                }
+
+                return readCitizenId(terminal);
+            }
+        }, new CompletionListener(completed, results));
+
+        assertTrue(completed.await(5, TimeUnit.SECONDS));
+        assertTrue(results.get(0).getError() instanceof ExecutionException);
+        assertTrue(results.get(0).getError().getCause() instanceof OutOfMemoryError);
+        assertTrue(results.get(1).isSuccessful());
+        assertFalse(mReader.isBusy(mTerminals.get(0)));
+    }
+
+    @Test
+    public void tryAcquire_excludesReadAll() throws Exception {
+
+        final CountDownLatch completed = new CountDownLatch(1);
+        final List<MultiTerminalReader.Result<String>> results = new ArrayList<>();
+        CardTerminal terminal = mTerminals.get(0);
+
+        assertTrue(mReader.tryAcquire(terminal));
+        assertFalse(mReader.tryAcquire(terminal));
+        assertTrue(mReader.isBusy(terminal));
+
+        mReader.readAll(mTerminals.subList(0, 2), new MultiTerminalReader.ReadTask<String>() {
+
+            @Override
+            public String read(CardTerminal terminal) throws CardException {
+                return readCitizenId(terminal);
+            }
+        }, new CompletionListener(completed, results));
+
+        assertTrue(completed.await(5, TimeUnit.SECONDS));
+        assertTrue(results.get(0).getError() instanceof IllegalStateException);
+        assertTrue(results.get(1).isSuccessful());
+
+        /* The busy terminal is still held by the caller. */
+        assertTrue(mReader.isBusy(terminal));
+        mReader.release(terminal);
+        assertFalse(mReader.isBusy(terminal));
+        assertTrue(mReader.tryAcquire(terminal));
+        mReader.release(terminal);
+    }
+
+    private static String readCitizenId(CardTerminal terminal) throws CardException {
+
+        CardChannel channel = terminal.connect("*").getBasicChannel();
+        transmit(channel, "00 A4 04 00 08 A0 00 00 00 54 48 00 01");
+        transmit(channel, "80 B0 00 04 02 00 0D");
+
+        return new String(transmit(channel, "00 C0 00 00 0D").getData());
+    }
+
+    private static ResponseAPDU transmit(CardChannel channel, String command)
+            throws CardException {
+        return channel.transmit(new CommandAPDU(Hex.toByteArray(command)));
+    }
+
+    private static class CompletionListener
+            implements MultiTerminalReader.OnReadListener<String> {
+
+        private final CountDownLatch mLatch;
+        private final List<MultiTerminalReader.Result<String>> mResults;
+
+        CompletionListener(CountDownLatch latch, List<MultiTerminalReader.Result<String>> results) {
+
+            mLatch = latch;
+            mResults = results;
+        }
+
+        @Override
+        public void onRead(MultiTerminalReader.Result<String> result) {
+        }
+
+        @Override
+        public void onComplete(List<MultiTerminalReader.Result<String>> results) {
+
+            if (mResults != null) {
+                mResults.addAll(results);
+            }
+
+            mLatch.countDown();
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.acs.pidcore;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.Inflater;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit test of {@link PersonalIdRecordEncoder} decoding the output byte by byte.
+ */
+public class PersonalIdRecordEncoderTest {
+
+    private static final int PHOTO_LENGTH = 1000;
+
+    @Test
+    public void encode_writesHeaderAndFields() throws Exception {
+
+        byte[] photo = newPhoto();
+        byte[] encoded = new PersonalIdRecordEncoder(false).encode(newRecord(photo));
+        Reader reader = new Reader(encoded);
+
+        /* Magic "PIDR", version and flags. */
+        assertEquals("50 49 44 52 01 00", Hex.toHexString(reader.readBytes(6)));
+
+        assertEquals(PersonalIdField.CITIZEN_ID.ordinal() + 1, reader.readByte());
+        assertEquals(13, reader.readLength());
+        assertEquals("1234567890123", new String(reader.readBytes(13), "US-ASCII"));
+
+        assertEquals(PersonalIdField.ENGLISH_NAME.ordinal() + 1, reader.readByte());
+        assertEquals(15, reader.readLength());
+        assertEquals("Mr.#John##Smith", new String(reader.readBytes(15), "US-ASCII"));
+
+        /* The date not readable has no data. */
+        assertEquals(PersonalIdField.BIRTH_DATE.ordinal() + 1, reader.readByte());
+        assertEquals(0, reader.readLength());
+
+        assertEquals(PersonalIdField.GENDER.ordinal() + 1, reader.readByte());
+        assertEquals(1, reader.readLength());
+        assertEquals(PersonalIdRecord.GENDER_MALE, reader.readByte());
+
+        assertEquals(PersonalIdField.ISSUE_DATE.ordinal() + 1, reader.readByte());
+        assertEquals(4, reader.readLength());
+        assertEquals("0A 00 01 1F", Hex.toHexString(reader.readBytes(4)));
+
+        /* The photo length takes 2 bytes in LEB128. */
+        assertEquals(PersonalIdField.PHOTO.ordinal() + 1, reader.readByte());
+        assertEquals("E8 07", Hex.toHexString(Arrays.copyOfRange(encoded,
+                reader.getPosition(), reader.getPosition() + 2)));
+        assertEquals(PHOTO_LENGTH, reader.readLength());
+        assertArrayEquals(photo, reader.readBytes(PHOTO_LENGTH));
+
+        assertEquals(PersonalIdRecordEncoder.TAG_END, reader.readByte());
+        assertEquals(encoded.length, reader.getPosition());
+    }
+
+    @Test
+    public void encode_compressesPhoto() throws Exception {
+
+        byte[] photo = newPhoto();
+        byte[] encoded = new PersonalIdRecordEncoder(true).encode(newRecord(photo));
+        Reader reader = new Reader(encoded);
+        reader.readBytes(6);
+
+        /* Skip to the photo. */
+        int tag;
+        while (((tag = reader.readByte()) & ~PersonalIdRecordEncoder.TAG_COMPRESSED)
+                != PersonalIdField.PHOTO.ordinal() + 1) {
+            reader.readBytes(reader.readLength());
+        }
+
+        assertEquals(PersonalIdRecordEncoder.TAG_COMPRESSED, tag
+                & PersonalIdRecordEncoder.TAG_COMPRESSED);
+        int length = reader.readLength();
+        assertTrue(length < PHOTO_LENGTH);
+
+        Inflater inflater = new Inflater();
+        inflater.setInput(reader.readBytes(length));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[256];
+        while (!inflater.finished()) {
+            out.write(buffer, 0, inflater.inflate(buffer));
+        }
+        inflater.end();
+
+        assertArrayEquals(photo, out.toByteArray());
+        assertEquals(PersonalIdRecordEncoder.TAG_END, reader.readByte());
+        assertEquals(encoded.length, reader.getPosition());
+    }
+
+    @Test
+    public void encode_keepsPhotoUncompressedIfNotSmaller() throws Exception {
+
+        byte[] photo = new byte[PHOTO_LENGTH];
+        new Random(0).nextBytes(photo);
+        PersonalIdRecord record = new PersonalIdRecord();
+        record.setPhoto(0, photo, 0, photo.length);
+
+        byte[] encoded = new PersonalIdRecordEncoder(true).encode(record);
+        assertEquals(PersonalIdField.PHOTO.ordinal() + 1, encoded[6]);
+        assertEquals(6 + 1 + 2 + PHOTO_LENGTH + 1, encoded.length);
+    }
+
+    /**
+     * Returns a JPEG-like photo which can be compressed.
+     */
+    private static byte[] newPhoto() {
+
+        byte[] photo = new byte[PHOTO_LENGTH];
+        for (int i = 0; i < photo.length; i++) {
+            photo[i] = (byte) (i % 16);
+        }
+        photo[0] = (byte) 0xFF;
+        photo[1] = (byte) 0xD8;
+
+        return photo;
+    }
+
+    /**
+     * Returns the record with the citizen ID, the English name, the birth date not readable,
+     * the gender, the issue date and the photo.
+     */
+    private static PersonalIdRecord newRecord(byte[] photo) throws Exception {
+
+        PersonalIdRecord record = new PersonalIdRecord();
+        setField(record, PersonalIdField.CITIZEN_ID, "1234567890123");
+        setField(record, PersonalIdField.ENGLISH_NAME, "Mr.#John##Smith");
+        setField(record, PersonalIdField.BIRTH_DATE, "--------");
+        setField(record, PersonalIdField.GENDER, "1");
+        setField(record, PersonalIdField.ISSUE_DATE, "25600131");
+        record.setPhoto(0, photo, 0, photo.length);
+
+        return record;
+    }
+
+    private static void setField(PersonalIdRecord record, PersonalIdField field, String value)
+            throws Exception {
+
+        byte[] buffer = value.getBytes("US-ASCII");
+        record.setField(field, buffer, 0, buffer.length);
+    }
+
+    /**
+     * The {@code Reader} class reads the encoded record.
+     */
+    private static class Reader {
+
+        private final byte[] mBuffer;
+        private int mPosition;
+
+        Reader(byte[] buffer) {
+            mBuffer = buffer;
+        }
+
+        int getPosition() {
+            return mPosition;
+        }
+
+        int readByte() {
+            return mBuffer[mPosition++] & 0xFF;
+        }
+
+        byte[] readBytes(int length) {
+
+            byte[] bytes = Arrays.copyOfRange(mBuffer, mPosition, mPosition + length);
+            mPosition += length;
+
+            return bytes;
+        }
+
+        /**
+         * Reads the length in unsigned LEB128.
+         */
+        int readLength() {
+
+            int value = 0;
+            int shift = 0;
+            int b;
+            do {
+
+                b = readByte();
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+
+            } while ((b & 0x80) != 0);
+
+            return value;
+        }
+    }
+}
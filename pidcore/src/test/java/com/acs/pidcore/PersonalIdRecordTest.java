@@ -0,0 +1,62 @@
+package com.acs.pidcore;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit test of {@link PersonalIdRecord}.
+ */
+public class PersonalIdRecordTest {
+
+    @Test
+    public void setField_parsesLifetimeExpiryDate() throws Exception {
+
+        PersonalIdRecord record = new PersonalIdRecord();
+        setField(record, PersonalIdField.ISSUE_DATE, "25600131");
+        setField(record, PersonalIdField.EXPIRY_DATE, "99999999");
+
+        PersonalIdRecord.BuddhistDate issueDate = record.getIssueDate();
+        assertFalse(issueDate.isLifetime());
+        assertEquals(2560, issueDate.getYear());
+        assertEquals(1, issueDate.getMonth());
+        assertEquals(31, issueDate.getDay());
+
+        PersonalIdRecord.BuddhistDate expiryDate = record.getExpiryDate();
+        assertSame(PersonalIdRecord.BuddhistDate.LIFETIME, expiryDate);
+        assertTrue(expiryDate.isLifetime());
+        assertEquals("99999999", expiryDate.toString());
+        assertTrue(record.hasField(PersonalIdField.EXPIRY_DATE));
+
+        /* The invalid date is still null. */
+        setField(record, PersonalIdField.BIRTH_DATE, "25001399");
+        assertNull(record.getBirthDate());
+    }
+
+    @Test
+    public void encode_distinguishesLifetimeFromInvalidDate() throws Exception {
+
+        PersonalIdRecord record = new PersonalIdRecord();
+        setField(record, PersonalIdField.EXPIRY_DATE, "99999999");
+        byte[] lifetime = new PersonalIdRecordEncoder(false).encode(record);
+
+        setField(record, PersonalIdField.EXPIRY_DATE, "2560XX31");
+        byte[] invalid = new PersonalIdRecordEncoder(false).encode(record);
+
+        /* Tag, length, year 9999, month 99 and day 99. */
+        int tag = PersonalIdField.EXPIRY_DATE.ordinal() + 1;
+        assertEquals(Hex.toHexString(new byte[]{(byte) tag, 4, 0x27, 0x0F, 99, 99}),
+                Hex.toHexString(Arrays.copyOfRange(lifetime, 6, 12)));
+        assertEquals(Hex.toHexString(new byte[]{(byte) tag, 0, 0}),
+                Hex.toHexString(Arrays.copyOfRange(invalid, 6, 9)));
+    }
+
+    private static void setField(PersonalIdRecord record, PersonalIdField field, String value)
+            throws Exception {
+
+        byte[] buffer = value.getBytes("US-ASCII");
+        record.setField(field, buffer, 0, buffer.length);
+    }
+}
@@ -0,0 +1,105 @@
+package com.acs.pidcore;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit test of {@link RecentReadCache}.
+ */
+public class RecentReadCacheTest {
+
+    private static final byte[] ATR = Hex.toByteArray("3B 67 00 00 A1 00 00 90 00");
+
+    private static final String SCRIPT = "00 A4 04 00 08 A0 00 00 00 54 48 00 01\n"
+            + "61 0A\n"
+            + "80 B0 00 04 02 00 0D\n"
+            + "61 0D\n"
+            + "00 C0 00 00 0D\n"
+            + "XX XX XX XX XX XX XX XX XX XX XX XX XX 90 00\n";
+
+    private CompiledScript mScript;
+
+    @Before
+    public void setUp() throws Exception {
+        mScript = CompiledScript.compile(new BufferedReader(new StringReader(SCRIPT)));
+    }
+
+    @Test
+    public void get_returnsCopyOfMatchingCommands() {
+
+        RecentReadCache cache = new RecentReadCache();
+        byte[][] responses = newResponses();
+        cache.put(ATR, "1234567890123", mScript, responses);
+
+        assertNull(cache.get(ATR, "1234567890124"));
+        assertNull(cache.get(Hex.toByteArray("3B 68 00 00 A1 00 00 90 00"), "1234567890123"));
+
+        RecentReadCache.Entry entry = cache.get(ATR, "1234567890123");
+        assertNotNull(entry);
+        assertEquals(3, entry.size());
+        assertArrayEquals(responses[2], entry.getResponse(2, mScript.getCommand(2).getBytes()));
+        assertNull(entry.getResponse(2, mScript.getCommand(1).getBytes()));
+        assertNull(entry.getResponse(3, mScript.getCommand(2).getBytes()));
+
+        /* Wiping the copy does not change the cache. */
+        entry.wipe();
+        assertEquals((byte) 0x31, responses[2][0]);
+        assertEquals(1, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    public void put_evictsAndWipesLeastRecentlyUsed() {
+
+        RecentReadCache cache = new RecentReadCache(2, RecentReadCache.DEFAULT_TIME_TO_LIVE);
+        byte[][] first = newResponses();
+        byte[][] second = newResponses();
+        byte[][] third = newResponses();
+
+        cache.put(ATR, "1", mScript, first);
+        cache.put(ATR, "2", mScript, second);
+        assertNotNull(cache.get(ATR, "1"));
+        cache.put(ATR, "3", mScript, third);
+
+        assertEquals(2, cache.size());
+        assertNull(cache.get(ATR, "2"));
+        assertNotNull(cache.get(ATR, "1"));
+        assertNotNull(cache.get(ATR, "3"));
+        assertArrayEquals(new byte[second[2].length], second[2]);
+        assertEquals((byte) 0x31, first[2][0]);
+
+        /* The replaced entry is wiped. */
+        cache.put(ATR, "1", mScript, newResponses());
+        assertArrayEquals(new byte[first[2].length], first[2]);
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertArrayEquals(new byte[third[2].length], third[2]);
+    }
+
+    @Test
+    public void get_expiresAfterTimeToLive() throws Exception {
+
+        RecentReadCache cache = new RecentReadCache(4, 20);
+        byte[][] responses = newResponses();
+        cache.put(ATR, "1234567890123", mScript, responses);
+
+        Thread.sleep(40);
+        assertNull(cache.get(ATR, "1234567890123"));
+        assertEquals(0, cache.size());
+        assertArrayEquals(new byte[responses[2].length], responses[2]);
+    }
+
+    private static byte[][] newResponses() {
+        return new byte[][] {
+                Hex.toByteArray("61 0A"),
+                Hex.toByteArray("61 0D"),
+                Hex.toByteArray("31 32 33 34 35 36 37 38 39 30 31 32 33 90 00")
+        };
+    }
+}
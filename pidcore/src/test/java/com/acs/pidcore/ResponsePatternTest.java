@@ -0,0 +1,189 @@
+package com.acs.pidcore;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit test of {@link ResponsePattern}.
+ */
+public class ResponsePatternTest {
+
+    @Test
+    public void matches_ignoresWildcardNibbles() {
+
+        ResponsePattern pattern = ResponsePattern.compile("1X X2 XX 90 00");
+        assertEquals("1X X2 XX 90 00", pattern.toString());
+
+        assertTrue(pattern.matches(Hex.toByteArray("10 02 00 90 00")));
+        assertTrue(pattern.matches(Hex.toByteArray("1F F2 FF 90 00")));
+        assertFalse(pattern.matches(Hex.toByteArray("20 02 00 90 00")));
+        assertFalse(pattern.matches(Hex.toByteArray("10 03 00 90 00")));
+    }
+
+    @Test
+    public void matches_checksLengthsNotMultipleOfWord() {
+
+        for (int length = 1; length <= 20; length++) {
+
+            byte[] response = new byte[length];
+            for (int i = 0; i < length; i++) {
+                response[i] = (byte) (0xA0 + i);
+            }
+
+            ResponsePattern pattern = ResponsePattern.compile(Hex.toHexString(response));
+            assertTrue(pattern.matches(response));
+
+            /* Change the last byte. */
+            byte[] changed = response.clone();
+            changed[length - 1] ^= 0x01;
+            assertFalse(pattern.matches(changed));
+
+            /* Add or remove a byte. */
+            assertFalse(pattern.matches(new byte[length + 1]));
+            assertFalse(pattern.matches(new byte[length - 1]));
+        }
+    }
+
+    @Test
+    public void matches_skipsWildcardWords() {
+
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < 24; i++) {
+            line.append("XX ");
+        }
+        line.append("90 00");
+
+        ResponsePattern pattern = ResponsePattern.compile(line.toString());
+        byte[] response = new byte[26];
+        new Random(0).nextBytes(response);
+        response[24] = (byte) 0x90;
+        response[25] = 0x00;
+        assertTrue(pattern.matches(response));
+
+        /* All digits are wildcards. */
+        pattern = ResponsePattern.compile("XX XX XX XX XX XX XX XX XX");
+        assertTrue(pattern.matches(new byte[9]));
+        assertFalse(pattern.matches(new byte[8]));
+    }
+
+    @Test
+    public void matches_failsIfStatusWordDiffers() {
+
+        ResponsePattern pattern = ResponsePattern.compile("XX XX XX XX XX XX XX XX 90 00");
+
+        assertTrue(pattern.matches(Hex.toByteArray("01 02 03 04 05 06 07 08 90 00")));
+        assertFalse(pattern.matches(Hex.toByteArray("01 02 03 04 05 06 07 08 6A 82")));
+        assertFalse(pattern.matches(Hex.toByteArray("01 02 03 04 05 06 07 08 90 01")));
+        assertFalse(pattern.matches(Hex.toByteArray("01 02 03 04 05 06 07 08 61")));
+        assertFalse(pattern.matches(null));
+    }
+
+    @Test
+    public void matches_agreesWithCompareResponse() {
+
+        Random random = new Random(0);
+        String digits = "0123456789ABCDEFXx";
+
+        for (int n = 0; n < 2000; n++) {
+
+            /* Build a random line and a response that mostly matches it. */
+            int numDigits = random.nextInt(40);
+            StringBuilder line = new StringBuilder();
+            for (int i = 0; i < numDigits; i++) {
+
+                line.append(digits.charAt(random.nextInt(digits.length())));
+                if ((i & 1) == 1) {
+                    line.append(' ');
+                }
+            }
+
+            byte[] response = new byte[(numDigits + random.nextInt(3)) / 2];
+            ResponsePattern pattern = ResponsePattern.compile(line.toString());
+            byte[] value = pattern.getValue();
+            for (int i = 0; (i < response.length) && (i < value.length); i++) {
+                response[i] = (byte) (value[i] | (random.nextInt(256) & ~pattern.getMask()[i]));
+            }
+            if ((response.length > 0) && random.nextBoolean()) {
+                response[random.nextInt(response.length)] ^= 1 << random.nextInt(8);
+            }
+
+            assertEquals(line.toString(), compareResponse(line.toString(), response),
+                    pattern.matches(response));
+        }
+    }
+
+    /**
+     * Compares the response with the line digit by digit as {@code compareResponse()} of
+     * {@code MainActivity} did before {@link ResponsePattern} replaced it.
+     */
+    private static boolean compareResponse(String line, byte[] response) {
+
+        boolean ret = true;
+        int length = 0;
+        boolean first = true;
+        int j = 0;
+
+        /* Check the parameter. */
+        if ((line == null) || (response == null)) {
+            return false;
+        }
+
+        for (int i = 0; i < line.length(); i++) {
+
+            char c = line.charAt(i);
+            int num;
+
+            if ((c >= '0') && (c <= '9')) {
+                num = c - '0';
+            } else if ((c >= 'A') && (c <= 'F')) {
+                num = c - 'A' + 10;
+            } else if ((c >= 'a') && (c <= 'f')) {
+                num = c - 'a' + 10;
+            } else {
+                num = -1;
+            }
+
+            if ((num >= 0) || (c == 'X') || (c == 'x')) {
+
+                /* Increment the string length. */
+                length++;
+
+                if (j >= response.length) {
+
+                    ret = false;
+                    break;
+                }
+
+                int num2;
+                if (first) {
+                    num2 = (response[j] >> 4) & 0x0F;
+                } else {
+                    num2 = response[j++] & 0x0F;
+                }
+
+                first = !first;
+
+                if ((c == 'X') || (c == 'x')) {
+                    num = num2;
+                }
+
+                /* Compare two numbers. */
+                if (num2 != num) {
+
+                    ret = false;
+                    break;
+                }
+            }
+        }
+
+        /* Return false if the length is not matched. */
+        if (length != 2 * response.length) {
+            ret = false;
+        }
+
+        return ret;
+    }
+}
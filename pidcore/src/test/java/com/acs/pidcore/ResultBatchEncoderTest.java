@@ -0,0 +1,101 @@
+package com.acs.pidcore;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit test of {@link ResultBatchEncoder}.
+ */
+public class ResultBatchEncoderTest {
+
+    private static final String URL = "https://example.com/api/getPid.php";
+
+    @Test
+    public void encodeJson_escapesTextAndEncodesBinary() throws Exception {
+
+        List<ResultJournal.Entry> entries = new ArrayList<>();
+        entries.add(newEntry(ResultUploader.CONTENT_TYPE_FORM,
+                "data=\"a\"\\b\n\r\t\u0001\u0E44".getBytes("UTF-8")));
+        entries.add(newEntry("text/plain; q=\"1\"", "x".getBytes("UTF-8")));
+        entries.add(newEntry(null, new byte[]{(byte) 0xFF, 0x00, 0x10, 0x20}));
+        entries.add(newEntry(PersonalIdRecordEncoder.CONTENT_TYPE, new byte[]{'a', 'b'}));
+        entries.add(newEntry(PersonalIdRecordEncoder.CONTENT_TYPE, new byte[0]));
+
+        String json = new String(ResultBatchEncoder.encodeJson(entries), "UTF-8");
+        assertEquals("{\"count\":5,\"results\":["
+                + "{\"type\":\"" + ResultUploader.CONTENT_TYPE_FORM + "\","
+                + "\"data\":\"data=\\\"a\\\"\\\\b\\n\\r\\t\\u0001\u0E44\"},"
+                + "{\"type\":\"text/plain; q=\\\"1\\\"\",\"data\":\"x\"},"
+                + "{\"type\":\"\",\"data\":\"/wAQIA==\",\"encoding\":\"base64\"},"
+                + "{\"type\":\"" + PersonalIdRecordEncoder.CONTENT_TYPE + "\","
+                + "\"data\":\"YWI=\",\"encoding\":\"base64\"},"
+                + "{\"type\":\"" + PersonalIdRecordEncoder.CONTENT_TYPE + "\","
+                + "\"data\":\"\",\"encoding\":\"base64\"}]}", json);
+
+        assertEquals("{\"count\":0,\"results\":[]}", new String(ResultBatchEncoder.encodeJson(
+                Collections.<ResultJournal.Entry>emptyList()), "UTF-8"));
+    }
+
+    @Test
+    public void encodeJson_encodesBase64Padding() throws Exception {
+
+        byte[] data = "Many hands make light work.".getBytes("US-ASCII");
+        String[] expected = {"", "TQ==", "TWE=", "TWFu", "TWFueQ==", "TWFueSA="};
+
+        for (int length = 0; length < expected.length; length++) {
+
+            String json = new String(ResultBatchEncoder.encodeJson(Collections.singletonList(
+                    newEntry(null, Arrays.copyOf(data, length)))), "UTF-8");
+            assertEquals("{\"count\":1,\"results\":[{\"type\":\"\",\"data\":\""
+                    + expected[length] + "\",\"encoding\":\"base64\"}]}", json);
+        }
+    }
+
+    @Test
+    public void encodeBinary_writesLengthDelimitedEntries() throws Exception {
+
+        byte[] photo = new byte[70000];
+        Arrays.fill(photo, (byte) 0x5A);
+
+        List<ResultJournal.Entry> entries = new ArrayList<>();
+        entries.add(newEntry(ResultUploader.CONTENT_TYPE_FORM, "data=1".getBytes("US-ASCII")));
+        entries.add(newEntry(null, photo));
+
+        byte[] body = ResultBatchEncoder.encodeBinary(entries);
+        assertEquals("52 42 41 54 01 00 02", Hex.toHexString(body, 0, 7));
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(body));
+        assertEquals(ResultBatchEncoder.MAGIC, in.readInt());
+        assertEquals(ResultBatchEncoder.VERSION, in.readUnsignedByte());
+        assertEquals(2, in.readUnsignedShort());
+
+        assertEquals(ResultUploader.CONTENT_TYPE_FORM.length(), in.readUnsignedShort());
+        byte[] contentType = new byte[ResultUploader.CONTENT_TYPE_FORM.length()];
+        in.readFully(contentType);
+        assertEquals(ResultUploader.CONTENT_TYPE_FORM, new String(contentType, "UTF-8"));
+        assertEquals(6, in.readInt());
+        byte[] data = new byte[6];
+        in.readFully(data);
+        assertEquals("data=1", new String(data, "US-ASCII"));
+
+        /* The missing content type is empty. */
+        assertEquals(0, in.readUnsignedShort());
+        assertEquals(photo.length, in.readInt());
+        data = new byte[photo.length];
+        in.readFully(data);
+        assertArrayEquals(photo, data);
+        assertEquals(-1, in.read());
+    }
+
+    private static ResultJournal.Entry newEntry(String contentType, byte[] body) {
+        return new ResultJournal.Entry(URL, contentType, body, 0);
+    }
+}
@@ -0,0 +1,186 @@
+package com.acs.pidcore;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit test of {@link ResultForwarder} uploading to an HTTP stand-in running on the
+ * loopback interface.
+ */
+public class ResultForwarderTest {
+
+    private File mDir;
+    private HttpStandIn mServer;
+    private ResultJournal mJournal;
+    private ResultJournal mRejectedJournal;
+    private ResultForwarder mForwarder;
+    private final List<String> mEvents = Collections.synchronizedList(new ArrayList<String>());
+
+    @Before
+    public void setUp() throws Exception {
+
+        mDir = File.createTempFile("forwarder", "");
+        assertTrue(mDir.delete());
+        mServer = new HttpStandIn();
+
+        mJournal = new ResultJournal(new File(mDir, "Journal"));
+        mJournal.setSyncEnabled(false);
+        mRejectedJournal = new ResultJournal(new File(mDir, "Rejected"));
+        mRejectedJournal.setSyncEnabled(false);
+
+        ResultUploader uploader = new ResultUploader();
+        uploader.setConnectTimeout(2000);
+        uploader.setReadTimeout(2000);
+        uploader.setMaxRetries(0);
+
+        mForwarder = new ResultForwarder(mJournal, uploader);
+        mForwarder.setRetryInterval(10, 40);
+        mForwarder.setOnUploadListener(new ResultUploader.OnUploadListener() {
+
+            @Override
+            public void onUploaded(String url, int responseCode) {
+                mEvents.add("OK " + responseCode);
+            }
+
+            @Override
+            public void onUploadFailed(String url, IOException e) {
+                mEvents.add("Failed " + e.getMessage());
+            }
+        });
+    }
+
+    @After
+    public void tearDown() throws Exception {
+
+        mForwarder.stop();
+        mServer.close();
+        mJournal.close();
+        mRejectedJournal.close();
+        delete(mDir);
+    }
+
+    @Test
+    public void forward_acknowledgesOnlyAfterSuccess() throws Exception {
+
+        mServer.addStatusCodes(302, 503, 429, 200);
+        mForwarder.start();
+        mForwarder.submit(mServer.getUrl(), ResultUploader.CONTENT_TYPE_FORM,
+                "data=1".getBytes("US-ASCII"));
+
+        awaitEmpty(mJournal);
+        awaitEvents(4);
+        assertEquals(4, mServer.getBodies().size());
+        assertEquals("data=1", mServer.getBodies().get(3));
+        assertEquals(ResultUploader.CONTENT_TYPE_FORM, mServer.getContentTypes().get(3));
+        assertEquals("[Failed HTTP 302, Failed HTTP 503, Failed HTTP 429, OK 200]",
+                mEvents.toString());
+    }
+
+    @Test
+    public void forward_movesRejectedEntryToRejectedJournal() throws Exception {
+
+        mServer.addStatusCodes(404, 200);
+        mForwarder.setRejectedJournal(mRejectedJournal);
+        mForwarder.submit(mServer.getUrl(), null, "first".getBytes("US-ASCII"));
+        mForwarder.submit(mServer.getUrl(), null, "second".getBytes("US-ASCII"));
+        mForwarder.start();
+
+        awaitEmpty(mJournal);
+        awaitEvents(2);
+        assertEquals("[first, second]", mServer.getBodies().toString());
+        assertEquals("[Failed HTTP 404, OK 200]", mEvents.toString());
+
+        List<ResultJournal.Entry> rejected = mRejectedJournal.read(10);
+        assertEquals(1, rejected.size());
+        assertEquals(mServer.getUrl(), rejected.get(0).getUrl());
+        assertEquals("first", new String(rejected.get(0).getBody(), "US-ASCII"));
+    }
+
+    @Test
+    public void forward_keepsRejectedEntryWithoutRejectedJournal() throws Exception {
+
+        mServer.addStatusCodes(404, 404, 404);
+        mForwarder.submit(mServer.getUrl(), null, "first".getBytes("US-ASCII"));
+        mForwarder.start();
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while ((mServer.getBodies().size() < 3) && (System.currentTimeMillis() < deadline)) {
+            Thread.sleep(10);
+        }
+
+        mForwarder.stop();
+        assertTrue(mServer.getBodies().size() >= 3);
+        assertEquals(1, mJournal.size());
+        assertEquals("first", new String(mJournal.read(1).get(0).getBody(), "US-ASCII"));
+    }
+
+    @Test
+    public void forward_sendsEntriesOneByOneIfBatchRejected() throws Exception {
+
+        mServer.addStatusCodes(400, 200, 200, 200);
+        mForwarder.setBatchMode(ResultForwarder.BATCH_MODE_JSON);
+        mForwarder.setBatchWindow(0);
+        mForwarder.setRejectedJournal(mRejectedJournal);
+        mForwarder.submit(mServer.getUrl(), ResultUploader.CONTENT_TYPE_FORM,
+                "data=1".getBytes("US-ASCII"));
+        mForwarder.submit(mServer.getUrl(), ResultUploader.CONTENT_TYPE_FORM,
+                "data=2".getBytes("US-ASCII"));
+        mForwarder.start();
+
+        awaitEmpty(mJournal);
+        awaitEvents(3);
+        assertEquals(0, mRejectedJournal.size());
+        assertEquals(3, mServer.getBodies().size());
+        assertEquals(ResultBatchEncoder.CONTENT_TYPE_JSON, mServer.getContentTypes().get(0));
+        assertEquals("data=1", mServer.getBodies().get(1));
+        assertEquals("data=2", mServer.getBodies().get(2));
+        assertEquals("[Failed HTTP 400, OK 200, OK 200]", mEvents.toString());
+
+        /* The later entries of the URL are not batched. */
+        mForwarder.submit(mServer.getUrl(), ResultUploader.CONTENT_TYPE_FORM,
+                "data=3".getBytes("US-ASCII"));
+        awaitEmpty(mJournal);
+        assertEquals(4, mServer.getBodies().size());
+        assertEquals("data=3", mServer.getBodies().get(3));
+        assertEquals(ResultUploader.CONTENT_TYPE_FORM, mServer.getContentTypes().get(3));
+    }
+
+    private static void awaitEmpty(ResultJournal journal) throws InterruptedException {
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while ((journal.size() > 0) && (System.currentTimeMillis() < deadline)) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(0, journal.size());
+    }
+
+    private void awaitEvents(int numEvents) throws InterruptedException {
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while ((mEvents.size() < numEvents) && (System.currentTimeMillis() < deadline)) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static void delete(File file) {
+
+        File[] files = file.listFiles();
+        if (files != null) {
+            for (File child : files) {
+                delete(child);
+            }
+        }
+
+        file.delete();
+    }
+}
@@ -0,0 +1,200 @@
+package com.acs.pidcore;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit test of {@link ResultJournal}.
+ */
+public class ResultJournalTest {
+
+    private static final String URL = "https://example.com/api/getPid.php";
+
+    private File mDir;
+    private File mJournalFile;
+    private ResultJournal mJournal;
+
+    @Before
+    public void setUp() throws Exception {
+
+        mDir = File.createTempFile("journal", "");
+        assertTrue(mDir.delete());
+        mJournalFile = new File(mDir, "results.journal");
+        mJournal = new ResultJournal(mDir);
+        mJournal.setSyncEnabled(false);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+
+        mJournal.close();
+        File[] files = mDir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        mDir.delete();
+    }
+
+    @Test
+    public void read_returnsEntriesAfterReopen() throws Exception {
+
+        /* The supplementary character and NUL are encoded differently in modified UTF-8. */
+        String url = URL + "?name=\u0E44\u0E17\u0E22\uD83D\uDE00\u0000";
+        mJournal.append(url, "text/plain; charset=\u00E9", "first".getBytes("UTF-8"));
+        mJournal.append(URL, null, "second".getBytes("UTF-8"));
+        reopen();
+
+        List<ResultJournal.Entry> entries = mJournal.read(10);
+        assertEquals(2, entries.size());
+        assertEquals(url, entries.get(0).getUrl());
+        assertEquals("text/plain; charset=\u00E9", entries.get(0).getContentType());
+        assertEquals("first", new String(entries.get(0).getBody(), "UTF-8"));
+        assertNull(entries.get(1).getContentType());
+        assertEquals("second", new String(entries.get(1).getBody(), "UTF-8"));
+        assertEquals(1, mJournal.read(1).size());
+    }
+
+    @Test
+    public void open_truncatesIncompleteEntry() throws Exception {
+
+        mJournal.append(URL, null, "first".getBytes("UTF-8"));
+        mJournal.append(URL, null, "second".getBytes("UTF-8"));
+        long fileSize = mJournal.getFileSize();
+        mJournal.close();
+
+        /* Write a torn entry at the end. */
+        RandomAccessFile file = new RandomAccessFile(mJournalFile, "rw");
+        file.seek(fileSize);
+        file.writeInt(100);
+        file.writeInt(0);
+        file.write(new byte[10]);
+        file.close();
+
+        mJournal = new ResultJournal(mDir);
+        assertEquals(2, mJournal.size());
+        assertEquals(fileSize, mJournal.getFileSize());
+        assertEquals(fileSize, mJournalFile.length());
+
+        /* The next entry follows the last complete entry. */
+        mJournal.append(URL, null, "third".getBytes("UTF-8"));
+        reopen();
+        assertEquals(3, mJournal.read(10).size());
+    }
+
+    @Test
+    public void open_discardsEntryWithBadCrc() throws Exception {
+
+        mJournal.append(URL, null, "first".getBytes("UTF-8"));
+        long firstEnd = mJournal.getFileSize();
+        mJournal.append(URL, null, "second".getBytes("UTF-8"));
+        long fileSize = mJournal.getFileSize();
+        mJournal.close();
+
+        /* Flip the last byte of the second body. */
+        RandomAccessFile file = new RandomAccessFile(mJournalFile, "rw");
+        file.seek(fileSize - 1);
+        int b = file.read();
+        file.seek(fileSize - 1);
+        file.write(b ^ 0x01);
+        file.close();
+
+        mJournal = new ResultJournal(mDir);
+        assertEquals(1, mJournal.size());
+        assertEquals(firstEnd, mJournal.getFileSize());
+        assertEquals("first", new String(mJournal.read(10).get(0).getBody(), "UTF-8"));
+    }
+
+    @Test
+    public void acknowledge_survivesReopenAndStartsNextGeneration() throws Exception {
+
+        for (int i = 0; i < 3; i++) {
+            mJournal.append(URL, null, ("entry" + i).getBytes("UTF-8"));
+        }
+
+        List<ResultJournal.Entry> entries = mJournal.read(10);
+        mJournal.acknowledge(entries.get(0));
+        assertEquals(2, mJournal.size());
+
+        /* Acknowledging the same entry again has no effect. */
+        mJournal.acknowledge(entries.get(0));
+        reopen();
+        assertEquals(2, mJournal.size());
+        assertEquals("entry1", new String(mJournal.read(10).get(0).getBody(), "UTF-8"));
+
+        /* The journal is truncated when all entries are acknowledged. */
+        entries = mJournal.read(10);
+        mJournal.acknowledge(entries.get(1));
+        assertEquals(0, mJournal.size());
+        assertEquals(12, mJournal.getFileSize());
+
+        /* The acknowledged offset of the previous generation is not applied. */
+        mJournal.append(URL, null, "entry3".getBytes("UTF-8"));
+        reopen();
+        assertEquals(1, mJournal.size());
+        assertEquals("entry3", new String(mJournal.read(10).get(0).getBody(), "UTF-8"));
+    }
+
+    @Test
+    public void compact_ignoresStaleAcknowledgedOffset() throws Exception {
+
+        for (int i = 0; i < 3; i++) {
+            mJournal.append(URL, null, ("entry" + i).getBytes("UTF-8"));
+        }
+
+        mJournal.acknowledge(mJournal.read(1).get(0));
+        long fileSize = mJournal.getFileSize();
+        File ackFile = new File(mDir, "results.ack");
+        byte[] staleAck = readFile(ackFile);
+
+        mJournal.compact();
+        assertEquals(2, mJournal.size());
+        assertTrue(mJournal.getFileSize() < fileSize);
+
+        /* A crash before the new acknowledged offset is written leaves the old one. */
+        mJournal.close();
+        FileOutputStream out = new FileOutputStream(ackFile);
+        out.write(staleAck);
+        out.close();
+
+        mJournal = new ResultJournal(mDir);
+        List<ResultJournal.Entry> entries = mJournal.read(10);
+        assertEquals(2, entries.size());
+        assertEquals("entry1", new String(entries.get(0).getBody(), "UTF-8"));
+        assertEquals("entry2", new String(entries.get(1).getBody(), "UTF-8"));
+    }
+
+    private void reopen() throws IOException {
+
+        mJournal.close();
+        mJournal = new ResultJournal(mDir);
+        mJournal.setSyncEnabled(false);
+    }
+
+    private static byte[] readFile(File file) throws IOException {
+
+        byte[] data = new byte[(int) file.length()];
+        FileInputStream in = new FileInputStream(file);
+        try {
+            int offset = 0;
+            while (offset < data.length) {
+                offset += in.read(data, offset, data.length - offset);
+            }
+        } finally {
+            in.close();
+        }
+
+        return data;
+    }
+}
@@ -0,0 +1,116 @@
+package com.acs.pidcore;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit test of {@link ResultUploader} against an HTTP stand-in running on the loopback
+ * interface.
+ */
+public class ResultUploaderTest {
+
+    private HttpStandIn mServer;
+    private ResultUploader mUploader;
+    private String mUrl;
+
+    @Before
+    public void setUp() throws Exception {
+
+        mServer = new HttpStandIn();
+        mUrl = mServer.getUrl();
+
+        mUploader = new ResultUploader();
+        mUploader.setConnectTimeout(2000);
+        mUploader.setReadTimeout(2000);
+        mUploader.setRetryDelay(10);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+
+        mUploader.shutdown();
+        mServer.close();
+    }
+
+    @Test
+    public void upload_postsFormData() throws Exception {
+
+        mServer.addStatusCodes(200);
+        int responseCode = mUploader.upload(mUrl, ResultUploader.formEncode("data", "a b;c"),
+                ResultUploader.CONTENT_TYPE_FORM, null).get(5, TimeUnit.SECONDS);
+
+        assertEquals(200, responseCode);
+        assertEquals(1, mServer.getBodies().size());
+        assertEquals("data=a+b%3Bc", mServer.getBodies().get(0));
+    }
+
+    @Test
+    public void post_reusesConnection() throws Exception {
+
+        mServer.addStatusCodes(200, 200, 200);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(200, mUploader.post(mUrl, new byte[]{'x'}, null));
+        }
+
+        assertEquals(3, mServer.getBodies().size());
+        assertEquals(1, mServer.getConnectionCount());
+    }
+
+    @Test
+    public void post_retriesServerError() throws Exception {
+
+        mServer.addStatusCodes(503, 200);
+        mUploader.setMaxRetries(1);
+
+        assertEquals(200, mUploader.post(mUrl, new byte[]{'x'}, null));
+        assertEquals(2, mServer.getBodies().size());
+    }
+
+    @Test
+    public void post_retriesRedirectTimeoutAndTooManyRequests() throws Exception {
+
+        mServer.addStatusCodes(301, 408, 429, 204);
+        mUploader.setMaxRetries(3);
+
+        assertEquals(204, mUploader.post(mUrl, new byte[]{'x'}, null));
+        assertEquals(4, mServer.getBodies().size());
+
+        /* The redirect is not a success after all retries. */
+        mServer.addStatusCodes(302, 302);
+        mUploader.setMaxRetries(1);
+        try {
+            mUploader.post(mUrl, new byte[]{'x'}, null);
+            fail("HttpException expected");
+        } catch (ResultUploader.HttpException e) {
+
+            assertEquals(302, e.getResponseCode());
+            assertFalse(e.isClientError());
+        }
+    }
+
+    @Test
+    public void post_doesNotRetryClientError() throws Exception {
+
+        mServer.addStatusCodes(404, 200);
+        mUploader.setMaxRetries(3);
+
+        try {
+            mUploader.post(mUrl, new byte[]{'x'}, null);
+            fail("HttpException expected");
+        } catch (ResultUploader.HttpException e) {
+
+            assertEquals("HTTP 404", e.getMessage());
+            assertTrue(e.isClientError());
+        }
+
+        assertEquals(1, mServer.getBodies().size());
+        assertFalse(new ResultUploader.HttpException(408).isClientError());
+        assertFalse(new ResultUploader.HttpException(429).isClientError());
+        assertFalse(new ResultUploader.HttpException(500).isClientError());
+    }
+}
@@ -0,0 +1,149 @@
+package com.acs.pidcore;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import javax.smartcardio.Card;
+import javax.smartcardio.CardChannel;
+import javax.smartcardio.CardException;
+import javax.smartcardio.CardTerminal;
+import javax.smartcardio.CardTerminals;
+import javax.smartcardio.CommandAPDU;
+import javax.smartcardio.TerminalFactory;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit test of {@link SimulatedTerminalProvider} replaying a recorded session.
+ */
+public class SimulatedTerminalProviderTest {
+
+    private static final String RECORDING = "; atr=3B 67 00 00 A1 00 00 90 00\n"
+            + "00 A4 04 00 08 A0 00 00 00 54 48 00 01\n"
+            + "61 0A\n"
+            + "80 B0 00 04 02 00 0D\n"
+            + "61 0D\n"
+            + "00 C0 00 00 0D\n"
+            + "31 32 33 34 35 36 37 38 39 30 31 32 33 90 00\n"
+            + "80 B0 00 D9 02 00 08\n"
+            + "61 08\n"
+            + "00 C0 00 00 0D\n"
+            + "32 35 31 30 30 31 30 31 90 00\n";
+
+    private SimulatedTerminalProvider.Parameters mParameters;
+
+    @Before
+    public void setUp() throws Exception {
+
+        mParameters = new SimulatedTerminalProvider.Parameters(
+                ApduRecording.load(new BufferedReader(new StringReader(RECORDING))));
+        mParameters.setSeed(1);
+    }
+
+    @Test
+    public void transmit_replaysRecordedResponses() throws Exception {
+
+        CardTerminal terminal = getTerminals().list().get(0);
+        Card card = terminal.connect("*");
+        CardChannel channel = card.getBasicChannel();
+
+        assertArrayEquals(Hex.toByteArray("3B 67 00 00 A1 00 00 90 00"), card.getATR().getBytes());
+        assertEquals(0x610A, transmit(channel, "00 A4 04 00 08 A0 00 00 00 54 48 00 01"));
+        assertEquals(0x610D, transmit(channel, "80 B0 00 04 02 00 0D"));
+        assertEquals("31 32 33 34 35 36 37 38 39 30 31 32 33 90 00",
+                Hex.toHexString(channel.transmit(
+                        new CommandAPDU(Hex.toByteArray("00 C0 00 00 0D"))).getBytes()));
+
+        /* The same command is replayed in the recorded order. */
+        ByteBuffer response = ByteBuffer.allocate(258);
+        assertEquals(0x6108, transmit(channel, "80 B0 00 D9 02 00 08"));
+        assertEquals(10, channel.transmit(
+                ByteBuffer.wrap(Hex.toByteArray("00 C0 00 00 0D")), response));
+        assertEquals((byte) 0x32, response.get(0));
+
+        /* The unknown command is rejected. */
+        assertEquals(0x6D00, transmit(channel, "00 B0 00 00 01"));
+    }
+
+    @Test
+    public void transmit_failsAfterCardRemoved() throws Exception {
+
+        SimulatedCardTerminal terminal = (SimulatedCardTerminal) getTerminals().list().get(0);
+        CardChannel channel = terminal.connect("T=1").getBasicChannel();
+
+        terminal.removeCard();
+        assertFalse(terminal.isCardPresent());
+        try {
+            transmit(channel, "00 A4 04 00 08 A0 00 00 00 54 48 00 01");
+            fail("CardException expected");
+        } catch (CardException e) {
+            /* Expected. */
+        }
+
+        /* The card inserted again needs a new connection. */
+        terminal.insertCard();
+        try {
+            transmit(channel, "00 A4 04 00 08 A0 00 00 00 54 48 00 01");
+            fail("CardException expected");
+        } catch (CardException e) {
+            /* Expected. */
+        }
+
+        channel = terminal.connect("T=1").getBasicChannel();
+        assertEquals(0x610A, transmit(channel, "00 A4 04 00 08 A0 00 00 00 54 48 00 01"));
+    }
+
+    @Test
+    public void transmit_injectsFailuresAndLatency() throws Exception {
+
+        mParameters.setTransmitFailureRate(1);
+        mParameters.setLatency(20, 10);
+        CardChannel channel = getTerminals().list().get(0).connect("*").getBasicChannel();
+
+        long startTime = System.nanoTime();
+        try {
+            transmit(channel, "00 A4 04 00 08 A0 00 00 00 54 48 00 01");
+            fail("CardException expected");
+        } catch (CardException e) {
+            /* Expected. */
+        }
+
+        assertTrue(System.nanoTime() - startTime >= 20000000L);
+    }
+
+    @Test
+    public void waitForChange_reportsInsertionAndRemoval() throws Exception {
+
+        mParameters.setTerminalCount(2);
+        mParameters.setCardPresent(false);
+        CardTerminals terminals = getTerminals();
+        List<CardTerminal> list = terminals.list();
+        assertEquals(2, list.size());
+        assertFalse(terminals.waitForChange(10));
+
+        ((SimulatedCardTerminal) list.get(1)).insertCard();
+        assertTrue(terminals.waitForChange(10));
+        assertEquals(list.subList(1, 2), terminals.list(CardTerminals.State.CARD_INSERTION));
+        assertTrue(terminals.list(CardTerminals.State.CARD_REMOVAL).isEmpty());
+        assertEquals(list.subList(0, 1), terminals.list(CardTerminals.State.CARD_ABSENT));
+
+        ((SimulatedCardTerminal) list.get(1)).removeCard();
+        assertTrue(list.get(1).waitForCardAbsent(10));
+        assertTrue(terminals.waitForChange(10));
+        assertEquals(list.subList(1, 2), terminals.list(CardTerminals.State.CARD_REMOVAL));
+    }
+
+    private CardTerminals getTerminals() throws Exception {
+        return TerminalFactory.getInstance(SimulatedTerminalProvider.TYPE, mParameters,
+                new SimulatedTerminalProvider()).terminals();
+    }
+
+    private static int transmit(CardChannel channel, String command) throws CardException {
+        return channel.transmit(new CommandAPDU(Hex.toByteArray(command))).getSW();
+    }
+}
@@ -0,0 +1,114 @@
+package com.acs.pidcore;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.EnumSet;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit test of {@link ThaiIdCardReader}.
+ */
+public class ThaiIdCardReaderTest {
+
+    private static final String SCRIPT = "00 A4 04 00 08 A0 00 00 00 54 48 00 01\n"
+            + "61 0A\n"
+            + "80 B0 01 7B 02 00 04\n"
+            + "61 04\n"
+            + "00 C0 00 00 04\n"
+            + "XX XX XX XX 90 00\n"
+            + "80 B0 01 7F 02 00 04\n"
+            + "XX XX XX XX 90 00\n"
+            + "80 B0 01 83 02 00 04\n"
+            + "61 04\n"
+            + "00 C0 00 00 04\n"
+            + "XX XX XX XX 90 00\n"
+            + "80 B0 00 04 02 00 0D\n"
+            + "61 0D\n";
+
+    private static final String FIELDS_SCRIPT = "00 A4 04 00 08 A0 00 00 00 54 48 00 01\n"
+            + "61 0A\n"
+            + "80 B0 00 04 02 00 0D\n"
+            + "61 0D\n"
+            + "00 C0 00 00 0D\n"
+            + "XX XX XX XX XX XX XX XX XX XX XX XX XX 90 00\n"
+            + "80 B0 00 75 02 00 64\n"
+            + "61 64\n"
+            + "00 C0 00 00 64\n"
+            + "XX 90 00\n"
+            + "80 B0 00 D9 02 00 08\n"
+            + "61 08\n"
+            + "00 C0 00 00 08\n"
+            + "XX XX XX XX XX XX XX XX 90 00\n";
+
+    @Test
+    public void getSkippedCommands_keepsFieldPositions() throws Exception {
+
+        CompiledScript script = CompiledScript.compile(
+                new BufferedReader(new StringReader(FIELDS_SCRIPT)));
+        EnumSet<PersonalIdField> fields = EnumSet.allOf(PersonalIdField.class);
+        fields.remove(PersonalIdField.ENGLISH_NAME);
+
+        boolean[] skipped = ThaiIdCardReader.getSkippedCommands(script, fields);
+        assertEquals("[false, false, false, true, true, false, false]",
+                Arrays.toString(skipped));
+
+        CompiledScript selected = ThaiIdCardReader.selectFields(script, fields);
+        assertEquals(5, selected.getCommandCount());
+        assertEquals("80 B0 00 D9 02 00 08", Hex.toHexString(selected.getCommand(3).getBytes()));
+
+        /* Fill the skipped commands with empty fields as the script runner does. */
+        ResultAccumulator data = new ResultAccumulator();
+        int selectedIndex = 0;
+        for (int i = 0; i < skipped.length; i++) {
+            if (skipped[i]) {
+                data.appendField(new byte[0], 0, 0);
+            } else {
+
+                byte[] command = selected.getCommand(selectedIndex++).getBytes();
+                data.appendField(command, 0, 1);
+            }
+        }
+
+        assertEquals(script.getCommandCount(), data.getFieldCount());
+        assertEquals(selected.getCommandCount(), selectedIndex);
+
+        /* All fields selected. */
+        assertSame(script, ThaiIdCardReader.selectFields(script,
+                EnumSet.allOf(PersonalIdField.class)));
+        for (boolean commandSkipped : ThaiIdCardReader.getSkippedCommands(script,
+                EnumSet.allOf(PersonalIdField.class))) {
+            assertFalse(commandSkipped);
+        }
+    }
+
+    @Test
+    public void toPhotoResponses_splitsPhotoByCommand() throws Exception {
+
+        CompiledScript script = CompiledScript.compile(
+                new BufferedReader(new StringReader(SCRIPT)));
+        byte[] photo = Hex.toByteArray("FF D8 01 02 03 04 FF D9 00 00 00 00");
+
+        assertFalse(ThaiIdCardReader.isPhotoCommand(script.getCommand(0).getBytes()));
+        assertTrue(ThaiIdCardReader.isPhotoCommand(script.getCommand(1).getBytes()));
+
+        byte[][] responses = ThaiIdCardReader.toPhotoResponses(script, 1, photo, 6);
+        assertEquals(5, responses.length);
+        assertEquals("61 04", Hex.toHexString(responses[0]));
+        assertEquals("FF D8 01 02 90 00", Hex.toHexString(responses[1]));
+        assertEquals("03 04 90 00", Hex.toHexString(responses[2]));
+        assertEquals("61 04", Hex.toHexString(responses[3]));
+        assertEquals("90 00", Hex.toHexString(responses[4]));
+
+        /* The decoder assembles the photo from the responses. */
+        PersonalIdDecoder decoder = new PersonalIdDecoder();
+        for (int i = 0; i < responses.length; i++) {
+            decoder.decode(script.getCommand(i + 1).getBytes(), responses[i]);
+        }
+
+        assertEquals("FF D8 01 02 03 04", Hex.toHexString(decoder.getRecord().getPhoto()));
+    }
+}
@@ -0,0 +1,279 @@
+package com.acs.pidcore;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.smartcardio.Card;
+import javax.smartcardio.CardChannel;
+import javax.smartcardio.CardException;
+import javax.smartcardio.CommandAPDU;
+import javax.smartcardio.ResponseAPDU;
+import javax.smartcardio.TerminalFactory;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit test of {@link ThaiIdPhotoReader} reading the photo from a simulated card.
+ */
+public class ThaiIdPhotoReaderTest {
+
+    private static final int PHOTO_LENGTH = PersonalIdField.PHOTO.getLength();
+
+    @Test
+    public void read_usesGetResponseAndSkipsMarkersInSegments() throws Exception {
+
+        byte[] jpeg = newJpeg(600);
+        CountingChannel channel = connect(jpeg, true, 0);
+        ThaiIdPhotoReader reader = new ThaiIdPhotoReader(channel);
+        final List<String> commands = new ArrayList<>();
+        reader.setOnCommandListener(new ThaiIdPhotoReader.OnCommandListener() {
+
+            @Override
+            public void onCommand(byte[] command, int bytesReceived, long nanos) {
+
+                assertTrue(nanos >= 0);
+                commands.add(Hex.toHexString(command, 0, 2) + " " + bytesReceived);
+            }
+        });
+
+        assertEquals(600, reader.read());
+        assertArrayEquals(jpeg, reader.getPhoto());
+
+        /* 3 chunks of READ BINARY and GET RESPONSE. */
+        assertEquals(6, channel.getCount());
+        assertEquals("[80 B0 2, 00 C0 257, 80 B0 2, 00 C0 257, 80 B0 2, 00 C0 257]",
+                commands.toString());
+    }
+
+    @Test
+    public void read_findsEndOfImageSplitAcrossChunks() throws Exception {
+
+        byte[] jpeg = newJpeg(ThaiIdPhotoReader.CHUNK_SIZE + 1);
+        CountingChannel channel = connect(jpeg, false, 0);
+        ThaiIdPhotoReader reader = new ThaiIdPhotoReader(channel);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(jpeg.length, reader.readTo(out));
+        assertArrayEquals(jpeg, out.toByteArray());
+        assertEquals(2, channel.getCount());
+    }
+
+    @Test
+    public void read_readsWholeFieldIfNotJpeg() throws Exception {
+
+        byte[] photo = new byte[PHOTO_LENGTH];
+        Arrays.fill(photo, (byte) 0xFF);
+        photo[1] = (byte) 0xD9;
+        CountingChannel channel = connect(photo, false, 0);
+        ThaiIdPhotoReader reader = new ThaiIdPhotoReader(channel);
+
+        assertEquals(PHOTO_LENGTH, reader.read());
+        assertEquals(PHOTO_LENGTH / ThaiIdPhotoReader.CHUNK_SIZE, channel.getCount());
+    }
+
+    @Test
+    public void getInputStream_blocksUntilChunkIsRead() throws Exception {
+
+        byte[] jpeg = newJpeg(1000);
+        final ThaiIdPhotoReader reader = new ThaiIdPhotoReader(connect(jpeg, true, 20));
+        final AtomicInteger lengthAtFirstByte = new AtomicInteger(-1);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        Thread consumer = new Thread(new Runnable() {
+
+            @Override
+            public void run() {
+
+                try {
+
+                    InputStream inputStream = reader.getInputStream();
+                    out.write(inputStream.read());
+                    lengthAtFirstByte.set(reader.getLength());
+
+                    byte[] buffer = new byte[100];
+                    int count;
+                    while ((count = inputStream.read(buffer, 0, buffer.length)) >= 0) {
+                        out.write(buffer, 0, count);
+                    }
+
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }
+        });
+        consumer.start();
+
+        assertEquals(jpeg.length, reader.read());
+        consumer.join(5000);
+
+        assertFalse(consumer.isAlive());
+        assertTrue(lengthAtFirstByte.get() > 0);
+        assertTrue(lengthAtFirstByte.get() < jpeg.length);
+        assertArrayEquals(jpeg, out.toByteArray());
+    }
+
+    @Test
+    public void getInputStream_failsIfReaderFails() throws Exception {
+
+        /* The card returns the data of the first chunk only. */
+        byte[] jpeg = newJpeg(600);
+        byte[] response = Arrays.copyOf(jpeg, ThaiIdPhotoReader.CHUNK_SIZE + 2);
+        response[ThaiIdPhotoReader.CHUNK_SIZE] = (byte) 0x90;
+        response[ThaiIdPhotoReader.CHUNK_SIZE + 1] = 0x00;
+        ApduRecording recording = new ApduRecording();
+        recording.add(getReadBinary(0), response);
+        ThaiIdPhotoReader reader = new ThaiIdPhotoReader(connect(recording, 0));
+
+        try {
+            reader.read();
+            fail("CardException expected");
+        } catch (CardException e) {
+            /* Expected. */
+        }
+
+        InputStream inputStream = reader.getInputStream();
+        assertEquals(ThaiIdPhotoReader.CHUNK_SIZE,
+                inputStream.read(new byte[1000], 0, 1000));
+        try {
+            inputStream.read();
+            fail("IOException expected");
+        } catch (IOException e) {
+            /* Expected. */
+        }
+    }
+
+    /**
+     * Returns a JPEG image of the length.  The APP1 segment contains a thumbnail and the comment
+     * contains an end-of-image marker.  The image data contains the stuffed bytes and a restart
+     * marker.
+     */
+    private static byte[] newJpeg(int length) {
+
+        byte[] header = Hex.toByteArray("FF D8"
+                + " FF E1 00 0C 45 78 69 66 00 00 FF D8 FF D9"
+                + " FF FE 00 06 41 FF D9 42"
+                + " FF DB 00 04 00 01"
+                + " FF DA 00 04 01 00"
+                + " 11 FF 00 22 FF D0 33");
+
+        byte[] jpeg = new byte[length];
+        System.arraycopy(header, 0, jpeg, 0, header.length);
+        for (int i = header.length; i < length - 2; i++) {
+            jpeg[i] = (byte) (i % 0x7F);
+        }
+
+        jpeg[length - 2] = (byte) 0xFF;
+        jpeg[length - 1] = (byte) 0xD9;
+
+        return jpeg;
+    }
+
+    /**
+     * Connects to the simulated card storing the photo.
+     */
+    private static CountingChannel connect(byte[] photo, boolean getResponse, long latency)
+            throws Exception {
+
+        byte[] field = Arrays.copyOf(photo, PHOTO_LENGTH);
+        ApduRecording recording = new ApduRecording();
+        for (int offset = 0; offset < PHOTO_LENGTH; offset += ThaiIdPhotoReader.CHUNK_SIZE) {
+
+            byte[] response = Arrays.copyOfRange(field, offset,
+                    offset + ThaiIdPhotoReader.CHUNK_SIZE + 2);
+            response[response.length - 2] = (byte) 0x90;
+            response[response.length - 1] = 0x00;
+
+            if (getResponse) {
+
+                recording.add(getReadBinary(offset), Hex.toByteArray("61 FF"));
+                recording.add(Hex.toByteArray("00 C0 00 00 FF"), response);
+
+            } else {
+
+                recording.add(getReadBinary(offset), response);
+            }
+        }
+
+        return connect(recording, latency);
+    }
+
+    /**
+     * Connects to the simulated card replaying the recording.
+     */
+    private static CountingChannel connect(ApduRecording recording, long latency)
+            throws Exception {
+
+        SimulatedTerminalProvider.Parameters parameters =
+                new SimulatedTerminalProvider.Parameters(recording);
+        parameters.setLatency(latency, 0);
+        parameters.setSeed(1);
+
+        return new CountingChannel(TerminalFactory.getInstance(SimulatedTerminalProvider.TYPE,
+                parameters, new SimulatedTerminalProvider()).terminals().list().get(0)
+                .connect("*").getBasicChannel());
+    }
+
+    /**
+     * Returns the READ BINARY command of the photo chunk.
+     */
+    private static byte[] getReadBinary(int photoOffset) {
+
+        int offset = PersonalIdField.PHOTO.getOffset() + photoOffset;
+        return new byte[]{(byte) 0x80, (byte) 0xB0, (byte) (offset >> 8), (byte) offset, 0x02,
+                0x00, (byte) ThaiIdPhotoReader.CHUNK_SIZE};
+    }
+
+    /**
+     * The {@code CountingChannel} class counts the commands sent to the card.
+     */
+    private static class CountingChannel extends CardChannel {
+
+        private final CardChannel mChannel;
+        private final AtomicInteger mCount = new AtomicInteger();
+
+        CountingChannel(CardChannel channel) {
+            mChannel = channel;
+        }
+
+        int getCount() {
+            return mCount.get();
+        }
+
+        @Override
+        public Card getCard() {
+            return mChannel.getCard();
+        }
+
+        @Override
+        public int getChannelNumber() {
+            return mChannel.getChannelNumber();
+        }
+
+        @Override
+        public ResponseAPDU transmit(CommandAPDU command) throws CardException {
+
+            mCount.incrementAndGet();
+            return mChannel.transmit(command);
+        }
+
+        @Override
+        public int transmit(ByteBuffer command, ByteBuffer response) throws CardException {
+
+            mCount.incrementAndGet();
+            return mChannel.transmit(command, response);
+        }
+
+        @Override
+        public void close() throws CardException {
+            mChannel.close();
+        }
+    }
+}